@@ -2,9 +2,11 @@ package com.jc.healthcare;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Add scanBasePackages to include all your custom packages
 @SpringBootApplication(scanBasePackages = {"com.jc.healthcare.controller", "com.jc.healthcare.service", "com.jc.healthcare.model", "com.jc.healthcare.repository"})
+@EnableScheduling
 public class HealthcareApplication {
 
 	public static void main(String[] args) {
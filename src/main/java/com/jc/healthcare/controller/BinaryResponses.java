@@ -0,0 +1,61 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.dto.StoredFile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+// Download responses for BinaryStore files. The body is a Resource, so Spring MVC streams it from
+// disk and answers Range requests with 206 / ResourceRegion; the content hash is the ETag, so a
+// matching If-None-Match gets 304 without a body.
+final class BinaryResponses {
+
+    private BinaryResponses() {
+    }
+
+    static ResponseEntity<Resource> inline(StoredFile file, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(file.getHash())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(mediaTypeOf(file.getContentType()))
+                .body(file.getContent());
+    }
+
+    static ResponseEntity<Resource> download(StoredFile file, CacheControl cacheControl) {
+        ContentDisposition disposition = ContentDisposition.inline()
+                .filename(file.getFileName() != null ? file.getFileName() : file.getHash(), StandardCharsets.UTF_8)
+                .build();
+        return ResponseEntity.ok()
+                .eTag(file.getHash())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .contentType(mediaTypeOf(file.getContentType()))
+                .body(file.getContent());
+    }
+
+    static boolean etagMatches(String ifNoneMatch, String hash) {
+        if (ifNoneMatch == null || hash == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals("*")) return true;
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("\"" + hash + "\"")) return true;
+        }
+        return false;
+    }
+
+    private static MediaType mediaTypeOf(String contentType) {
+        try {
+            return contentType == null ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.service.BinaryMigrationService;
+import com.jc.healthcare.service.ThumbnailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// BLOB → BinaryStore migration (see db/009_binary_store.sql) and thumbnail pipeline metrics
+@RestController
+@RequestMapping("/api/binaries")
+@CrossOrigin(origins = "*")
+public class BinaryStoreController {
+
+    @Autowired
+    private BinaryMigrationService binaryMigrationService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @PostMapping("/migrate")
+    public ResponseEntity<Map<String, Object>> runMigration() {
+        Map<String, Object> response = new HashMap<>();
+        boolean started = binaryMigrationService.runInBackground();
+        response.put("success", started);
+        response.put("message", started ? "Binary migration started" : "A binary migration is already in progress");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getMigrationStats() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("success", true);
+            response.put("data", binaryMigrationService.getStats());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error reading migration stats: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // queue depth, workers and enqueue-to-done latency
+    @GetMapping("/thumbnails/stats")
+    public ResponseEntity<Map<String, Object>> getThumbnailStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", thumbnailService.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
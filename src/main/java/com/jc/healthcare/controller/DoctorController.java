@@ -1,17 +1,29 @@
 package com.jc.healthcare.controller;
 
+import com.jc.healthcare.dto.ApiResponse;
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.dto.ImportReport;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.service.DirectoryImportService;
+import com.jc.healthcare.service.DoctorImageService;
 import com.jc.healthcare.service.DoctorService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/doctors")
@@ -21,103 +33,70 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
 
-    @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllDoctors() {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            List<Map<String, Object>> doctorsList = doctorService.getAllDoctors().stream().map(doctor -> {
-                Map<String, Object> d = new HashMap<>();
-                d.put("doctorId", doctor.getDoctorId());
-                d.put("doctorName", doctor.getDoctorName());
-                d.put("specialization", doctor.getSpecialization());
-                d.put("phone", doctor.getPhone());
-                d.put("email", doctor.getEmail());
-                d.put("experience", doctor.getExperience());
-                d.put("status", doctor.getStatus());
-                d.put("address", doctor.getAddress());
-                d.put("dateOfBirth", doctor.getDateOfBirth());
-                d.put("gender", doctor.getGender());
-                d.put("city", doctor.getCity());
-                d.put("state", doctor.getState());
-                d.put("pinCode", doctor.getPinCode());
-                d.put("country", doctor.getCountry());
-                d.put("medicalLicenseNo", doctor.getMedicalLicenseNo());
-                d.put("role", doctor.getRole());
-                d.put("password", doctor.getPassword());
+    @Autowired
+    private DoctorImageService doctorImageService;
 
-                if (doctor.getImage() != null)
-                    d.put("image", java.util.Base64.getEncoder().encodeToString(doctor.getImage()));
-                else
-                    d.put("image", null);
+    @Autowired
+    private DirectoryImportService directoryImportService;
 
-                return d;
-            }).toList();
+    @Value("${doctor.image.max-age-seconds:86400}")
+    private long imageMaxAgeSeconds;
 
-            response.put("success", true);
-            response.put("data", doctorsList);
-            response.put("message", "Doctors retrieved successfully");
-            return ResponseEntity.ok(response);
+    // Directory list: profile columns only, photos come from imageUrl
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<DoctorProfile>>> getAllDoctors() {
+        try {
+            List<DoctorProfile> doctorsList = doctorService.getDoctorProfiles();
+            return ResponseEntity.ok(ApiResponse.ok(doctorsList, "Doctors retrieved successfully"));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error retrieving doctors: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving doctors: " + e.getMessage()));
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getDoctorById(@PathVariable Long id) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<DoctorProfile>> getDoctorById(@PathVariable Long id) {
         try {
-            Doctor doctor = doctorService.getDoctorById(id)
+            DoctorProfile doctor = doctorService.getDoctorProfile(id)
                     .orElseThrow(() -> new RuntimeException("Doctor not found with ID: " + id));
+            return ResponseEntity.ok(ApiResponse.ok(doctor, "Doctor retrieved successfully"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving doctor: " + e.getMessage()));
+        }
+    }
 
-            // ✅ Convert image (byte[]) → Base64 string
-            String base64Image = null;
-            if (doctor.getImage() != null) {
-                base64Image = java.util.Base64.getEncoder().encodeToString(doctor.getImage());
+    // 🖼️ Photo from the BinaryStore (Range-capable); ETag is the image hash, so revalidation never opens the file.
+    // ?size=64 serves the nearest thumbnail, or the original until it has been generated.
+    @GetMapping("/{id}/image")
+    public ResponseEntity<Resource> getDoctorImage(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(imageMaxAgeSeconds)).mustRevalidate();
+
+        if (ifNoneMatch != null) {
+            Optional<String> etag = doctorImageService.getImageEtag(id, size);
+            if (etag.isPresent() && BinaryResponses.etagMatches(ifNoneMatch, etag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag.get())
+                        .cacheControl(cacheControl)
+                        .build();
             }
+        }
 
-            // ✅ Build a response map (manual)
-            Map<String, Object> doctorData = new HashMap<>();
-            doctorData.put("doctorId", doctor.getDoctorId());
-            doctorData.put("doctorName", doctor.getDoctorName());
-            doctorData.put("specialization", doctor.getSpecialization());
-            doctorData.put("phone", doctor.getPhone());
-            doctorData.put("email", doctor.getEmail());
-            doctorData.put("experience", doctor.getExperience());
-            doctorData.put("status", doctor.getStatus());
-            doctorData.put("address", doctor.getAddress());
-            doctorData.put("dateOfBirth", doctor.getDateOfBirth());
-            doctorData.put("gender", doctor.getGender());
-            doctorData.put("city", doctor.getCity());
-            doctorData.put("state", doctor.getState());
-            doctorData.put("pinCode", doctor.getPinCode());
-            doctorData.put("country", doctor.getCountry());
-            doctorData.put("medicalLicenseNo", doctor.getMedicalLicenseNo());
-            doctorData.put("role", doctor.getRole());
-            doctorData.put("password", doctor.getPassword());
-            doctorData.put("image", base64Image); // ✅ include Base64 image here
-
-            response.put("success", true);
-            response.put("data", doctorData);
-            response.put("message", "Doctor retrieved successfully");
-
-            return ResponseEntity.ok(response);
-
-        } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error retrieving doctor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        Optional<StoredFile> image = doctorImageService.getImage(id, size);
+        if (image.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        return BinaryResponses.inline(image.get(), cacheControl);
     }
 
 
     @PostMapping(consumes = {"multipart/form-data"})
-    public ResponseEntity<Map<String, Object>> createDoctor(
+    public ResponseEntity<ApiResponse<Doctor>> createDoctor(
             @RequestParam Long doctorId, // <--- take ID from frontend
             @RequestParam String doctorName,
             @RequestParam String email,
@@ -133,7 +112,6 @@ public class DoctorController {
             @RequestParam String medicalLicenseNo,
             @RequestParam(required = false) MultipartFile imageFile
     ) {
-        Map<String, Object> response = new HashMap<>();
         try {
             Doctor doctor = new Doctor();
 
@@ -159,20 +137,31 @@ public class DoctorController {
             }
 
             Doctor savedDoctor = doctorService.createDoctor(doctor);
-            response.put("success", true);
-            response.put("data", savedDoctor);
-            response.put("message", "Doctor created successfully");
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.ok(savedDoctor, "Doctor created successfully"));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error creating doctor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error creating doctor: " + e.getMessage()));
         }
     }
 
 
+    // 📥 Branch onboarding: CSV of doctors, photos optionally in a zip (see DirectoryImportService)
+    @PostMapping(value = "/import", consumes = {"multipart/form-data"})
+    public ResponseEntity<ApiResponse<ImportReport>> importDoctors(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "images", required = false) MultipartFile images) {
+        try {
+            ImportReport report = directoryImportService.importDoctors(file, images);
+            return ResponseEntity.ok(ApiResponse.ok(report, "Doctor import finished"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error importing doctors: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateDoctor(
+    public ResponseEntity<ApiResponse<Doctor>> updateDoctor(
             @PathVariable Long id,
             @RequestParam String doctorName,
             @RequestParam String email,
@@ -189,7 +178,6 @@ public class DoctorController {
             @RequestParam String medicalLicenseNo,
             @RequestParam(required = false) MultipartFile imageFile
     ) {
-        Map<String, Object> response = new HashMap<>();
         try {
             Doctor doctor = new Doctor();
             
@@ -212,123 +200,89 @@ public class DoctorController {
             }
 
             Doctor updatedDoctor = doctorService.updateDoctor(id, doctor);
-            response.put("success", true);
-            response.put("data", updatedDoctor);
-            response.put("message", "Doctor updated successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(updatedDoctor, "Doctor updated successfully"));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error updating doctor: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error updating doctor: " + e.getMessage()));
         }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deleteDoctor(@PathVariable Long id) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<Void>> deleteDoctor(@PathVariable Long id) {
         try {
             doctorService.deleteDoctor(id);
-            response.put("success", true);
-            response.put("message", "Doctor deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(null, "Doctor deleted successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         }
     }
 
     @GetMapping("/active")
-    public ResponseEntity<Map<String, Object>> getActiveDoctors() {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<List<DoctorProfile>>> getActiveDoctors() {
         try {
-            List<Doctor> doctors = doctorService.getActiveDoctors();
-            response.put("success", true);
-            response.put("data", doctors);
-            response.put("message", "Active doctors retrieved successfully");
-            return ResponseEntity.ok(response);
+            List<DoctorProfile> doctors = doctorService.getActiveDoctorProfiles();
+            return ResponseEntity.ok(ApiResponse.ok(doctors, "Active doctors retrieved successfully"));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error retrieving active doctors: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving active doctors: " + e.getMessage()));
         }
     }
 
     @GetMapping("/specialization/{specialization}")
-    public ResponseEntity<Map<String, Object>> getDoctorsBySpecialization(@PathVariable String specialization) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<List<DoctorProfile>>> getDoctorsBySpecialization(@PathVariable String specialization) {
         try {
-            List<Doctor> doctors = doctorService.getDoctorsBySpecialization(specialization);
-            response.put("success", true);
-            response.put("data", doctors);
-            response.put("message", "Doctors retrieved successfully");
-            return ResponseEntity.ok(response);
+            List<DoctorProfile> doctors = doctorService.getDoctorProfilesBySpecialization(specialization);
+            return ResponseEntity.ok(ApiResponse.ok(doctors, "Doctors retrieved successfully"));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error retrieving doctors: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving doctors: " + e.getMessage()));
         }
     }
 
     @PatchMapping("/{id}/status")
-    public ResponseEntity<Map<String, Object>> changeDoctorStatus(@PathVariable Long id, @RequestBody Map<String, String> statusMap) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<Doctor>> changeDoctorStatus(@PathVariable Long id, @RequestBody Map<String, String> statusMap) {
         try {
             String status = statusMap.get("status");
             Doctor updatedDoctor = doctorService.changeDoctorStatus(id, status);
-            response.put("success", true);
-            response.put("data", updatedDoctor);
-            response.put("message", "Doctor status updated successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(updatedDoctor, "Doctor status updated successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         }
     }
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", doctorService.getCacheStats());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/count")
     public long getDoctorCount() {
         return doctorService.Count();
     }
     @GetMapping("/email/{email}")
-    public ResponseEntity<Map<String, Object>> getDoctorByEmail(@PathVariable String email) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<DoctorProfile>> getDoctorByEmail(@PathVariable String email) {
         try {
-            Doctor doctor = doctorService.getDoctorByEmail(email)
+            DoctorProfile doctor = doctorService.getDoctorProfileByEmail(email)
                     .orElseThrow(() -> new RuntimeException("Doctor not found with email: " + email));
-            response.put("success", true);
-            response.put("data", doctor);
-            response.put("message", "Doctor retrieved successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(doctor, "Doctor retrieved successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         }
     }
     @PatchMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> partiallyUpdateDoctor(
+    public ResponseEntity<ApiResponse<Doctor>> partiallyUpdateDoctor(
             @PathVariable Long id,
             @RequestBody Map<String, Object> updates) {
-
-        Map<String, Object> response = new HashMap<>();
-
         try {
             Doctor updatedDoctor = doctorService.partiallyUpdateDoctor(id, updates);
-            response.put("success", true);
-            response.put("data", updatedDoctor);
-            response.put("message", "Doctor details updated successfully");
-            return ResponseEntity.ok(response);
-
+            return ResponseEntity.ok(ApiResponse.ok(updatedDoctor, "Doctor details updated successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error updating doctor details: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error updating doctor details: " + e.getMessage()));
         }
     }
 
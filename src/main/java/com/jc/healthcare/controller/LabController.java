@@ -1,15 +1,22 @@
 package com.jc.healthcare.controller;
 
+import com.jc.healthcare.dto.LabReportMeta;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.*;
 import com.jc.healthcare.service.LabService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/labs")
@@ -19,6 +26,9 @@ public class LabController {
     @Autowired
     private LabService labService;
 
+    @Value("${binary-store.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
     // ========== CATEGORY CRUD ==========
     @GetMapping("/categories")
     public List<LabCategory> getAllCategories() {
@@ -75,10 +85,21 @@ public class LabController {
     }
 
     @GetMapping("/reports/patient/{patientId}")
-    public List<LabReport> getReportsByPatient(@PathVariable Long patientId) {
+    public List<LabReportMeta> getReportsByPatient(@PathVariable Long patientId) {
         return labService.getReportsByPatient(patientId);
     }
 
+    // 📄 Report file from the BinaryStore; supports Range, ETag is the file hash
+    @GetMapping("/reports/{reportId}/file")
+    public ResponseEntity<Resource> getReportFile(@PathVariable Long reportId) {
+        Optional<StoredFile> file = labService.getReportFile(reportId);
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return BinaryResponses.download(file.get(),
+                CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate().mustRevalidate());
+    }
+
     @DeleteMapping("/reports/{reportId}")
     public ResponseEntity<String> deleteReport(@PathVariable Long reportId) {
         labService.deleteReport(reportId);
@@ -1,15 +1,42 @@
 package com.jc.healthcare.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.healthcare.dto.ApiResponse;
+import com.jc.healthcare.dto.BulkRowResult;
+import com.jc.healthcare.dto.CursorPage;
+import com.jc.healthcare.dto.PatientChart;
+import com.jc.healthcare.dto.PatientFilter;
+import com.jc.healthcare.dto.PatientSearchHit;
+import com.jc.healthcare.dto.PatientStatusBatchRequest;
+import com.jc.healthcare.dto.PatientSummary;
+import com.jc.healthcare.dto.PatientView;
+import com.jc.healthcare.exception.DuplicateValueException;
 import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.service.PatientBulkService;
+import com.jc.healthcare.service.PatientChartService;
+import com.jc.healthcare.service.PatientExportService;
 import com.jc.healthcare.service.PatientService;
+import com.jc.healthcare.service.PatientStatusStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/patient")
@@ -19,6 +46,21 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientExportService patientExportService;
+
+    @Autowired
+    private PatientStatusStream patientStatusStream;
+
+    @Autowired
+    private PatientBulkService patientBulkService;
+
+    @Autowired
+    private PatientChartService patientChartService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private String getToday() {
         return LocalDate.now().format(DateTimeFormatter.ofPattern("dd-MMM-yy")).toUpperCase();
     }
@@ -29,38 +71,20 @@ public class PatientController {
 
         Map<String, Object> response = new HashMap<>();
         try {
-
-            // Formatters
-            DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyy-MM-dd"); // From React
-            DateTimeFormatter outFmt = DateTimeFormatter.ofPattern("dd-MMM-yy", Locale.ENGLISH);
-
-            // --- Appointment Date ---
-            if (patient.getAppointmentDate() == null || patient.getAppointmentDate().isEmpty()) {
-                patient.setAppointmentDate(LocalDate.now().format(outFmt).toUpperCase());
-            } else {
-                LocalDate d = LocalDate.parse(patient.getAppointmentDate(), inFmt);
-                patient.setAppointmentDate(d.format(outFmt).toUpperCase());
-            }
-
-            // --- Appointment Time ---
-            if (patient.getAppointmentTime() == null || patient.getAppointmentTime().isEmpty()) {
-                patient.setAppointmentTime(java.time.LocalTime.now().toString());
-            }
-
-           
-            // Default Statuses
-            patient.setMedisionStatus("Pending");
-            patient.setDoctorStatus("Pending");
-            patient.setLabStatus("Pending");
-
-            // Save Patient
+            // Save Patient (date normalization + default statuses happen in the service)
             Patient saved = patientService.addPatient(patient);
 
             response.put("success", true);
             response.put("data", saved);
+            response.put("queue", patientService.getQueuePosition(saved));
             response.put("message", "Patient added successfully");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (DuplicateValueException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+
         } catch (Exception e) {
 
             if (e.getMessage().contains("ORA-00001")) {
@@ -82,190 +106,410 @@ public class PatientController {
     }
 
 
-    // 📋 Get All Patients
+    // ➕➕ Bulk registration: JSON array or NDJSON body, one result per row
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<Map<String, Object>> addPatientsBulk(HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try (MappingIterator<Patient> rows = objectMapper.readerFor(Patient.class).readValues(request.getInputStream())) {
+            List<BulkRowResult> results = patientBulkService.registerAll(rows);
+            long created = results.stream().filter(BulkRowResult::isSuccess).count();
+
+            response.put("success", true);
+            response.put("total", results.size());
+            response.put("created", created);
+            response.put("failed", results.size() - created);
+            response.put("data", results);
+            response.put("message", "Bulk registration finished");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error reading bulk request: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    // 📋 Get All Patients (capped; use /page for the full list)
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllPatients() {
+    public ResponseEntity<ApiResponse<List<PatientView>>> getAllPatients() {
+        try {
+            CursorPage<PatientView> patients = patientService.getAllPatients();
+            ApiResponse<List<PatientView>> response = ApiResponse.ok(patients.getItems(), "Patients retrieved successfully")
+                    .next(patients.getNext());
+            response.setTruncated(patients.getNext() != null);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving patients: " + e.getMessage()));
+        }
+    }
+
+    // 📄 Keyset-paged patient list (lightweight rows)
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<List<PatientSummary>>> getPatientPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            CursorPage<PatientSummary> page = patientService.getPatientPage(after, size);
+            return ResponseEntity.ok(ApiResponse.ok(page.getItems(), "Patients retrieved successfully")
+                    .count(page.getItems().size())
+                    .next(page.getNext()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving patients: " + e.getMessage()));
+        }
+    }
+
+    // 📤 Streaming export for analytics (NDJSON or CSV, optionally gzip-compressed)
+    @GetMapping("/export")
+    public void exportPatients(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(value = "fromDate", required = false) String fromDate,
+            @RequestParam(value = "toDate", required = false) String toDate,
+            @RequestParam(value = "doctorStatus", required = false) String doctorStatus,
+            @RequestParam(value = "labStatus", required = false) String labStatus,
+            @RequestParam(value = "medisionStatus", required = false) String medisionStatus,
+            HttpServletResponse response) throws IOException {
+
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "format must be ndjson or csv");
+            return;
+        }
+
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = fromDate == null || fromDate.isBlank() ? null : LocalDate.parse(fromDate.trim());
+            to = toDate == null || toDate.isBlank() ? null : LocalDate.parse(toDate.trim());
+        } catch (DateTimeParseException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "fromDate/toDate must be in format YYYY-MM-DD");
+            return;
+        }
+
+        String fileName = csv ? "patients.csv" : "patients.ndjson";
+        if (gzip) {
+            fileName += ".gz";
+            response.setContentType("application/gzip");
+        } else {
+            response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        patientExportService.exportPatients(from, to, doctorStatus, labStatus, medisionStatus, format, out);
+    }
+
+    // 🔍 Search by name / phone / Aadhar prefix (ranked)
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchPatients(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        Map<String, Object> response = new HashMap<>();
+        List<PatientSearchHit> hits = patientService.searchPatients(query, limit);
+        response.put("success", true);
+        response.put("count", hits.size());
+        response.put("data", hits);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        Map<String, Object> response = new HashMap<>();
+        boolean started = patientService.rebuildSearchIndex();
+        response.put("success", started);
+        response.put("message", started ? "Search index rebuild started" : "A rebuild is already running");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientService.getSearchIndexStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // 🩺 Whole chart (patient, bed stays, prescriptions, lab reports) in one call
+    @GetMapping("/{id}/chart")
+    public ResponseEntity<Map<String, Object>> getPatientChart(@PathVariable Long id) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<Patient> patients = patientService.getAllPatients();
+            Optional<PatientChart> chart = patientChartService.getChart(id);
+            if (chart.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "Patient not found with ID: " + id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
             response.put("success", true);
-            response.put("data", patients);
-            response.put("message", "Patients retrieved successfully");
+            response.put("data", chart.get());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             response.put("success", false);
-            response.put("message", "Error retrieving patients: " + e.getMessage());
+            response.put("message", "Error fetching patient chart: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    // 🎟️ Token, position and estimated wait in the doctor's queue
+    @GetMapping("/{id}/queue")
+    public ResponseEntity<Map<String, Object>> getQueuePosition(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<Map<String, Object>> position = patientService.getQueuePosition(id);
+        if (position.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Patient not found with ID: " + id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("success", true);
+        response.put("data", position.get());
+        return ResponseEntity.ok(response);
+    }
+
+    // ⚖️ Today's pending load per active doctor (drives specialization-only registration)
+    @GetMapping("/doctor-load")
+    public ResponseEntity<Map<String, Object>> getDoctorLoad(
+            @RequestParam(value = "specialization", required = false) String specialization) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientService.getDoctorLoad(specialization));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/chart/cache-stats")
+    public ResponseEntity<Map<String, Object>> getChartCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientChartService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
     // 🔍 Get Patient by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getPatientById(@PathVariable Long id) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<Patient>> getPatientById(@PathVariable Long id) {
         try {
             Patient patient = patientService.getPatientById(id)
                     .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + id));
-            response.put("success", true);
-            response.put("data", patient);
-            response.put("message", "Patient retrieved successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(patient, "Patient retrieved successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         }
     }
 
     // ✏️ Update Patient
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updatePatient(@PathVariable Long id, @RequestBody Patient updatedPatient) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<Patient>> updatePatient(@PathVariable Long id, @RequestBody Patient updatedPatient) {
         try {
             Patient patient = patientService.updatePatient(id, updatedPatient);
-            response.put("success", true);
-            response.put("data", patient);
-            response.put("message", "Patient updated successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(patient, "Patient updated successfully"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (DuplicateValueException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "Error updating patient: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Error updating patient: " + e.getMessage()));
         }
     }
 
     // ❌ Delete Patient
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deletePatient(@PathVariable Long id) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<Void>> deletePatient(@PathVariable Long id) {
         try {
             patientService.deletePatient(id);
-            response.put("success", true);
-            response.put("message", "Patient deleted successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(null, "Patient deleted successfully"));
         } catch (RuntimeException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
         }
     }
     @GetMapping("/count")
     public long getDoctorCount() {
         return patientService.Count();
     }
- // 🔍 Filter by Medicine Status
-    @GetMapping("/filter/medicine/{status}")
-    public ResponseEntity<Map<String, Object>> getPatientsByMedisionStatus(@PathVariable String status) {
+
+    // 📊 Dashboard counters for a day (default today), optionally for one doctor
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getPatientStats(
+            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "doctorId", required = false) Long doctorId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<Patient> patients = patientService.getByMedisionStatus(status);
+            response.put("data", patientService.getPatientStats(parseFilterDate("date", date), doctorId));
             response.put("success", true);
-            response.put("data", patients);
-            response.put("message", "Patients filtered by MEDISION_STATUS: " + status);
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (IllegalArgumentException e) {
             response.put("success", false);
             response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // 🗄️ Hot/cold archival of old completed visits
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Object>> runArchive() {
+        Map<String, Object> response = new HashMap<>();
+        boolean started = patientService.runArchive();
+        response.put("success", started);
+        response.put("message", started ? "Archive run started" : "An archive run is already in progress");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    @GetMapping("/archive/stats")
+    public ResponseEntity<Map<String, Object>> getArchiveStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientService.getArchiveStats());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/stats/reconciliation")
+    public ResponseEntity<Map<String, Object>> getStatsReconciliation() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientService.getStatsReconciliationReport());
+        return ResponseEntity.ok(response);
+    }
+ // 🔍 Filter by Medicine Status
+    @GetMapping("/filter/medicine/{status}")
+    public ResponseEntity<ApiResponse<List<PatientView>>> getPatientsByMedisionStatus(@PathVariable String status) {
+        try {
+            List<PatientView> patients = patientService.getByMedisionStatus(status);
+            return ResponseEntity.ok(ApiResponse.ok(patients, "Patients filtered by MEDISION_STATUS: " + status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
     }
 
     // 🔍 Filter by Doctor Status
     @GetMapping("/filter/doctor/{status}")
-    public ResponseEntity<Map<String, Object>> getPatientsByDoctorStatus(@PathVariable String status) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<List<PatientView>>> getPatientsByDoctorStatus(@PathVariable String status) {
         try {
-            List<Patient> patients = patientService.getByDoctorStatus(status);
-            response.put("success", true);
-            response.put("data", patients);
-            response.put("message", "Patients filtered by DOCTOR_STATUS: " + status);
-            return ResponseEntity.ok(response);
+            List<PatientView> patients = patientService.getByDoctorStatus(status);
+            return ResponseEntity.ok(ApiResponse.ok(patients, "Patients filtered by DOCTOR_STATUS: " + status));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
     }
 
     // 🔍 Filter by Lab Status
     @GetMapping("/filter/lab/{status}")
-    public ResponseEntity<Map<String, Object>> getPatientsByLabStatus(@PathVariable String status) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ApiResponse<List<PatientView>>> getPatientsByLabStatus(@PathVariable String status) {
         try {
-            List<Patient> patients = patientService.getByLabStatus(status);
-            response.put("success", true);
-            response.put("data", patients);
-            response.put("message", "Patients filtered by LAB_STATUS: " + status);
-            return ResponseEntity.ok(response);
+            List<PatientView> patients = patientService.getByLabStatus(status);
+            return ResponseEntity.ok(ApiResponse.ok(patients, "Patients filtered by LAB_STATUS: " + status));
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
         }
     }
+    // fromDate alone = that one day (as before); add toDate for a range. page/size are optional.
     @GetMapping("/filter/native")
-    public ResponseEntity<Map<String, Object>> filterPatientsNative(
-            @RequestParam("fromDate") String fromDate,
+    public ResponseEntity<ApiResponse<List<Patient>>> filterPatientsNative(
+            @RequestParam(value = "fromDate", required = false) String fromDate,
+            @RequestParam(value = "toDate", required = false) String toDate,
             @RequestParam(value = "medisionStatus", required = false) String medisionStatus,
             @RequestParam(value = "doctorStatus", required = false) String doctorStatus,
-            @RequestParam(value = "doctorId", required = false) Long doctorId
+            @RequestParam(value = "labStatus", required = false) String labStatus,
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "0") int size
     ) {
-        Map<String, Object> response = new HashMap<>();
         try {
             // 🔸 Validate date input
-            if (fromDate == null || fromDate.trim().isEmpty()) {
-                throw new IllegalArgumentException("❌ 'fromDate' cannot be empty");
+            LocalDate from = parseFilterDate("fromDate", fromDate);
+            LocalDate to = parseFilterDate("toDate", toDate);
+            if (from != null && to == null) {
+                to = from;
             }
-
-            String cleanDate = fromDate.trim();
-            if (!cleanDate.matches("\\d{4}-\\d{2}-\\d{2}")) {
-                throw new IllegalArgumentException("❌ fromDate must be in format YYYY-MM-DD, received: " + cleanDate);
+            if (from != null && to.isBefore(from)) {
+                throw new IllegalArgumentException("❌ toDate must not be before fromDate");
             }
 
             // 🔸 Fetch filtered results
-            List<Patient> patients = patientService.getFilteredPatientsNative(cleanDate, medisionStatus, doctorStatus, doctorId);
+            PatientFilter filter = new PatientFilter(from, to, doctorStatus, labStatus, medisionStatus, doctorId, page, size);
+            List<Patient> patients = patientService.getFilteredPatientsNative(filter);
 
-            response.put("success", true);
-            response.put("count", patients.size());
-            response.put("data", patients);
-            response.put("message", "✅ Filtered patient data fetched successfully");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.ok(patients, "✅ Filtered patient data fetched successfully")
+                    .count(patients.size())
+                    .page(filter.getPage(), filter.getSize()));
 
         } catch (IllegalArgumentException e) {
-            response.put("success", false);
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
 
         } catch (Exception e) {
-            response.put("success", false);
-            response.put("message", "❌ Error while fetching data: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("❌ Error while fetching data: " + e.getMessage()));
         }
     }
     
     @PatchMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> patchUpdatePatient(
+    public ResponseEntity<ApiResponse<Patient>> patchUpdatePatient(
             @PathVariable Long id,
             @RequestBody Map<String, Object> updates) {
         
-        Map<String, Object> response = new HashMap<>();
         try {
             Patient updatedPatient = patientService.partialUpdatePatient(id, updates);
+            return ResponseEntity.ok(ApiResponse.ok(updatedPatient, "Patient details updated successfully (partial update)"));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("version must be a number"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error updating patient details: " + e.getMessage()));
+        }
+    }
+
+    // 🔁 Move one status for many patients at once (e.g. all of a doctor's pending -> completed)
+    @PatchMapping("/status/batch")
+    public ResponseEntity<Map<String, Object>> updateStatusBatch(@RequestBody PatientStatusBatchRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<Long> ids = patientService.updateStatusBatch(request);
             response.put("success", true);
-            response.put("data", updatedPatient);
-            response.put("message", "Patient details updated successfully (partial update)");
+            response.put("updated", ids.size());
+            response.put("data", ids);
+            response.put("message", ids.size() + " patient(s) updated");
             return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+        } catch (IllegalArgumentException e) {
             response.put("success", false);
             response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("success", false);
-            response.put("message", "Error updating patient details: " + e.getMessage());
+            response.put("message", "Error updating patient statuses: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    private LocalDate parseFilterDate(String name, String value) {
+        if (value == null || value.trim().isEmpty()) return null;
+        String clean = value.trim();
+        if (!clean.matches("\\d{4}-\\d{2}-\\d{2}")) {
+            throw new IllegalArgumentException("❌ " + name + " must be in format YYYY-MM-DD, received: " + clean);
+        }
+        try {
+            return LocalDate.parse(clean);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("❌ " + name + " is not a valid date: " + clean);
+        }
+    }
+
+    // 📡 Live status changes (Server-Sent Events), optionally filtered by doctor and status type
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatusEvents(
+            @RequestParam(value = "doctorId", required = false) Long doctorId,
+            @RequestParam(value = "type", required = false) String type) {
+        try {
+            return ResponseEntity.ok(patientStatusStream.subscribe(doctorId, type));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/full-details/{patientId}")
     public ResponseEntity<Map<String, Object>> getFullPatientDetails(@PathVariable Long patientId) {
         Map<String, Object> response = new HashMap<>();
@@ -289,9 +533,10 @@ public class PatientController {
 
 
     @GetMapping("/today/all")
-    public ResponseEntity<Map<String, Object>> getAllTodayPatients() {
+    public ResponseEntity<Map<String, Object>> getAllTodayPatients(
+            @RequestParam(value = "doctorId", required = false) Long doctorId) {
         Map<String, Object> res = new HashMap<>();
-        List<Patient> list = patientService.getAllTodayPatients();
+        List<Patient> list = patientService.getAllTodayPatients(doctorId);
         res.put("success", true);
         res.put("count", list.size());
         res.put("data", list);
@@ -300,9 +545,10 @@ public class PatientController {
     }
 
     @GetMapping("/today/doctor-completed")
-    public ResponseEntity<Map<String, Object>> getTodayDocCompleted() {
+    public ResponseEntity<Map<String, Object>> getTodayDocCompleted(
+            @RequestParam(value = "doctorId", required = false) Long doctorId) {
         Map<String, Object> res = new HashMap<>();
-        List<Patient> list = patientService.getTodayDoctorCompleted();
+        List<Patient> list = patientService.getTodayDoctorCompleted(doctorId);
         res.put("success", true);
         res.put("count", list.size());
         res.put("data", list);
@@ -311,13 +557,38 @@ public class PatientController {
     }
 
     @GetMapping("/today/doctor-pending")
-    public ResponseEntity<Map<String, Object>> getTodayDocPending() {
+    public ResponseEntity<Map<String, Object>> getTodayDocPending(
+            @RequestParam(value = "doctorId", required = false) Long doctorId) {
         Map<String, Object> res = new HashMap<>();
-        List<Patient> list = patientService.getTodayDoctorPending();
+        List<Patient> list = patientService.getTodayDoctorPending(doctorId);
         res.put("success", true);
         res.put("count", list.size());
         res.put("data", list);
         res.put("date", getToday());
         return ResponseEntity.ok(res);
     }
+
+    @GetMapping("/queue/doctor/{doctorId}")
+    public ResponseEntity<Map<String, Object>> getDoctorQueue(
+            @PathVariable Long doctorId,
+            @RequestParam(value = "date", required = false) String date) {
+        Map<String, Object> res = new HashMap<>();
+        try {
+            res.put("success", true);
+            res.put("data", patientService.getDoctorQueue(doctorId, parseFilterDate("date", date)));
+            return ResponseEntity.ok(res);
+        } catch (IllegalArgumentException e) {
+            res.put("success", false);
+            res.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(res);
+        }
+    }
+
+    @GetMapping("/today/cache-stats")
+    public ResponseEntity<Map<String, Object>> getTodayCacheStats() {
+        Map<String, Object> res = new HashMap<>();
+        res.put("success", true);
+        res.put("data", patientService.getTodayCacheStats());
+        return ResponseEntity.ok(res);
+    }
 }
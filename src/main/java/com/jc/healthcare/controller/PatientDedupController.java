@@ -0,0 +1,95 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.model.PatientMergeSuggestion;
+import com.jc.healthcare.service.PatientDedupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Duplicate-patient review: run the matcher, list its suggestions, accept (merge) or reject them
+@RestController
+@RequestMapping("/api/patient/dedup")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PatientDedupController {
+
+    @Autowired
+    private PatientDedupService patientDedupService;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> run() {
+        Map<String, Object> response = new HashMap<>();
+        boolean started = patientDedupService.runInBackground();
+        response.put("success", started);
+        response.put("message", started ? "Dedup run started" : "A dedup run is already in progress");
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", patientDedupService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // 🔍 Suggestions by status (PENDING by default), best score first
+    @GetMapping("/suggestions")
+    public ResponseEntity<Map<String, Object>> getSuggestions(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        Map<String, Object> response = new HashMap<>();
+        Page<PatientMergeSuggestion> result = patientDedupService.getSuggestions(
+                status, Math.max(page, 0), Math.min(Math.max(size, 1), 500));
+        response.put("success", true);
+        response.put("data", result.getContent());
+        response.put("count", result.getNumberOfElements());
+        response.put("total", result.getTotalElements());
+        response.put("page", result.getNumber());
+        return ResponseEntity.ok(response);
+    }
+
+    // ✅ Merge the duplicate into the kept patient
+    @PostMapping("/suggestions/{id}/accept")
+    public ResponseEntity<Map<String, Object>> accept(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("data", patientDedupService.accept(id));
+            response.put("success", true);
+            response.put("message", "Patients merged successfully");
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    @PostMapping("/suggestions/{id}/reject")
+    public ResponseEntity<Map<String, Object>> reject(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("data", patientDedupService.reject(id));
+            response.put("success", true);
+            response.put("message", "Suggestion rejected");
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+}
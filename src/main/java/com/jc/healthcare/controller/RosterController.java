@@ -0,0 +1,96 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.model.StaffLeave;
+import com.jc.healthcare.model.StaffShift;
+import com.jc.healthcare.service.RosterIndex;
+import com.jc.healthcare.service.RosterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/roster")
+@CrossOrigin(origins = "http://localhost:3000")
+public class RosterController {
+
+    @Autowired
+    private RosterService rosterService;
+
+    // 🩺 Who is on duty now (or at ?at=2025-01-31T23:30), optionally one department / role
+    @GetMapping("/on-duty")
+    public ResponseEntity<Map<String, Object>> onDuty(
+            @RequestParam(value = "department", required = false) String department,
+            @RequestParam(value = "role", required = false) String role,
+            @RequestParam(value = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        Map<String, Object> response = new HashMap<>();
+        List<RosterIndex.OnDuty> staff = rosterService.onDuty(at, department, role);
+        response.put("success", true);
+        response.put("count", staff.size());
+        response.put("data", staff);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/staff/{staffId}")
+    public ResponseEntity<Map<String, Object>> getRoster(@PathVariable Long staffId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", rosterService.getRoster(staffId));
+        return ResponseEntity.ok(response);
+    }
+
+    // ➕ Weekly shift: {"staffId":7,"department":"ICU","daysOfWeek":"MON,TUE","startTime":"22:00","endTime":"06:00"}
+    @PostMapping("/shifts")
+    public ResponseEntity<Map<String, Object>> addShift(@RequestBody StaffShift shift) {
+        return write(HttpStatus.CREATED, "Shift added successfully", () -> rosterService.addShift(shift));
+    }
+
+    @DeleteMapping("/shifts/{shiftId}")
+    public ResponseEntity<Map<String, Object>> deleteShift(@PathVariable Long shiftId) {
+        return write(HttpStatus.OK, "Shift deleted successfully", () -> rosterService.deleteShift(shiftId));
+    }
+
+    @PostMapping("/leave")
+    public ResponseEntity<Map<String, Object>> addLeave(@RequestBody StaffLeave leave) {
+        return write(HttpStatus.CREATED, "Leave added successfully", () -> rosterService.addLeave(leave));
+    }
+
+    @DeleteMapping("/leave/{leaveId}")
+    public ResponseEntity<Map<String, Object>> deleteLeave(@PathVariable Long leaveId) {
+        return write(HttpStatus.OK, "Leave deleted successfully", () -> rosterService.deleteLeave(leaveId));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", rosterService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // 400 for bad input, 404 when the staff member / row does not exist
+    private ResponseEntity<Map<String, Object>> write(HttpStatus status, String message, Supplier<Object> action) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("data", action.get());
+            response.put("success", true);
+            response.put("message", message);
+            return ResponseEntity.status(status).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.dto.FreeSlot;
+import com.jc.healthcare.dto.SlotBookingRequest;
+import com.jc.healthcare.exception.SlotUnavailableException;
+import com.jc.healthcare.model.DoctorSlotBooking;
+import com.jc.healthcare.service.SlotBookingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/slots")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SlotController {
+
+    @Autowired
+    private SlotBookingService slotBookingService;
+
+    // 📅 Book one slot; 409 when someone else already has it
+    @PostMapping("/book")
+    public ResponseEntity<Map<String, Object>> book(@RequestBody SlotBookingRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            DoctorSlotBooking booking = slotBookingService.book(request);
+            response.put("success", true);
+            response.put("data", booking);
+            response.put("message", "Slot booked successfully");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (SlotUnavailableException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    @DeleteMapping("/{bookingId}")
+    public ResponseEntity<Map<String, Object>> release(@PathVariable Long bookingId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("data", slotBookingService.release(bookingId));
+            response.put("success", true);
+            response.put("message", "Slot released successfully");
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    // 🔍 Next N free slots for one doctor
+    @GetMapping("/doctor/{doctorId}/free")
+    public ResponseEntity<Map<String, Object>> nextFreeForDoctor(
+            @PathVariable Long doctorId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "count", defaultValue = "5") int count) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<FreeSlot> slots = slotBookingService.nextFreeForDoctor(doctorId, from, Math.min(count, 200));
+            response.put("success", true);
+            response.put("count", slots.size());
+            response.put("data", slots);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    // 🔍 Next N free slots across a specialization, earliest first
+    @GetMapping("/specialization/{specialization}/free")
+    public ResponseEntity<Map<String, Object>> nextFreeForSpecialization(
+            @PathVariable String specialization,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "count", defaultValue = "5") int count) {
+        Map<String, Object> response = new HashMap<>();
+        List<FreeSlot> slots = slotBookingService.nextFreeForSpecialization(specialization, from, Math.min(count, 200));
+        response.put("success", true);
+        response.put("count", slots.size());
+        response.put("data", slots);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public ResponseEntity<Map<String, Object>> getDay(
+            @PathVariable Long doctorId,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("data", slotBookingService.getDay(doctorId, date == null ? LocalDate.now() : date));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", slotBookingService.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
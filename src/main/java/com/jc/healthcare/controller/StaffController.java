@@ -1,15 +1,28 @@
 package com.jc.healthcare.controller;
+import com.jc.healthcare.dto.ApiResponse;
+import com.jc.healthcare.dto.CursorPage;
+import com.jc.healthcare.dto.ImportReport;
+import com.jc.healthcare.dto.StaffSummary;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.Staff; 
+import com.jc.healthcare.service.DirectoryImportService;
 import com.jc.healthcare.service.StaffService; 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List; 
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 @RestController
 @RequestMapping("/api/staff")
 @CrossOrigin("*")
@@ -18,6 +31,12 @@ public class StaffController {
     @Autowired
     private StaffService staffService;
 
+    @Autowired
+    private DirectoryImportService directoryImportService;
+
+    @Value("${binary-store.max-age-seconds:86400}")
+    private long maxAgeSeconds;
+
     @GetMapping
     public List<Staff> getAllStaff() {
         return staffService.getAllStaff();
@@ -35,9 +54,63 @@ public class StaffController {
 
 
     
+    // Directory rows (no photo, password, Aadhar or salary); 304 while no staff row has changed
     @GetMapping("/department/{department}")
-    public List<Staff> getStaffByDepartment(@PathVariable String department) {
-        return staffService.getStaffByDepartment(department);
+    public ResponseEntity<List<StaffSummary>> getStaffByDepartment(@PathVariable String department,
+                                                                   WebRequest request) {
+        String etag = staffService.getDirectoryEtag("department", department.toUpperCase(Locale.ROOT));
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(staffService.getStaffByDepartment(department));
+    }
+
+    // 📄 Keyset-paged staff directory
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<List<StaffSummary>>> getStaffPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request) {
+        return directoryPage(staffService.getDirectoryEtag("page", after, size), request,
+                () -> staffService.getStaffPage(after, size));
+    }
+
+    @GetMapping("/department/{department}/page")
+    public ResponseEntity<ApiResponse<List<StaffSummary>>> getDepartmentPage(
+            @PathVariable String department,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", required = false) Integer size,
+            WebRequest request) {
+        String etag = staffService.getDirectoryEtag("department-page", department.toUpperCase(Locale.ROOT), after, size);
+        return directoryPage(etag, request, () -> staffService.getDepartmentPage(department, after, size));
+    }
+
+    private ResponseEntity<ApiResponse<List<StaffSummary>>> directoryPage(
+            String etag, WebRequest request, Supplier<CursorPage<StaffSummary>> loader) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            CursorPage<StaffSummary> page = loader.get();
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                    .body(ApiResponse.ok(page.getItems(), "Staff retrieved successfully")
+                            .count(page.getItems().size())
+                            .next(page.getNext()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving staff: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/directory/stats")
+    public ResponseEntity<Map<String, Object>> getDirectoryStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", staffService.getDirectoryStats());
+        return ResponseEntity.ok(response);
     }
 
    
@@ -47,6 +120,25 @@ public class StaffController {
     }
 
  
+    // 📥 Branch onboarding: CSV of staff, photos optionally in a zip
+    @PostMapping(value = "/import", consumes = {"multipart/form-data"})
+    public ResponseEntity<Map<String, Object>> importStaff(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "images", required = false) MultipartFile images) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            ImportReport report = directoryImportService.importStaff(file, images);
+            response.put("success", true);
+            response.put("data", report);
+            response.put("message", "Staff import finished");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error importing staff: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
     @DeleteMapping("/{id}")
     public String deleteStaff(@PathVariable Long id) {
         boolean deleted = staffService.deleteStaff(id);
@@ -74,15 +166,15 @@ public class StaffController {
     }
 
  
+    // ?size=64 serves the nearest thumbnail, or the original until it has been generated
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getStaffImage(@PathVariable Long id) {
-        byte[] image = staffService.getStaffImage(id);
-        if (image == null) {
+    public ResponseEntity<Resource> getStaffImage(@PathVariable Long id, @RequestParam(required = false) Integer size) {
+        Optional<StoredFile> image = staffService.getStaffImage(id, size);
+        if (image.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, MediaType.IMAGE_JPEG_VALUE)
-                .body(image);
+        return BinaryResponses.inline(image.get(),
+                CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate().mustRevalidate());
     }
     @PostMapping("/login")
     public ResponseEntity<String> login(@RequestBody Map<String, String> body) {
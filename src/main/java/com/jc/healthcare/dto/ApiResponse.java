@@ -0,0 +1,77 @@
+package com.jc.healthcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Typed response envelope with the same keys the controllers used to put in a HashMap.
+// success and message are always written, null message included. The other keys appear only
+// where the old maps put them: data, count, page, size and truncated when set, next whenever
+// next() was called (the paged flag), so the last page still says "next": null. The declared T lets Jackson
+// resolve (and cache) the serializer from the handler's return type instead of per value.
+@Data
+@NoArgsConstructor
+@JsonPropertyOrder({"success", "message", "count", "page", "size", "truncated", "nextKey", "data"})
+public class ApiResponse<T> {
+    private boolean success;
+    private String message;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer count;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer page;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer size;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean truncated;
+    // cursor of the next page; null on the last one
+    @JsonIgnore
+    private String next;
+    // true once next() was called: a paged response writes "next" even when it is null
+    @JsonIgnore
+    private boolean paged;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private T data;
+
+    public static <T> ApiResponse<T> ok(T data, String message) {
+        ApiResponse<T> response = new ApiResponse<>();
+        response.success = true;
+        response.data = data;
+        response.message = message;
+        return response;
+    }
+
+    public static <T> ApiResponse<T> error(String message) {
+        ApiResponse<T> response = new ApiResponse<>();
+        response.message = message;
+        return response;
+    }
+
+    public ApiResponse<T> count(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public ApiResponse<T> page(int page, int size) {
+        this.page = page;
+        this.size = size;
+        return this;
+    }
+
+    public ApiResponse<T> next(String next) {
+        this.next = next;
+        this.paged = true;
+        return this;
+    }
+
+    // writes the "next" key in its slot of the property order; empty map = no key
+    @JsonAnyGetter
+    public Map<String, Object> getNextKey() {
+        return paged ? Collections.singletonMap("next", next) : Collections.emptyMap();
+    }
+}
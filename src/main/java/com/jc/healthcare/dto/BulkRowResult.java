@@ -0,0 +1,24 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one row in a bulk import (index is 0-based in request order)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRowResult {
+    private int index;
+    private boolean success;
+    private Long id;
+    private String message;
+
+    public static BulkRowResult ok(int index, Long id) {
+        return new BulkRowResult(index, true, id, "Created");
+    }
+
+    public static BulkRowResult failed(int index, String message) {
+        return new BulkRowResult(index, false, null, message);
+    }
+}
@@ -0,0 +1,52 @@
+package com.jc.healthcare.dto;
+
+import com.jc.healthcare.model.Doctor;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+// Doctor row for list / detail responses: no IMAGE blob, no PASSWORD.
+// The photo is fetched separately from imageUrl (versioned by the image hash).
+// Immutable: DoctorCache hands the same instance to every caller.
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public final class DoctorProfile {
+    private final Long doctorId;
+    private final String doctorName;
+    private final String specialization;
+    private final String phone;
+    private final String email;
+    private final Integer experience;
+    private final String status;
+    private final String address;
+    private final String dateOfBirth;
+    private final String gender;
+    private final String city;
+    private final String state;
+    private final String pinCode;
+    private final String country;
+    private final String medicalLicenseNo;
+    private final String role;
+    private final String imageHash;
+
+    public static DoctorProfile of(Doctor d) {
+        return new DoctorProfile(d.getDoctorId(), d.getDoctorName(), d.getSpecialization(), d.getPhone(),
+                d.getEmail(), d.getExperience(), d.getStatus(), d.getAddress(), d.getDateOfBirth(), d.getGender(),
+                d.getCity(), d.getState(), d.getPinCode(), d.getCountry(), d.getMedicalLicenseNo(), d.getRole(),
+                d.getImageHash());
+    }
+
+    public String getImageUrl() {
+        if (imageHash == null) return null;
+        return "/api/doctors/" + doctorId + "/image?v=" + imageHash.substring(0, Math.min(12, imageHash.length()));
+    }
+
+    // 64px avatar for lists (see ThumbnailService)
+    public String getThumbnailUrl() {
+        String url = getImageUrl();
+        return url == null ? null : url + "&size=64";
+    }
+}
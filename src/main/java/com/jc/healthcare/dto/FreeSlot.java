@@ -0,0 +1,20 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlot {
+    private Long doctorId;
+    private String doctorName;
+    private LocalDate date;
+    private int slotIndex;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
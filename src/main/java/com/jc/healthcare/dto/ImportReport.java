@@ -0,0 +1,16 @@
+package com.jc.healthcare.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Result of a CSV import: counts for every row, details only for failed rows (capped)
+@Data
+public class ImportReport {
+    private int total;
+    private int created;
+    private int failed;
+    private List<BulkRowResult> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,25 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Lab report row without the REPORT_FILE blob; the bytes come from fileUrl
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabReportMeta {
+    private Long reportId;
+    private Long testId;
+    private String testName;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private Date uploadedOn;
+
+    public String getFileUrl() {
+        return reportId == null ? null : "/api/labs/reports/" + reportId + "/file";
+    }
+}
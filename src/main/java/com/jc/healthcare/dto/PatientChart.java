@@ -0,0 +1,23 @@
+package com.jc.healthcare.dto;
+
+import com.jc.healthcare.model.BedBooking;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.model.Prescription;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Everything the chart screen needs for one patient (GET /api/patient/{id}/chart)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientChart {
+    private Patient patient;
+    private List<BedBooking> bedBookings;      // newest admission first, ward included
+    private List<Prescription> prescriptions;  // newest first
+    private List<LabReportMeta> labReports;    // newest first, no file bytes
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,22 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Optional filters for /api/patient/filter/native; null / blank / "all" means "not filtered"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientFilter {
+    private LocalDate fromDate;
+    private LocalDate toDate;          // inclusive
+    private String doctorStatus;
+    private String labStatus;
+    private String medisionStatus;
+    private Long doctorId;             // 0 = any doctor (old clients send it)
+    private int page;
+    private int size;
+}
@@ -0,0 +1,17 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One /api/patient/search result (higher score = better match)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchHit {
+    private Long patientId;
+    private String name;
+    private String phone;
+    private String aadhar;
+    private int score;
+}
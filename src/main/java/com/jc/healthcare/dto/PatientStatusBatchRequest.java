@@ -0,0 +1,18 @@
+package com.jc.healthcare.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// PATCH /api/patient/status/batch
+// e.g. {"field":"doctorStatus","from":"Pending","to":"Completed","doctorId":7,"date":"2025-01-31"}
+@Data
+public class PatientStatusBatchRequest {
+    private String field;            // doctorStatus / labStatus / medisionStatus
+    private String to;
+    private String from;             // optional: only rows currently in this status
+    private Long doctorId;           // doctorId and/or patientIds is required
+    private List<Long> patientIds;
+    private LocalDate date;          // optional: appointment day
+}
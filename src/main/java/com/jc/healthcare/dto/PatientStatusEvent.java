@@ -0,0 +1,22 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Compact status-change message pushed to /api/patient/events subscribers
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientStatusEvent {
+    private Long patientId;
+    private Long doctorId;
+    private String doctorStatus;
+    private String labStatus;
+    private String medisionStatus;
+    private List<String> changed;   // e.g. ["doctorStatus"]
+    private LocalDateTime at;
+}
@@ -0,0 +1,29 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Lightweight patient row for list screens (no notes / prescription / test fields)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummary {
+    private Long patientId;
+    private String name;
+    private String gender;
+    private String phone;
+    private String aadhar;
+    private LocalDate dateOfBirth;
+    private Long doctorId;
+    private String appointmentDate;
+    private String appointmentTime;
+    private LocalDateTime appointmentAt;
+    private String disease;
+    private String medisionStatus;
+    private String doctorStatus;
+    private String labStatus;
+}
@@ -0,0 +1,39 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Read-only patient row for list endpoints: the same JSON as the Patient entity, selected
+// straight into this class so no managed entity (or its dirty-check snapshot) is built per row
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientView {
+    private Long patientId;
+    private String name;
+    private String gender;
+    private String aadhar;
+    private String phone;
+    private LocalDate dateOfBirth;
+    private String address;
+    private Long doctorId;
+    private String appointmentDate;
+    private String appointmentTime;
+    private LocalDateTime appointmentAt;
+    private String dosageInstructions;
+    private LocalDate generatedAt;
+    private String notes;
+    private String selectedMedicines;
+    private LocalDate dateIssued;
+    private String disease;
+    private String medication;
+    private String selectedTests;
+    private String medisionStatus;
+    private String doctorStatus;
+    private String labStatus;
+    private Long version;
+}
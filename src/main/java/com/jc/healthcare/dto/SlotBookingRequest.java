@@ -0,0 +1,17 @@
+package com.jc.healthcare.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// POST /api/slots/book
+// e.g. {"doctorId":7,"date":"2025-01-31","time":"10:30","patientId":1201}
+@Data
+public class SlotBookingRequest {
+    private Long doctorId;
+    private LocalDate date;
+    private LocalTime time;          // slot start; or slotIndex
+    private Integer slotIndex;
+    private Long patientId;          // optional
+}
@@ -0,0 +1,34 @@
+package com.jc.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Staff directory row: no photo bytes, password, Aadhar or salary (see StaffRepository.SUMMARY)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaffSummary {
+    private Long id;
+    private String name;
+    private String mobile;
+    private String email;
+    private String department;
+    private String role;
+    private Date joiningDate;
+    private String timings;
+    private String imageHash;
+
+    public String getImageUrl() {
+        if (imageHash == null) return null;
+        return "/api/staff/" + id + "/image?v=" + imageHash.substring(0, Math.min(12, imageHash.length()));
+    }
+
+    // 64px avatar for lists (see ThumbnailService)
+    public String getThumbnailUrl() {
+        String url = getImageUrl();
+        return url == null ? null : url + "&size=64";
+    }
+}
@@ -0,0 +1,27 @@
+package com.jc.healthcare.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.core.io.Resource;
+
+// A file ready to serve: content hash (the ETag), size, content type and the bytes as a Resource
+@Data
+@NoArgsConstructor
+public class StoredFile {
+    private String hash;
+    private Long size;
+    private String contentType;
+    private String fileName;
+    private Resource content;
+
+    public StoredFile(String hash, Long size, String contentType) {
+        this.hash = hash;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public StoredFile(String hash, Long size, String contentType, String fileName) {
+        this(hash, size, contentType);
+        this.fileName = fileName;
+    }
+}
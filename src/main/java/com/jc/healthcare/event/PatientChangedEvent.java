@@ -0,0 +1,31 @@
+package com.jc.healthcare.event;
+
+import com.jc.healthcare.model.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+// Published by PatientService after a patient row is written.
+// previous is null for ADDED, current is null for DELETED.
+@Getter
+@AllArgsConstructor
+public class PatientChangedEvent {
+
+    public enum Type { ADDED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Patient previous;
+    private final Patient current;
+
+    public Long getPatientId() {
+        return current != null ? current.getPatientId() : previous.getPatientId();
+    }
+
+    public boolean changed(Function<Patient, Object> field) {
+        Object before = previous == null ? null : field.apply(previous);
+        Object after = current == null ? null : field.apply(current);
+        return !Objects.equals(before, after);
+    }
+}
@@ -0,0 +1,9 @@
+package com.jc.healthcare.exception;
+
+// Thrown before any SQL runs when a unique value (Aadhar, phone) is already taken
+public class DuplicateValueException extends RuntimeException {
+
+    public DuplicateValueException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.jc.healthcare.exception;
+
+// The requested doctor slot is already booked
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,11 +1,13 @@
 package com.jc.healthcare.model;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import lombok.Data;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 @Data
 @Entity
 @Table(name = "DOCTORS")
@@ -61,9 +63,27 @@ public class Doctor {
     @Column(name = "ROLE", length = 50)
     private String role;
 
+    // Legacy photo blob, emptied by BinaryMigrationService; new photos live in the BinaryStore.
+    // Served only by /api/doctors/{id}/image; list and detail queries use DoctorProfile
+    // (LAZY takes effect when Hibernate bytecode enhancement is enabled)
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @JsonIgnore
     @Column(name = "IMAGE")
     private byte[] image;
 
+    // SHA-256 of the photo in hex: the BinaryStore key and the image ETag
+    // (see db/007_doctor_image_hash.sql and db/009_binary_store.sql)
+    @Column(name = "IMAGE_HASH", length = 64)
+    private String imageHash;
+
+    @Column(name = "IMAGE_SIZE")
+    private Long imageSize;
+
+    @Column(name = "IMAGE_TYPE", length = 100)
+    private String imageType;
+
+    @JsonIgnore
     @Column(name = "PASSWORD", length = 100)
     private String password;
 
@@ -72,4 +92,20 @@ public class Doctor {
     // Constructors
     public Doctor() {
     }
+
+    @PrePersist
+    @PreUpdate
+    void syncImageHash() {
+        // rows whose photo is in the BinaryStore have no blob but keep their hash
+        if (image != null && image.length > 0) imageHash = hashOf(image);
+    }
+
+    public static String hashOf(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
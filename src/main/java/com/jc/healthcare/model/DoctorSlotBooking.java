@@ -0,0 +1,38 @@
+package com.jc.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "DOCTOR_SLOT_BOOKING")
+public class DoctorSlotBooking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slot_booking_seq_gen")
+    @SequenceGenerator(
+        name = "slot_booking_seq_gen",
+        sequenceName = "DOCTOR_SLOT_BOOKING_SEQ",
+        allocationSize = 50
+    )
+    @Column(name = "BOOKING_ID")
+    private Long bookingId;
+
+    @Column(name = "DOCTOR_ID", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "SLOT_DATE", nullable = false)
+    private LocalDate slotDate;
+
+    // position of the slot in the doctor's day (0 = first slot after slots.day-start)
+    @Column(name = "SLOT_INDEX", nullable = false)
+    private Integer slotIndex;
+
+    @Column(name = "PATIENT_ID")
+    private Long patientId;
+
+    @Column(name = "BOOKED_AT", nullable = false)
+    private LocalDateTime bookedAt;
+}
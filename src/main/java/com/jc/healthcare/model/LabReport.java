@@ -1,5 +1,6 @@
 package com.jc.healthcare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.Date;
@@ -22,10 +23,20 @@ public class LabReport {
     @JoinColumn(name = "TEST_ID", nullable = false)
     private LabTest test;
 
+    // Legacy file blob, emptied by BinaryMigrationService; new files live in the BinaryStore
+    // and are downloaded from fileUrl
     @Lob
+    @JsonIgnore
     @Column(name = "REPORT_FILE")
     private byte[] reportFile;
 
+    // SHA-256 of the file (BinaryStore key, see db/009_binary_store.sql)
+    @Column(name = "FILE_HASH", length = 64)
+    private String fileHash;
+
+    @Column(name = "FILE_SIZE")
+    private Long fileSize;
+
     @Column(name = "FILE_NAME", length = 255)
     private String fileName;
 
@@ -35,4 +46,8 @@ public class LabReport {
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "UPLOADED_ON")
     private Date uploadedOn = new Date();
+
+    public String getFileUrl() {
+        return reportId == null ? null : "/api/labs/reports/" + reportId + "/file";
+    }
 }
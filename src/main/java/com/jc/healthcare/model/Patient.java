@@ -1,8 +1,16 @@
 package com.jc.healthcare.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Locale;
 
 @Data
 @Entity
@@ -14,7 +22,7 @@ public class Patient {
     @SequenceGenerator(
         name = "patient_seq_gen",
         sequenceName = "PATIENT_SEQ",
-        allocationSize = 1
+        allocationSize = 50   // pooled optimizer; PATIENT_SEQ must INCREMENT BY 50
     )
     @Column(name = "PATIENT_ID")
     private Long patientId;
@@ -40,6 +48,11 @@ public class Patient {
     @Column(name = "DOCTOR_ID")
     private Long doctorId;
 
+    // Registration only: with no doctorId, the least-loaded active doctor of this specialization is assigned
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String specialization;
+
     // 🗓️ Appointment info
     @Column(name = "APPOINTMENT_DATE", length = 20)
     private String appointmentDate;
@@ -47,6 +60,10 @@ public class Patient {
     @Column(name = "APPOINTMENT_TIME", length = 20)
     private String appointmentTime;
 
+    // Typed copy of appointmentDate + appointmentTime (indexed, used by the queue queries)
+    @Column(name = "APPOINTMENT_AT")
+    private LocalDateTime appointmentAt;
+
    
 
     @Column(name = "DOSAGE_INSTRUCTIONS", length = 255)
@@ -82,5 +99,59 @@ public class Patient {
     @Column(name = "LAB_STATUS", length = 50)
     private String labStatus;
 
-	
+    // Optimistic locking; clients may echo it back on PUT / PATCH to detect concurrent edits
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
+    // Keep APPOINTMENT_AT in step with the string columns the front end still sends
+    @PrePersist
+    @PreUpdate
+    void syncAppointmentAt() {
+        LocalDateTime at = toAppointmentAt(appointmentDate, appointmentTime);
+        if (at != null) {
+            appointmentAt = at;
+        }
+    }
+
+    // "dd-MMM-yy" (stored format, RR-style century) or "yyyy-MM-dd" (sent by React)
+    private static final DateTimeFormatter STORED_DATE = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("dd-MMM-")
+            .appendValueReduced(ChronoField.YEAR, 2, 2, 1950)
+            .toFormatter(Locale.ENGLISH);
+
+    private static final DateTimeFormatter AM_PM_TIME = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive()
+            .appendPattern("h:mm[:ss] a")
+            .toFormatter(Locale.ENGLISH);
+
+    public static LocalDateTime toAppointmentAt(String date, String time) {
+        if (date == null || date.isBlank()) return null;
+
+        LocalDate d;
+        try {
+            d = LocalDate.parse(date.trim(), STORED_DATE);
+        } catch (DateTimeParseException e) {
+            try {
+                d = LocalDate.parse(date.trim());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+
+        LocalTime t = LocalTime.MIDNIGHT;
+        if (time != null && !time.isBlank()) {
+            try {
+                t = LocalTime.parse(time.trim());
+            } catch (DateTimeParseException e) {
+                try {
+                    t = LocalTime.parse(time.trim(), AM_PM_TIME);
+                } catch (DateTimeParseException ignored) {
+                    // unparseable time: keep the day, sort at start of day
+                }
+            }
+        }
+        return LocalDateTime.of(d, t);
+    }
 }
@@ -0,0 +1,46 @@
+package com.jc.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "patient_merge_suggestion")
+public class PatientMergeSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merge_suggestion_seq_gen")
+    @SequenceGenerator(
+        name = "merge_suggestion_seq_gen",
+        sequenceName = "PATIENT_MERGE_SUGGESTION_SEQ",
+        allocationSize = 50
+    )
+    @Column(name = "SUGGESTION_ID")
+    private Long suggestionId;
+
+    // record that is kept
+    @Column(name = "PATIENT_ID", nullable = false)
+    private Long patientId;
+
+    // record merged into patientId on accept
+    @Column(name = "DUPLICATE_ID", nullable = false)
+    private Long duplicateId;
+
+    @Column(name = "SCORE", nullable = false)
+    private Double score;
+
+    // which keys matched, e.g. "PHONE,NAME"
+    @Column(name = "REASON", length = 100)
+    private String reason;
+
+    // PENDING, ACCEPTED, REJECTED, STALE
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "REVIEWED_AT")
+    private LocalDateTime reviewedAt;
+}
@@ -1,6 +1,8 @@
 
 package com.jc.healthcare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.util.Date;
@@ -47,14 +49,27 @@ public class Staff {
     @Column(name = "SHIFT_TIMINGS")
     private String timings;
 
+    // Legacy photo blob, emptied by BinaryMigrationService; new photos live in the BinaryStore
     @Lob
+    @JsonIgnore
     @Column(name = "IMAGE")
     private byte[] image;
+
+    // SHA-256 of the photo (BinaryStore key, see db/009_binary_store.sql)
+    @Column(name = "IMAGE_HASH", length = 64)
+    private String imageHash;
+
+    @Column(name = "IMAGE_SIZE")
+    private Long imageSize;
+
+    @Column(name = "IMAGE_TYPE", length = 100)
+    private String imageType;
  
     @Column(name = "TWO_FACTOR_AUTHENTICATION")
     private Integer twoFactAuthentication;
 
-    // 🔐 Authentication fields
+    // 🔐 Authentication fields (accepted on create / update, never written to responses)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "PASSWORD")
     private String password;
 
@@ -69,5 +84,17 @@ public class Staff {
     @Transient
     private String otp;
 
-	
+    // Photo URL for the UI; the hash prefix busts browser caches when the photo changes
+    public String getImageUrl() {
+        if (imageHash == null && image == null) return null;
+        String url = "/api/staff/" + id + "/image";
+        return imageHash == null ? url : url + "?v=" + imageHash.substring(0, 12);
+    }
+
+    // 64px avatar for lists (see ThumbnailService)
+    public String getThumbnailUrl() {
+        String url = getImageUrl();
+        if (url == null) return null;
+        return url + (url.contains("?") ? "&" : "?") + "size=64";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.jc.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+// Leave takes a staff member off every shift starting between fromDate and toDate (inclusive)
+@Data
+@Entity
+@Table(name = "STAFF_LEAVE")
+public class StaffLeave {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "staff_leave_seq_gen")
+    @SequenceGenerator(
+        name = "staff_leave_seq_gen",
+        sequenceName = "STAFF_LEAVE_SEQ",
+        allocationSize = 50
+    )
+    @Column(name = "LEAVE_ID")
+    private Long leaveId;
+
+    @Column(name = "STAFF_ID", nullable = false)
+    private Long staffId;
+
+    @Column(name = "FROM_DATE", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "TO_DATE", nullable = false)
+    private LocalDate toDate;
+
+    @Column(name = "REASON")
+    private String reason;
+}
@@ -0,0 +1,46 @@
+package com.jc.healthcare.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+// Weekly recurring shift of one staff member (see db/010_staff_roster.sql)
+@Data
+@Entity
+@Table(name = "STAFF_SHIFT")
+public class StaffShift {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "staff_shift_seq_gen")
+    @SequenceGenerator(
+        name = "staff_shift_seq_gen",
+        sequenceName = "STAFF_SHIFT_SEQ",
+        allocationSize = 50
+    )
+    @Column(name = "SHIFT_ID")
+    private Long shiftId;
+
+    @Column(name = "STAFF_ID", nullable = false)
+    private Long staffId;
+
+    // floor the shift is worked on; empty = the staff member's own department
+    @Column(name = "DEPARTMENT")
+    private String department;
+
+    // comma separated MON..SUN
+    @Column(name = "DAYS_OF_WEEK", nullable = false)
+    private String daysOfWeek;
+
+    // HH:mm; an end at or before the start finishes the next day
+    @Column(name = "START_TIME", nullable = false, length = 5)
+    private String startTime;
+
+    @Column(name = "END_TIME", nullable = false, length = 5)
+    private String endTime;
+
+    @Column(name = "VALID_FROM")
+    private LocalDate validFrom;
+
+    @Column(name = "VALID_TO")
+    private LocalDate validTo;
+}
@@ -3,6 +3,7 @@ package com.jc.healthcare.repository;
 import com.jc.healthcare.model.BedBooking;
 import com.jc.healthcare.model.Ward;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,6 +14,14 @@ public interface BedBookingRepository extends JpaRepository<BedBooking, Long> {
 
     List<BedBooking> findByWard(Ward ward);
 
+    @Query("SELECT b FROM BedBooking b JOIN FETCH b.ward WHERE b.patientId = :patientId ORDER BY b.admissionDate DESC")
+    List<BedBooking> findByPatientIdWithWard(@Param("patientId") Long patientId);
+
+    // Patient merge: move every stay of one patient to another
+    @Modifying
+    @Query("UPDATE BedBooking b SET b.patientId = :toId WHERE b.patientId = :fromId")
+    int repointPatient(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
     @Query("SELECT COUNT(b) FROM BedBooking b WHERE b.ward.wardId = :wardId AND b.status = 'Active'")
     long countBookedBedsByWard(@Param("wardId") Long wardId);
 
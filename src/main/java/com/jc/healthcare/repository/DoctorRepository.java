@@ -1,16 +1,77 @@
 package com.jc.healthcare.repository;
 
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.Doctor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
+    // Everything except IMAGE and PASSWORD
+    String PROFILE = """
+            SELECT new com.jc.healthcare.dto.DoctorProfile(
+                d.doctorId, d.doctorName, d.specialization, d.phone, d.email, d.experience, d.status,
+                d.address, d.dateOfBirth, d.gender, d.city, d.state, d.pinCode, d.country,
+                d.medicalLicenseNo, d.role, d.imageHash)
+            FROM Doctor d
+            """;
+
+    @Query(PROFILE + "ORDER BY d.doctorId")
+    List<DoctorProfile> findAllProfiles();
+
+    @Query(PROFILE + "WHERE d.doctorId = :id")
+    Optional<DoctorProfile> findProfileById(@Param("id") Long id);
+
+    @Query(PROFILE + "WHERE d.email = :email")
+    Optional<DoctorProfile> findProfileByEmail(@Param("email") String email);
+
+    @Query(PROFILE + "WHERE d.status = :status ORDER BY d.doctorId")
+    List<DoctorProfile> findProfilesByStatus(@Param("status") String status);
+
+    @Query(PROFILE + "WHERE d.specialization = :specialization ORDER BY d.doctorId")
+    List<DoctorProfile> findProfilesBySpecialization(@Param("specialization") String specialization);
+
+    @Query("SELECT d.imageHash FROM Doctor d WHERE d.doctorId = :id")
+    Optional<String> findImageHashById(@Param("id") Long id);
+
+    @Query("SELECT d.image FROM Doctor d WHERE d.doctorId = :id")
+    Optional<byte[]> findImageById(@Param("id") Long id);
+
+    @Query("SELECT d.doctorId FROM Doctor d WHERE d.imageHash IS NULL AND d.image IS NOT NULL")
+    List<Long> findIdsMissingImageHash();
+
+    @Modifying
+    @Query("UPDATE Doctor d SET d.imageHash = :hash WHERE d.doctorId = :id")
+    int updateImageHash(@Param("id") Long id, @Param("hash") String hash);
+
+    @Query("SELECT new com.jc.healthcare.dto.StoredFile(d.imageHash, d.imageSize, d.imageType) FROM Doctor d WHERE d.doctorId = :id")
+    Optional<StoredFile> findImageFileById(@Param("id") Long id);
+
+    // BinaryMigrationService: doctors still holding a photo blob, in id order
+    @Query("SELECT d.doctorId FROM Doctor d WHERE d.image IS NOT NULL AND d.doctorId > :afterId ORDER BY d.doctorId")
+    List<Long> findIdsWithImageBlob(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(d) FROM Doctor d WHERE d.image IS NOT NULL")
+    long countImageBlobs();
+
+    @Modifying
+    @Query("""
+            UPDATE Doctor d SET d.imageHash = :hash, d.imageSize = :size, d.imageType = :type, d.image = NULL
+            WHERE d.doctorId = :id AND d.image IS NOT NULL
+            """)
+    int moveImageToStore(@Param("id") Long id, @Param("hash") String hash,
+                         @Param("size") Long size, @Param("type") String type);
+
     List<Doctor> findByStatus(String status);
 
     List<Doctor> findBySpecialization(String specialization);
@@ -22,6 +83,23 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     boolean existsByPhone(String phone);
 
     boolean existsByMedicalLicenseNo(String medicalLicenseNo);
+
+    @Query("SELECT d.phone FROM Doctor d WHERE d.phone IS NOT NULL")
+    List<String> findAllPhones();
+
+    // Set-based duplicate checks for CSV import (keep IN lists under 1000)
+    @Query("SELECT d.doctorId FROM Doctor d WHERE d.doctorId IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.email FROM Doctor d WHERE d.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT d.phone FROM Doctor d WHERE d.phone IN :phones")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    @Query("SELECT d.medicalLicenseNo FROM Doctor d WHERE d.medicalLicenseNo IN :licenseNos")
+    List<String> findExistingLicenseNos(@Param("licenseNos") Collection<String> licenseNos);
+
     @Query("SELECT COUNT(d) FROM Doctor d")
     long getDoctorCount();
 }
@@ -0,0 +1,20 @@
+package com.jc.healthcare.repository;
+
+import com.jc.healthcare.model.DoctorSlotBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DoctorSlotBookingRepository extends JpaRepository<DoctorSlotBooking, Long> {
+
+    // Seeds one doctor-day bitmap
+    @Query("SELECT b.slotIndex FROM DoctorSlotBooking b WHERE b.doctorId = :doctorId AND b.slotDate = :slotDate")
+    List<Integer> findBookedSlots(@Param("doctorId") Long doctorId, @Param("slotDate") LocalDate slotDate);
+
+    List<DoctorSlotBooking> findByDoctorIdAndSlotDateOrderBySlotIndex(Long doctorId, LocalDate slotDate);
+}
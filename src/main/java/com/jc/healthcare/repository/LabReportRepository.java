@@ -1,9 +1,58 @@
 package com.jc.healthcare.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import com.jc.healthcare.dto.LabReportMeta;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.LabReport;
 import java.util.List;
+import java.util.Optional;
 
 public interface LabReportRepository extends JpaRepository<LabReport, Long> {
     List<LabReport> findByPatientId(Long patientId);
+
+    @Query("SELECT r.patientId FROM LabReport r WHERE r.reportId = :reportId")
+    Optional<Long> findPatientIdByReportId(@Param("reportId") Long reportId);
+
+    // Listing without loading REPORT_FILE
+    @Query("""
+            SELECT new com.jc.healthcare.dto.LabReportMeta(
+                r.reportId, t.testId, t.testName, r.fileName, r.fileType, r.fileSize, r.uploadedOn)
+            FROM LabReport r JOIN r.test t
+            WHERE r.patientId = :patientId
+            ORDER BY r.uploadedOn DESC
+            """)
+    List<LabReportMeta> findMetadataByPatientId(@Param("patientId") Long patientId);
+
+    // Patient merge: move every report of one patient to another
+    @Modifying
+    @Query("UPDATE LabReport r SET r.patientId = :toId WHERE r.patientId = :fromId")
+    int repointPatient(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Download metadata without loading REPORT_FILE
+    @Query("""
+            SELECT new com.jc.healthcare.dto.StoredFile(r.fileHash, r.fileSize, r.fileType, r.fileName)
+            FROM LabReport r WHERE r.reportId = :reportId
+            """)
+    Optional<StoredFile> findFileById(@Param("reportId") Long reportId);
+
+    @Query("SELECT r.reportFile FROM LabReport r WHERE r.reportId = :reportId")
+    Optional<byte[]> findReportFileById(@Param("reportId") Long reportId);
+
+    // BinaryMigrationService: reports still holding a file blob, in id order
+    @Query("SELECT r.reportId FROM LabReport r WHERE r.reportFile IS NOT NULL AND r.reportId > :afterId ORDER BY r.reportId")
+    List<Long> findIdsWithFileBlob(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(r) FROM LabReport r WHERE r.reportFile IS NOT NULL")
+    long countFileBlobs();
+
+    @Modifying
+    @Query("""
+            UPDATE LabReport r SET r.fileHash = :hash, r.fileSize = :size, r.reportFile = NULL
+            WHERE r.reportId = :reportId AND r.reportFile IS NOT NULL
+            """)
+    int moveFileToStore(@Param("reportId") Long reportId, @Param("hash") String hash, @Param("size") Long size);
 }
@@ -0,0 +1,38 @@
+package com.jc.healthcare.repository;
+
+import com.jc.healthcare.model.PatientMergeSuggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PatientMergeSuggestionRepository extends JpaRepository<PatientMergeSuggestion, Long> {
+
+    Page<PatientMergeSuggestion> findByStatusOrderByScoreDescSuggestionIdAsc(String status, Pageable pageable);
+
+    long countByStatus(String status);
+
+    @Query("SELECT s.suggestionId FROM PatientMergeSuggestion s WHERE s.status = :status")
+    List<Long> findIdsByStatus(@Param("status") String status);
+
+    // suggestionId, patientId, duplicateId, status of the known pairs kept by these patients (dedup write batch)
+    @Query("SELECT s.suggestionId, s.patientId, s.duplicateId, s.status FROM PatientMergeSuggestion s WHERE s.patientId IN :patientIds")
+    List<Object[]> findPairsByPatientIds(@Param("patientIds") Collection<Long> patientIds);
+
+    // Once a patient is merged away, its other open suggestions no longer apply
+    @Modifying
+    @Query("""
+            UPDATE PatientMergeSuggestion s SET s.status = 'STALE', s.reviewedAt = :now
+            WHERE s.status = 'PENDING'
+              AND (s.patientId = :patientId OR s.duplicateId = :patientId)
+            """)
+    int markStale(@Param("patientId") Long patientId, @Param("now") LocalDateTime now);
+}
@@ -1,40 +1,110 @@
 package com.jc.healthcare.repository;
 
+import com.jc.healthcare.dto.PatientSummary;
+import com.jc.healthcare.dto.PatientView;
 import com.jc.healthcare.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
 
+    // Every column of Patient, straight into the read-only PatientView
+    String VIEW = """
+            SELECT new com.jc.healthcare.dto.PatientView(
+                p.patientId, p.name, p.gender, p.aadhar, p.phone, p.dateOfBirth, p.address, p.doctorId,
+                p.appointmentDate, p.appointmentTime, p.appointmentAt, p.dosageInstructions, p.generatedAt,
+                p.notes, p.selectedMedicines, p.dateIssued, p.disease, p.medication, p.selectedTests,
+                p.medisionStatus, p.doctorStatus, p.labStatus, p.version)
+            FROM Patient p
+            """;
+
     @Query("SELECT COUNT(p) FROM Patient p")
     long getPatientCount();
 
-    List<Patient> findByMedisionStatusIgnoreCase(String medisionStatus);
-    List<Patient> findByDoctorStatusIgnoreCase(String doctorStatus);
-    List<Patient> findByLabStatusIgnoreCase(String labStatus);
+    // 📄 Keyset paging on PATIENT_ID
+    @Query("""
+            SELECT new com.jc.healthcare.dto.PatientSummary(
+                p.patientId, p.name, p.gender, p.phone, p.aadhar, p.dateOfBirth, p.doctorId,
+                p.appointmentDate, p.appointmentTime, p.appointmentAt, p.disease,
+                p.medisionStatus, p.doctorStatus, p.labStatus)
+            FROM Patient p
+            WHERE p.patientId > :afterId
+            ORDER BY p.patientId ASC
+            """)
+    List<PatientSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW + "WHERE p.patientId > :afterId ORDER BY p.patientId ASC")
+    List<PatientView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Set-based duplicate checks for bulk registration (keep IN lists under 1000)
+    @Query("SELECT p.aadhar FROM Patient p WHERE p.aadhar IN :aadhars")
+    List<String> findExistingAadhars(@Param("aadhars") Collection<String> aadhars);
+
+    @Query("SELECT p.phone FROM Patient p WHERE p.phone IN :phones")
+    List<String> findExistingPhones(@Param("phones") Collection<String> phones);
+
+    // Warm-up source for UniquenessGuard (must run inside a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT p.aadhar FROM Patient p WHERE p.aadhar IS NOT NULL")
+    Stream<String> streamAllAadhars();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT p.phone FROM Patient p WHERE p.phone IS NOT NULL")
+    Stream<String> streamAllPhones();
+
+    // Source rows for PatientSearchIndex (must run inside a transaction)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT p.patientId, p.name, p.phone, p.aadhar FROM Patient p")
+    Stream<Object[]> streamSearchRows();
+
+    // Source rows for PatientDedupService, one id range per fork/join chunk
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("""
+            SELECT p.patientId, p.name, p.phone, p.aadhar, p.dateOfBirth, p.gender FROM Patient p
+            WHERE p.patientId >= :fromId AND p.patientId < :toId
+            """)
+    List<Object[]> findDedupRows(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("SELECT MIN(p.patientId), MAX(p.patientId) FROM Patient p")
+    List<Object[]> findPatientIdRange();
+
+    // Used by search until the in-memory index has been built
+    List<Patient> findByNameStartingWithIgnoreCaseOrPhoneStartingWithOrAadharStartingWith(
+            String name, String phone, String aadhar, Limit limit);
+
+    @Query(VIEW + "WHERE UPPER(p.medisionStatus) = UPPER(:status)")
+    List<PatientView> findViewsByMedisionStatus(@Param("status") String status);
 
-    // 🔍 Filter by Date + Status + Doctor
+    @Query(VIEW + "WHERE UPPER(p.doctorStatus) = UPPER(:status)")
+    List<PatientView> findViewsByDoctorStatus(@Param("status") String status);
+
+    @Query(VIEW + "WHERE UPPER(p.labStatus) = UPPER(:status)")
+    List<PatientView> findViewsByLabStatus(@Param("status") String status);
+
+    // Seed / reconciliation source for PatientStatsService
     @Query(value = """
-            SELECT * FROM patients p
-            WHERE TO_DATE(p.appointment_date, 'DD-MON-RR') = TO_DATE(:fromDate, 'YYYY-MM-DD')
-              AND (:doctorStatus IS NULL OR :doctorStatus='' OR LOWER(:doctorStatus)='all' 
-                   OR LOWER(p.doctor_status)=LOWER(:doctorStatus))
-              AND (:medisionStatus IS NULL OR :medisionStatus='' OR LOWER(:medisionStatus)='all' 
-                   OR LOWER(p.medision_status)=LOWER(:medisionStatus))
-              AND (:doctorId IS NULL OR :doctorId=0 OR p.doctor_id = :doctorId)
-            ORDER BY p.appointment_time ASC
+            SELECT TRUNC(p.appointment_at) AS day, p.doctor_id,
+                   LOWER(p.doctor_status), LOWER(p.lab_status), LOWER(p.medision_status), COUNT(*)
+            FROM patients p
+            WHERE p.appointment_at >= :fromAt
+            GROUP BY TRUNC(p.appointment_at), p.doctor_id,
+                     LOWER(p.doctor_status), LOWER(p.lab_status), LOWER(p.medision_status)
             """, nativeQuery = true)
-    List<Patient> findPatientsByStatusAndDateNative(
-            @Param("fromDate") String fromDate,
-            @Param("medisionStatus") String medisionStatus,
-            @Param("doctorStatus") String doctorStatus,
-            @Param("doctorId") Long doctorId
-    );
+    List<Object[]> countByDayDoctorAndStatus(@Param("fromAt") LocalDateTime fromAt);
 
     // 🧍 Full patient + bed + ward details
     @Query(value = """
@@ -50,29 +120,108 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
             """, nativeQuery = true)
     List<Object[]> getFullPatientDetails(@Param("patientId") Long patientId);
 
+    // Same shape as getFullPatientDetails, for archived visits
+    @Query(value = """
+            SELECT 
+                p.patient_id, p.name, p.gender, p.disease, p.phone, p.address, 
+                p.doctor_status, p.medision_status, p.lab_status,
+                b.booking_id, b.bed_id, b.admission_date, b.discharge_date, b.status AS bed_status,
+                w.ward_id, w.ward_name, w.ward_type, w.total_beds, w.created_on
+            FROM patients_archive p
+            LEFT JOIN bed_booking b ON p.patient_id = b.patient_id
+            LEFT JOIN ward_master w ON b.ward_id = w.ward_id
+            WHERE p.patient_id = :patientId
+            """, nativeQuery = true)
+    List<Object[]> getFullArchivedPatientDetails(@Param("patientId") Long patientId);
+
+    // 🗄️ Archive (patients_archive, see db/005_patients_archive.sql)
+    @Query(value = "SELECT a.* FROM patients_archive a WHERE a.patient_id = :patientId", nativeQuery = true)
+    Optional<Patient> findArchivedById(@Param("patientId") Long patientId);
+
+    // Next chunk of completed visits old enough to archive; patients still admitted stay hot
+    @Query(value = """
+            SELECT p.patient_id FROM patients p
+            WHERE p.patient_id > :afterId
+              AND p.appointment_at < :cutoff
+              AND LOWER(p.doctor_status) = 'completed'
+              AND NOT EXISTS (SELECT 1 FROM bed_booking b
+                              WHERE b.patient_id = p.patient_id AND b.discharge_date IS NULL)
+            ORDER BY p.patient_id
+            FETCH FIRST :batchSize ROWS ONLY
+            """, nativeQuery = true)
+    List<Number> findArchivable(@Param("afterId") Long afterId,
+                                @Param("cutoff") LocalDateTime cutoff,
+                                @Param("batchSize") int batchSize);
+
+    // Columns named on both sides, so a column added to only one table, or in another order, cannot shift values
+    @Modifying
+    @Query(value = """
+            INSERT INTO patients_archive (
+                patient_id, name, gender, aadhar, phone, date_of_birth, address, doctor_id,
+                appointment_date, appointment_time, appointment_at, dosage_instructions, generated_at,
+                notes, selected_medicines, date_issued, disease, medication, selected_tests,
+                medision_status, doctor_status, lab_status, version, archived_at)
+            SELECT
+                p.patient_id, p.name, p.gender, p.aadhar, p.phone, p.date_of_birth, p.address, p.doctor_id,
+                p.appointment_date, p.appointment_time, p.appointment_at, p.dosage_instructions, p.generated_at,
+                p.notes, p.selected_medicines, p.date_issued, p.disease, p.medication, p.selected_tests,
+                p.medision_status, p.doctor_status, p.lab_status, p.version, SYSTIMESTAMP
+            FROM patients p
+            WHERE p.patient_id IN (:ids)
+              AND NOT EXISTS (SELECT 1 FROM patients_archive a WHERE a.patient_id = p.patient_id)
+            """, nativeQuery = true)
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    // Only rows that made it into the archive are removed, so a re-run never loses data
+    @Modifying
+    @Query(value = """
+            DELETE FROM patients p
+            WHERE p.patient_id IN (:ids)
+              AND EXISTS (SELECT 1 FROM patients_archive a WHERE a.patient_id = p.patient_id)
+            """, nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+
     @Query(value = """
             SELECT p.* FROM patients p
-            WHERE TO_DATE(p.appointment_date, 'DD-MON-RR') = TRUNC(SYSDATE)
-            ORDER BY p.appointment_time ASC
+            WHERE p.appointment_at >= TRUNC(SYSDATE)
+              AND p.appointment_at < TRUNC(SYSDATE) + 1
+            ORDER BY p.appointment_at ASC
             """, nativeQuery = true)
     List<Patient> findAllTodayPatients();
 
 
     @Query(value = """
             SELECT p.* FROM patients p
-            WHERE TO_DATE(p.appointment_date, 'DD-MON-RR') = TRUNC(SYSDATE)
+            WHERE p.appointment_at >= TRUNC(SYSDATE)
+              AND p.appointment_at < TRUNC(SYSDATE) + 1
               AND LOWER(p.doctor_status) = 'completed'
-            ORDER BY p.appointment_time ASC
+            ORDER BY p.appointment_at ASC
             """, nativeQuery = true)
     List<Patient> findTodayDoctorCompleted();
 
 
     @Query(value = """
             SELECT p.* FROM patients p
-            WHERE TO_DATE(p.appointment_date, 'DD-MON-RR') = TRUNC(SYSDATE)
+            WHERE p.appointment_at >= TRUNC(SYSDATE)
+              AND p.appointment_at < TRUNC(SYSDATE) + 1
               AND LOWER(p.doctor_status) = 'pending'
-            ORDER BY p.appointment_time ASC
+            ORDER BY p.appointment_at ASC
             """, nativeQuery = true)
     List<Patient> findTodayDoctorPending();
 
+    // ⏱️ Backfill of APPOINTMENT_AT for rows written before the column existed
+    @Query(value = """
+            SELECT p.patient_id, p.appointment_date, p.appointment_time FROM patients p
+            WHERE p.patient_id > :afterId
+              AND p.appointment_at IS NULL
+              AND p.appointment_date IS NOT NULL
+            ORDER BY p.patient_id
+            FETCH FIRST :batchSize ROWS ONLY
+            """, nativeQuery = true)
+    List<Object[]> findAppointmentsToBackfill(@Param("afterId") Long afterId, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("UPDATE Patient p SET p.appointmentAt = :appointmentAt WHERE p.patientId = :patientId AND p.appointmentAt IS NULL")
+    int backfillAppointmentAt(@Param("patientId") Long patientId, @Param("appointmentAt") LocalDateTime appointmentAt);
+
 }
@@ -2,7 +2,9 @@ package com.jc.healthcare.repository;
 
 import com.jc.healthcare.model.Prescription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +12,13 @@ import java.util.List;
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
 
+    List<Prescription> findByPatientIdOrderByDateIssuedDesc(Long patientId);
+
+    // Patient merge: move every prescription of one patient to another
+    @Modifying
+    @Query("UPDATE Prescription p SET p.patientId = :toId WHERE p.patientId = :fromId")
+    int repointPatient(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
     // 🔹 1️⃣ URGENT LAB STATUS + TODAY'S PRESCRIPTION
     @Query(value = """
         SELECT p.patient_id, p.name, p.lab_status, pr.date_issued,
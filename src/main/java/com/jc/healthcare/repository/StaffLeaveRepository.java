@@ -0,0 +1,28 @@
+package com.jc.healthcare.repository;
+
+import com.jc.healthcare.model.StaffLeave;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StaffLeaveRepository extends JpaRepository<StaffLeave, Long> {
+
+    List<StaffLeave> findByStaffIdOrderByFromDate(Long staffId);
+
+    // Roster build: leave that can still take someone off a shift
+    List<StaffLeave> findByToDateGreaterThanEqual(LocalDate date);
+
+    List<StaffLeave> findByStaffIdAndToDateGreaterThanEqual(Long staffId, LocalDate date);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StaffLeave l WHERE l.staffId = :staffId")
+    int deleteByStaff(@Param("staffId") Long staffId);
+}
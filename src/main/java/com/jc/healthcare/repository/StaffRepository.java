@@ -1,16 +1,75 @@
 package com.jc.healthcare.repository;
 
+import com.jc.healthcare.dto.StaffSummary;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.Staff;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StaffRepository extends JpaRepository<Staff, Long> {
 
-    List<Staff> findByDepartmentIgnoreCase(String department);
+    String SUMMARY = """
+            SELECT new com.jc.healthcare.dto.StaffSummary(
+                s.id, s.name, s.mobile, s.email, s.department, s.role, s.joiningDate, s.timings, s.imageHash)
+            FROM Staff s
+            """;
+
+    @Query(SUMMARY + "WHERE s.id > :afterId ORDER BY s.id ASC")
+    List<StaffSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Department pages once StaffDirectory has the ids (keep IN lists under 1000)
+    @Query(SUMMARY + "WHERE s.id IN :ids ORDER BY s.id ASC")
+    List<StaffSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Fallback while the StaffDirectory index is being built
+    @Query(SUMMARY + "WHERE UPPER(s.department) = UPPER(:department) AND s.id > :afterId ORDER BY s.id ASC")
+    List<StaffSummary> findSummariesByDepartment(@Param("department") String department,
+                                                 @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT s.id, s.department FROM Staff s")
+    List<Object[]> findIdsAndDepartments();
+
+    // RosterService: who a shift belongs to (id, name, department, role)
+    @Query("SELECT s.id, s.name, s.department, s.role FROM Staff s")
+    List<Object[]> findRosterRows();
 
     boolean existsByAdhar(String adhar);
 
     Staff findByEmail(String email);
+
+    @Query("SELECT s.adhar FROM Staff s WHERE s.adhar IS NOT NULL")
+    List<String> findAllAdhars();
+
+    // Set-based duplicate check for CSV import (keep IN lists under 1000)
+    @Query("SELECT s.adhar FROM Staff s WHERE s.adhar IN :adhars")
+    List<String> findExistingAdhars(@Param("adhars") Collection<String> adhars);
+
+    @Query("SELECT new com.jc.healthcare.dto.StoredFile(s.imageHash, s.imageSize, s.imageType) FROM Staff s WHERE s.id = :id")
+    Optional<StoredFile> findImageFileById(@Param("id") Long id);
+
+    @Query("SELECT s.image FROM Staff s WHERE s.id = :id")
+    Optional<byte[]> findImageById(@Param("id") Long id);
+
+    // BinaryMigrationService: staff still holding a photo blob, in id order
+    @Query("SELECT s.id FROM Staff s WHERE s.image IS NOT NULL AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsWithImageBlob(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(s) FROM Staff s WHERE s.image IS NOT NULL")
+    long countImageBlobs();
+
+    @Modifying
+    @Query("""
+            UPDATE Staff s SET s.imageHash = :hash, s.imageSize = :size, s.imageType = :type, s.image = NULL
+            WHERE s.id = :id AND s.image IS NOT NULL
+            """)
+    int moveImageToStore(@Param("id") Long id, @Param("hash") String hash,
+                         @Param("size") Long size, @Param("type") String type);
 }
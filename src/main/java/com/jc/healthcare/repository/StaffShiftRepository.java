@@ -0,0 +1,23 @@
+package com.jc.healthcare.repository;
+
+import com.jc.healthcare.model.StaffShift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface StaffShiftRepository extends JpaRepository<StaffShift, Long> {
+
+    List<StaffShift> findByStaffIdOrderByShiftId(Long staffId);
+
+    // Staff deleted: their roster goes with them
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StaffShift s WHERE s.staffId = :staffId")
+    int deleteByStaff(@Param("staffId") Long staffId);
+}
@@ -20,6 +20,9 @@ public class BedBookingService {
     @Autowired
     private WardRepository wardRepository;
 
+    @Autowired
+    private PatientChartService patientChartService;
+
     public BedBooking bookBed(BedBooking bedBooking) {
         Ward ward = wardRepository.findById(bedBooking.getWard().getWardId())
                 .orElseThrow(() -> new RuntimeException("Ward not found"));
@@ -46,7 +49,9 @@ public class BedBookingService {
         booking.setAdmissionDate(LocalDate.now());
         booking.setDischargeDate(bedBooking.getDischargeDate());
 
-        return bookingRepository.save(booking);
+        BedBooking saved = bookingRepository.save(booking);
+        patientChartService.invalidate(saved.getPatientId());
+        return saved;
     }
 
     // OLD: Only for discharge
@@ -55,7 +60,9 @@ public class BedBookingService {
         if (booking != null && "Active".equals(booking.getStatus())) {
             booking.setStatus("Completed");
             booking.setDischargeDate(LocalDate.now().toString());
-            return bookingRepository.save(booking);
+            BedBooking saved = bookingRepository.save(booking);
+            patientChartService.invalidate(saved.getPatientId());
+            return saved;
         }
         return null;
     }
@@ -75,7 +82,9 @@ public class BedBookingService {
         BedBooking booking = activeBookings.get(0);
         booking.setDischargeDate(dischargeDate);
         
-        return bookingRepository.save(booking);
+        BedBooking saved = bookingRepository.save(booking);
+        patientChartService.invalidate(saved.getPatientId());
+        return saved;
     }
 
     // MAKE AVAILABLE
@@ -87,13 +96,16 @@ public class BedBookingService {
         }
 
         BedBooking booking = bookings.get(0); // Take first (should be only one)
+        Long previousPatientId = booking.getPatientId();
 
         booking.setStatus("Available");
         booking.setPatientId(null);
         booking.setDischargeDate(null);
         booking.setAdmissionDate(null);
 
-        return bookingRepository.save(booking);
+        BedBooking saved = bookingRepository.save(booking);
+        patientChartService.invalidate(previousPatientId);
+        return saved;
     }
  
     public String deleteBed(Long wardId, Long bedId) {
@@ -112,6 +124,7 @@ public class BedBookingService {
 
         // ✅ If bed is Available or Completed → delete
         bookingRepository.deleteAll(existingBeds);
+        existingBeds.forEach(b -> patientChartService.invalidate(b.getPatientId()));
         return "Bed with bedId " + bedId + " deleted successfully from wardId " + wardId;
     }
 
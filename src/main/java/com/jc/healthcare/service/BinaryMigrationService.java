@@ -0,0 +1,204 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.repository.DoctorRepository;
+import com.jc.healthcare.repository.LabReportRepository;
+import com.jc.healthcare.repository.StaffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+// Moves doctor / staff photo and lab report BLOBs into the BinaryStore, binary-store.migration.batch-size
+// ids at a time. Each file is written to the store first and its row is then repointed (hash, size,
+// blob = NULL) in its own short transaction; the update only matches rows that still hold the blob,
+// so a newer upload is never overwritten and a stopped run simply resumes on the next run.
+@Service
+public class BinaryMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryMigrationService.class);
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Autowired
+    private BinaryStore binaryStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${binary-store.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${binary-store.migration.batch-size:100}")
+    private int batchSize;
+
+    @Value("${binary-store.migration.pause-ms:100}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalMoved = new AtomicLong();
+    private final AtomicLong totalFailed = new AtomicLong();
+    private final AtomicLong currentRunMoved = new AtomicLong();
+    private final AtomicLong currentRunBytes = new AtomicLong();
+    private volatile long lastRunMoved;
+    private volatile long lastRunBytes;
+    private volatile double lastRunMegabytesPerSecond;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile String lastError;
+
+    @Scheduled(cron = "${binary-store.migration.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) runInBackground();
+    }
+
+    // false when a run is already in progress
+    public boolean runInBackground() {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread worker = new Thread(() -> {
+            try {
+                migrate();
+            } finally {
+                running.set(false);
+            }
+        }, "binary-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void migrate() {
+        LocalDateTime started = LocalDateTime.now();
+        lastRunStartedAt = started;
+        lastError = null;
+        currentRunMoved.set(0);
+        currentRunBytes.set(0);
+
+        try {
+            migrate("doctor", doctorRepository::findIdsWithImageBlob, this::moveDoctorImage);
+            migrate("staff", staffRepository::findIdsWithImageBlob, this::moveStaffImage);
+            migrate("lab report", labReportRepository::findIdsWithFileBlob, this::moveReportFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Binary migration stopped after {} files: {}", currentRunMoved.get(), e.getMessage());
+        }
+
+        LocalDateTime finished = LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(started, finished).toMillis());
+        lastRunMoved = currentRunMoved.get();
+        lastRunBytes = currentRunBytes.get();
+        lastRunMegabytesPerSecond = lastRunBytes / 1048576.0 * 1000 / millis;
+        lastRunFinishedAt = finished;
+        runs.incrementAndGet();
+        log.info("Binary migration run: {} files ({} bytes) moved to the store in {} ms",
+                lastRunMoved, lastRunBytes, millis);
+    }
+
+    private void migrate(String kind, BiFunction<Long, Limit, List<Long>> nextBatch, Move move)
+            throws InterruptedException {
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = nextBatch.apply(afterId, Limit.of(batchSize));
+            if (ids.isEmpty()) return;
+            for (Long id : ids) {
+                try {
+                    long bytes = move.move(id);
+                    currentRunMoved.incrementAndGet();
+                    currentRunBytes.addAndGet(bytes);
+                    totalMoved.incrementAndGet();
+                } catch (Exception e) {
+                    // left in place; retried on the next run
+                    totalFailed.incrementAndGet();
+                    lastError = kind + " " + id + ": " + e.getMessage();
+                    log.warn("Binary migration skipped {} {}: {}", kind, id, e.getMessage());
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+            if (pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        }
+    }
+
+    private long moveDoctorImage(Long id) throws IOException {
+        byte[] bytes = doctorRepository.findImageById(id).orElse(null);
+        if (bytes == null) return 0;
+        BinaryStore.Stored stored = binaryStore.put(bytes);
+        String type = DoctorImageService.contentTypeOf(bytes).toString();
+        transactionTemplate.executeWithoutResult(status ->
+                doctorRepository.moveImageToStore(id, stored.hash(), stored.size(), type));
+        return stored.size();
+    }
+
+    private long moveStaffImage(Long id) throws IOException {
+        byte[] bytes = staffRepository.findImageById(id).orElse(null);
+        if (bytes == null) return 0;
+        BinaryStore.Stored stored = binaryStore.put(bytes);
+        String type = DoctorImageService.contentTypeOf(bytes).toString();
+        transactionTemplate.executeWithoutResult(status ->
+                staffRepository.moveImageToStore(id, stored.hash(), stored.size(), type));
+        return stored.size();
+    }
+
+    private long moveReportFile(Long id) throws IOException {
+        byte[] bytes = labReportRepository.findReportFileById(id).orElse(null);
+        if (bytes == null) return 0;
+        BinaryStore.Stored stored = binaryStore.put(bytes);
+        transactionTemplate.executeWithoutResult(status ->
+                labReportRepository.moveFileToStore(id, stored.hash(), stored.size()));
+        return stored.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("batchSize", batchSize);
+        stats.put("runs", runs.get());
+        stats.put("totalMoved", totalMoved.get());
+        stats.put("totalFailed", totalFailed.get());
+        stats.put("currentRunMoved", running.get() ? currentRunMoved.get() : 0);
+        stats.put("lastRunStartedAt", lastRunStartedAt);
+        stats.put("lastRunFinishedAt", lastRunFinishedAt);
+        stats.put("lastRunMoved", lastRunMoved);
+        stats.put("lastRunBytes", lastRunBytes);
+        stats.put("lastRunMegabytesPerSecond", lastRunMegabytesPerSecond);
+        stats.put("lastError", lastError);
+
+        // rows still holding a blob; all zero means the BLOB columns can be dropped
+        Map<String, Object> remaining = new LinkedHashMap<>();
+        remaining.put("doctorImages", doctorRepository.countImageBlobs());
+        remaining.put("staffImages", staffRepository.countImageBlobs());
+        remaining.put("labReportFiles", labReportRepository.countFileBlobs());
+        stats.put("remaining", remaining);
+        return stats;
+    }
+
+    private interface Move {
+        // bytes moved
+        long move(Long id) throws IOException;
+    }
+}
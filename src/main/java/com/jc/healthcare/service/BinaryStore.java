@@ -0,0 +1,34 @@
+package com.jc.healthcare.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+// Content-addressed storage for photos and lab report files. The key is the SHA-256 of the
+// bytes, so identical uploads are stored once and a stored file never changes.
+// Rows keep only the hash (plus size and content type); see LocalFileSystemBinaryStore.
+public interface BinaryStore {
+
+    // Streams the content in and returns its hash; a no-op write when the hash is already stored
+    Stored put(InputStream content) throws IOException;
+
+    default Stored put(byte[] content) throws IOException {
+        return put(new ByteArrayInputStream(content));
+    }
+
+    boolean contains(String hash);
+
+    // Empty when the hash is unknown
+    Optional<Resource> get(String hash);
+
+    // Derived copies of a stored file (e.g. thumbnails), kept beside it under a short variant name
+    void putVariant(String hash, String variant, InputStream content) throws IOException;
+
+    Optional<Resource> getVariant(String hash, String variant);
+
+    record Stored(String hash, long size) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.jc.healthcare.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+// Minimal RFC 4180 reader: one record at a time, quoted fields may hold commas, quotes ("")
+// and line breaks. The first record is the header; rows come back keyed by lower-cased header name.
+public final class CsvRowReader implements AutoCloseable {
+
+    private final Reader reader;
+    private final List<String> header;
+    private int peeked = -2;
+
+    public CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> names = readRecord();
+        if (names == null) throw new IllegalArgumentException("CSV is empty");
+        List<String> normalized = new ArrayList<>(names.size());
+        for (String name : names) {
+            normalized.add(name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        this.header = List.copyOf(normalized);
+    }
+
+    public List<String> getHeader() {
+        return header;
+    }
+
+    // Null at end of input; blank lines are skipped
+    public Map<String, String> next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) return null;
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            if (!value.isEmpty()) row.put(header.get(i), value);
+        }
+        return row;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) throw new IllegalArgumentException("CSV ends inside a quoted field");
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') read();
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) peeked = reader.read();
+        return peeked;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
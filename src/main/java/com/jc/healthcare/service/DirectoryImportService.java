@@ -0,0 +1,496 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.BulkRowResult;
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.dto.ImportReport;
+import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.model.Staff;
+import com.jc.healthcare.repository.DoctorRepository;
+import com.jc.healthcare.repository.StaffRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Branch onboarding: doctors / staff from a CSV, photos optionally from a zip (the "image"
+// column names the zip entry). The CSV is read one record at a time and handled in chunks:
+// in-file duplicates from seen-sets, existing rows from UniquenessGuard and one IN query per
+// column per chunk, then one JDBC-batched transaction per chunk. A chunk that still hits a
+// constraint is retried row by row, like the patient bulk import.
+// Photos are streamed from the zip into the BinaryStore and rows keep only the hash, so memory
+// stays at one chunk of rows plus the seen-sets, whatever the file or photo sizes.
+@Service
+public class DirectoryImportService {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private UniquenessGuard uniquenessGuard;
+
+    @Autowired
+    private DoctorCache doctorCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BinaryStore binaryStore;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private StaffDirectory staffDirectory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // rows per transaction; also the size of the IN lists, so keep it under 1000
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${import.max-image-bytes:5242880}")
+    private long maxImageBytes;
+
+    @Value("${import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ImportReport importDoctors(MultipartFile csv, MultipartFile images) throws IOException {
+        return run(csv, images, new DoctorRows());
+    }
+
+    public ImportReport importStaff(MultipartFile csv, MultipartFile images) throws IOException {
+        return run(csv, images, new StaffRows());
+    }
+
+    // ================= PIPELINE =================
+
+    private <T> ImportReport run(MultipartFile csv, MultipartFile images, Rows<T> rows) throws IOException {
+        if (csv == null || csv.isEmpty()) throw new IllegalArgumentException("CSV file is required");
+        int size = Math.max(1, Math.min(chunkSize, 999));
+
+        File zipCopy = null;
+        ZipFile zip = null;
+        try (InputStream in = csv.getInputStream();
+             CsvRowReader reader = new CsvRowReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))) {
+            if (images != null && !images.isEmpty()) {
+                // ZipFile reads one entry on demand instead of unpacking the whole archive
+                zipCopy = Files.createTempFile("import-images", ".zip").toFile();
+                images.transferTo(zipCopy);
+                zip = new ZipFile(zipCopy);
+            }
+            rows.checkHeader(reader.getHeader());
+
+            ImportReport report = new ImportReport();
+            List<T> chunk = new ArrayList<>(size);
+            List<Integer> indexes = new ArrayList<>(size);
+            int index = 0;
+            Map<String, String> row;
+            while ((row = reader.next()) != null) {
+                int rowIndex = index++;
+                report.setTotal(report.getTotal() + 1);
+                T item;
+                try {
+                    item = rows.map(row);
+                    String duplicate = rows.checkInFile(item);
+                    if (duplicate != null) throw new IllegalArgumentException(duplicate);
+                    if (zip != null && row.containsKey("image")) attachImage(rows, item, zip, row.get("image"));
+                } catch (IllegalArgumentException e) {
+                    fail(report, rowIndex, e.getMessage());
+                    continue;
+                } catch (IOException e) {
+                    // a corrupt or truncated zip entry fails its own row, not the whole import
+                    fail(report, rowIndex, "Image could not be read: " + row.get("image") + " (" + e.getMessage() + ")");
+                    continue;
+                }
+                // only a row that passed every check claims its values
+                rows.remember(item);
+                chunk.add(item);
+                indexes.add(rowIndex);
+                if (chunk.size() == size) {
+                    insertChunk(rows, chunk, indexes, report);
+                    chunk.clear();
+                    indexes.clear();
+                }
+            }
+            if (!chunk.isEmpty()) insertChunk(rows, chunk, indexes, report);
+            return report;
+        } finally {
+            if (zip != null) zip.close();
+            if (zipCopy != null) Files.deleteIfExists(zipCopy.toPath());
+        }
+    }
+
+    private <T> void attachImage(Rows<T> rows, T item, ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null || entry.isDirectory()) throw new IllegalArgumentException("Image not found in zip: " + name);
+        if (entry.getSize() > maxImageBytes) throw new IllegalArgumentException("Image too large: " + name);
+        // only the first bytes are held, to tell the content type; the rest is streamed to the store
+        try (PushbackInputStream in = new PushbackInputStream(zip.getInputStream(entry), 16)) {
+            byte[] head = in.readNBytes(16);
+            in.unread(head);
+            BinaryStore.Stored stored = binaryStore.put(limited(in, name));
+            rows.setImage(item, stored, DoctorImageService.contentTypeOf(head).toString());
+            thumbnailService.enqueue(stored.hash());
+        }
+    }
+
+    // the zip's declared size is checked above; this catches an entry that inflates past it
+    private InputStream limited(InputStream in, String name) {
+        return new FilterInputStream(in) {
+            private long read;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) count(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) count(n);
+                return n;
+            }
+
+            private void count(int n) {
+                read += n;
+                if (read > maxImageBytes) throw new IllegalArgumentException("Image too large: " + name);
+            }
+        };
+    }
+
+    private <T> void insertChunk(Rows<T> rows, List<T> chunk, List<Integer> indexes, ImportReport report) {
+        Map<T, String> existing = rows.checkExisting(chunk);
+        List<T> toInsert = new ArrayList<>(chunk.size());
+        List<Integer> toInsertIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String duplicate = existing.get(chunk.get(i));
+            if (duplicate != null) {
+                fail(report, indexes.get(i), duplicate);
+            } else {
+                toInsert.add(chunk.get(i));
+                toInsertIndexes.add(indexes.get(i));
+            }
+        }
+        if (toInsert.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (T item : toInsert) {
+                    entityManager.persist(item);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (T item : toInsert) {
+                rows.afterInsert(item);
+            }
+            report.setCreated(report.getCreated() + toInsert.size());
+        } catch (RuntimeException batchFailure) {
+            entityManager.clear();
+            for (int i = 0; i < toInsert.size(); i++) {
+                insertOne(rows, toInsert.get(i), toInsertIndexes.get(i), report);
+            }
+        }
+    }
+
+    private <T> void insertOne(Rows<T> rows, T item, int index, ImportReport report) {
+        rows.resetId(item);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(item);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            rows.afterInsert(item);
+            report.setCreated(report.getCreated() + 1);
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            fail(report, index, describe(e));
+        }
+    }
+
+    private void fail(ImportReport report, int index, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(BulkRowResult.failed(index, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private String describe(RuntimeException e) {
+        String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        if (message.contains("ORA-00001")) return "Duplicate value exists!";
+        return "Error: " + message;
+    }
+
+    // Per-entity hooks; one instance per import, so the seen-sets live as long as the file
+    private interface Rows<T> {
+        void checkHeader(List<String> header);
+
+        T map(Map<String, String> row);
+
+        // photo already written to the BinaryStore; the row only records where
+        void setImage(T item, BinaryStore.Stored image, String contentType);
+
+        // null, or why the row repeats an earlier row of the same file; records nothing
+        String checkInFile(T item);
+
+        // the row was accepted: later rows of the file may not repeat its values
+        void remember(T item);
+
+        // rows of the chunk that already exist, with the reason
+        Map<T, String> checkExisting(List<T> chunk);
+
+        void resetId(T item);
+
+        void afterInsert(T item);
+    }
+
+    // ================= DOCTORS =================
+
+    private final class DoctorRows implements Rows<Doctor> {
+        private final Set<Long> seenIds = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final Set<String> seenPhones = new HashSet<>();
+        private final Set<String> seenLicenseNos = new HashSet<>();
+
+        @Override
+        public void checkHeader(List<String> header) {
+            requireColumns(header, "doctorid", "doctorname", "specialization");
+        }
+
+        @Override
+        public Doctor map(Map<String, String> row) {
+            Doctor d = new Doctor();
+            d.setDoctorId(parseLong(required(row, "doctorid"), "doctorId"));
+            d.setDoctorName(required(row, "doctorname"));
+            d.setSpecialization(required(row, "specialization"));
+            d.setPhone(row.get("phone"));
+            d.setEmail(row.get("email"));
+            d.setExperience(row.containsKey("experience") ? (int) parseLong(row.get("experience"), "experience") : null);
+            d.setStatus(row.getOrDefault("status", "ACTIVE"));
+            d.setAddress(row.get("address"));
+            d.setDateOfBirth(row.get("dateofbirth"));
+            d.setGender(row.get("gender"));
+            d.setCity(row.get("city"));
+            d.setState(row.get("state"));
+            d.setPinCode(row.get("pincode"));
+            d.setCountry(row.get("country"));
+            d.setMedicalLicenseNo(row.get("medicallicenseno"));
+            d.setRole(row.getOrDefault("role", "DOCTOR"));
+            d.setPassword(row.get("password"));
+            return d;
+        }
+
+        @Override
+        public void setImage(Doctor item, BinaryStore.Stored image, String contentType) {
+            item.setImageHash(image.hash());
+            item.setImageSize(image.size());
+            item.setImageType(contentType);
+        }
+
+        @Override
+        public String checkInFile(Doctor d) {
+            if (seenIds.contains(d.getDoctorId())) return "Doctor ID repeated in this file!";
+            if (d.getEmail() != null && seenEmails.contains(d.getEmail())) return "Email repeated in this file!";
+            if (d.getPhone() != null && seenPhones.contains(d.getPhone())) return "Phone number repeated in this file!";
+            if (d.getMedicalLicenseNo() != null && seenLicenseNos.contains(d.getMedicalLicenseNo())) {
+                return "Medical license number repeated in this file!";
+            }
+            return null;
+        }
+
+        @Override
+        public void remember(Doctor d) {
+            seenIds.add(d.getDoctorId());
+            if (d.getEmail() != null) seenEmails.add(d.getEmail());
+            if (d.getPhone() != null) seenPhones.add(d.getPhone());
+            if (d.getMedicalLicenseNo() != null) seenLicenseNos.add(d.getMedicalLicenseNo());
+        }
+
+        @Override
+        public Map<Doctor, String> checkExisting(List<Doctor> chunk) {
+            Set<Long> ids = new HashSet<>();
+            Set<String> emails = new HashSet<>();
+            Set<String> phones = new HashSet<>();
+            Set<String> licenseNos = new HashSet<>();
+            Set<String> knownPhones = new HashSet<>();
+            for (Doctor d : chunk) {
+                ids.add(d.getDoctorId());
+                if (d.getEmail() != null) emails.add(d.getEmail());
+                if (d.getMedicalLicenseNo() != null) licenseNos.add(d.getMedicalLicenseNo());
+                switch (uniquenessGuard.check(UniquenessGuard.Scope.DOCTOR_PHONE, d.getPhone())) {
+                    case PRESENT -> knownPhones.add(d.getPhone());
+                    case UNKNOWN -> { if (d.getPhone() != null) phones.add(d.getPhone()); }
+                    default -> {}
+                }
+            }
+            Set<Long> existingIds = new HashSet<>(doctorRepository.findExistingIds(ids));
+            Set<String> existingEmails = emails.isEmpty() ? Collections.emptySet() : new HashSet<>(doctorRepository.findExistingEmails(emails));
+            Set<String> existingLicenseNos = licenseNos.isEmpty() ? Collections.emptySet() : new HashSet<>(doctorRepository.findExistingLicenseNos(licenseNos));
+            Set<String> existingPhones = new HashSet<>(knownPhones);
+            if (!phones.isEmpty()) existingPhones.addAll(doctorRepository.findExistingPhones(phones));
+
+            Map<Doctor, String> duplicates = new IdentityHashMap<>();
+            for (Doctor d : chunk) {
+                if (existingIds.contains(d.getDoctorId())) duplicates.put(d, "Doctor ID already exists");
+                else if (existingEmails.contains(d.getEmail())) duplicates.put(d, "Email already exists");
+                else if (existingPhones.contains(d.getPhone())) duplicates.put(d, "Phone number already exists");
+                else if (existingLicenseNos.contains(d.getMedicalLicenseNo())) duplicates.put(d, "Medical license number already exists");
+            }
+            return duplicates;
+        }
+
+        @Override
+        public void resetId(Doctor item) {
+            // assigned id: nothing to reset
+        }
+
+        @Override
+        public void afterInsert(Doctor d) {
+            uniquenessGuard.register(UniquenessGuard.Scope.DOCTOR_PHONE, d.getPhone());
+            doctorCache.invalidateAfterCommit(null, DoctorProfile.of(d));
+        }
+    }
+
+    // ================= STAFF =================
+
+    private final class StaffRows implements Rows<Staff> {
+        private final Set<String> seenAdhars = new HashSet<>();
+
+        @Override
+        public void checkHeader(List<String> header) {
+            requireColumns(header, "name", "mobile");
+        }
+
+        @Override
+        public Staff map(Map<String, String> row) {
+            Staff s = new Staff();
+            s.setName(required(row, "name"));
+            s.setMobile(required(row, "mobile"));
+            s.setEmail(row.get("email"));
+            s.setAdhar(row.containsKey("adhar") ? row.get("adhar") : row.get("aadhar"));
+            s.setAddress(row.get("address"));
+            s.setDepartment(row.get("department"));
+            s.setRole(row.get("role"));
+            if (row.containsKey("salary")) {
+                try {
+                    s.setSalary(Double.parseDouble(row.get("salary")));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid salary: " + row.get("salary"));
+                }
+            }
+            if (row.containsKey("joiningdate")) {
+                try {
+                    s.setJoiningDate(java.sql.Date.valueOf(LocalDate.parse(row.get("joiningdate"))));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid joiningDate (expected yyyy-MM-dd): " + row.get("joiningdate"));
+                }
+            }
+            s.setTimings(row.get("timings"));
+            s.setPassword(row.get("password"));
+            s.setLoginAttempts(0);
+            return s;
+        }
+
+        @Override
+        public void setImage(Staff item, BinaryStore.Stored image, String contentType) {
+            item.setImageHash(image.hash());
+            item.setImageSize(image.size());
+            item.setImageType(contentType);
+        }
+
+        @Override
+        public String checkInFile(Staff s) {
+            if (s.getAdhar() != null && seenAdhars.contains(s.getAdhar())) return "Aadhar number repeated in this file!";
+            return null;
+        }
+
+        @Override
+        public void remember(Staff s) {
+            if (s.getAdhar() != null) seenAdhars.add(s.getAdhar());
+        }
+
+        @Override
+        public Map<Staff, String> checkExisting(List<Staff> chunk) {
+            Set<String> adhars = new HashSet<>();
+            Set<String> existing = new HashSet<>();
+            for (Staff s : chunk) {
+                switch (uniquenessGuard.check(UniquenessGuard.Scope.STAFF_AADHAR, s.getAdhar())) {
+                    case PRESENT -> existing.add(s.getAdhar());
+                    case UNKNOWN -> { if (s.getAdhar() != null) adhars.add(s.getAdhar()); }
+                    default -> {}
+                }
+            }
+            if (!adhars.isEmpty()) existing.addAll(staffRepository.findExistingAdhars(adhars));
+
+            Map<Staff, String> duplicates = new IdentityHashMap<>();
+            for (Staff s : chunk) {
+                if (s.getAdhar() != null && existing.contains(s.getAdhar())) {
+                    duplicates.put(s, "Aadhar number already exists: " + s.getAdhar());
+                }
+            }
+            return duplicates;
+        }
+
+        @Override
+        public void resetId(Staff item) {
+            item.setId(null);
+        }
+
+        @Override
+        public void afterInsert(Staff s) {
+            uniquenessGuard.register(UniquenessGuard.Scope.STAFF_AADHAR, s.getAdhar());
+            staffDirectory.saved(s.getId(), s.getDepartment());
+        }
+    }
+
+    // ================= HELPERS =================
+
+    private static void requireColumns(List<String> header, String... columns) {
+        for (String column : columns) {
+            if (!header.contains(column)) throw new IllegalArgumentException("CSV header is missing column: " + column);
+        }
+    }
+
+    private static String required(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) throw new IllegalArgumentException(column + " is required");
+        return value;
+    }
+
+    private static long parseLong(String value, String column) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Read-through cache for doctor directory lookups (by id, email, status, specialization and the
+// full list). Entries expire after doctor.cache.ttl-ms and the map is held to doctor.cache.max-entries.
+// DoctorService invalidates exactly the keys a write touches, once the write has committed.
+@Service
+public class DoctorCache {
+
+    public enum Kind { ALL, ID, EMAIL, STATUS, SPECIALIZATION }
+
+    @Value("${doctor.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${doctor.cache.max-entries:2000}")
+    private int maxEntries;
+
+    private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+    // bumped on every invalidation; a load that raced with one is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public Optional<DoctorProfile> getOne(Kind kind, Object value, Supplier<Optional<DoctorProfile>> loader) {
+        return get(new Key(kind, normalize(kind, value)), loader);
+    }
+
+    public List<DoctorProfile> getList(Kind kind, Object value, Supplier<List<DoctorProfile>> loader) {
+        return get(new Key(kind, normalize(kind, value)), () -> List.copyOf(loader.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (entry.expiresAt > now) {
+                hits.increment();
+                return (T) entry.value;
+            }
+            if (cache.remove(key, entry)) expirations.increment();
+        }
+
+        misses.increment();
+        long seen = generation.get();
+        T value = loader.get();
+        if (generation.get() == seen) {
+            cache.put(key, new Entry(value, now + ttlMs));
+            evictIfFull(now);
+        }
+        return value;
+    }
+
+    private void evictIfFull(long now) {
+        if (cache.size() <= maxEntries) return;
+        cache.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt <= now;
+            if (expired) expirations.increment();
+            return expired;
+        });
+        int excess = cache.size() - maxEntries;
+        if (excess <= 0) return;
+        // still full: drop the entries closest to expiry (the oldest loads)
+        cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(k -> {
+                    if (cache.remove(k) != null) evictions.increment();
+                });
+    }
+
+    // ================= INVALIDATION =================
+
+    // Keys a doctor row is visible under; pass the row before and after the write (either may be null)
+    public void invalidateAfterCommit(DoctorProfile before, DoctorProfile after) {
+        Set<Key> keys = new HashSet<>();
+        keys.add(new Key(Kind.ALL, ""));
+        for (DoctorProfile d : new DoctorProfile[]{before, after}) {
+            if (d == null) continue;
+            keys.add(new Key(Kind.ID, normalize(Kind.ID, d.getDoctorId())));
+            keys.add(new Key(Kind.EMAIL, normalize(Kind.EMAIL, d.getEmail())));
+            keys.add(new Key(Kind.STATUS, normalize(Kind.STATUS, d.getStatus())));
+            keys.add(new Key(Kind.SPECIALIZATION, normalize(Kind.SPECIALIZATION, d.getSpecialization())));
+        }
+
+        // loads running during the transaction must not cache what they read
+        invalidate(keys);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(keys);
+            }
+        });
+    }
+
+    private void invalidate(Set<Key> keys) {
+        generation.incrementAndGet();
+        for (Key key : keys) {
+            if (cache.remove(key) != null) invalidations.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("expirations", expirations.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    // lookups are exact-match in the repository, so the value is used as given
+    private static Object normalize(Kind kind, Object value) {
+        if (kind == Kind.ALL) return "";
+        return value == null ? "" : value;
+    }
+
+    private record Key(Kind kind, Object value) {
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long expiresAt;
+
+        Entry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.StoredFile;
+import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+// Doctor photos, read on their own so list / detail queries never touch the IMAGE blob.
+// The SHA-256 in IMAGE_HASH is the ETag and the BinaryStore key, so a revalidation is answered
+// from that column alone. Rows not yet moved by BinaryMigrationService are served from the blob.
+@Service
+public class DoctorImageService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorImageService.class);
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BinaryStore binaryStore;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    // Empty when the doctor is unknown or has no hash yet
+    public Optional<String> getImageHash(Long doctorId) {
+        return doctorRepository.findImageHashById(doctorId);
+    }
+
+    // ETag of getImage(doctorId, size), from the hash column alone
+    public Optional<String> getImageEtag(Long doctorId, Integer size) {
+        return getImageHash(doctorId).map(hash -> thumbnailService.etagOf(hash, size));
+    }
+
+    // With a size: the smallest thumbnail covering it once generated, the original until then
+    public Optional<StoredFile> getImage(Long doctorId, Integer size) {
+        Optional<StoredFile> original = getImage(doctorId);
+        if (size == null || original.isEmpty()) return original;
+        return thumbnailService.find(original.get().getHash(), size).or(() -> original);
+    }
+
+    // Empty when the doctor is unknown or has no image
+    public Optional<StoredFile> getImage(Long doctorId) {
+        Optional<StoredFile> file = doctorRepository.findImageFileById(doctorId);
+        if (file.isEmpty()) return Optional.empty();
+        Optional<Resource> stored = binaryStore.get(file.get().getHash());
+        if (stored.isPresent()) {
+            file.get().setContent(stored.get());
+            return file;
+        }
+        return doctorRepository.findImageById(doctorId).filter(bytes -> bytes.length > 0).map(DoctorImageService::fromBlob);
+    }
+
+    // Moves a photo set on the entity (upload, import) into the BinaryStore; the row keeps hash, size and type
+    public void moveToStore(Doctor doctor) {
+        byte[] bytes = doctor.getImage();
+        if (bytes == null || bytes.length == 0) return;
+        try {
+            BinaryStore.Stored stored = binaryStore.put(bytes);
+            doctor.setImageHash(stored.hash());
+            doctor.setImageSize(stored.size());
+            doctor.setImageType(contentTypeOf(bytes).toString());
+            doctor.setImage(null);
+            thumbnailService.enqueue(stored.hash());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store image", e);
+        }
+    }
+
+    public static StoredFile fromBlob(byte[] bytes) {
+        StoredFile file = new StoredFile(Doctor.hashOf(bytes), (long) bytes.length, contentTypeOf(bytes).toString());
+        file.setContent(new ByteArrayResource(bytes));
+        return file;
+    }
+
+    public static MediaType contentTypeOf(byte[] bytes) {
+        if (startsWith(bytes, 0x89, 'P', 'N', 'G')) return MediaType.IMAGE_PNG;
+        if (startsWith(bytes, 0xFF, 0xD8, 0xFF)) return MediaType.IMAGE_JPEG;
+        if (startsWith(bytes, 'G', 'I', 'F', '8')) return MediaType.IMAGE_GIF;
+        if (bytes.length > 12 && startsWith(bytes, 'R', 'I', 'F', 'F')
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return MediaType.parseMediaType("image/webp");
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    // Rows saved before IMAGE_HASH existed get their hash once, in the background
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillHashesInBackground() {
+        Thread worker = new Thread(this::backfillHashes, "doctor-image-hash");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void backfillHashes() {
+        try {
+            List<Long> ids = doctorRepository.findIdsMissingImageHash();
+            for (Long id : ids) {
+                transactionTemplate.executeWithoutResult(status -> doctorRepository.findImageById(id)
+                        .ifPresent(bytes -> doctorRepository.updateImageHash(id, Doctor.hashOf(bytes))));
+            }
+            if (!ids.isEmpty()) log.info("Doctor image hashes filled in for {} doctor(s)", ids.size());
+        } catch (Exception e) {
+            log.warn("Doctor image hash backfill skipped: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live count of today's pending patients per doctor, used to auto-assign a registration that
+// names a specialization instead of a doctor. Counts follow PatientChangedEvent and are seeded
+// from TodayQueueCache, so an assignment never runs a COUNT query.
+// Pick + reserve is serialized per specialization: two registrations racing for the same
+// specialization always see each other's reservation.
+@Service
+public class DoctorLoadTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorLoadTracker.class);
+
+    public enum TieBreak { ROUND_ROBIN, LOWEST_ID, RANDOM }
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private TodayQueueCache todayQueueCache;
+
+    // how doctors with the same (or near-same, see slack) load are ordered
+    @Value("${patient.assign.tie-break:ROUND_ROBIN}")
+    private TieBreak tieBreak;
+
+    // doctors within this many patients of the least-loaded one count as tied
+    @Value("${patient.assign.slack:0}")
+    private int slack;
+
+    // doctors at this many pending patients are skipped (0 = no cap)
+    @Value("${patient.assign.max-pending:0}")
+    private int maxPending;
+
+    private final Map<Long, DoctorLoad> loads = new ConcurrentHashMap<>();
+    private final Map<String, Object> specializationLocks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> roundRobin = new ConcurrentHashMap<>();
+    // events seen while a doctor's counter is being seeded, one journal per seeder (guarded by itself)
+    private final Map<Long, List<List<PatientChangedEvent>>> journals = new HashMap<>();
+
+    // ================= ASSIGNMENT =================
+
+    // Picks a doctor and holds one slot of load for it until the reservation is closed;
+    // by then the ADDED event has counted the patient itself
+    public Reservation assign(String specialization) {
+        String key = specialization == null ? "" : specialization.trim().toLowerCase();
+        List<DoctorProfile> doctors = doctorService.getActiveDoctorProfiles().stream()
+                .filter(d -> d.getSpecialization() != null && d.getSpecialization().trim().equalsIgnoreCase(key))
+                .sorted(Comparator.comparing(DoctorProfile::getDoctorId))
+                .toList();
+        if (doctors.isEmpty()) {
+            throw new IllegalArgumentException("No active doctor for specialization: " + specialization);
+        }
+
+        synchronized (specializationLocks.computeIfAbsent(key, k -> new Object())) {
+            int least = Integer.MAX_VALUE;
+            int[] current = new int[doctors.size()];
+            for (int i = 0; i < doctors.size(); i++) {
+                current[i] = loadFor(doctors.get(i).getDoctorId()).get();
+                least = Math.min(least, current[i]);
+            }
+            if (maxPending > 0 && least >= maxPending) {
+                throw new IllegalStateException("All " + specialization + " doctors are at " + maxPending + " pending patients");
+            }
+
+            List<DoctorProfile> tied = new ArrayList<>();
+            for (int i = 0; i < doctors.size(); i++) {
+                if (current[i] <= least + slack && (maxPending <= 0 || current[i] < maxPending)) {
+                    tied.add(doctors.get(i));
+                }
+            }
+            DoctorProfile chosen = switch (tieBreak) {
+                case LOWEST_ID -> tied.get(0);
+                case RANDOM -> tied.get(ThreadLocalRandom.current().nextInt(tied.size()));
+                case ROUND_ROBIN -> tied.get(Math.floorMod(
+                        roundRobin.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement(), tied.size()));
+            };
+
+            DoctorLoad load = loadFor(chosen.getDoctorId());
+            load.reserved.incrementAndGet();
+            return new Reservation(chosen.getDoctorId(), load);
+        }
+    }
+
+    public static final class Reservation implements AutoCloseable {
+        private final Long doctorId;
+        private final DoctorLoad load;
+        private boolean closed;
+
+        private Reservation(Long doctorId, DoctorLoad load) {
+            this.doctorId = doctorId;
+            this.load = load;
+        }
+
+        public Long getDoctorId() {
+            return doctorId;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                load.reserved.decrementAndGet();
+            }
+        }
+    }
+
+    // ================= LOAD COUNTERS =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        Long from = event.getPrevious() == null ? null : event.getPrevious().getDoctorId();
+        Long to = event.getCurrent() == null ? null : event.getCurrent().getDoctorId();
+        if (from != null) apply(from, event);
+        if (to != null && !to.equals(from)) apply(to, event);
+    }
+
+    private void apply(Long doctorId, PatientChangedEvent event) {
+        DoctorLoad load = loads.get(doctorId);
+        if (load == null) {
+            synchronized (journals) {
+                load = loads.get(doctorId);
+                if (load == null) {
+                    // being seeded: replayed once the counter is published; otherwise the
+                    // unseeded doctor picks the patient up from the snapshot when first asked
+                    journals.getOrDefault(doctorId, List.of()).forEach(journal -> journal.add(event));
+                    return;
+                }
+            }
+        }
+        load.apply(doctorId, event);
+    }
+
+    public int getLoad(Long doctorId) {
+        return loadFor(doctorId).get();
+    }
+
+    // Seeded outside the map, so the snapshot read never holds a bin lock; events that arrive
+    // while it runs are journalled and applied on top (set semantics, so a repeat is harmless)
+    private DoctorLoad loadFor(Long doctorId) {
+        DoctorLoad load = loads.get(doctorId);
+        if (load != null) return load;
+
+        List<PatientChangedEvent> journal = new ArrayList<>();
+        synchronized (journals) {
+            journals.computeIfAbsent(doctorId, id -> new ArrayList<>()).add(journal);
+        }
+        DoctorLoad seeded = new DoctorLoad();
+        try {
+            for (Patient p : todayQueueCache.getAll(doctorId)) {
+                if (isPendingToday(p)) seeded.pending.add(p.getPatientId());
+            }
+        } catch (Exception e) {
+            log.warn("Load counter for doctor {} started empty: {}", doctorId, e.getMessage());
+        }
+
+        synchronized (journals) {
+            List<List<PatientChangedEvent>> open = journals.get(doctorId);
+            open.removeIf(j -> j == journal);
+            if (open.isEmpty()) journals.remove(doctorId);
+            DoctorLoad raced = loads.putIfAbsent(doctorId, seeded);
+            if (raced != null) return raced;
+            for (PatientChangedEvent event : journal) seeded.apply(doctorId, event);
+            return seeded;
+        }
+    }
+
+    // Counts restart from the new day's snapshot
+    @Scheduled(cron = "${patient.today-cache.day-start-cron:0 0 0 * * *}")
+    public void dayStart() {
+        loads.clear();
+    }
+
+    public Map<String, Object> getStats(String specialization) {
+        List<Map<String, Object>> doctors = new ArrayList<>();
+        for (DoctorProfile d : doctorService.getActiveDoctorProfiles()) {
+            if (specialization != null && !specialization.isBlank()
+                    && (d.getSpecialization() == null || !d.getSpecialization().trim().equalsIgnoreCase(specialization.trim()))) {
+                continue;
+            }
+            DoctorLoad load = loadFor(d.getDoctorId());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("doctorId", d.getDoctorId());
+            row.put("doctorName", d.getDoctorName());
+            row.put("specialization", d.getSpecialization());
+            row.put("pending", load.pending.size());
+            row.put("reserved", load.reserved.get());
+            doctors.add(row);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tieBreak", tieBreak);
+        stats.put("slack", slack);
+        stats.put("maxPending", maxPending);
+        stats.put("doctors", doctors);
+        return stats;
+    }
+
+    private static boolean isPendingToday(Patient p) {
+        LocalDate day = p.getAppointmentAt() != null ? p.getAppointmentAt().toLocalDate() : LocalDate.now();
+        return day.equals(LocalDate.now())
+                && (p.getDoctorStatus() == null || "pending".equalsIgnoreCase(p.getDoctorStatus().trim()));
+    }
+
+    static final class DoctorLoad {
+        final Set<Long> pending = ConcurrentHashMap.newKeySet();
+        final AtomicInteger reserved = new AtomicInteger();
+
+        int get() {
+            return pending.size() + reserved.get();
+        }
+
+        // the event as seen by this doctor: its patient leaves, joins, or both
+        void apply(Long doctorId, PatientChangedEvent event) {
+            Patient before = event.getPrevious();
+            Patient after = event.getCurrent();
+            if (before != null && doctorId.equals(before.getDoctorId())) {
+                pending.remove(before.getPatientId());
+            }
+            if (after != null && doctorId.equals(after.getDoctorId()) && isPendingToday(after)) {
+                pending.add(after.getPatientId());
+            }
+        }
+    }
+}
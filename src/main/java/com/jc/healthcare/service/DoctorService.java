@@ -1,5 +1,6 @@
 package com.jc.healthcare.service;
 
+import com.jc.healthcare.dto.DoctorProfile;
 import com.jc.healthcare.model.Doctor;
 import com.jc.healthcare.model.LoginDetails;
 import com.jc.healthcare.repository.DoctorRepository;
@@ -22,13 +23,50 @@ public class DoctorService {
     @Autowired
     private LoginDetailsRepository loginRepository;
 
+    @Autowired
+    private UniquenessGuard uniquenessGuard;
+
+    @Autowired
+    private DoctorCache doctorCache;
+
+    @Autowired
+    private DoctorImageService doctorImageService;
+
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
+
+    // List / detail views without the image blob, served through DoctorCache
+    public List<DoctorProfile> getDoctorProfiles() {
+        return doctorCache.getList(DoctorCache.Kind.ALL, null, doctorRepository::findAllProfiles);
+    }
+
+    public Optional<DoctorProfile> getDoctorProfile(Long id) {
+        return doctorCache.getOne(DoctorCache.Kind.ID, id, () -> doctorRepository.findProfileById(id));
+    }
+
+    public Optional<DoctorProfile> getDoctorProfileByEmail(String email) {
+        return doctorCache.getOne(DoctorCache.Kind.EMAIL, email, () -> doctorRepository.findProfileByEmail(email));
+    }
+
+    public List<DoctorProfile> getActiveDoctorProfiles() {
+        return doctorCache.getList(DoctorCache.Kind.STATUS, "ACTIVE", () -> doctorRepository.findProfilesByStatus("ACTIVE"));
+    }
+
+    public List<DoctorProfile> getDoctorProfilesBySpecialization(String specialization) {
+        return doctorCache.getList(DoctorCache.Kind.SPECIALIZATION, specialization,
+                () -> doctorRepository.findProfilesBySpecialization(specialization));
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return doctorCache.getStats();
+    }
     public long Count() {
         return doctorRepository.getDoctorCount();
     }
 
+    // Entity reads below (managed rows with image and password) are deliberately not cached: the
+    // GET endpoints use the cached profile reads above, these are for callers that need the entity
     public Optional<Doctor> getDoctorById(Long id) {
         return doctorRepository.findById(id);
     }
@@ -39,7 +77,7 @@ public class DoctorService {
         if (doctor.getEmail() != null && doctorRepository.existsByEmail(doctor.getEmail())) {
             throw new RuntimeException("Email already exists");
         }
-        if (doctor.getPhone() != null && doctorRepository.existsByPhone(doctor.getPhone())) {
+        if (doctor.getPhone() != null && phoneTaken(doctor.getPhone())) {
             throw new RuntimeException("Phone number already exists");
         }
         if (doctor.getMedicalLicenseNo() != null && doctorRepository.existsByMedicalLicenseNo(doctor.getMedicalLicenseNo())) {
@@ -48,9 +86,12 @@ public class DoctorService {
         if (doctor.getStatus() == null || doctor.getStatus().isEmpty()) {
             doctor.setStatus("ACTIVE");
         }
+        doctorImageService.moveToStore(doctor);
 
         // Step 1: Save Doctor
         Doctor savedDoctor = doctorRepository.save(doctor);
+        uniquenessGuard.replaceAfterCommit(UniquenessGuard.Scope.DOCTOR_PHONE, null, savedDoctor.getPhone());
+        doctorCache.invalidateAfterCommit(null, DoctorProfile.of(savedDoctor));
 
         if (savedDoctor.getEmail() != null && savedDoctor.getPassword() != null) {
             if (!loginRepository.existsByEmail(savedDoctor.getEmail())) {
@@ -80,7 +121,7 @@ public class DoctorService {
 
         if (doctorDetails.getPhone() != null &&
                 !doctorDetails.getPhone().equals(doctor.getPhone()) &&
-                doctorRepository.existsByPhone(doctorDetails.getPhone())) {
+                phoneTaken(doctorDetails.getPhone())) {
             throw new RuntimeException("Phone already exists");
         }
 
@@ -90,6 +131,8 @@ public class DoctorService {
             throw new RuntimeException("Medical license number already exists");
         }
 
+        String oldPhone = doctor.getPhone();
+        DoctorProfile before = DoctorProfile.of(doctor);
         doctor.setDoctorName(doctorDetails.getDoctorName());
         doctor.setSpecialization(doctorDetails.getSpecialization());
         doctor.setPhone(doctorDetails.getPhone());
@@ -105,16 +148,28 @@ public class DoctorService {
         doctor.setCountry(doctorDetails.getCountry());
         doctor.setMedicalLicenseNo(doctorDetails.getMedicalLicenseNo());
         doctor.setRole(doctorDetails.getRole());
+        // a PUT without a photo removes it, as before
         doctor.setImage(doctorDetails.getImage());
+        if (doctor.getImage() == null) {
+            doctor.setImageHash(null);
+            doctor.setImageSize(null);
+            doctor.setImageType(null);
+        }
+        doctorImageService.moveToStore(doctor);
         doctor.setPassword(doctorDetails.getPassword());
       
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        uniquenessGuard.replaceAfterCommit(UniquenessGuard.Scope.DOCTOR_PHONE, oldPhone, saved.getPhone());
+        doctorCache.invalidateAfterCommit(before, DoctorProfile.of(saved));
+        return saved;
     }
 
     public void deleteDoctor(Long id) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
         doctorRepository.delete(doctor);
+        uniquenessGuard.replaceAfterCommit(UniquenessGuard.Scope.DOCTOR_PHONE, doctor.getPhone(), null);
+        doctorCache.invalidateAfterCommit(DoctorProfile.of(doctor), null);
     }
 
     public List<Doctor> getActiveDoctors() {
@@ -128,8 +183,11 @@ public class DoctorService {
     public Doctor changeDoctorStatus(Long id, String status) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
+        DoctorProfile before = DoctorProfile.of(doctor);
         doctor.setStatus(status);
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        doctorCache.invalidateAfterCommit(before, DoctorProfile.of(saved));
+        return saved;
     }
     public Optional<Doctor> getDoctorByEmail(String email) {
         return doctorRepository.findByEmail(email);
@@ -137,6 +195,8 @@ public class DoctorService {
     public Doctor partiallyUpdateDoctor(Long id, Map<String, Object> updates) {
         Doctor doctor = doctorRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Doctor not found with id: " + id));
+        String oldPhone = doctor.getPhone();
+        DoctorProfile before = DoctorProfile.of(doctor);
 
         updates.forEach((key, value) -> {
             if (value == null) return;
@@ -168,7 +228,20 @@ public class DoctorService {
             }
         });
 
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        uniquenessGuard.replaceAfterCommit(UniquenessGuard.Scope.DOCTOR_PHONE, oldPhone, saved.getPhone());
+        doctorCache.invalidateAfterCommit(before, DoctorProfile.of(saved));
+        return saved;
+    }
+
+
+    // In-memory answer when the guard has one, otherwise the usual exists query
+    private boolean phoneTaken(String phone) {
+        return switch (uniquenessGuard.check(UniquenessGuard.Scope.DOCTOR_PHONE, phone)) {
+            case PRESENT -> true;
+            case ABSENT -> false;
+            case UNKNOWN -> doctorRepository.existsByPhone(phone);
+        };
     }
 
 
@@ -0,0 +1,250 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live token queue per doctor and appointment day.
+// Tokens come from a per-queue AtomicLong, so registrations never block each other. Consult
+// start / finish are taken from doctorStatus transitions and feed a per-doctor moving average
+// that drives the estimated wait. State is in memory and re-seeded from today's snapshot.
+@Service
+public class DoctorTokenQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorTokenQueue.class);
+
+    @Autowired
+    private TodayQueueCache todayQueueCache;
+
+    @Value("${patient.queue.default-consult-minutes:10}")
+    private long defaultConsultMinutes;
+
+    // weight of the newest consult in the moving average
+    @Value("${patient.queue.average-weight:0.2}")
+    private double averageWeight;
+
+    // gaps between two completions longer than this are breaks, not consults
+    @Value("${patient.queue.max-consult-minutes:60}")
+    private long maxConsultMinutes;
+
+    private final Map<QueueKey, DayQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, DoctorTimings> timings = new ConcurrentHashMap<>();
+
+    // ================= TOKENS =================
+
+    // Idempotent: a patient keeps the token it was first given
+    public Long issue(Patient patient) {
+        if (patient.getDoctorId() == null || patient.getPatientId() == null) return null;
+        DayQueue queue = queueFor(patient.getDoctorId(), dayOf(patient));
+        long token = queue.tokens.computeIfAbsent(patient.getPatientId(), id -> queue.next.incrementAndGet());
+        if (isWaiting(patient)) {
+            queue.waiting.put(token, patient.getPatientId());
+        }
+        return token;
+    }
+
+    // Null when the patient has no doctor assigned. A read never hands out a token: a patient
+    // without one (e.g. a later day's registration from before a restart) reports token null.
+    public Map<String, Object> getPosition(Patient patient) {
+        if (patient.getDoctorId() == null || patient.getPatientId() == null) return null;
+        Long patientId = patient.getPatientId();
+        Long doctorId = patient.getDoctorId();
+        LocalDate day = dayOf(patient);
+        DayQueue queue = existingQueue(doctorId, day);
+        Long token = queue == null ? null : queue.tokens.get(patientId);
+
+        DoctorTimings t = timingsFor(doctorId);
+        boolean waiting = token != null && queue.waiting.containsKey(token);
+        int ahead = waiting ? queue.waiting.headMap(token).size() : 0;
+
+        Map<String, Object> position = new LinkedHashMap<>();
+        position.put("patientId", patientId);
+        position.put("doctorId", doctorId);
+        position.put("date", day);
+        position.put("token", token);
+        position.put("waiting", waiting);
+        position.put("ahead", ahead);
+        position.put("position", waiting ? ahead + 1 : 0);
+        position.put("estimatedWaitMinutes", waiting ? estimateWaitMinutes(t, ahead) : 0);
+        position.put("averageConsultMinutes", t.averageMillis.get() / 60000.0);
+        return position;
+    }
+
+    public Map<String, Object> getDoctorQueue(Long doctorId, LocalDate day) {
+        DayQueue queue = existingQueue(doctorId, day);
+        DoctorTimings t = timingsFor(doctorId);
+
+        List<Map<String, Object>> waiting = new ArrayList<>();
+        int ahead = 0;
+        for (Map.Entry<Long, Long> e : queue == null ? Set.<Map.Entry<Long, Long>>of() : queue.waiting.entrySet()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("token", e.getKey());
+            row.put("patientId", e.getValue());
+            row.put("estimatedWaitMinutes", estimateWaitMinutes(t, ahead++));
+            waiting.add(row);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("doctorId", doctorId);
+        result.put("date", day);
+        result.put("issued", queue == null ? 0L : queue.next.get());
+        result.put("waitingCount", waiting.size());
+        result.put("inConsult", new ArrayList<>(t.consultStartedAt.keySet()));
+        result.put("averageConsultMinutes", t.averageMillis.get() / 60000.0);
+        result.put("waiting", waiting);
+        return result;
+    }
+
+    private long estimateWaitMinutes(DoctorTimings t, int ahead) {
+        long average = t.averageMillis.get();
+        long now = System.currentTimeMillis();
+        // whoever is with the doctor now is partly done already
+        long remainingCurrent = 0;
+        for (long started : t.consultStartedAt.values()) {
+            remainingCurrent = Math.max(remainingCurrent, Math.max(0, average - (now - started)));
+        }
+        return Math.round((ahead * average + remainingCurrent) / 60000.0);
+    }
+
+    // ================= STATUS TRANSITIONS =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        Patient before = event.getPrevious();
+        Patient after = event.getCurrent();
+
+        if (after == null) {
+            remove(before);
+            return;
+        }
+        if (before != null && (!Objects.equals(before.getDoctorId(), after.getDoctorId())
+                || !Objects.equals(dayOf(before), dayOf(after)))) {
+            // moved to another doctor or day: new token there
+            remove(before);
+        }
+        issue(after);
+
+        if (!isWaiting(after) && after.getDoctorId() != null) {
+            DayQueue queue = queueFor(after.getDoctorId(), dayOf(after));
+            Long token = queue.tokens.get(after.getPatientId());
+            if (token != null) queue.waiting.remove(token);
+        }
+
+        if (before != null && event.changed(Patient::getDoctorStatus) && after.getDoctorId() != null) {
+            recordTransition(after.getDoctorId(), after.getPatientId(), after.getDoctorStatus());
+        }
+    }
+
+    void recordTransition(Long doctorId, Long patientId, String newStatus) {
+        DoctorTimings t = timingsFor(doctorId);
+        long now = System.currentTimeMillis();
+        String status = newStatus == null ? "" : newStatus.trim().toLowerCase();
+
+        if (status.equals("completed")) {
+            Long started = t.consultStartedAt.remove(patientId);
+            // no explicit start: the consult began when the doctor finished the previous one
+            long from = started != null ? started : t.lastFinishedAt.get();
+            long duration = now - from;
+            if (from > 0 && duration > 0 && duration <= maxConsultMinutes * 60000) {
+                t.averageMillis.updateAndGet(avg -> Math.round(avg * (1 - averageWeight) + duration * averageWeight));
+            }
+            t.lastFinishedAt.accumulateAndGet(now, Math::max);
+        } else if (!status.equals("pending")) {
+            t.consultStartedAt.putIfAbsent(patientId, now);
+        } else {
+            t.consultStartedAt.remove(patientId);
+        }
+    }
+
+    private void remove(Patient patient) {
+        if (patient == null || patient.getDoctorId() == null) return;
+        DayQueue queue = queues.get(new QueueKey(patient.getDoctorId(), dayOf(patient)));
+        if (queue == null) return;
+        Long token = queue.tokens.remove(patient.getPatientId());
+        if (token != null) queue.waiting.remove(token);
+        timingsFor(patient.getDoctorId()).consultStartedAt.remove(patient.getPatientId());
+    }
+
+    // ================= STATE =================
+
+    // Seeded outside the map: the snapshot load may hit the database and must not run inside
+    // computeIfAbsent, which would hold up every other doctor hashed to the same bin.
+    private DayQueue queueFor(Long doctorId, LocalDate day) {
+        QueueKey key = new QueueKey(doctorId, day);
+        DayQueue queue = queues.get(key);
+        if (queue != null) return queue;
+
+        DayQueue seeded = new DayQueue();
+        if (day.equals(LocalDate.now())) {
+            // after a restart, hand out tokens in appointment order to today's patients
+            try {
+                for (Patient p : todayQueueCache.getAll(doctorId)) {
+                    long token = seeded.next.incrementAndGet();
+                    seeded.tokens.put(p.getPatientId(), token);
+                    if (isWaiting(p)) seeded.waiting.put(token, p.getPatientId());
+                }
+            } catch (Exception e) {
+                log.warn("Token queue for doctor {} started empty: {}", doctorId, e.getMessage());
+            }
+        }
+        // a racing thread may have seeded the same queue; nobody has been issued from ours yet
+        DayQueue raced = queues.putIfAbsent(key, seeded);
+        return raced != null ? raced : seeded;
+    }
+
+    // Today's queue can always be restored from the snapshot; other days exist only once a token was issued
+    private DayQueue existingQueue(Long doctorId, LocalDate day) {
+        return day.equals(LocalDate.now()) ? queueFor(doctorId, day) : queues.get(new QueueKey(doctorId, day));
+    }
+
+    private DoctorTimings timingsFor(Long doctorId) {
+        return timings.computeIfAbsent(doctorId, id -> new DoctorTimings(defaultConsultMinutes * 60000));
+    }
+
+    // Yesterday's queues are no longer needed
+    @Scheduled(cron = "${patient.today-cache.day-start-cron:0 0 0 * * *}")
+    public void dropPastDays() {
+        LocalDate today = LocalDate.now();
+        queues.keySet().removeIf(key -> key.day().isBefore(today));
+        timings.values().forEach(t -> t.consultStartedAt.clear());
+    }
+
+    private static LocalDate dayOf(Patient p) {
+        return p.getAppointmentAt() != null ? p.getAppointmentAt().toLocalDate() : LocalDate.now();
+    }
+
+    private static boolean isWaiting(Patient p) {
+        return p.getDoctorStatus() == null || "pending".equalsIgnoreCase(p.getDoctorStatus().trim());
+    }
+
+    private record QueueKey(Long doctorId, LocalDate day) {
+    }
+
+    private static final class DayQueue {
+        final AtomicLong next = new AtomicLong();
+        final Map<Long, Long> tokens = new ConcurrentHashMap<>();                         // patientId -> token
+        final ConcurrentSkipListMap<Long, Long> waiting = new ConcurrentSkipListMap<>();  // token -> patientId
+    }
+
+    private static final class DoctorTimings {
+        final AtomicLong averageMillis;
+        final AtomicLong lastFinishedAt = new AtomicLong();
+        final Map<Long, Long> consultStartedAt = new ConcurrentHashMap<>();                // patientId -> millis
+
+        DoctorTimings(long initialAverageMillis) {
+            this.averageMillis = new AtomicLong(initialAverageMillis);
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.jc.healthcare.service;
 
+import com.jc.healthcare.dto.LabReportMeta;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.*;
 import com.jc.healthcare.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Timestamp;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,6 +31,12 @@ public class LabService {
     @Autowired
     private PrescriptionRepository prescriptionRepo;
 
+    @Autowired
+    private PatientChartService patientChartService;
+
+    @Autowired
+    private BinaryStore binaryStore;
+
 
     public List<LabCategory> getAllCategories() {
         return categoryRepo.findAll();
@@ -87,16 +98,48 @@ public class LabService {
         report.setTest(test);
         report.setFileName(file.getOriginalFilename());
         report.setFileType(file.getContentType());
-        report.setReportFile(file.getBytes());
+        storeFile(report, file);
+
+        LabReport saved = reportRepo.save(report);
+        patientChartService.invalidate(patientId);
+        return saved;
+    }
 
-        return reportRepo.save(report);
+    // Streams the upload into the BinaryStore; the row keeps only hash and size
+    private void storeFile(LabReport report, MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            BinaryStore.Stored stored = binaryStore.put(in);
+            report.setFileHash(stored.hash());
+            report.setFileSize(stored.size());
+            report.setReportFile(null);
+        }
+    }
+
+    // Report file for download; rows not yet moved by BinaryMigrationService are served from the blob
+    public Optional<StoredFile> getReportFile(Long reportId) {
+        // metadata only; the blob is read just for an unmigrated row
+        Optional<StoredFile> file = reportRepo.findFileById(reportId);
+        if (file.isEmpty()) return Optional.empty();
+        Optional<Resource> stored = binaryStore.get(file.get().getHash());
+        if (stored.isPresent()) {
+            file.get().setContent(stored.get());
+            return file;
+        }
+        byte[] bytes = reportRepo.findReportFileById(reportId).orElse(null);
+        if (bytes == null || bytes.length == 0) return Optional.empty();
+        StoredFile blob = new StoredFile(Doctor.hashOf(bytes), (long) bytes.length,
+                file.get().getContentType(), file.get().getFileName());
+        blob.setContent(new ByteArrayResource(bytes));
+        return Optional.of(blob);
     }
 
-    public List<LabReport> getReportsByPatient(Long patientId) {
-        return reportRepo.findByPatientId(patientId);
+    // metadata only; the file itself is served by getReportFile
+    public List<LabReportMeta> getReportsByPatient(Long patientId) {
+        return reportRepo.findMetadataByPatientId(patientId);
     }
 
     public void deleteReport(Long reportId) {
+        reportRepo.findPatientIdByReportId(reportId).ifPresent(patientChartService::invalidate);
         reportRepo.deleteById(reportId);
     }
 
@@ -107,10 +150,12 @@ public class LabService {
         if (newFile != null && !newFile.isEmpty()) {
             report.setFileName(newFile.getOriginalFilename());
             report.setFileType(newFile.getContentType());
-            report.setReportFile(newFile.getBytes());
+            storeFile(report, newFile);
         }
 
-        return reportRepo.save(report);
+        LabReport saved = reportRepo.save(report);
+        patientChartService.invalidate(saved.getPatientId());
+        return saved;
     }
 
   
@@ -190,16 +235,17 @@ public class LabService {
                 return rec;
             }).collect(Collectors.toList());
 
-            List<LabReport> reports = reportRepo.findByPatientId(patientId);
+            List<LabReportMeta> reports = reportRepo.findMetadataByPatientId(patientId);
 
             List<Map<String, Object>> labReports = reports.stream().map(r -> {
                 Map<String, Object> rep = new LinkedHashMap<>();
                 rep.put("reportId", r.getReportId());
-                rep.put("testName", r.getTest().getTestName());
+                rep.put("testName", r.getTestName());
                 rep.put("fileName", r.getFileName());
                 rep.put("fileType", r.getFileType());
                 rep.put("uploadedOn", r.getUploadedOn());
-                rep.put("reportFile", r.getReportFile());
+                rep.put("fileSize", r.getFileSize());
+                rep.put("fileUrl", r.getFileUrl());
                 return rep;
             }).collect(Collectors.toList());
 
@@ -0,0 +1,130 @@
+package com.jc.healthcare.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// BinaryStore on the local disk: <root>/ab/cd/<sha-256>, variants as <sha-256>@<variant> beside it.
+// Uploads are written to <root>/tmp, fsync'd, then renamed into place, so a reader only ever sees
+// complete files.
+@Service
+public class LocalFileSystemBinaryStore implements BinaryStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9-]{1,32}");
+
+    private final Path root;
+    private final Path tmp;
+
+    public LocalFileSystemBinaryStore(@Value("${binary-store.root:data/binaries}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+    }
+
+    @Override
+    public Stored put(InputStream content) throws IOException {
+        Files.createDirectories(tmp);
+        Path part = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = write(content, part, digest);
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Path target = pathOf(hash);
+            if (!Files.exists(target)) moveIntoPlace(part, target);   // else: same bytes already stored
+            return new Stored(hash, size);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public void putVariant(String hash, String variant, InputStream content) throws IOException {
+        Path target = variantPathOf(hash, variant);
+        Files.createDirectories(tmp);
+        Path part = Files.createTempFile(tmp, "variant-", ".part");
+        try {
+            write(content, part, null);
+            moveIntoPlace(part, target);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    @Override
+    public Optional<Resource> getVariant(String hash, String variant) {
+        if (!isHash(hash) || variant == null || !VARIANT.matcher(variant).matches()) return Optional.empty();
+        Path path = variantPathOf(hash, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    private static long write(InputStream content, Path part, MessageDigest digest) throws IOException {
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE);
+             OutputStream out = digest == null
+                     ? Channels.newOutputStream(channel)
+                     : new DigestOutputStream(Channels.newOutputStream(channel), digest)) {
+            long size = content.transferTo(out);
+            channel.force(true);
+            return size;
+        }
+    }
+
+    private static void moveIntoPlace(Path part, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // written concurrently with the same content
+        }
+    }
+
+    @Override
+    public boolean contains(String hash) {
+        return isHash(hash) && Files.isRegularFile(pathOf(hash));
+    }
+
+    @Override
+    public Optional<Resource> get(String hash) {
+        if (!contains(hash)) return Optional.empty();
+        return Optional.of(new FileSystemResource(pathOf(hash)));
+    }
+
+    private Path pathOf(String hash) {
+        if (!isHash(hash)) throw new IllegalArgumentException("Not a SHA-256 hash: " + hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Path variantPathOf(String hash, String variant) {
+        if (variant == null || !VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Bad variant name: " + variant);
+        }
+        Path original = pathOf(hash);
+        return original.resolveSibling(hash + "@" + variant);
+    }
+
+    private static boolean isHash(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One-off online job that fills APPOINTMENT_AT from the old dd-MMM-yy strings.
+// Runs in small keyset batches (one short transaction each) so the front desk keeps working.
+@Service
+public class PatientAppointmentBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientAppointmentBackfillService.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${patient.appointment-backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${patient.appointment-backfill.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${patient.appointment-backfill.pause-ms:200}")
+    private long pauseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startIfEnabled() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::runBackfill, "appointment-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public long runBackfill() {
+        long lastId = 0L;
+        long updated = 0L;
+        long skipped = 0L;
+
+        while (true) {
+            List<Object[]> rows = patientRepository.findAppointmentsToBackfill(lastId, batchSize);
+            if (rows.isEmpty()) break;
+
+            lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+
+            Integer done = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Object[] row : rows) {
+                    LocalDateTime at = Patient.toAppointmentAt((String) row[1], (String) row[2]);
+                    if (at != null) {
+                        count += patientRepository.backfillAppointmentAt(((Number) row[0]).longValue(), at);
+                    }
+                }
+                return count;
+            });
+
+            updated += done == null ? 0 : done;
+            skipped += rows.size() - (done == null ? 0 : done);
+            log.info("Appointment backfill: {} rows updated, {} unparseable, last patient id {}", updated, skipped, lastId);
+
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        log.info("Appointment backfill finished: {} rows updated, {} unparseable", updated, skipped);
+        return updated;
+    }
+}
@@ -0,0 +1,160 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves completed visits older than patient.archive.age-days from patients to patients_archive.
+// Each chunk is copied and deleted in one short transaction, and the delete only removes rows
+// that are already in the archive, so a crashed or stopped run simply resumes on the next run.
+// Every archived row is published as a DELETED PatientChangedEvent once its chunk commits, so the
+// in-memory views (stats, search index, uniqueness guard, ...) drop it like any other delete.
+@Service
+public class PatientArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientArchiveService.class);
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${patient.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${patient.archive.age-days:365}")
+    private int ageDays;
+
+    // stays below Oracle's 1000-entry IN list limit
+    @Value("${patient.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${patient.archive.pause-ms:100}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalArchived = new AtomicLong();
+    private final AtomicLong currentRunArchived = new AtomicLong();
+    private volatile long lastRunArchived;
+    private volatile long lastRunChunks;
+    private volatile double lastRunRowsPerSecond;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile Long lastArchivedId;
+    private volatile String lastError;
+
+    @Scheduled(cron = "${patient.archive.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (enabled) runInBackground();
+    }
+
+    // false when a run is already in progress
+    public boolean runInBackground() {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread worker = new Thread(() -> {
+            try {
+                archive();
+            } finally {
+                running.set(false);
+            }
+        }, "patient-archive");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void archive() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime cutoff = started.toLocalDate().minusDays(ageDays).atStartOfDay();
+        lastRunStartedAt = started;
+        lastError = null;
+        currentRunArchived.set(0);
+        long chunks = 0;
+        long afterId = 0L;
+
+        try {
+            while (true) {
+                List<Number> rows = patientRepository.findArchivable(afterId, cutoff, chunkSize);
+                if (rows.isEmpty()) break;
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                for (Number id : rows) ids.add(id.longValue());
+                afterId = ids.get(ids.size() - 1);
+
+                Integer moved = transactionTemplate.execute(status -> {
+                    List<Patient> archived = patientRepository.findAllById(ids);
+                    patientRepository.copyToArchive(ids);
+                    int deleted = patientRepository.deleteArchived(ids);
+                    // transactional listeners run after this chunk commits
+                    for (Patient p : archived) {
+                        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, p, null));
+                    }
+                    return deleted;
+                });
+
+                chunks++;
+                currentRunArchived.addAndGet(moved == null ? 0 : moved);
+                totalArchived.addAndGet(moved == null ? 0 : moved);
+                lastArchivedId = afterId;
+
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.warn("Patient archive run stopped after {} rows: {}", currentRunArchived.get(), e.getMessage());
+        }
+
+        LocalDateTime finished = LocalDateTime.now();
+        long archived = currentRunArchived.get();
+        long millis = Math.max(1, Duration.between(started, finished).toMillis());
+        lastRunArchived = archived;
+        lastRunChunks = chunks;
+        lastRunRowsPerSecond = archived * 1000.0 / millis;
+        lastRunFinishedAt = finished;
+        runs.incrementAndGet();
+        log.info("Patient archive run: {} visits older than {} moved in {} chunk(s), {} ms",
+                archived, cutoff.toLocalDate(), chunks, millis);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("ageDays", ageDays);
+        stats.put("chunkSize", chunkSize);
+        stats.put("runs", runs.get());
+        stats.put("totalArchived", totalArchived.get());
+        stats.put("currentRunArchived", running.get() ? currentRunArchived.get() : 0);
+        stats.put("lastArchivedId", lastArchivedId);
+        stats.put("lastRunStartedAt", lastRunStartedAt);
+        stats.put("lastRunFinishedAt", lastRunFinishedAt);
+        stats.put("lastRunArchived", lastRunArchived);
+        stats.put("lastRunChunks", lastRunChunks);
+        stats.put("lastRunRowsPerSecond", lastRunRowsPerSecond);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
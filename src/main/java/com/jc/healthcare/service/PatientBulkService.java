@@ -0,0 +1,203 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.BulkRowResult;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+// Bulk registration for camps / outpatient drives.
+// Rows are validated and de-duplicated a chunk at a time (UniquenessGuard first, then set-based
+// queries for anything the guard cannot answer), then inserted
+// in one JDBC-batched transaction per chunk. If a chunk still hits a constraint (e.g. a
+// concurrent single registration), that chunk is retried row by row so only the offending
+// rows fail.
+@Service
+public class PatientBulkService {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UniquenessGuard uniquenessGuard;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${patient.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    public List<BulkRowResult> registerAll(Iterator<Patient> rows) {
+        List<BulkRowResult> results = new ArrayList<>();
+        Set<String> seenAadhar = new HashSet<>();
+        Set<String> seenPhone = new HashSet<>();
+
+        List<Patient> chunk = new ArrayList<>(chunkSize);
+        List<Integer> indexes = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        while (rows.hasNext()) {
+            Patient patient = rows.next();
+            int rowIndex = index++;
+
+            String error = validate(patient, seenAadhar, seenPhone);
+            if (error != null) {
+                results.add(BulkRowResult.failed(rowIndex, error));
+                continue;
+            }
+
+            chunk.add(patient);
+            indexes.add(rowIndex);
+            if (chunk.size() == chunkSize) {
+                results.addAll(insertChunk(chunk, indexes));
+                chunk.clear();
+                indexes.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(insertChunk(chunk, indexes));
+        }
+
+        results.sort(Comparator.comparingInt(BulkRowResult::getIndex));
+        return results;
+    }
+
+    private String validate(Patient patient, Set<String> seenAadhar, Set<String> seenPhone) {
+        if (patient == null) return "Empty row";
+        if (patient.getName() == null || patient.getName().isBlank()) return "Name is required";
+
+        patient.setPatientId(null);
+        try {
+            patientService.normalizeNewPatient(patient);
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+
+        if (hasText(patient.getAadhar()) && !seenAadhar.add(patient.getAadhar())) {
+            return "Aadhar number repeated in this batch!";
+        }
+        if (hasText(patient.getPhone()) && !seenPhone.add(patient.getPhone())) {
+            return "Phone number repeated in this batch!";
+        }
+        return null;
+    }
+
+    private List<BulkRowResult> insertChunk(List<Patient> chunk, List<Integer> indexes) {
+        List<BulkRowResult> results = new ArrayList<>(chunk.size());
+
+        // the guard settles most values in memory; the rest get one query per column for the chunk
+        Set<String> aadhars = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        Set<String> knownAadhars = new HashSet<>();
+        Set<String> knownPhones = new HashSet<>();
+        for (Patient p : chunk) {
+            if (hasText(p.getAadhar())) {
+                switch (uniquenessGuard.check(UniquenessGuard.Scope.PATIENT_AADHAR, p.getAadhar())) {
+                    case PRESENT -> knownAadhars.add(p.getAadhar());
+                    case UNKNOWN -> aadhars.add(p.getAadhar());
+                    default -> {}
+                }
+            }
+            if (hasText(p.getPhone())) {
+                switch (uniquenessGuard.check(UniquenessGuard.Scope.PATIENT_PHONE, p.getPhone())) {
+                    case PRESENT -> knownPhones.add(p.getPhone());
+                    case UNKNOWN -> phones.add(p.getPhone());
+                    default -> {}
+                }
+            }
+        }
+        // HashSet, not Set.of(): rows without an Aadhar / phone look up null below
+        Set<String> existingAadhars = new HashSet<>(knownAadhars);
+        Set<String> existingPhones = new HashSet<>(knownPhones);
+        if (!aadhars.isEmpty()) existingAadhars.addAll(patientRepository.findExistingAadhars(aadhars));
+        if (!phones.isEmpty()) existingPhones.addAll(patientRepository.findExistingPhones(phones));
+
+        List<Patient> toInsert = new ArrayList<>(chunk.size());
+        List<Integer> toInsertIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Patient p = chunk.get(i);
+            if (existingAadhars.contains(p.getAadhar())) {
+                results.add(BulkRowResult.failed(indexes.get(i), "Aadhar number already exists!"));
+            } else if (existingPhones.contains(p.getPhone())) {
+                results.add(BulkRowResult.failed(indexes.get(i), "Phone number already exists!"));
+            } else {
+                toInsert.add(p);
+                toInsertIndexes.add(indexes.get(i));
+            }
+        }
+        if (toInsert.isEmpty()) return results;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Patient p : toInsert) {
+                    entityManager.persist(p);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (int i = 0; i < toInsert.size(); i++) {
+                results.add(BulkRowResult.ok(toInsertIndexes.get(i), toInsert.get(i).getPatientId()));
+                publishAdded(toInsert.get(i));
+            }
+        } catch (RuntimeException batchFailure) {
+            entityManager.clear();
+            for (int i = 0; i < toInsert.size(); i++) {
+                results.add(insertOne(toInsert.get(i), toInsertIndexes.get(i)));
+            }
+        }
+        return results;
+    }
+
+    private BulkRowResult insertOne(Patient patient, int index) {
+        patient.setPatientId(null);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(patient);
+                entityManager.flush();
+                entityManager.clear();
+            });
+            publishAdded(patient);
+            return BulkRowResult.ok(index, patient.getPatientId());
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            return BulkRowResult.failed(index, describe(e));
+        }
+    }
+
+    private void publishAdded(Patient patient) {
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, patient));
+    }
+
+    // Same wording as the single-row /add endpoint
+    private String describe(RuntimeException e) {
+        String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        if (message.contains("ORA-00001")) {
+            if (message.toUpperCase().contains("AADHAR")) return "Aadhar number already exists!";
+            if (message.toUpperCase().contains("PHONE")) return "Phone number already exists!";
+            return "Duplicate value exists!";
+        }
+        return "Error: " + message;
+    }
+
+    private static boolean hasText(String s) {
+        return s != null && !s.isBlank();
+    }
+}
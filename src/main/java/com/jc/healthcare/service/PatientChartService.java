@@ -0,0 +1,203 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.LabReportMeta;
+import com.jc.healthcare.dto.PatientChart;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.BedBooking;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.model.Prescription;
+import com.jc.healthcare.model.Ward;
+import com.jc.healthcare.repository.BedBookingRepository;
+import com.jc.healthcare.repository.LabReportRepository;
+import com.jc.healthcare.repository.PatientRepository;
+import com.jc.healthcare.repository.PrescriptionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Patient chart in one call: patient, bed stays, prescriptions and lab report metadata are
+// fetched in parallel on a small bounded pool and cached per patient for a short TTL.
+// Writes to any of those pieces invalidate the patient's entry. Callers get their own copy of the
+// cached chart, so a change made to a returned entity never leaks into the cache.
+@Service
+public class PatientChartService {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BedBookingRepository bedBookingRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Value("${patient.chart.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    @Value("${patient.chart.cache-max-entries:5000}")
+    private int cacheMaxEntries;
+
+    @Value("${patient.chart.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private final ExecutorService executor;
+
+    // one entry per patient; an in-flight load is shared by concurrent callers
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PatientChartService(@Value("${patient.chart.threads:8}") int threads,
+                               @Value("${patient.chart.queue-size:200}") int queueSize) {
+        AtomicInteger n = new AtomicInteger();
+        // when the queue is full the request thread does the work itself instead of failing
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "patient-chart-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Empty when the patient exists in neither the hot table nor the archive
+    public Optional<PatientChart> getChart(Long patientId) {
+        long now = System.currentTimeMillis();
+        Entry[] created = new Entry[1];
+        Entry entry = cache.compute(patientId, (id, current) -> {
+            if (current != null && current.expiresAt > now) return current;
+            created[0] = new Entry(new CompletableFuture<>(), now + cacheTtlMs);
+            return created[0];
+        });
+
+        if (entry == created[0]) {
+            misses.increment();
+            // started outside compute() so no query ever runs under the map's bin lock
+            load(patientId).whenComplete((chart, error) -> {
+                if (error != null) entry.chart.completeExceptionally(error);
+                else entry.chart.complete(chart);
+            });
+            evictIfFull(now);
+        } else {
+            hits.increment();
+        }
+
+        try {
+            PatientChart chart = entry.chart.get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (chart == null) {
+                // unknown patient: not remembered, a registration right after must be visible
+                cache.remove(patientId, entry);
+                return Optional.empty();
+            }
+            return Optional.of(copyOf(chart));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cache.remove(patientId, entry);
+            throw new RuntimeException("Interrupted while loading chart for patient " + patientId);
+        } catch (ExecutionException | TimeoutException e) {
+            cache.remove(patientId, entry);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new RuntimeException("Failed to load chart for patient " + patientId + ": " + cause.getMessage(), cause);
+        }
+    }
+
+    private CompletableFuture<PatientChart> load(Long patientId) {
+        CompletableFuture<Optional<Patient>> patient = CompletableFuture.supplyAsync(
+                () -> patientRepository.findById(patientId).or(() -> patientRepository.findArchivedById(patientId)), executor);
+        CompletableFuture<List<BedBooking>> beds = CompletableFuture.supplyAsync(
+                () -> bedBookingRepository.findByPatientIdWithWard(patientId), executor);
+        CompletableFuture<List<Prescription>> prescriptions = CompletableFuture.supplyAsync(
+                () -> prescriptionRepository.findByPatientIdOrderByDateIssuedDesc(patientId), executor);
+        CompletableFuture<List<LabReportMeta>> reports = CompletableFuture.supplyAsync(
+                () -> labReportRepository.findMetadataByPatientId(patientId), executor);
+
+        return CompletableFuture.allOf(patient, beds, prescriptions, reports).thenApply(done -> {
+            Optional<Patient> p = patient.join();
+            return p.map(value -> new PatientChart(value, beds.join(), prescriptions.join(), reports.join(),
+                    LocalDateTime.now())).orElse(null);
+        });
+    }
+
+    private static PatientChart copyOf(PatientChart chart) {
+        return new PatientChart(copy(chart.getPatient(), new Patient()),
+                chart.getBedBookings().stream().map(PatientChartService::copyOf).toList(),
+                chart.getPrescriptions().stream().map(p -> copy(p, new Prescription())).toList(),
+                chart.getLabReports().stream().map(r -> copy(r, new LabReportMeta())).toList(),
+                chart.getGeneratedAt());
+    }
+
+    private static BedBooking copyOf(BedBooking booking) {
+        BedBooking copy = copy(booking, new BedBooking());
+        if (booking.getWard() != null) copy.setWard(copy(booking.getWard(), new Ward()));
+        return copy;
+    }
+
+    private static <T> T copy(T source, T target) {
+        BeanUtils.copyProperties(source, target);
+        return target;
+    }
+
+    private void evictIfFull(long now) {
+        if (cache.size() <= cacheMaxEntries) return;
+        cache.entrySet().removeIf(e -> e.getValue().expiresAt <= now);
+        // still full of live entries: drop everything rather than track recency
+        if (cache.size() > cacheMaxEntries) cache.clear();
+    }
+
+    // ================= INVALIDATION =================
+
+    public void invalidate(Long patientId) {
+        if (patientId != null && cache.remove(patientId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        invalidate(event.getPatientId());
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long m = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", cache.size());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("invalidations", invalidations.sum());
+        stats.put("ttlMs", cacheTtlMs);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Entry {
+        final CompletableFuture<PatientChart> chart;
+        final long expiresAt;
+
+        Entry(CompletableFuture<PatientChart> chart, long expiresAt) {
+            this.chart = chart;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.model.PatientMergeSuggestion;
+import com.jc.healthcare.repository.BedBookingRepository;
+import com.jc.healthcare.repository.LabReportRepository;
+import com.jc.healthcare.repository.PatientMergeSuggestionRepository;
+import com.jc.healthcare.repository.PatientRepository;
+import com.jc.healthcare.repository.PrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+// Nightly duplicate-patient finder.
+// 1. Load: patients are read in id-range chunks in parallel on a dedicated fork/join pool into
+//    compact column arrays (normalized name, last-10-digit phone, Aadhar digits, phonetic key).
+// 2. Block: every row gets one entry per key (Aadhar, phone, name phonetic key); the entries are
+//    sorted so rows sharing a key sit next to each other.
+// 3. Score: blocks are scored in parallel (Jaro-Winkler on names plus key/DOB/gender agreement).
+//    A pair is only scored in the block of its strongest shared key, so it is counted once.
+// 4. Write: new pairs above the threshold go to patient_merge_suggestion for review; pending
+//    suggestions that were not found again are dropped. Reviewed pairs are never re-suggested.
+//    Existing pairs are looked up per write batch, so the review history is never loaded whole.
+@Service
+public class PatientDedupService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientDedupService.class);
+
+    private static final int KEY_AADHAR = 0;
+    private static final int KEY_PHONE = 1;
+    private static final int KEY_NAME = 2;
+    private static final String[] KEY_NAMES = {"AADHAR", "PHONE", "NAME"};
+
+    private static final int NO_DOB = Integer.MIN_VALUE;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientMergeSuggestionRepository suggestionRepository;
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Autowired
+    private BedBookingRepository bedBookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${patient.dedup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${patient.dedup.threshold:0.88}")
+    private double threshold;
+
+    @Value("${patient.dedup.parallelism:0}")
+    private int parallelism;
+
+    // patient ids per load chunk
+    @Value("${patient.dedup.id-range:50000}")
+    private long idRange;
+
+    // blocks bigger than this (very common names, shared reception phone) only compare neighbours
+    @Value("${patient.dedup.max-block-size:500}")
+    private int maxBlockSize;
+
+    @Value("${patient.dedup.window:25}")
+    private int window;
+
+    @Value("${patient.dedup.max-suggestions:200000}")
+    private int maxSuggestions;
+
+    @Value("${patient.dedup.write-batch:1000}")
+    private int writeBatch;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+    private volatile String phase;
+    private volatile String lastError;
+
+    // ================= RUN =================
+
+    @Scheduled(cron = "${patient.dedup.cron:0 0 1 * * *}")
+    public void scheduledRun() {
+        if (enabled) runInBackground();
+    }
+
+    // false when a run is already in progress
+    public boolean runInBackground() {
+        if (!running.compareAndSet(false, true)) return false;
+        Thread worker = new Thread(() -> {
+            try {
+                dedup();
+            } finally {
+                phase = null;
+                running.set(false);
+            }
+        }, "patient-dedup");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void dedup() {
+        LocalDateTime started = LocalDateTime.now();
+        lastError = null;
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("startedAt", started);
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long t0 = System.nanoTime();
+            phase = "load";
+            Rows rows = pool.submit(this::loadRows).get();
+            long t1 = System.nanoTime();
+
+            phase = "block";
+            long[] entries = blockingEntries(rows);
+            int[] blocks = blockBounds(entries);
+            long t2 = System.nanoTime();
+
+            phase = "score";
+            LongAdder comparisons = new LongAdder();
+            LongAdder oversized = new LongAdder();
+            List<Candidate> candidates = pool.submit(() -> IntStream.range(0, blocks.length / 2).parallel()
+                    .mapToObj(b -> scoreBlock(rows, entries, blocks[2 * b], blocks[2 * b + 1], comparisons, oversized))
+                    .flatMap(List::stream)
+                    .toList()).get();
+            long t3 = System.nanoTime();
+
+            phase = "write";
+            int[] written = write(candidates);
+            long t4 = System.nanoTime();
+
+            run.put("threads", threads);
+            run.put("rows", rows.size);
+            run.put("blocks", blocks.length / 2);
+            run.put("oversizedBlocks", oversized.sum());
+            run.put("comparisons", comparisons.sum());
+            run.put("candidates", candidates.size());
+            run.put("newSuggestions", written[0]);
+            run.put("droppedSuggestions", written[1]);
+            run.put("loadMs", (t1 - t0) / 1_000_000);
+            run.put("blockMs", (t2 - t1) / 1_000_000);
+            run.put("scoreMs", (t3 - t2) / 1_000_000);
+            run.put("writeMs", (t4 - t3) / 1_000_000);
+            run.put("rowsPerSecond", rows.size * 1_000_000_000.0 / Math.max(1, t4 - t0));
+            log.info("Patient dedup: {} rows, {} comparisons, {} candidate pair(s), {} new suggestion(s) in {} ms",
+                    rows.size, comparisons.sum(), candidates.size(), written[0], (t4 - t0) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError = "interrupted";
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            lastError = cause.getMessage();
+            log.warn("Patient dedup run failed during {}: {}", phase, cause.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        LocalDateTime finished = LocalDateTime.now();
+        run.put("finishedAt", finished);
+        run.put("durationMs", Duration.between(started, finished).toMillis());
+        run.put("error", lastError);
+        lastRun = run;
+        runs.incrementAndGet();
+    }
+
+    // ================= LOAD =================
+
+    private Rows loadRows() {
+        List<Object[]> range = patientRepository.findPatientIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) return new Rows(0);
+        long min = ((Number) range.get(0)[0]).longValue();
+        long max = ((Number) range.get(0)[1]).longValue();
+        int chunks = (int) ((max - min) / idRange + 1);
+
+        List<Rows> parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    long from = min + c * idRange;
+                    List<Object[]> chunk = patientRepository.findDedupRows(from, from + idRange);
+                    Rows part = new Rows(chunk.size());
+                    for (Object[] r : chunk) part.add(r);
+                    return part;
+                })
+                .toList();
+        return Rows.concat(parts);
+    }
+
+    // ================= BLOCKING =================
+
+    // (key hash with the key type in its low 2 bits) << 32 | row index, sorted
+    private static long[] blockingEntries(Rows rows) {
+        long[] entries = new long[rows.size * 3];
+        int n = 0;
+        for (int i = 0; i < rows.size; i++) {
+            if (rows.aadhars[i] != 0) entries[n++] = entry(Long.hashCode(mix(rows.aadhars[i])), KEY_AADHAR, i);
+            if (rows.phones[i] != 0) entries[n++] = entry(Long.hashCode(mix(rows.phones[i])), KEY_PHONE, i);
+            if (rows.nameKeys[i] != 0) entries[n++] = entry(rows.nameKeys[i], KEY_NAME, i);
+        }
+        long[] sorted = Arrays.copyOf(entries, n);
+        Arrays.parallelSort(sorted);
+        return sorted;
+    }
+
+    private static long entry(int hash, int key, int row) {
+        return ((long) ((hash & ~3) | key) << 32) | (row & 0xffffffffL);
+    }
+
+    private static long mix(long v) {
+        v ^= v >>> 33;
+        v *= 0xff51afd7ed558ccdL;
+        v ^= v >>> 33;
+        return v;
+    }
+
+    // (start, end) offsets of every run of two or more entries with the same key, flattened
+    private static int[] blockBounds(long[] entries) {
+        int[] bounds = new int[entries.length];
+        int n = 0;
+        int i = 0;
+        while (i < entries.length) {
+            int j = i + 1;
+            long key = entries[i] >>> 32;
+            while (j < entries.length && entries[j] >>> 32 == key) j++;
+            if (j - i > 1) {
+                bounds[n++] = i;
+                bounds[n++] = j;
+            }
+            i = j;
+        }
+        return Arrays.copyOf(bounds, n);
+    }
+
+    // ================= SCORING =================
+
+    private List<Candidate> scoreBlock(Rows rows, long[] entries, int from, int to,
+                                       LongAdder comparisons, LongAdder oversized) {
+        int key = (int) (entries[from] >>> 32) & 3;
+        int size = to - from;
+        int reach = size > maxBlockSize ? window : size;
+        if (size > maxBlockSize) oversized.increment();
+
+        List<Candidate> found = new ArrayList<>(0);
+        long compared = 0;
+        for (int x = from; x < to; x++) {
+            int a = (int) entries[x];
+            int last = Math.min(to, x + 1 + reach);
+            for (int y = x + 1; y < last; y++) {
+                int b = (int) entries[y];
+                if (strongestSharedKey(rows, a, b) != key) continue;
+                compared++;
+                Candidate c = score(rows, a, b);
+                if (c != null) found.add(c);
+            }
+        }
+        comparisons.add(compared);
+        return found;
+    }
+
+    // -1 when the rows only landed together through a hash collision
+    private static int strongestSharedKey(Rows rows, int a, int b) {
+        if (rows.aadhars[a] != 0 && rows.aadhars[a] == rows.aadhars[b]) return KEY_AADHAR;
+        if (rows.phones[a] != 0 && rows.phones[a] == rows.phones[b]) return KEY_PHONE;
+        if (sameNameKey(rows, a, b)) return KEY_NAME;
+        return -1;
+    }
+
+    // nameKeys only holds the key's hash; equal hashes are confirmed against the keys themselves
+    private static boolean sameNameKey(Rows rows, int a, int b) {
+        return rows.nameKeys[a] != 0 && rows.nameKeys[a] == rows.nameKeys[b]
+                && PatientNameMatcher.phoneticKey(rows.names[a]).equals(PatientNameMatcher.phoneticKey(rows.names[b]));
+    }
+
+    private Candidate score(Rows rows, int a, int b) {
+        boolean aadhar = rows.aadhars[a] != 0 && rows.aadhars[a] == rows.aadhars[b];
+        boolean phone = rows.phones[a] != 0 && rows.phones[a] == rows.phones[b];
+        boolean nameKey = sameNameKey(rows, a, b);
+        boolean dobKnown = rows.birthDays[a] != NO_DOB && rows.birthDays[b] != NO_DOB;
+        boolean dobSame = dobKnown && rows.birthDays[a] == rows.birthDays[b];
+
+        double name = PatientNameMatcher.nameSimilarity(rows.names[a], rows.names[b]);
+        double score;
+        if (aadhar) {
+            score = 0.7 + 0.3 * name;
+        } else if (phone) {
+            // family members often share one phone, so the name still has to agree
+            score = 0.2 + 0.8 * name;
+        } else {
+            score = name * (dobSame ? 1.0 : dobKnown ? 0.6 : 0.9);
+        }
+        if (dobKnown && !dobSame && (aadhar || phone)) score -= 0.15;
+        char ga = rows.genders[a];
+        char gb = rows.genders[b];
+        if (ga != 0 && gb != 0 && ga != gb) score -= 0.2;
+        if (score < threshold) return null;
+
+        StringJoiner reason = new StringJoiner(",");
+        if (aadhar) reason.add(KEY_NAMES[KEY_AADHAR]);
+        if (phone) reason.add(KEY_NAMES[KEY_PHONE]);
+        if (nameKey) reason.add(KEY_NAMES[KEY_NAME]);
+        if (dobSame) reason.add("DOB");
+
+        long idA = rows.ids[a];
+        long idB = rows.ids[b];
+        // the older registration is kept
+        return new Candidate(Math.min(idA, idB), Math.max(idA, idB), Math.min(1.0, score), reason.toString());
+    }
+
+    // ================= WRITE =================
+
+    // {new suggestions, pending suggestions dropped}
+    private int[] write(List<Candidate> candidates) {
+        // read before anything is written, so this run's new suggestions are not among them
+        Set<Long> pendingBefore = new HashSet<>(suggestionRepository.findIdsByStatus("PENDING"));
+
+        List<Candidate> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparingDouble(Candidate::score).reversed());
+
+        // stays within Oracle's 1000-entry IN list limit
+        int batchSize = Math.max(1, Math.min(writeBatch, 1000));
+        Set<Long> stillPending = new HashSet<>();
+        int added = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ranked.size(); i += batchSize) {
+            List<Candidate> batch = ranked.subList(i, Math.min(ranked.size(), i + batchSize));
+            Set<Long> keepIds = new HashSet<>();
+            for (Candidate c : batch) keepIds.add(c.keepId());
+
+            // suggestionId, patientId, duplicateId, status of the known pairs for this batch
+            Map<Pair, Object[]> known = new HashMap<>();
+            for (Object[] row : suggestionRepository.findPairsByPatientIds(keepIds)) {
+                known.put(new Pair(((Number) row[1]).longValue(), ((Number) row[2]).longValue()), row);
+            }
+
+            List<PatientMergeSuggestion> fresh = new ArrayList<>();
+            for (Candidate c : batch) {
+                Object[] existing = known.get(new Pair(c.keepId(), c.duplicateId()));
+                if (existing != null) {
+                    if ("PENDING".equals(existing[3])) stillPending.add(((Number) existing[0]).longValue());
+                    continue;
+                }
+                if (added + fresh.size() >= maxSuggestions) continue;
+                PatientMergeSuggestion s = new PatientMergeSuggestion();
+                s.setPatientId(c.keepId());
+                s.setDuplicateId(c.duplicateId());
+                s.setScore(Math.round(c.score() * 10000) / 10000.0);
+                s.setReason(c.reason());
+                s.setStatus("PENDING");
+                s.setCreatedAt(now);
+                fresh.add(s);
+            }
+            if (!fresh.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> suggestionRepository.saveAll(fresh));
+                added += fresh.size();
+            }
+        }
+
+        pendingBefore.removeAll(stillPending);
+        List<Long> dropped = new ArrayList<>(pendingBefore);
+        // stays below Oracle's 1000-entry IN list limit
+        for (int i = 0; i < dropped.size(); i += 500) {
+            List<Long> batch = dropped.subList(i, Math.min(dropped.size(), i + 500));
+            transactionTemplate.executeWithoutResult(status -> suggestionRepository.deleteAllByIdInBatch(batch));
+        }
+        return new int[]{added, dropped.size()};
+    }
+
+    // ================= REVIEW =================
+
+    public Page<PatientMergeSuggestion> getSuggestions(String status, int page, int size) {
+        String s = status == null || status.isBlank() ? "PENDING" : status.trim().toUpperCase();
+        return suggestionRepository.findByStatusOrderByScoreDescSuggestionIdAsc(s, PageRequest.of(page, size));
+    }
+
+    // Moves the duplicate's prescriptions, lab reports and bed stays to the kept patient,
+    // fills the kept patient's blank fields from the duplicate and deletes the duplicate
+    @Transactional
+    public Map<String, Object> accept(Long suggestionId) {
+        PatientMergeSuggestion suggestion = pendingSuggestion(suggestionId);
+        Long keepId = suggestion.getPatientId();
+        Long duplicateId = suggestion.getDuplicateId();
+        Patient keep = patientRepository.findById(keepId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + keepId));
+        Patient duplicate = patientRepository.findById(duplicateId)
+                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + duplicateId));
+
+        int prescriptions = prescriptionRepository.repointPatient(duplicateId, keepId);
+        int labReports = labReportRepository.repointPatient(duplicateId, keepId);
+        int bedBookings = bedBookingRepository.repointPatient(duplicateId, keepId);
+
+        Patient previousKeep = copyOf(keep);
+        Patient previousDuplicate = copyOf(duplicate);
+        patientRepository.delete(duplicate);
+        // the duplicate's Aadhar / phone must be gone before they can move to the kept row
+        patientRepository.flush();
+        fillBlanks(keep, duplicate);
+        Patient saved = patientRepository.saveAndFlush(keep);
+
+        LocalDateTime now = LocalDateTime.now();
+        suggestion.setStatus("ACCEPTED");
+        suggestion.setReviewedAt(now);
+        suggestionRepository.saveAndFlush(suggestion);
+        int stale = suggestionRepository.markStale(duplicateId, now);
+
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, previousDuplicate, null));
+        eventPublisher.publishEvent(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, previousKeep, saved));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("suggestion", suggestion);
+        result.put("patient", saved);
+        result.put("prescriptionsMoved", prescriptions);
+        result.put("labReportsMoved", labReports);
+        result.put("bedBookingsMoved", bedBookings);
+        result.put("suggestionsMarkedStale", stale);
+        return result;
+    }
+
+    @Transactional
+    public PatientMergeSuggestion reject(Long suggestionId) {
+        PatientMergeSuggestion suggestion = pendingSuggestion(suggestionId);
+        suggestion.setStatus("REJECTED");
+        suggestion.setReviewedAt(LocalDateTime.now());
+        return suggestionRepository.save(suggestion);
+    }
+
+    private PatientMergeSuggestion pendingSuggestion(Long suggestionId) {
+        PatientMergeSuggestion suggestion = suggestionRepository.findById(suggestionId)
+                .orElseThrow(() -> new RuntimeException("Merge suggestion not found with ID: " + suggestionId));
+        if (!"PENDING".equals(suggestion.getStatus())) {
+            throw new IllegalStateException("Merge suggestion " + suggestionId + " is already " + suggestion.getStatus());
+        }
+        return suggestion;
+    }
+
+    private static void fillBlanks(Patient keep, Patient duplicate) {
+        if (isBlank(keep.getAadhar())) keep.setAadhar(duplicate.getAadhar());
+        if (isBlank(keep.getPhone())) keep.setPhone(duplicate.getPhone());
+        if (isBlank(keep.getGender())) keep.setGender(duplicate.getGender());
+        if (isBlank(keep.getAddress())) keep.setAddress(duplicate.getAddress());
+        if (keep.getDateOfBirth() == null) keep.setDateOfBirth(duplicate.getDateOfBirth());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static Patient copyOf(Patient source) {
+        Patient copy = new Patient();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("phase", phase);
+        stats.put("threshold", threshold);
+        stats.put("runs", runs.get());
+        stats.put("lastRun", lastRun);
+        stats.put("lastError", lastError);
+        try {
+            stats.put("pendingSuggestions", suggestionRepository.countByStatus("PENDING"));
+        } catch (Exception e) {
+            stats.put("pendingSuggestions", null);
+        }
+        return stats;
+    }
+
+    // ================= DATA =================
+
+    private record Candidate(long keepId, long duplicateId, double score, String reason) {
+    }
+
+    private record Pair(long keepId, long duplicateId) {
+    }
+
+    // Column arrays; one index per patient row
+    private static final class Rows {
+        long[] ids;
+        String[] names;
+        long[] phones;
+        long[] aadhars;
+        int[] nameKeys;
+        int[] birthDays;
+        char[] genders;
+        int size;
+
+        Rows(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            phones = new long[capacity];
+            aadhars = new long[capacity];
+            nameKeys = new int[capacity];
+            birthDays = new int[capacity];
+            genders = new char[capacity];
+        }
+
+        // patientId, name, phone, aadhar, dateOfBirth, gender
+        void add(Object[] r) {
+            int i = size++;
+            ids[i] = ((Number) r[0]).longValue();
+            names[i] = PatientNameMatcher.normalizeName((String) r[1]);
+            String key = PatientNameMatcher.phoneticKey(names[i]);
+            nameKeys[i] = key.isEmpty() ? 0 : (key.hashCode() == 0 ? 1 : key.hashCode());
+            phones[i] = PatientNameMatcher.normalizePhone((String) r[2]);
+            aadhars[i] = PatientNameMatcher.normalizeAadhar((String) r[3]);
+            birthDays[i] = r[4] instanceof LocalDate d ? (int) d.toEpochDay() : NO_DOB;
+            String g = (String) r[5];
+            genders[i] = g == null || g.isBlank() ? 0 : Character.toUpperCase(g.trim().charAt(0));
+        }
+
+        static Rows concat(List<Rows> parts) {
+            int total = parts.stream().mapToInt(p -> p.size).sum();
+            Rows all = new Rows(total);
+            int at = 0;
+            for (Rows p : parts) {
+                System.arraycopy(p.ids, 0, all.ids, at, p.size);
+                System.arraycopy(p.names, 0, all.names, at, p.size);
+                System.arraycopy(p.phones, 0, all.phones, at, p.size);
+                System.arraycopy(p.aadhars, 0, all.aadhars, at, p.size);
+                System.arraycopy(p.nameKeys, 0, all.nameKeys, at, p.size);
+                System.arraycopy(p.birthDays, 0, all.birthDays, at, p.size);
+                System.arraycopy(p.genders, 0, all.genders, at, p.size);
+                at += p.size;
+            }
+            all.size = total;
+            return all;
+        }
+    }
+}
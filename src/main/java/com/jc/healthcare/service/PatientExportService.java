@@ -0,0 +1,146 @@
+package com.jc.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jc.healthcare.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Streams patients straight from a JDBC cursor to the response; each row is detached
+// after it is written so the persistence context (and the heap) stays flat.
+@Service
+public class PatientExportService {
+
+    private static final String[] CSV_HEADER = {
+            "patientId", "name", "gender", "aadhar", "phone", "dateOfBirth", "address", "doctorId",
+            "appointmentDate", "appointmentTime", "appointmentAt", "disease", "medication",
+            "dosageInstructions", "selectedMedicines", "selectedTests", "notes", "generatedAt",
+            "dateIssued", "medisionStatus", "doctorStatus", "labStatus"
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${patient.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportPatients(LocalDate fromDate, LocalDate toDate, String doctorStatus, String labStatus,
+                               String medisionStatus, String format, OutputStream out) throws IOException {
+        try (Stream<Patient> patients = streamPatients(fromDate, toDate, doctorStatus, labStatus, medisionStatus)) {
+            return "csv".equalsIgnoreCase(format) ? writeCsv(patients, out) : writeNdjson(patients, out);
+        }
+    }
+
+    private Stream<Patient> streamPatients(LocalDate fromDate, LocalDate toDate, String doctorStatus,
+                                           String labStatus, String medisionStatus) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Patient> cq = cb.createQuery(Patient.class);
+        Root<Patient> p = cq.from(Patient.class);
+
+        // only the filters that were actually supplied end up in the SQL
+        List<Predicate> where = new ArrayList<>();
+        if (fromDate != null) {
+            where.add(cb.greaterThanOrEqualTo(p.get("appointmentAt"), fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            where.add(cb.lessThan(p.get("appointmentAt"), toDate.plusDays(1).atStartOfDay()));
+        }
+        if (doctorStatus != null && !doctorStatus.isBlank()) {
+            where.add(cb.equal(cb.lower(p.get("doctorStatus")), doctorStatus.trim().toLowerCase()));
+        }
+        if (labStatus != null && !labStatus.isBlank()) {
+            where.add(cb.equal(cb.lower(p.get("labStatus")), labStatus.trim().toLowerCase()));
+        }
+        if (medisionStatus != null && !medisionStatus.isBlank()) {
+            where.add(cb.equal(cb.lower(p.get("medisionStatus")), medisionStatus.trim().toLowerCase()));
+        }
+        cq.select(p).where(where.toArray(new Predicate[0])).orderBy(cb.asc(p.get("patientId")));
+
+        TypedQuery<Patient> query = entityManager.createQuery(cq);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+
+    private long writeNdjson(Stream<Patient> patients, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter writer = objectMapper.writerFor(Patient.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+            Iterator<Patient> it = patients.iterator();
+            while (it.hasNext()) {
+                Patient patient = it.next();
+                writer.write(patient);
+                entityManager.detach(patient);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Stream<Patient> patients, OutputStream out) throws IOException {
+        long count = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024)) {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\n");
+
+            Iterator<Patient> it = patients.iterator();
+            while (it.hasNext()) {
+                Patient p = it.next();
+                Object[] row = {
+                        p.getPatientId(), p.getName(), p.getGender(), p.getAadhar(), p.getPhone(),
+                        p.getDateOfBirth(), p.getAddress(), p.getDoctorId(), p.getAppointmentDate(),
+                        p.getAppointmentTime(), p.getAppointmentAt(), p.getDisease(), p.getMedication(),
+                        p.getDosageInstructions(), p.getSelectedMedicines(), p.getSelectedTests(), p.getNotes(),
+                        p.getGeneratedAt(), p.getDateIssued(), p.getMedisionStatus(), p.getDoctorStatus(),
+                        p.getLabStatus()
+                };
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) writer.write(',');
+                    writer.write(csvValue(row[i]));
+                }
+                writer.write("\n");
+                entityManager.detach(p);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) return "";
+        String s = value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+}
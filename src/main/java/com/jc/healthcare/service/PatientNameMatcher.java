@@ -0,0 +1,138 @@
+package com.jc.healthcare.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Normalisation and similarity helpers for PatientDedupService.
+// The phonetic key is a consonant skeleton tuned for transliterated Indian names
+// ("Lakshmi" / "Laxmi", "Mohammed" / "Mohamad"), with tokens sorted so word order does not matter.
+public final class PatientNameMatcher {
+
+    private static final Set<String> TITLES = Set.of("MR", "MRS", "MS", "MISS", "DR", "SHRI", "SRI", "SMT", "KUMARI", "BABY", "MASTER");
+
+    private static final String[][] DIGRAPHS = {
+            {"PH", "F"}, {"SH", "S"}, {"KH", "K"}, {"GH", "G"}, {"BH", "B"}, {"DH", "D"},
+            {"TH", "T"}, {"JH", "J"}, {"CK", "K"}, {"CH", "C"}, {"X", "KS"}, {"Q", "K"}, {"W", "V"}, {"Z", "J"}
+    };
+
+    private PatientNameMatcher() {
+    }
+
+    // Upper-case letters and single spaces, titles removed
+    public static String normalizeName(String name) {
+        if (name == null) return "";
+        String[] tokens = name.toUpperCase(Locale.ENGLISH).replaceAll("[^A-Z]+", " ").trim().split(" ");
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (token.isEmpty() || TITLES.contains(token)) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(token);
+        }
+        return sb.toString();
+    }
+
+    // Same words in alphabetical order ("KUMAR RAMESH" for "Ramesh Kumar")
+    public static String sortedTokens(String normalizedName) {
+        if (normalizedName.isEmpty()) return normalizedName;
+        String[] tokens = normalizedName.split(" ");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    // Empty when the name has no usable word; initials are ignored
+    public static String phoneticKey(String normalizedName) {
+        if (normalizedName.isEmpty()) return "";
+        List<String> parts = new ArrayList<>();
+        for (String token : normalizedName.split(" ")) {
+            if (token.length() > 1) parts.add(skeleton(token));
+        }
+        parts.sort(null);
+        return String.join(" ", parts);
+    }
+
+    private static String skeleton(String token) {
+        String t = token;
+        for (String[] d : DIGRAPHS) t = t.replace(d[0], d[1]);
+
+        StringBuilder sb = new StringBuilder();
+        char first = t.charAt(0);
+        sb.append(isVowel(first) ? 'A' : first);
+        char last = sb.charAt(0);
+        for (int i = 1; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (isVowel(c) || c == 'H') continue;
+            if (c != last) sb.append(c);
+            last = c;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'A' || c == 'E' || c == 'I' || c == 'O' || c == 'U' || c == 'Y';
+    }
+
+    // Last 10 digits ("+91 98480-12345" and "09848012345" are the same number), 0 when too short
+    public static long normalizePhone(String phone) {
+        String digits = digitsOf(phone);
+        if (digits.length() < 10) return 0L;
+        return Long.parseLong(digits.substring(digits.length() - 10));
+    }
+
+    // 12 digits, 0 otherwise
+    public static long normalizeAadhar(String aadhar) {
+        String digits = digitsOf(aadhar);
+        return digits.length() == 12 ? Long.parseLong(digits) : 0L;
+    }
+
+    private static String digitsOf(String value) {
+        return value == null ? "" : value.replaceAll("\\D", "");
+    }
+
+    // Best of the names as written and with their words sorted
+    public static double nameSimilarity(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) return 0.0;
+        return Math.max(jaroWinkler(a, b), jaroWinkler(sortedTokens(a), sortedTokens(b)));
+    }
+
+    public static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) return 1.0;
+        int la = a.length();
+        int lb = b.length();
+        if (la == 0 || lb == 0) return 0.0;
+
+        int window = Math.max(0, Math.max(la, lb) / 2 - 1);
+        boolean[] matchedA = new boolean[la];
+        boolean[] matchedB = new boolean[lb];
+        int matches = 0;
+        for (int i = 0; i < la; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(lb - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) return 0.0;
+
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < la; i++) {
+            if (!matchedA[i]) continue;
+            while (!matchedB[j]) j++;
+            if (a.charAt(i) != b.charAt(j)) transpositions++;
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / la + m / lb + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(la, lb)) && a.charAt(prefix) == b.charAt(prefix)) prefix++;
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+}
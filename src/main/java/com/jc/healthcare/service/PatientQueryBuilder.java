@@ -0,0 +1,76 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientFilter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Builds the native patient filter with only the predicates that were supplied, so each
+// combination gets its own statement (and plan) instead of one catch-all "(:x IS NULL OR ...)".
+// Statuses are compared as LOWER(column) = lower-cased bind, matching the function-based
+// indexes in db/004_patient_filter_indexes.sql.
+public final class PatientQueryBuilder {
+
+    private PatientQueryBuilder() {
+    }
+
+    public static NativeQuery build(PatientFilter filter) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (filter.getFromDate() != null) {
+            where.add("p.appointment_at >= :fromAt");
+            params.put("fromAt", filter.getFromDate().atStartOfDay());
+        }
+        if (filter.getToDate() != null) {
+            where.add("p.appointment_at < :toAt");
+            params.put("toAt", filter.getToDate().plusDays(1).atStartOfDay());
+        }
+        addStatus(where, params, "doctor_status", "doctorStatus", filter.getDoctorStatus());
+        addStatus(where, params, "lab_status", "labStatus", filter.getLabStatus());
+        addStatus(where, params, "medision_status", "medisionStatus", filter.getMedisionStatus());
+        if (filter.getDoctorId() != null && filter.getDoctorId() != 0) {
+            where.add("p.doctor_id = :doctorId");
+            params.put("doctorId", filter.getDoctorId());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT p.* FROM patients p");
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        // patient_id breaks ties so pages never overlap
+        sql.append(" ORDER BY p.appointment_at ASC, p.patient_id ASC");
+        sql.append(" OFFSET :offset ROWS FETCH NEXT :size ROWS ONLY");
+        params.put("offset", (long) filter.getPage() * filter.getSize());
+        params.put("size", filter.getSize());
+
+        return new NativeQuery(sql.toString(), params);
+    }
+
+    private static void addStatus(List<String> where, Map<String, Object> params,
+                                  String column, String param, String value) {
+        if (value == null || value.isBlank() || value.trim().equalsIgnoreCase("all")) return;
+        where.add("LOWER(p." + column + ") = :" + param);
+        params.put(param, value.trim().toLowerCase());
+    }
+
+    public static final class NativeQuery {
+        private final String sql;
+        private final Map<String, Object> params;
+
+        NativeQuery(String sql, Map<String, Object> params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public Map<String, Object> getParams() {
+            return params;
+        }
+    }
+}
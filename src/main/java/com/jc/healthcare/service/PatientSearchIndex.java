@@ -0,0 +1,651 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientSearchHit;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// In-memory prefix search over patient name words, phone and Aadhar.
+// The bulk of the index is an immutable base segment of sorted primitive arrays built from the
+// database; writes since the last build go to a small overlay. Every candidate is re-checked
+// against the live document, so stale postings (old names, deleted rows) never surface.
+// A rebuild builds a new base off to the side and swaps it in while searches keep running.
+@Service
+public class PatientSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    // phone / Aadhar digits are kept as longs, bucketed by digit count (leading zeros included)
+    private static final int MAX_DIGITS = 18;
+    private static final long[] POW10 = new long[MAX_DIGITS + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${patient.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${patient.search.max-results:50}")
+    private int maxResults;
+
+    // cap on documents scored per query; bounds latency for very short prefixes
+    @Value("${patient.search.max-candidates:20000}")
+    private int maxCandidates;
+
+    @Value("${patient.search.overlay-rebuild-threshold:200000}")
+    private int overlayRebuildThreshold;
+
+    private volatile State state;
+    private final Object writeLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private List<PatientChangedEvent> replayLog;   // guarded by writeLock
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+
+    // ================= SEARCH =================
+
+    public List<PatientSearchHit> search(String query, Integer limit) {
+        int k = limit == null || limit <= 0 ? 10 : Math.min(limit, maxResults);
+        List<Token> tokens = tokenize(query);
+        if (tokens.isEmpty()) return List.of();
+
+        State s = state;
+        if (s == null) {
+            fallbacks.increment();
+            return searchDatabase(query.trim(), k);
+        }
+
+        long started = System.nanoTime();
+        try {
+            return search(s, tokens, k);
+        } finally {
+            queries.increment();
+            queryNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    private List<PatientSearchHit> search(State s, List<Token> tokens, int k) {
+        // drive the scan from the most selective token, verify the rest per document
+        Token driver = tokens.get(0);
+        long best = Long.MAX_VALUE;
+        for (Token t : tokens) {
+            long estimate = s.estimate(t);
+            if (estimate < best) {
+                best = estimate;
+                driver = t;
+            }
+        }
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(k + 1, RANKING);
+        Set<Long> seen = new HashSet<>();
+        int[] budget = {maxCandidates};
+
+        s.forEachCandidate(driver, id -> {
+            if (!seen.add(id)) return budget[0] > 0;
+            Doc doc = s.docs.get(id);
+            if (doc != null) {
+                int score = score(doc, tokens);
+                if (score > 0) {
+                    top.offer(new Scored(doc, score));
+                    if (top.size() > k) top.poll();
+                }
+            }
+            return --budget[0] > 0;
+        });
+
+        List<PatientSearchHit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Scored sc = top.poll();
+            hits.add(new PatientSearchHit(sc.doc.id, sc.doc.name, sc.doc.phone, sc.doc.aadhar, sc.score));
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    // Before the first build completes: plain prefix query, unranked
+    private List<PatientSearchHit> searchDatabase(String query, int k) {
+        return patientRepository
+                .findByNameStartingWithIgnoreCaseOrPhoneStartingWithOrAadharStartingWith(query, query, query, Limit.of(k))
+                .stream()
+                .map(p -> new PatientSearchHit(p.getPatientId(), p.getName(), p.getPhone(), p.getAadhar(), 0))
+                .toList();
+    }
+
+    // worst hit at the head of the heap: lower score, then longer name, then older id
+    private static final Comparator<Scored> RANKING = Comparator
+            .comparingInt((Scored sc) -> sc.score)
+            .thenComparing(sc -> sc.doc.name == null ? Integer.MAX_VALUE : sc.doc.name.length(), Comparator.reverseOrder())
+            .thenComparingLong(sc -> sc.doc.id);
+
+    // 0 = some token does not match; otherwise the sum of the best per-token match
+    private static int score(Doc doc, List<Token> tokens) {
+        int total = 0;
+        for (Token t : tokens) {
+            int best = t.numeric
+                    ? Math.max(digitScore(doc.phone, t.text), digitScore(doc.aadhar, t.text))
+                    : nameScore(doc.name, t.text);
+            if (best == 0) return 0;
+            total += best;
+        }
+        return total;
+    }
+
+    private static int digitScore(String raw, String digits) {
+        if (raw == null) return 0;
+        int d = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (d == digits.length()) return 60;          // prefix, more digits follow
+            if (c != digits.charAt(d++)) return 0;
+        }
+        return d == digits.length() ? 100 : 0;            // exact number
+    }
+
+    private static int nameScore(String name, String token) {
+        if (name == null) return 0;
+        int best = 0;
+        boolean first = true;
+        int i = 0;
+        int n = name.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(name.charAt(i))) i++;
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(name.charAt(i))) i++;
+            if (start == i) break;
+            if (i - start >= token.length() && name.regionMatches(true, start, token, 0, token.length())) {
+                int score = (i - start == token.length() ? 30 : 20) + (first ? 5 : 0);
+                best = Math.max(best, score);
+            }
+            first = false;
+        }
+        return best;
+    }
+
+    private static List<Token> tokenize(String query) {
+        if (query == null || query.isBlank()) return List.of();
+        String q = query.trim().toLowerCase(Locale.ROOT);
+
+        // "98765 43210", "+91-98765..." -> one number
+        if (q.chars().allMatch(c -> Character.isDigit(c) || c == ' ' || c == '+' || c == '-')) {
+            String digits = q.replaceAll("\\D", "");
+            if (digits.isEmpty() || digits.length() > MAX_DIGITS) return List.of();
+            return List.of(new Token(digits, true));
+        }
+
+        List<Token> tokens = new ArrayList<>();
+        for (String part : q.split("[^\\p{L}\\p{N}]+")) {
+            if (part.isEmpty()) continue;
+            boolean numeric = part.chars().allMatch(Character::isDigit);
+            if (numeric && part.length() > MAX_DIGITS) continue;
+            tokens.add(new Token(part, numeric));
+        }
+        return tokens;
+    }
+
+    // ================= INCREMENTAL UPDATES =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        boolean overlayFull;
+        synchronized (writeLock) {
+            if (replayLog != null) {
+                replayLog.add(event);
+            }
+            State s = state;
+            if (s == null) return;
+            s.apply(event);
+            overlayFull = s.overlaySize.get() > overlayRebuildThreshold;
+        }
+        if (overlayFull) {
+            rebuildInBackground();
+        }
+    }
+
+    // ================= BUILD =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) rebuildInBackground();
+    }
+
+    // Folds the overlay back into a compact base once a night
+    @Scheduled(cron = "${patient.search.rebuild-cron:0 30 3 * * *}")
+    public void nightlyRebuild() {
+        if (enabled) rebuildInBackground();
+    }
+
+    // false when a rebuild is already running
+    public boolean rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) return false;
+        Thread worker = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Patient search index rebuild failed: {}", e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "patient-search-rebuild");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (writeLock) {
+            replayLog = new ArrayList<>();
+        }
+        try {
+            BaseBuilder builder = new BaseBuilder();
+            Map<Long, Doc> docs = new ConcurrentHashMap<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = patientRepository.streamSearchRows()) {
+                    rows.forEach(r -> {
+                        Doc doc = new Doc(((Number) r[0]).longValue(), (String) r[1], (String) r[2], (String) r[3]);
+                        docs.put(doc.id, doc);
+                        builder.add(doc);
+                    });
+                }
+            });
+            Base base = builder.build();
+
+            synchronized (writeLock) {
+                State fresh = new State(base, docs);
+                // writes that committed while the scan was running
+                for (PatientChangedEvent event : replayLog) {
+                    fresh.apply(event);
+                }
+                replayLog = null;
+                state = fresh;
+            }
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                replayLog = null;
+            }
+            throw e;
+        }
+
+        rebuilds.incrementAndGet();
+        lastRebuildAt = LocalDateTime.now();
+        lastRebuildMs = System.currentTimeMillis() - started;
+        log.info("Patient search index built: {} patients in {} ms", state.docs.size(), lastRebuildMs);
+    }
+
+    // ================= METRICS =================
+
+    public Map<String, Object> getStats() {
+        State s = state;
+        long q = queries.sum();
+        long bytes = s == null ? 0 : s.estimateBytes();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", s != null);
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("patients", s == null ? 0 : s.docs.size());
+        stats.put("nameTerms", s == null ? 0 : s.base.terms.length);
+        stats.put("numberKeys", s == null ? 0 : s.base.numberCount());
+        stats.put("overlayPostings", s == null ? 0 : s.overlaySize.get());
+        stats.put("estimatedBytes", bytes);
+        stats.put("estimatedMb", Math.round(bytes / 1024.0 / 1024.0 * 10) / 10.0);
+        stats.put("queries", q);
+        stats.put("avgQueryMicros", q == 0 ? 0.0 : queryNanos.sum() / 1000.0 / q);
+        stats.put("databaseFallbacks", fallbacks.sum());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("lastRebuildMs", lastRebuildMs);
+        return stats;
+    }
+
+    // ================= STRUCTURES =================
+
+    private static final class Token {
+        final String text;
+        final boolean numeric;
+
+        Token(String text, boolean numeric) {
+            this.text = text;
+            this.numeric = numeric;
+        }
+    }
+
+    private static final class Doc {
+        final long id;
+        final String name;
+        final String phone;
+        final String aadhar;
+
+        Doc(long id, String name, String phone, String aadhar) {
+            this.id = id;
+            this.name = name;
+            this.phone = phone;
+            this.aadhar = aadhar;
+        }
+
+        static Doc of(Patient p) {
+            return new Doc(p.getPatientId(), p.getName(), p.getPhone(), p.getAadhar());
+        }
+    }
+
+    private static final class Scored {
+        final Doc doc;
+        final int score;
+
+        Scored(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    private interface IdVisitor {
+        // return false to stop
+        boolean visit(long id);
+    }
+
+    // Base segment + overlay + live documents
+    private static final class State {
+        final Base base;
+        final Map<Long, Doc> docs;
+        // "n" + name word / "d" + digits -> ids written since the base was built
+        final ConcurrentSkipListMap<String, Set<Long>> overlay = new ConcurrentSkipListMap<>();
+        final AtomicLong overlaySize = new AtomicLong();
+
+        State(Base base, Map<Long, Doc> docs) {
+            this.base = base;
+            this.docs = docs;
+        }
+
+        void apply(PatientChangedEvent event) {
+            Patient current = event.getCurrent();
+            if (current == null || current.getPatientId() == null) {
+                docs.remove(event.getPatientId());
+                return;
+            }
+            Doc doc = Doc.of(current);
+            docs.put(doc.id, doc);
+            forEachKey(doc, key -> {
+                if (overlay.computeIfAbsent(key, x -> ConcurrentHashMap.newKeySet()).add(doc.id)) {
+                    overlaySize.incrementAndGet();
+                }
+            });
+        }
+
+        long estimate(Token t) {
+            String key = (t.numeric ? "d" : "n") + t.text;
+            long overlayHits = overlay.subMap(key, key + Character.MAX_VALUE).size();
+            return (t.numeric ? base.countNumbers(t.text) : base.countTerms(t.text)) + overlayHits;
+        }
+
+        void forEachCandidate(Token t, IdVisitor visitor) {
+            boolean more = t.numeric ? base.visitNumbers(t.text, visitor) : base.visitTerms(t.text, visitor);
+            if (!more) return;
+            String key = (t.numeric ? "d" : "n") + t.text;
+            for (Set<Long> ids : overlay.subMap(key, key + Character.MAX_VALUE).values()) {
+                for (Long id : ids) {
+                    if (!visitor.visit(id)) return;
+                }
+            }
+        }
+
+        long estimateBytes() {
+            long bytes = base.estimateBytes();
+            // ConcurrentHashMap node + boxed key + Doc + three strings
+            for (Doc d : docs.values()) {
+                bytes += 32 + 16 + 32 + stringBytes(d.name) + stringBytes(d.phone) + stringBytes(d.aadhar);
+            }
+            return bytes + overlaySize.get() * 64;
+        }
+    }
+
+    private static void forEachKey(Doc doc, Consumer<String> sink) {
+        for (String word : nameWords(doc.name)) sink.accept("n" + word);
+        String phone = digitsOf(doc.phone);
+        if (phone != null) sink.accept("d" + phone);
+        String aadhar = digitsOf(doc.aadhar);
+        if (aadhar != null) sink.accept("d" + aadhar);
+    }
+
+    private static List<String> nameWords(String name) {
+        if (name == null) return List.of();
+        List<String> words = new ArrayList<>(3);
+        for (String w : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words;
+    }
+
+    private static String digitsOf(String raw) {
+        if (raw == null) return null;
+        String digits = raw.replaceAll("\\D", "");
+        return digits.isEmpty() || digits.length() > MAX_DIGITS ? null : digits;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 24 + 16 + s.length();
+    }
+
+    // Immutable, array-backed segment
+    private static final class Base {
+        final String[] terms;      // sorted distinct name words
+        final int[] offsets;       // postings of terms[i] are postings[offsets[i] .. offsets[i + 1])
+        final long[] postings;
+        final long[][] numbers;    // numbers[len] sorted digit values of that length
+        final long[][] numberIds;
+
+        Base(String[] terms, int[] offsets, long[] postings, long[][] numbers, long[][] numberIds) {
+            this.terms = terms;
+            this.offsets = offsets;
+            this.postings = postings;
+            this.numbers = numbers;
+            this.numberIds = numberIds;
+        }
+
+        long countTerms(String prefix) {
+            int lo = lowerBound(terms, prefix);
+            int hi = lowerBound(terms, prefix + Character.MAX_VALUE);
+            return offsets[hi] - offsets[lo];
+        }
+
+        boolean visitTerms(String prefix, IdVisitor visitor) {
+            int lo = lowerBound(terms, prefix);
+            int hi = lowerBound(terms, prefix + Character.MAX_VALUE);
+            for (int i = offsets[lo]; i < offsets[hi]; i++) {
+                if (!visitor.visit(postings[i])) return false;
+            }
+            return true;
+        }
+
+        long countNumbers(String digits) {
+            long n = 0;
+            for (int len = digits.length(); len <= MAX_DIGITS; len++) {
+                long[] range = numberRange(len, digits);
+                n += range[1] - range[0];
+            }
+            return n;
+        }
+
+        boolean visitNumbers(String digits, IdVisitor visitor) {
+            for (int len = digits.length(); len <= MAX_DIGITS; len++) {
+                long[] range = numberRange(len, digits);
+                for (int i = (int) range[0]; i < range[1]; i++) {
+                    if (!visitor.visit(numberIds[len][i])) return false;
+                }
+            }
+            return true;
+        }
+
+        // index range in numbers[len] whose values start with the given digits
+        private long[] numberRange(int len, String digits) {
+            long[] values = numbers[len];
+            if (values.length == 0) return new long[]{0, 0};
+            long scale = POW10[len - digits.length()];
+            long from = Long.parseLong(digits) * scale;
+            return new long[]{lowerBound(values, from), lowerBound(values, from + scale)};
+        }
+
+        long numberCount() {
+            long n = 0;
+            for (long[] values : numbers) n += values.length;
+            return n;
+        }
+
+        long estimateBytes() {
+            long bytes = 16 + 4L * offsets.length + 16 + 8L * postings.length + 16 + 4L * terms.length;
+            for (String t : terms) bytes += stringBytes(t);
+            return bytes + 16 * numberCount();
+        }
+
+        private static int lowerBound(String[] a, String key) {
+            int lo = 0, hi = a.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid].compareTo(key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int lowerBound(long[] a, long key) {
+            int lo = 0, hi = a.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    private static final class BaseBuilder {
+        private final Map<String, LongList> byTerm = new HashMap<>();
+        private final LongList[] values = new LongList[MAX_DIGITS + 1];
+        private final LongList[] ids = new LongList[MAX_DIGITS + 1];
+
+        BaseBuilder() {
+            for (int i = 0; i <= MAX_DIGITS; i++) {
+                values[i] = new LongList();
+                ids[i] = new LongList();
+            }
+        }
+
+        void add(Doc doc) {
+            forEachKey(doc, key -> {
+                String body = key.substring(1);
+                if (key.charAt(0) == 'n') {
+                    byTerm.computeIfAbsent(body, x -> new LongList()).add(doc.id);
+                } else {
+                    values[body.length()].add(Long.parseLong(body));
+                    ids[body.length()].add(doc.id);
+                }
+            });
+        }
+
+        Base build() {
+            String[] terms = byTerm.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] offsets = new int[terms.length + 1];
+            long total = 0;
+            for (int i = 0; i < terms.length; i++) {
+                offsets[i] = (int) total;
+                total += byTerm.get(terms[i]).size;
+            }
+            offsets[terms.length] = (int) total;
+
+            long[] postings = new long[(int) total];
+            for (int i = 0; i < terms.length; i++) {
+                LongList list = byTerm.get(terms[i]);
+                System.arraycopy(list.items, 0, postings, offsets[i], list.size);
+            }
+
+            long[][] numbers = new long[MAX_DIGITS + 1][];
+            long[][] numberIds = new long[MAX_DIGITS + 1][];
+            for (int len = 0; len <= MAX_DIGITS; len++) {
+                numbers[len] = values[len].toArray();
+                numberIds[len] = ids[len].toArray();
+                sortPairs(numbers[len], numberIds[len], 0, numbers[len].length - 1);
+            }
+            return new Base(terms, offsets, postings, numbers, numberIds);
+        }
+
+        // quicksort on keys, carrying the parallel ids along (no boxing)
+        private static void sortPairs(long[] keys, long[] vals, int lo, int hi) {
+            while (lo < hi) {
+                if (hi - lo < 16) {
+                    for (int i = lo + 1; i <= hi; i++) {
+                        for (int j = i; j > lo && keys[j - 1] > keys[j]; j--) swap(keys, vals, j, j - 1);
+                    }
+                    return;
+                }
+                long pivot = keys[(lo + hi) >>> 1];
+                int i = lo, j = hi;
+                while (i <= j) {
+                    while (keys[i] < pivot) i++;
+                    while (keys[j] > pivot) j--;
+                    if (i <= j) swap(keys, vals, i++, j--);
+                }
+                // recurse into the smaller half to bound stack depth
+                if (j - lo < hi - i) {
+                    sortPairs(keys, vals, lo, j);
+                    lo = i;
+                } else {
+                    sortPairs(keys, vals, i, hi);
+                    hi = j;
+                }
+            }
+        }
+
+        private static void swap(long[] keys, long[] vals, int a, int b) {
+            long k = keys[a]; keys[a] = keys[b]; keys[b] = k;
+            long v = vals[a]; vals[a] = vals[b]; vals[b] = v;
+        }
+    }
+
+    private static final class LongList {
+        long[] items = new long[4];
+        int size;
+
+        void add(long v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -1,11 +1,32 @@
 package com.jc.healthcare.service;
 
+import com.jc.healthcare.dto.CursorPage;
+import com.jc.healthcare.dto.PatientFilter;
+import com.jc.healthcare.dto.PatientSearchHit;
+import com.jc.healthcare.dto.PatientStatusBatchRequest;
+import com.jc.healthcare.dto.PatientSummary;
+import com.jc.healthcare.dto.PatientView;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.exception.DuplicateValueException;
 import com.jc.healthcare.model.Patient;
 import com.jc.healthcare.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -15,24 +36,182 @@ public class PatientService {
     @Autowired
     private PatientRepository patientRepository;
 
+    @Autowired
+    private TodayQueueCache todayQueueCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UniquenessGuard uniquenessGuard;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private PatientStatsService patientStatsService;
+
+    @Autowired
+    private PatientArchiveService patientArchiveService;
+
+    @Autowired
+    private DoctorTokenQueue doctorTokenQueue;
+
+    @Autowired
+    private DoctorLoadTracker doctorLoadTracker;
+
+    @Value("${patient.list.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${patient.list.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${patient.list.unpaged-cap:1000}")
+    private int unpagedCap;
+
+    @Value("${patient.status-batch.max-rows:5000}")
+    private int batchStatusMaxRows;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final Set<String> PATCHABLE_FIELDS = Set.of(
+            "doctorStatus", "labStatus", "medisionStatus", "selectedTests",
+            "selectedMedicines", "notes", "appointmentTime", "appointmentDate");
+
+    private static final Set<String> STATUS_FIELDS = Set.of("doctorStatus", "labStatus", "medisionStatus");
+
     public Patient addPatient(Patient patient) {
-        return patientRepository.save(patient);
+        normalizeNewPatient(patient);
+        rejectKnownDuplicates(patient, null);
+        if (patient.getDoctorId() != null || patient.getSpecialization() == null || patient.getSpecialization().isBlank()) {
+            Patient saved = patientRepository.save(patient);
+            publish(PatientChangedEvent.Type.ADDED, null, saved);
+            return saved;
+        }
+
+        // 🩺 Specialization only: least-loaded active doctor, held until the ADDED event has counted the patient
+        try (DoctorLoadTracker.Reservation reservation = doctorLoadTracker.assign(patient.getSpecialization())) {
+            patient.setDoctorId(reservation.getDoctorId());
+            Patient saved = patientRepository.save(patient);
+            publish(PatientChangedEvent.Type.ADDED, null, saved);
+            return saved;
+        }
     }
 
-    public List<Patient> getAllPatients() {
-        return patientRepository.findAll();
+    public Map<String, Object> getDoctorLoad(String specialization) {
+        return doctorLoadTracker.getStats(specialization);
+    }
+
+    // Shared by single and bulk registration
+    public void normalizeNewPatient(Patient patient) {
+        // Formatters
+        DateTimeFormatter inFmt = DateTimeFormatter.ofPattern("yyyy-MM-dd"); // From React
+        DateTimeFormatter outFmt = DateTimeFormatter.ofPattern("dd-MMM-yy", Locale.ENGLISH);
+
+        // --- Appointment Date ---
+        if (patient.getAppointmentDate() == null || patient.getAppointmentDate().isEmpty()) {
+            patient.setAppointmentDate(LocalDate.now().format(outFmt).toUpperCase());
+        } else {
+            LocalDate d = LocalDate.parse(patient.getAppointmentDate(), inFmt);
+            patient.setAppointmentDate(d.format(outFmt).toUpperCase());
+        }
+
+        // --- Appointment Time ---
+        if (patient.getAppointmentTime() == null || patient.getAppointmentTime().isEmpty()) {
+            patient.setAppointmentTime(java.time.LocalTime.now().toString());
+        }
+
+        // Default Statuses
+        patient.setMedisionStatus("Pending");
+        patient.setDoctorStatus("Pending");
+        patient.setLabStatus("Pending");
+    }
+
+    // Rejects Aadhar/phone values the guard already knows; unknown values go on to the DB constraint
+    private void rejectKnownDuplicates(Patient candidate, Patient existing) {
+        String aadhar = candidate.getAadhar();
+        if ((existing == null || !Objects.equals(aadhar, existing.getAadhar()))
+                && uniquenessGuard.check(UniquenessGuard.Scope.PATIENT_AADHAR, aadhar) == UniquenessGuard.Verdict.PRESENT) {
+            throw new DuplicateValueException("Aadhar number already exists!");
+        }
+        String phone = candidate.getPhone();
+        if ((existing == null || !Objects.equals(phone, existing.getPhone()))
+                && uniquenessGuard.check(UniquenessGuard.Scope.PATIENT_PHONE, phone) == UniquenessGuard.Verdict.PRESENT) {
+            throw new DuplicateValueException("Phone number already exists!");
+        }
+    }
+
+    // Unpaged list kept for old clients, capped at patient.list.unpaged-cap rows
+    public CursorPage<PatientView> getAllPatients() {
+        List<PatientView> rows = patientRepository.findViewsAfter(0L, Limit.of(unpagedCap + 1));
+        if (rows.size() <= unpagedCap) {
+            return new CursorPage<>(rows, null);
+        }
+        List<PatientView> page = rows.subList(0, unpagedCap);
+        return new CursorPage<>(page, encodeCursor(page.get(page.size() - 1).getPatientId()));
+    }
+
+    public CursorPage<PatientSummary> getPatientPage(String after, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        long afterId = after == null || after.isBlank() ? 0L : decodeCursor(after);
+
+        // one extra row tells us whether there is a next page
+        List<PatientSummary> rows = patientRepository.findSummariesAfter(afterId, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<PatientSummary> page = rows.subList(0, pageSize);
+        return new CursorPage<>(page, encodeCursor(page.get(page.size() - 1).getPatientId()));
+    }
+
+    private String encodeCursor(Long patientId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("pid:" + patientId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("pid:")) throw new IllegalArgumentException();
+            return Long.parseLong(raw.substring(4));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
     }
 
     public long Count() {
-        return patientRepository.getPatientCount();
+        return patientStatsService.getTotalPatients();
+    }
+
+    public Map<String, Object> getPatientStats(LocalDate date, Long doctorId) {
+        return patientStatsService.getStats(date, doctorId);
+    }
+
+    public Map<String, Object> getStatsReconciliationReport() {
+        return patientStatsService.getReconciliationReport();
     }
 
+    public boolean runArchive() {
+        return patientArchiveService.runInBackground();
+    }
+
+    public Map<String, Object> getArchiveStats() {
+        return patientArchiveService.getStats();
+    }
+
+    // Hot table first, then visits moved to patients_archive
     public Optional<Patient> getPatientById(Long id) {
-        return patientRepository.findById(id);
+        return patientRepository.findById(id).or(() -> patientRepository.findArchivedById(id));
     }
 
     public Patient updatePatient(Long id, Patient updatedPatient) {
         return patientRepository.findById(id).map(patient -> {
+            if (updatedPatient.getVersion() != null && !updatedPatient.getVersion().equals(patient.getVersion())) {
+                throw new OptimisticLockingFailureException("Patient was changed by someone else, reload and try again");
+            }
+            Patient previous = copyOf(patient);
+            rejectKnownDuplicates(updatedPatient, patient);
 
             patient.setName(updatedPatient.getName());
             patient.setGender(updatedPatient.getGender());
@@ -55,37 +234,48 @@ public class PatientService {
             patient.setDoctorStatus(updatedPatient.getDoctorStatus());
             patient.setLabStatus(updatedPatient.getLabStatus());
 
-            return patientRepository.save(patient);
+            Patient saved = patientRepository.save(patient);
+            publish(PatientChangedEvent.Type.UPDATED, previous, saved);
+            return saved;
         }).orElseThrow(() -> new RuntimeException("Patient not found with ID: " + id));
     }
 
     public void deletePatient(Long id) {
-        if (!patientRepository.existsById(id)) {
-            throw new RuntimeException("Patient not found with ID: " + id);
-        }
+        Patient existing = patientRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Patient not found with ID: " + id));
+        Patient previous = copyOf(existing);
         patientRepository.deleteById(id);
+        publish(PatientChangedEvent.Type.DELETED, previous, null);
     }
 
-    public List<Patient> getByMedisionStatus(String status) {
-        return patientRepository.findByMedisionStatusIgnoreCase(status);
+    public List<PatientView> getByMedisionStatus(String status) {
+        return patientRepository.findViewsByMedisionStatus(status);
     }
 
-    public List<Patient> getByDoctorStatus(String status) {
-        return patientRepository.findByDoctorStatusIgnoreCase(status);
+    public List<PatientView> getByDoctorStatus(String status) {
+        return patientRepository.findViewsByDoctorStatus(status);
     }
 
-    public List<Patient> getByLabStatus(String status) {
-        return patientRepository.findByLabStatusIgnoreCase(status);
+    public List<PatientView> getByLabStatus(String status) {
+        return patientRepository.findViewsByLabStatus(status);
     }
 
-    // Filter native
-    public List<Patient> getFilteredPatientsNative(String fromDate, String medisionStatus, String doctorStatus, Long doctorId) {
-        return patientRepository.findPatientsByStatusAndDateNative(fromDate, medisionStatus, doctorStatus, doctorId);
+    // Filter native (only the supplied predicates reach the SQL)
+    @SuppressWarnings("unchecked")
+    public List<Patient> getFilteredPatientsNative(PatientFilter filter) {
+        filter.setPage(Math.max(filter.getPage(), 0));
+        filter.setSize(filter.getSize() <= 0 ? unpagedCap : Math.min(filter.getSize(), maxPageSize));
+
+        PatientQueryBuilder.NativeQuery built = PatientQueryBuilder.build(filter);
+        Query query = entityManager.createNativeQuery(built.getSql(), Patient.class);
+        built.getParams().forEach(query::setParameter);
+        return query.getResultList();
     }
 
     // Full details mapping
     public Map<String, Object> getFullPatientDetails(Long patientId) {
         List<Object[]> result = patientRepository.getFullPatientDetails(patientId);
+        if (result.isEmpty()) result = patientRepository.getFullArchivedPatientDetails(patientId);
         if (result.isEmpty()) throw new RuntimeException("No details found");
 
         Object[] row = result.get(0);
@@ -102,56 +292,237 @@ public class PatientService {
         patient.put("medisionStatus", row[7]);
         patient.put("labStatus", row[8]);
 
+        // one row per bed booking; bedBooking/ward keep the first one for old clients
+        List<Map<String, Object>> bedBookings = new ArrayList<>();
+        for (Object[] r : result) {
+            if (r[9] == null) continue;
+            Map<String, Object> booking = bedOf(r);
+            booking.put("ward", wardOf(r));
+            bedBookings.add(booking);
+        }
+
+        map.put("patient", patient);
+        map.put("bedBooking", bedOf(row));
+        map.put("ward", wardOf(row));
+        map.put("bedBookings", bedBookings);
+
+        return map;
+    }
+
+    private Map<String, Object> bedOf(Object[] row) {
         Map<String, Object> bed = new HashMap<>();
         bed.put("bookingId", row[9]);
         bed.put("bedId", row[10]);
         bed.put("admissionDate", row[11]);
         bed.put("dischargeDate", row[12]);
         bed.put("status", row[13]);
+        return bed;
+    }
 
+    private Map<String, Object> wardOf(Object[] row) {
         Map<String, Object> ward = new HashMap<>();
         ward.put("wardId", row[14]);
         ward.put("wardName", row[15]);
         ward.put("wardType", row[16]);
         ward.put("totalBeds", row[17]);
         ward.put("createdOn", row[18]);
-
-        map.put("patient", patient);
-        map.put("bedBooking", bed);
-        map.put("ward", ward);
-
-        return map;
+        return ward;
     }
 
+    // PATCH: one targeted UPDATE of the supplied columns, guarded by VERSION.
+    // The caller's "version" (if sent) must match; otherwise we guard with the version we read
+    // and retry, since only the supplied columns are written.
+    @Transactional
     public Patient partialUpdatePatient(Long id, Map<String, Object> updates) {
-        Patient patient = patientRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
+        Long expectedVersion = updates.get("version") == null ? null : Long.valueOf(updates.get("version").toString());
 
+        Map<String, Object> values = new LinkedHashMap<>();
         updates.forEach((key, value) -> {
-            switch (key) {
-                case "doctorStatus" -> patient.setDoctorStatus((String) value);
-                case "labStatus" -> patient.setLabStatus((String) value);
-                case "medisionStatus" -> patient.setMedisionStatus((String) value);
-                case "selectedTests" -> patient.setSelectedTests((String) value);
-                case "selectedMedicines" -> patient.setSelectedMedicines((String) value);
-                case "notes" -> patient.setNotes((String) value);
-                case "appointmentTime" -> patient.setAppointmentTime((String) value);
-                case "appointmentDate" -> patient.setAppointmentDate((String) value);
-                default -> {}
-            }
+            if (PATCHABLE_FIELDS.contains(key)) values.put(key, (String) value);
         });
 
-        return patientRepository.save(patient);
+        for (int attempt = 1; ; attempt++) {
+            Patient patient = patientRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Patient not found"));
+            if (values.isEmpty()) return patient;
+
+            long version = patient.getVersion() == null ? 0 : patient.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new OptimisticLockingFailureException("Patient was changed by someone else, reload and try again");
+            }
+
+            // from here on the entity is only a value object; the UPDATE below is the write
+            entityManager.detach(patient);
+            Patient previous = copyOf(patient);
+            values.forEach((key, value) -> {
+                switch (key) {
+                    case "doctorStatus" -> patient.setDoctorStatus((String) value);
+                    case "labStatus" -> patient.setLabStatus((String) value);
+                    case "medisionStatus" -> patient.setMedisionStatus((String) value);
+                    case "selectedTests" -> patient.setSelectedTests((String) value);
+                    case "selectedMedicines" -> patient.setSelectedMedicines((String) value);
+                    case "notes" -> patient.setNotes((String) value);
+                    case "appointmentTime" -> patient.setAppointmentTime((String) value);
+                    case "appointmentDate" -> patient.setAppointmentDate((String) value);
+                    default -> {}
+                }
+            });
+
+            Map<String, Object> columns = new LinkedHashMap<>(values);
+            if (values.containsKey("appointmentDate") || values.containsKey("appointmentTime")) {
+                LocalDateTime at = Patient.toAppointmentAt(patient.getAppointmentDate(), patient.getAppointmentTime());
+                if (at != null) {
+                    patient.setAppointmentAt(at);
+                    columns.put("appointmentAt", at);
+                }
+            }
+
+            if (updateColumns(id, version, columns) == 1) {
+                patient.setVersion(version + 1);
+                publish(PatientChangedEvent.Type.UPDATED, previous, patient);
+                return patient;
+            }
+            if (expectedVersion != null || attempt == 3) {
+                throw new OptimisticLockingFailureException("Patient was changed by someone else, reload and try again");
+            }
+        }
     }
 
-    // TODAY FEATURES
-    public List<Patient> getAllTodayPatients() {
-        return patientRepository.findAllTodayPatients();
+    private int updateColumns(Long id, long version, Map<String, Object> columns) {
+        StringBuilder jpql = new StringBuilder("UPDATE Patient p SET ");
+        columns.keySet().forEach(column -> jpql.append("p.").append(column).append(" = :").append(column).append(", "));
+        jpql.append("p.version = :nextVersion WHERE p.patientId = :id AND COALESCE(p.version, 0) = :version");
+
+        Query update = entityManager.createQuery(jpql.toString());
+        columns.forEach(update::setParameter);
+        return update.setParameter("nextVersion", version + 1)
+                .setParameter("id", id)
+                .setParameter("version", version)
+                .executeUpdate();
     }
-    public List<Patient> getTodayDoctorCompleted() {
-        return patientRepository.findTodayDoctorCompleted();
+
+    // Moves one status column for many patients with a single UPDATE.
+    // The matching rows are locked first so the per-row change events carry the real previous values.
+    @Transactional
+    public List<Long> updateStatusBatch(PatientStatusBatchRequest request) {
+        String field = request.getField();
+        if (!STATUS_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("field must be doctorStatus, labStatus or medisionStatus");
+        }
+        if (request.getTo() == null || request.getTo().isBlank()) {
+            throw new IllegalArgumentException("to is required");
+        }
+        boolean byIds = request.getPatientIds() != null && !request.getPatientIds().isEmpty();
+        if (request.getDoctorId() == null && !byIds) {
+            throw new IllegalArgumentException("doctorId or patientIds is required");
+        }
+        if (byIds && request.getPatientIds().size() > batchStatusMaxRows) {
+            throw new IllegalArgumentException("At most " + batchStatusMaxRows + " patients per batch");
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Patient p WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        if (request.getDoctorId() != null) {
+            jpql.append(" AND p.doctorId = :doctorId");
+            params.put("doctorId", request.getDoctorId());
+        }
+        if (byIds) {
+            jpql.append(" AND p.patientId IN :ids");
+            params.put("ids", request.getPatientIds());
+        }
+        if (request.getFrom() != null && !request.getFrom().isBlank()) {
+            jpql.append(" AND LOWER(p.").append(field).append(") = :from");
+            params.put("from", request.getFrom().trim().toLowerCase());
+        }
+        if (request.getDate() != null) {
+            jpql.append(" AND p.appointmentAt >= :dayStart AND p.appointmentAt < :dayEnd");
+            params.put("dayStart", request.getDate().atStartOfDay());
+            params.put("dayEnd", request.getDate().plusDays(1).atStartOfDay());
+        }
+
+        TypedQuery<Patient> select = entityManager.createQuery(jpql.toString(), Patient.class)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        params.forEach(select::setParameter);
+        List<Patient> locked = select.getResultList();
+        if (locked.isEmpty()) return List.of();
+        if (locked.size() > batchStatusMaxRows) {
+            throw new IllegalArgumentException("Batch matches " + locked.size() + " patients, limit is " + batchStatusMaxRows);
+        }
+
+        List<Long> ids = locked.stream().map(Patient::getPatientId).toList();
+        String to = request.getTo().trim();
+        // Oracle caps IN lists at 1000 entries
+        for (int from = 0; from < ids.size(); from += 1000) {
+            entityManager.createQuery("UPDATE Patient p SET p." + field + " = :to, p.version = COALESCE(p.version, 0) + 1"
+                            + " WHERE p.patientId IN :ids")
+                    .setParameter("to", to)
+                    .setParameter("ids", ids.subList(from, Math.min(from + 1000, ids.size())))
+                    .executeUpdate();
+        }
+
+        for (Patient patient : locked) {
+            entityManager.detach(patient);
+            Patient previous = copyOf(patient);
+            switch (field) {
+                case "doctorStatus" -> patient.setDoctorStatus(to);
+                case "labStatus" -> patient.setLabStatus(to);
+                default -> patient.setMedisionStatus(to);
+            }
+            patient.setVersion((patient.getVersion() == null ? 0 : patient.getVersion()) + 1);
+            publish(PatientChangedEvent.Type.UPDATED, previous, patient);
+        }
+        return ids;
+    }
+
+    // TODAY FEATURES (served from the in-memory snapshot)
+    public List<Patient> getAllTodayPatients(Long doctorId) {
+        return todayQueueCache.getAll(doctorId);
+    }
+    public List<Patient> getTodayDoctorCompleted(Long doctorId) {
+        return todayQueueCache.getDoctorCompleted(doctorId);
+    }
+    public List<Patient> getTodayDoctorPending(Long doctorId) {
+        return todayQueueCache.getDoctorPending(doctorId);
+    }
+    public Map<String, Object> getTodayCacheStats() {
+        return todayQueueCache.getStats();
+    }
+
+    // ================= TOKEN QUEUE =================
+
+    public Optional<Map<String, Object>> getQueuePosition(Long patientId) {
+        return getPatientById(patientId).map(doctorTokenQueue::getPosition);
+    }
+
+    public Map<String, Object> getQueuePosition(Patient patient) {
+        return doctorTokenQueue.getPosition(patient);
+    }
+
+    public Map<String, Object> getDoctorQueue(Long doctorId, LocalDate date) {
+        return doctorTokenQueue.getDoctorQueue(doctorId, date == null ? LocalDate.now() : date);
+    }
+
+    // ================= SEARCH =================
+
+    public List<PatientSearchHit> searchPatients(String query, Integer limit) {
+        return patientSearchIndex.search(query, limit);
     }
-    public List<Patient> getTodayDoctorPending() {
-        return patientRepository.findTodayDoctorPending();
+
+    public boolean rebuildSearchIndex() {
+        return patientSearchIndex.rebuildInBackground();
+    }
+
+    public Map<String, Object> getSearchIndexStats() {
+        return patientSearchIndex.getStats();
+    }
+
+    private void publish(PatientChangedEvent.Type type, Patient previous, Patient current) {
+        eventPublisher.publishEvent(new PatientChangedEvent(type, previous, current));
+    }
+
+    private Patient copyOf(Patient source) {
+        Patient copy = new Patient();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
     }
 }
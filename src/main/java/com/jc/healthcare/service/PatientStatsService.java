@@ -0,0 +1,326 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Dashboard counters kept in memory: patients per (appointment day, doctor, status column, status).
+// Seeded from one GROUP BY over the last patient.stats.window-days, then moved by every
+// PatientChangedEvent. A scheduled reconciliation re-derives the counters from the database,
+// reports any drift and swaps the fresh numbers in.
+//
+// Writers never lock: they add to the LongAdders of the current State. A reseed installs a
+// Pending set, marks the instant its snapshot is taken, and from then on writers also add to
+// Pending. The new State is the fresh aggregate plus Pending (kept as "carry"), so a write is
+// counted once whether it landed before the snapshot (in the aggregate) or after (in Pending).
+@Service
+public class PatientStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientStatsService.class);
+
+    public enum Dimension { DOCTOR, LAB, MEDICINE }
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${patient.stats.window-days:30}")
+    private int windowDays;
+
+    // null until the first seed; replaced (never mutated) by reseed
+    private volatile State state;
+    private final Object seedLock = new Object();
+
+    private volatile LocalDateTime lastSeedAt;
+    private volatile LocalDateTime lastReconcileAt;
+    private volatile List<Map<String, Object>> lastDrift = List.of();
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong driftedKeys = new AtomicLong();
+
+    // ================= READS =================
+
+    public Map<String, Object> getStats(LocalDate date, Long doctorId) {
+        State current = seeded();
+        LocalDate day = date == null ? LocalDate.now() : date;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("date", day);
+        stats.put("doctorId", doctorId);
+        stats.put("totalPatients", current == null ? patientRepository.getPatientCount() : current.total());
+        if (current == null) {
+            stats.put("available", false);
+            return stats;
+        }
+
+        Map<Dimension, Map<String, Long>> byDimension = new EnumMap<>(Dimension.class);
+        for (Dimension d : Dimension.values()) byDimension.put(d, new TreeMap<>());
+        long dayTotal = 0;
+        for (Map.Entry<StatKey, Long> e : current.counts().entrySet()) {
+            StatKey key = e.getKey();
+            if (!day.equals(key.date()) || (doctorId != null && !doctorId.equals(key.doctorId()))) continue;
+            long n = e.getValue();
+            if (n == 0) continue;
+            byDimension.get(key.dimension()).merge(key.value(), n, Long::sum);
+            if (key.dimension() == Dimension.DOCTOR) dayTotal += n;
+        }
+
+        stats.put("available", true);
+        stats.put("dayTotal", dayTotal);
+        stats.put("doctorStatus", byDimension.get(Dimension.DOCTOR));
+        stats.put("labStatus", byDimension.get(Dimension.LAB));
+        stats.put("medisionStatus", byDimension.get(Dimension.MEDICINE));
+        stats.put("windowDays", windowDays);
+        return stats;
+    }
+
+    // Counter for /api/patient/count without a COUNT(*) per call
+    public long getTotalPatients() {
+        State current = seeded();
+        return current == null ? patientRepository.getPatientCount() : current.total();
+    }
+
+    private State seeded() {
+        State current = state;
+        if (current != null && current.live() != null) return current;
+        seedQuietly();
+        current = state;
+        return current != null && current.live() != null ? current : null;
+    }
+
+    public Map<String, Object> getReconciliationReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("lastSeedAt", lastSeedAt);
+        report.put("lastReconcileAt", lastReconcileAt);
+        report.put("reconciliations", reconciliations.get());
+        report.put("driftedKeysTotal", driftedKeys.get());
+        report.put("lastDrift", lastDrift);
+        return report;
+    }
+
+    // ================= SEEDING / RECONCILIATION =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        Thread worker = new Thread(this::seedQuietly, "patient-stats-seed");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Scheduled(initialDelayString = "${patient.stats.reconcile-interval-ms:900000}",
+            fixedDelayString = "${patient.stats.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        try {
+            List<Map<String, Object>> drift = reseed();
+            reconciliations.incrementAndGet();
+            lastReconcileAt = LocalDateTime.now();
+            lastDrift = drift;
+            driftedKeys.addAndGet(drift.size());
+            if (!drift.isEmpty()) {
+                log.warn("Patient stats drifted on {} counter(s), corrected from the database: {}",
+                        drift.size(), drift.subList(0, Math.min(drift.size(), 20)));
+            }
+        } catch (Exception e) {
+            log.warn("Patient stats reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void seedQuietly() {
+        try {
+            synchronized (seedLock) {
+                if (state == null || state.live() == null) reseed();
+            }
+        } catch (Exception e) {
+            log.warn("Patient stats seeding failed, counts fall back to the database: {}", e.getMessage());
+        }
+    }
+
+    // Rebuilds all counters from the database; returns keys whose live value differed
+    private List<Map<String, Object>> reseed() {
+        synchronized (seedLock) {
+            State before = state;
+            Pending pending = new Pending();
+            state = new State(before == null ? null : before.live(), before == null ? null : before.carry(), pending);
+
+            LocalDate windowStart = LocalDate.now().minusDays(windowDays);
+            Counters fresh = new Counters();
+            try {
+                // both queries read one snapshot (SERIALIZABLE = transaction-level read consistency in Oracle)
+                TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+                snapshot.executeWithoutResult(status -> {
+                    // events handled from here on may be missing from the snapshot; earlier ones are in it
+                    pending.start();
+                    fresh.total.add(patientRepository.getPatientCount());
+                    for (Object[] row : patientRepository.countByDayDoctorAndStatus(windowStart.atStartOfDay())) {
+                        LocalDate day = toLocalDate(row[0]);
+                        Long doctorId = row[1] == null ? null : ((Number) row[1]).longValue();
+                        long n = ((Number) row[5]).longValue();
+                        fresh.add(new StatKey(day, doctorId, Dimension.DOCTOR, normalize(row[2])), n);
+                        fresh.add(new StatKey(day, doctorId, Dimension.LAB, normalize(row[3])), n);
+                        fresh.add(new StatKey(day, doctorId, Dimension.MEDICINE, normalize(row[4])), n);
+                    }
+                });
+            } catch (RuntimeException e) {
+                state = before;
+                throw e;
+            }
+
+            State next = new State(fresh, pending.counters, null);
+            List<Map<String, Object>> drift = new ArrayList<>();
+            if (before != null && before.live() != null) {
+                drift = diff(state.counts(), next.counts(), windowStart);
+                long liveTotal = state.total();
+                long total = next.total();
+                if (liveTotal != total) {
+                    drift.add(driftEntry("totalPatients", liveTotal, total));
+                }
+            }
+            state = next;
+            lastSeedAt = LocalDateTime.now();
+            return drift;
+        }
+    }
+
+    private static List<Map<String, Object>> diff(Map<StatKey, Long> live, Map<StatKey, Long> fresh,
+                                                  LocalDate windowStart) {
+        Set<StatKey> keys = new HashSet<>(fresh.keySet());
+        for (StatKey key : live.keySet()) {
+            // days that slid out of the window are dropped, not drift
+            if (key.date() != null && !key.date().isBefore(windowStart)) keys.add(key);
+        }
+        List<Map<String, Object>> drift = new ArrayList<>();
+        for (StatKey key : keys) {
+            long expected = fresh.getOrDefault(key, 0L);
+            long actual = live.getOrDefault(key, 0L);
+            if (expected != actual) {
+                drift.add(driftEntry(key.toString(), actual, expected));
+            }
+        }
+        return drift;
+    }
+
+    private static Map<String, Object> driftEntry(String key, long live, long database) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("key", key);
+        entry.put("live", live);
+        entry.put("database", database);
+        return entry;
+    }
+
+    // ================= INCREMENTAL UPDATES =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        long handledAt = System.nanoTime();
+        State current = state;
+        if (current == null) return;
+        LocalDate windowStart = LocalDate.now().minusDays(windowDays);
+        if (current.live() != null) current.live().apply(event, windowStart);
+        Pending pending = current.pending();
+        if (pending != null && pending.includes(handledAt)) pending.counters.apply(event, windowStart);
+    }
+
+    private static List<StatKey> keysOf(Patient p, LocalDate windowStart) {
+        if (p.getAppointmentAt() == null) return List.of();
+        LocalDate day = p.getAppointmentAt().toLocalDate();
+        if (day.isBefore(windowStart)) return List.of();
+        return List.of(
+                new StatKey(day, p.getDoctorId(), Dimension.DOCTOR, normalize(p.getDoctorStatus())),
+                new StatKey(day, p.getDoctorId(), Dimension.LAB, normalize(p.getLabStatus())),
+                new StatKey(day, p.getDoctorId(), Dimension.MEDICINE, normalize(p.getMedisionStatus())));
+    }
+
+
+    private static String normalize(Object status) {
+        if (status == null || status.toString().isBlank()) return "none";
+        return status.toString().trim().toLowerCase();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDateTime ldt) return ldt.toLocalDate();
+        if (value instanceof LocalDate ld) return ld;
+        if (value instanceof java.sql.Timestamp ts) return ts.toLocalDateTime().toLocalDate();
+        if (value instanceof java.sql.Date d) return d.toLocalDate();
+        return null;
+    }
+
+    // counters moved by events (or loaded from the GROUP BY)
+    private static final class Counters {
+        final Map<StatKey, LongAdder> byKey = new ConcurrentHashMap<>();
+        final LongAdder total = new LongAdder();
+
+        void add(StatKey key, long delta) {
+            byKey.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        }
+
+        void apply(PatientChangedEvent event, LocalDate windowStart) {
+            if (event.getPrevious() != null) {
+                for (StatKey key : keysOf(event.getPrevious(), windowStart)) add(key, -1);
+            }
+            if (event.getCurrent() != null) {
+                for (StatKey key : keysOf(event.getCurrent(), windowStart)) add(key, 1);
+            }
+            if (event.getType() == PatientChangedEvent.Type.ADDED) total.increment();
+            if (event.getType() == PatientChangedEvent.Type.DELETED) total.decrement();
+        }
+    }
+
+    // writes that may be missing from a running reseed's snapshot (handled at or after from)
+    private static final class Pending {
+        final Counters counters = new Counters();
+        private long from;                 // nanoTime the snapshot was taken
+        private volatile boolean started;  // publishes from
+
+        void start() {
+            from = System.nanoTime();
+            started = true;
+        }
+
+        boolean includes(long handledAt) {
+            return started && handledAt - from >= 0;
+        }
+    }
+
+    // live: what writers update; carry: writes a reseed took from its Pending; pending: reseed in progress
+    private record State(Counters live, Counters carry, Pending pending) {
+
+        long total() {
+            return live.total.sum() + (carry == null ? 0 : carry.total.sum());
+        }
+
+        Map<StatKey, Long> counts() {
+            Map<StatKey, Long> counts = new HashMap<>();
+            for (Counters c : carry == null ? List.of(live) : List.of(live, carry)) {
+                c.byKey.forEach((key, n) -> counts.merge(key, n.sum(), Long::sum));
+            }
+            return counts;
+        }
+    }
+
+    private record StatKey(LocalDate date, Long doctorId, Dimension dimension, String value) {
+        @Override
+        public String toString() {
+            return date + "/" + (doctorId == null ? "-" : doctorId) + "/" + dimension + "/" + value;
+        }
+    }
+}
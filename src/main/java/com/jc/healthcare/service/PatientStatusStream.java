@@ -0,0 +1,260 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientStatusEvent;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Server-Sent Events fan-out for patient status changes.
+// Writers only offer() into each subscriber's bounded buffer; a dispatch pool does the (possibly
+// slow) network writes. A subscriber whose buffer is full is dropped, never waited on.
+// A send that blocks (half-open or stalled client) holds one pool thread: the pool grows past
+// dispatch-threads so other subscribers keep flowing, and evictStalled() drops any subscriber
+// whose current send has taken longer than send-timeout-ms.
+@Service
+public class PatientStatusStream {
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Value("${patient.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${patient.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor dispatcher;
+    private final long sendTimeoutNanos;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong stalled = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    public PatientStatusStream(@Value("${patient.events.dispatch-threads:4}") int dispatchThreads,
+                               @Value("${patient.events.max-dispatch-threads:64}") int maxDispatchThreads,
+                               @Value("${patient.events.send-timeout-ms:10000}") long sendTimeoutMs) {
+        AtomicInteger n = new AtomicInteger();
+        // no queue: a drain either gets a thread now or waits in its buffer (see schedule)
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, Math.max(dispatchThreads, maxDispatchThreads),
+                30, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "patient-events-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    // ================= SUBSCRIBE =================
+
+    // type: null / "doctor" / "lab" / "medicine"
+    public SseEmitter subscribe(Long doctorId, String type) {
+        String field = switch (type == null ? "" : type.trim().toLowerCase()) {
+            case "" -> null;
+            case "doctor" -> "doctorStatus";
+            case "lab" -> "labStatus";
+            case "medicine", "medision" -> "medisionStatus";
+            default -> throw new IllegalArgumentException("type must be doctor, lab or medicine");
+        };
+
+        return subscribe(new SseEmitter(emitterTimeoutMs), doctorId, field);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long doctorId, String field) {
+        Subscriber sub = new Subscriber(emitter, doctorId, field, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> {
+            sub.closed = true;
+            subscribers.remove(sub);
+        });
+        emitter.onTimeout(() -> drop(sub));
+        emitter.onError(e -> drop(sub));
+        subscribers.add(sub);
+        return emitter;
+    }
+
+    // ================= PUBLISH =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (event.getType() == PatientChangedEvent.Type.DELETED || subscribers.isEmpty()) return;
+
+        List<String> changed = new ArrayList<>(3);
+        if (event.changed(Patient::getDoctorStatus)) changed.add("doctorStatus");
+        if (event.changed(Patient::getLabStatus)) changed.add("labStatus");
+        if (event.changed(Patient::getMedisionStatus)) changed.add("medisionStatus");
+        if (changed.isEmpty()) return;
+
+        Patient p = event.getCurrent();
+        publish(new PatientStatusEvent(p.getPatientId(), p.getDoctorId(), p.getDoctorStatus(),
+                p.getLabStatus(), p.getMedisionStatus(), List.copyOf(changed), LocalDateTime.now()));
+    }
+
+    public void publish(PatientStatusEvent event) {
+        published.incrementAndGet();
+        for (Subscriber sub : subscribers) {
+            if (sub.doctorId != null && !sub.doctorId.equals(event.getDoctorId())) continue;
+            if (sub.field != null && !event.getChanged().contains(sub.field)) continue;
+            enqueue(sub, event);
+        }
+    }
+
+    // Keeps idle connections open through proxies
+    @Scheduled(fixedDelayString = "${patient.events.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber sub : subscribers) {
+            enqueue(sub, HEARTBEAT);
+        }
+    }
+
+    // Drops subscribers stuck in one send for longer than send-timeout-ms
+    @Scheduled(fixedDelayString = "${patient.events.stall-check-ms:1000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber sub : subscribers) {
+            long since = sub.sendingSince;
+            if (since == 0 || now - since < sendTimeoutNanos) continue;
+            stalled.incrementAndGet();
+            drop(sub);
+            // best effort: wake the blocked write so the thread goes back to the pool
+            synchronized (sub) {
+                if (sub.sendingThread != null && sub.sendingSince == since) sub.sendingThread.interrupt();
+            }
+        }
+    }
+
+    private void enqueue(Subscriber sub, Object item) {
+        if (sub.closed) return;
+        if (!sub.buffer.offer(item)) {
+            // slow client: cut it loose instead of blocking the writer
+            drop(sub);
+            return;
+        }
+        schedule(sub);
+    }
+
+    private void schedule(Subscriber sub) {
+        if (!sub.draining.compareAndSet(false, true)) return;
+        try {
+            dispatcher.execute(() -> drain(sub));
+        } catch (RejectedExecutionException e) {
+            // every dispatch thread is busy: the item stays buffered for the next event or heartbeat
+            deferred.incrementAndGet();
+            sub.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber sub) {
+        do {
+            Object item;
+            while (!sub.closed && (item = sub.buffer.poll()) != null) {
+                synchronized (sub) {
+                    sub.sendingThread = Thread.currentThread();
+                    sub.sendingSince = System.nanoTime();
+                }
+                try {
+                    if (item == HEARTBEAT) {
+                        sub.emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        sub.emitter.send(SseEmitter.event().name("patient-status").data(item));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    drop(sub);
+                } finally {
+                    synchronized (sub) {
+                        sub.sendingThread = null;
+                        sub.sendingSince = 0;
+                    }
+                    // an interrupt from evictStalled must not leak into the next subscriber's send
+                    Thread.interrupted();
+                }
+            }
+            sub.draining.set(false);
+            if (sub.closed) {
+                closeIfIdle(sub);
+                return;
+            }
+            // an item may have arrived between the last poll and clearing the flag
+        } while (!sub.buffer.isEmpty() && sub.draining.compareAndSet(false, true));
+    }
+
+    private void drop(Subscriber sub) {
+        sub.closed = true;
+        if (subscribers.remove(sub)) {
+            dropped.incrementAndGet();
+            sub.buffer.clear();
+        }
+        closeIfIdle(sub);
+    }
+
+    // complete() waits for an in-flight send, so only a thread that owns the drain flag calls it;
+    // while a send is running, drain() completes the emitter once that send returns
+    private void closeIfIdle(Subscriber sub) {
+        if (sub.draining.compareAndSet(false, true)) {
+            try {
+                sub.emitter.complete();
+            } catch (Exception ignored) {
+                // connection already gone
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getStalledCount() {
+        return stalled.get();
+    }
+
+    // drains that found every dispatch thread busy and waited for the next event / heartbeat
+    public long getDeferredCount() {
+        return deferred.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::drop);
+        dispatcher.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Long doctorId;
+        final String field;
+        final BlockingQueue<Object> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // set while a send is in progress (evictStalled)
+        volatile long sendingSince;
+        Thread sendingThread;
+
+        Subscriber(SseEmitter emitter, Long doctorId, String field, BlockingQueue<Object> buffer) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.field = field;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.jc.healthcare.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Who is on duty at a given moment. Every weekly occurrence of a shift is laid on a 7-day ring
+// of fixed-length buckets; a query reads the one bucket holding the moment and checks only the
+// shifts in it. Overnight shifts cover buckets of the next day (Sunday night wraps to Monday).
+// Staff details, shifts and leave are replaced per staff member, so one change never touches the rest.
+public class RosterIndex {
+
+    static final int DAY_MINUTES = 24 * 60;
+    static final int WEEK_MINUTES = 7 * DAY_MINUTES;
+
+    private final int bucketMinutes;
+    private final List<Set<Slot>> buckets;
+    private final Map<Long, Person> people = new ConcurrentHashMap<>();
+    private final Map<Long, List<Slot>> slotsByStaff = new ConcurrentHashMap<>();
+    private final Map<Long, List<Leave>> leaveByStaff = new ConcurrentHashMap<>();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder scanned = new LongAdder();
+
+    public RosterIndex(int bucketMinutes) {
+        if (bucketMinutes <= 0 || DAY_MINUTES % bucketMinutes != 0) {
+            throw new IllegalArgumentException("bucketMinutes must divide a day");
+        }
+        this.bucketMinutes = bucketMinutes;
+        int count = WEEK_MINUTES / bucketMinutes;
+        this.buckets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    // A recurring shift; an end at or before the start finishes the next day (equal = 24 hours)
+    public record Shift(Long shiftId, String department, Set<DayOfWeek> days, LocalTime start, LocalTime end,
+                        LocalDate validFrom, LocalDate validTo) {
+
+        int minutes() {
+            int length = Math.floorMod(minuteOfDay(end) - minuteOfDay(start), DAY_MINUTES);
+            return length == 0 ? DAY_MINUTES : length;
+        }
+
+        // validity is judged on the day the shift starts
+        boolean runsOn(LocalDate day) {
+            return (validFrom == null || !day.isBefore(validFrom)) && (validTo == null || !day.isAfter(validTo));
+        }
+    }
+
+    public record Leave(LocalDate from, LocalDate to) {
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    public record OnDuty(Long staffId, String name, String department, String role, Long shiftId,
+                         LocalDateTime shiftStart, LocalDateTime shiftEnd) {
+    }
+
+    private record Person(String name, String department, String role) {
+    }
+
+    // one weekly occurrence of a shift: [startMinute, startMinute + length) on the week ring
+    private record Slot(Long staffId, Shift shift, int startMinute, int length) {
+    }
+
+    // ================= WRITES =================
+
+    public void putStaff(Long staffId, String name, String department, String role) {
+        people.put(staffId, new Person(name, department, role));
+    }
+
+    // New slots go in before the old ones come out, so a concurrent query never sees the person
+    // off duty mid-swap (onDuty lists a staff member once, so the overlap is harmless)
+    public synchronized void putShifts(Long staffId, Collection<Shift> shifts) {
+        List<Slot> fresh = new ArrayList<>();
+        for (Shift shift : shifts) {
+            for (DayOfWeek day : shift.days()) {
+                Slot slot = new Slot(staffId, shift, (day.getValue() - 1) * DAY_MINUTES + minuteOfDay(shift.start()),
+                        shift.minutes());
+                forEachBucket(slot, bucket -> bucket.add(slot));
+                fresh.add(slot);
+            }
+        }
+        List<Slot> old = fresh.isEmpty() ? slotsByStaff.remove(staffId) : slotsByStaff.put(staffId, fresh);
+        if (old != null) {
+            // an unchanged shift is an equal slot: it already sits in its buckets and must stay
+            Set<Slot> kept = new HashSet<>(fresh);
+            for (Slot slot : old) {
+                if (!kept.contains(slot)) forEachBucket(slot, bucket -> bucket.remove(slot));
+            }
+        }
+    }
+
+    public void putLeave(Long staffId, Collection<Leave> leave) {
+        if (leave.isEmpty()) leaveByStaff.remove(staffId);
+        else leaveByStaff.put(staffId, List.copyOf(leave));
+    }
+
+    public synchronized void removeStaff(Long staffId) {
+        putShifts(staffId, List.of());
+        leaveByStaff.remove(staffId);
+        people.remove(staffId);
+    }
+
+    // Drops everyone not in staffIds (full rebuilds)
+    public synchronized void retainStaff(Set<Long> staffIds) {
+        Set<Long> known = new HashSet<>(people.keySet());
+        known.addAll(slotsByStaff.keySet());
+        known.addAll(leaveByStaff.keySet());
+        for (Long id : known) {
+            if (!staffIds.contains(id)) removeStaff(id);
+        }
+    }
+
+    // ================= READS =================
+
+    // Staff working at the given moment, optionally only one department (the shift's floor) or role
+    public List<OnDuty> onDuty(LocalDateTime at, String department, String role) {
+        queries.increment();
+        LocalDateTime minute = at.truncatedTo(ChronoUnit.MINUTES);
+        int weekMinute = (at.getDayOfWeek().getValue() - 1) * DAY_MINUTES + minuteOfDay(at.toLocalTime());
+        String wantedDepartment = department == null ? null : key(department);
+        String wantedRole = role == null ? null : key(role);
+
+        // one person on two overlapping shifts is listed once
+        Map<Long, OnDuty> result = new TreeMap<>();
+        for (Slot slot : buckets.get(weekMinute / bucketMinutes)) {
+            scanned.increment();
+            int offset = Math.floorMod(weekMinute - slot.startMinute(), WEEK_MINUTES);
+            if (offset >= slot.length() || result.containsKey(slot.staffId())) continue;
+
+            LocalDateTime start = minute.minusMinutes(offset);
+            LocalDate day = start.toLocalDate();
+            if (!slot.shift().runsOn(day) || onLeave(slot.staffId(), day)) continue;
+
+            Person person = people.get(slot.staffId());
+            String floor = slot.shift().department() != null && !slot.shift().department().isBlank()
+                    ? slot.shift().department()
+                    : person == null ? null : person.department();
+            if (wantedDepartment != null && !wantedDepartment.equals(key(floor))) continue;
+            if (wantedRole != null && (person == null || !wantedRole.equals(key(person.role())))) continue;
+
+            result.put(slot.staffId(), new OnDuty(slot.staffId(), person == null ? null : person.name(), floor,
+                    person == null ? null : person.role(), slot.shift().shiftId(),
+                    start, start.plusMinutes(slot.length())));
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    public Map<String, Object> getStats() {
+        int busiest = 0;
+        for (Set<Slot> bucket : buckets) busiest = Math.max(busiest, bucket.size());
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("staff", people.size());
+        stats.put("rosteredStaff", slotsByStaff.size());
+        stats.put("weeklyShifts", slotsByStaff.values().stream().mapToInt(List::size).sum());
+        stats.put("staffOnLeave", leaveByStaff.size());
+        stats.put("bucketMinutes", bucketMinutes);
+        stats.put("busiestBucket", busiest);
+        stats.put("queries", queries.sum());
+        stats.put("shiftsScanned", scanned.sum());
+        return stats;
+    }
+
+    // ================= HELPERS =================
+
+    private boolean onLeave(Long staffId, LocalDate day) {
+        List<Leave> leave = leaveByStaff.get(staffId);
+        if (leave == null) return false;
+        for (Leave l : leave) {
+            if (l.covers(day)) return true;
+        }
+        return false;
+    }
+
+    private void forEachBucket(Slot slot, Consumer<Set<Slot>> action) {
+        int first = slot.startMinute() / bucketMinutes;
+        int last = (slot.startMinute() + slot.length() - 1) / bucketMinutes;
+        for (int b = first; b <= last; b++) {
+            action.accept(buckets.get(b % buckets.size()));
+        }
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
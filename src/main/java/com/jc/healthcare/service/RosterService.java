@@ -0,0 +1,268 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.model.Staff;
+import com.jc.healthcare.model.StaffLeave;
+import com.jc.healthcare.model.StaffShift;
+import com.jc.healthcare.repository.StaffLeaveRepository;
+import com.jc.healthcare.repository.StaffRepository;
+import com.jc.healthcare.repository.StaffShiftRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Staff roster: weekly shifts (STAFF_SHIFT) and leave (STAFF_LEAVE) kept in a RosterIndex so
+// "who is on duty in ICU right now" never touches the database. Built in the background at startup
+// and every roster.refresh-ms; roster and staff writes re-index just the staff member they change.
+@Service
+public class RosterService {
+
+    private static final Logger log = LoggerFactory.getLogger(RosterService.class);
+
+    @Autowired
+    private StaffShiftRepository shiftRepository;
+
+    @Autowired
+    private StaffLeaveRepository leaveRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Value("${roster.enabled:true}")
+    private boolean enabled;
+
+    private final RosterIndex index;
+    private volatile boolean ready;
+    private volatile long lastRebuildMillis;
+
+    public RosterService(@Value("${roster.bucket-minutes:15}") int bucketMinutes) {
+        this.index = new RosterIndex(bucketMinutes);
+    }
+
+    // ================= READS =================
+
+    public List<RosterIndex.OnDuty> onDuty(LocalDateTime at, String department, String role) {
+        if (!ready) rebuild();   // asked before the startup build finished (or it failed)
+        return index.onDuty(at != null ? at : LocalDateTime.now(), blankToNull(department), blankToNull(role));
+    }
+
+    public Map<String, Object> getRoster(Long staffId) {
+        Map<String, Object> roster = new LinkedHashMap<>();
+        roster.put("staffId", staffId);
+        roster.put("shifts", shiftRepository.findByStaffIdOrderByShiftId(staffId));
+        roster.put("leave", leaveRepository.findByStaffIdOrderByFromDate(staffId));
+        return roster;
+    }
+
+    // ================= SHIFTS / LEAVE =================
+
+    public StaffShift addShift(StaffShift shift) {
+        Staff staff = staffOf(shift.getStaffId());
+        RosterIndex.Shift parsed = toShift(shift);
+        // stored in one spelling: MON,TUE and HH:mm
+        shift.setShiftId(null);
+        shift.setDaysOfWeek(String.join(",", parsed.days().stream().map(d -> d.name().substring(0, 3)).toList()));
+        shift.setStartTime(parsed.start().toString());
+        shift.setEndTime(parsed.end().toString());
+        StaffShift saved = shiftRepository.save(shift);
+        staffSaved(staff);
+        reindexShifts(staff.getId());
+        return saved;
+    }
+
+    public StaffShift deleteShift(Long shiftId) {
+        StaffShift shift = shiftRepository.findById(shiftId)
+                .orElseThrow(() -> new RuntimeException("Shift not found with ID " + shiftId));
+        shiftRepository.deleteById(shiftId);
+        reindexShifts(shift.getStaffId());
+        return shift;
+    }
+
+    public StaffLeave addLeave(StaffLeave leave) {
+        staffOf(leave.getStaffId());
+        if (leave.getFromDate() == null || leave.getToDate() == null) {
+            throw new IllegalArgumentException("❌ fromDate and toDate are required");
+        }
+        if (leave.getToDate().isBefore(leave.getFromDate())) {
+            throw new IllegalArgumentException("❌ toDate is before fromDate");
+        }
+        leave.setLeaveId(null);
+        StaffLeave saved = leaveRepository.save(leave);
+        reindexLeave(saved.getStaffId());
+        return saved;
+    }
+
+    public StaffLeave deleteLeave(Long leaveId) {
+        StaffLeave leave = leaveRepository.findById(leaveId)
+                .orElseThrow(() -> new RuntimeException("Leave not found with ID " + leaveId));
+        leaveRepository.deleteById(leaveId);
+        reindexLeave(leave.getStaffId());
+        return leave;
+    }
+
+    // ================= STAFF CHANGES (StaffService) =================
+
+    // name, department and role are read at query time, so a staff update re-indexes no shifts
+    public void staffSaved(Staff staff) {
+        if (staff.getId() != null) {
+            index.putStaff(staff.getId(), staff.getName(), staff.getDepartment(), staff.getRole());
+        }
+    }
+
+    public synchronized void staffRemoved(Long staffId) {
+        shiftRepository.deleteByStaff(staffId);
+        leaveRepository.deleteByStaff(staffId);
+        index.removeStaff(staffId);
+    }
+
+    // ================= BUILD =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) return;
+        Thread worker = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.warn("Roster build failed, retried on the first on-duty query: {}", e.getMessage());
+            }
+        }, "roster-build");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Scheduled(fixedDelayString = "${roster.refresh-ms:3600000}", initialDelayString = "${roster.refresh-ms:3600000}")
+    public void scheduledRebuild() {
+        if (!enabled) return;
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Roster refresh failed: {}", e.getMessage());
+        }
+    }
+
+    // Full reload; also picks up roster rows written by other nodes or straight into the tables
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Set<Long> staffIds = new HashSet<>();
+        for (Object[] row : staffRepository.findRosterRows()) {
+            Long id = ((Number) row[0]).longValue();
+            index.putStaff(id, (String) row[1], (String) row[2], (String) row[3]);
+            staffIds.add(id);
+        }
+
+        Map<Long, List<RosterIndex.Shift>> shifts = new HashMap<>();
+        for (StaffShift row : shiftRepository.findAll()) {
+            try {
+                shifts.computeIfAbsent(row.getStaffId(), k -> new ArrayList<>()).add(toShift(row));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping shift {}: {}", row.getShiftId(), e.getMessage());
+            }
+        }
+        Map<Long, List<RosterIndex.Leave>> leave = new HashMap<>();
+        for (StaffLeave row : leaveRepository.findByToDateGreaterThanEqual(leaveHorizon())) {
+            leave.computeIfAbsent(row.getStaffId(), k -> new ArrayList<>()).add(toLeave(row));
+        }
+
+        index.retainStaff(staffIds);
+        for (Long id : staffIds) {
+            index.putShifts(id, shifts.getOrDefault(id, List.of()));
+            index.putLeave(id, leave.getOrDefault(id, List.of()));
+        }
+        ready = true;
+        lastRebuildMillis = System.currentTimeMillis() - started;
+        log.info("Roster built: {} shifts for {} staff, {} ms", shifts.values().stream().mapToInt(List::size).sum(),
+                shifts.size(), lastRebuildMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.putAll(index.getStats());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    // ================= HELPERS =================
+
+    private synchronized void reindexShifts(Long staffId) {
+        List<RosterIndex.Shift> shifts = new ArrayList<>();
+        for (StaffShift row : shiftRepository.findByStaffIdOrderByShiftId(staffId)) {
+            shifts.add(toShift(row));
+        }
+        index.putShifts(staffId, shifts);
+    }
+
+    private synchronized void reindexLeave(Long staffId) {
+        index.putLeave(staffId, leaveRepository.findByStaffIdAndToDateGreaterThanEqual(staffId, leaveHorizon()).stream()
+                .map(this::toLeave).toList());
+    }
+
+    // Leave over before yesterday can no longer take anyone off a current shift (an overnight shift is
+    // judged on the day it starts), so the index keeps only the rest; an ?at= further back ignores leave
+    private static LocalDate leaveHorizon() {
+        return LocalDate.now().minusDays(1);
+    }
+
+    private Staff staffOf(Long staffId) {
+        if (staffId == null) throw new IllegalArgumentException("❌ staffId is required");
+        return staffRepository.findById(staffId)
+                .orElseThrow(() -> new RuntimeException("Staff not found with ID " + staffId));
+    }
+
+    private static RosterIndex.Shift toShift(StaffShift row) {
+        if (row.getDaysOfWeek() == null || row.getStartTime() == null || row.getEndTime() == null) {
+            throw new IllegalArgumentException("❌ daysOfWeek, startTime and endTime are required");
+        }
+        if (row.getValidFrom() != null && row.getValidTo() != null && row.getValidTo().isBefore(row.getValidFrom())) {
+            throw new IllegalArgumentException("❌ validTo is before validFrom");
+        }
+        return new RosterIndex.Shift(row.getShiftId(), blankToNull(row.getDepartment()), daysOf(row.getDaysOfWeek()),
+                timeOf(row.getStartTime()), timeOf(row.getEndTime()), row.getValidFrom(), row.getValidTo());
+    }
+
+    private RosterIndex.Leave toLeave(StaffLeave row) {
+        return new RosterIndex.Leave(row.getFromDate(), row.getToDate());
+    }
+
+    // "MON,TUE" (full names and any case accepted)
+    private static Set<DayOfWeek> daysOf(String value) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : value.split(",")) {
+            String name = part.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) continue;
+            DayOfWeek day = Arrays.stream(DayOfWeek.values())
+                    .filter(d -> name.length() >= 3 && d.name().startsWith(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("❌ Unknown day: " + part.trim()));
+            days.add(day);
+        }
+        if (days.isEmpty()) throw new IllegalArgumentException("❌ daysOfWeek is empty");
+        return days;
+    }
+
+    private static LocalTime timeOf(String value) {
+        try {
+            return LocalTime.parse(value.trim()).truncatedTo(ChronoUnit.MINUTES);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("❌ Time must be HH:mm: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
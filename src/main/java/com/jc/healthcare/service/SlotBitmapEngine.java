@@ -0,0 +1,185 @@
+package com.jc.healthcare.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+// In-memory slot occupancy: one bitmap per (doctor, day), one bit per fixed-length slot.
+// Claim and release are a CAS on the 64-bit word holding the slot, so bookings for different
+// doctors, days or even words never contend, and there is no lock anywhere.
+// A doctor-day is seeded from the loader (the booking table) the first time it is touched.
+// Bitmaps are per node: bookings and releases made on other nodes only show up when a day is
+// reseeded from the loader (SlotBookingService does so on a unique-key collision and periodically).
+public class SlotBitmapEngine {
+
+    private final int slotsPerDay;
+    private final BiFunction<Long, LocalDate, Collection<Integer>> loader;
+    private final Map<DayKey, AtomicLongArray> days = new ConcurrentHashMap<>();
+
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder casRetries = new LongAdder();
+    private final LongAdder reseeds = new LongAdder();
+
+    public SlotBitmapEngine(int slotsPerDay, BiFunction<Long, LocalDate, Collection<Integer>> loader) {
+        if (slotsPerDay <= 0) throw new IllegalArgumentException("slotsPerDay must be positive");
+        this.slotsPerDay = slotsPerDay;
+        this.loader = loader;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    // true when the slot was free and is now ours
+    public boolean tryClaim(Long doctorId, LocalDate date, int slot) {
+        checkSlot(slot);
+        AtomicLongArray words = day(doctorId, date);
+        int w = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        while (true) {
+            long current = words.get(w);
+            if ((current & bit) != 0) {
+                conflicts.increment();
+                return false;
+            }
+            if (words.compareAndSet(w, current, current | bit)) {
+                claims.increment();
+                return true;
+            }
+            casRetries.increment();
+        }
+    }
+
+    // Marks a slot taken without counting it as a claim (booked elsewhere, e.g. another node)
+    public void markTaken(Long doctorId, LocalDate date, int slot) {
+        checkSlot(slot);
+        day(doctorId, date).getAndUpdate(slot >>> 6, v -> v | (1L << (slot & 63)));
+    }
+
+    // true when the slot was taken and is now free
+    public boolean release(Long doctorId, LocalDate date, int slot) {
+        checkSlot(slot);
+        AtomicLongArray words = days.get(new DayKey(doctorId, date));
+        if (words == null) return false;
+        int w = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        long before = words.getAndUpdate(w, v -> v & ~bit);
+        return (before & bit) != 0;
+    }
+
+    public boolean isTaken(Long doctorId, LocalDate date, int slot) {
+        checkSlot(slot);
+        return (day(doctorId, date).get(slot >>> 6) & (1L << (slot & 63))) != 0;
+    }
+
+    // Up to limit free slot indexes at or after fromSlot, in order
+    public List<Integer> freeSlots(Long doctorId, LocalDate date, int fromSlot, int limit) {
+        List<Integer> free = new ArrayList<>();
+        if (limit <= 0 || fromSlot >= slotsPerDay) return free;
+        AtomicLongArray words = day(doctorId, date);
+        int start = Math.max(0, fromSlot);
+        for (int w = start >>> 6; w < words.length() && free.size() < limit; w++) {
+            long open = ~words.get(w);
+            if (w == start >>> 6) open &= -1L << (start & 63);
+            while (open != 0 && free.size() < limit) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(open);
+                if (slot >= slotsPerDay) break;
+                free.add(slot);
+                open &= open - 1;
+            }
+        }
+        return free;
+    }
+
+    public int bookedCount(Long doctorId, LocalDate date) {
+        AtomicLongArray words = days.get(new DayKey(doctorId, date));
+        if (words == null) return 0;
+        int n = 0;
+        for (int w = 0; w < words.length(); w++) n += Long.bitCount(words.get(w));
+        return n;
+    }
+
+    // Replaces a loaded doctor-day with what the loader now returns; a day not loaded yet is left
+    // to be seeded on first touch. A local claim whose insert has not committed can be cleared for a
+    // moment; the table's unique key still turns away a second booking of that slot.
+    public void reseed(Long doctorId, LocalDate date) {
+        DayKey key = new DayKey(doctorId, date);
+        AtomicLongArray words = days.get(key);
+        if (words == null) return;
+        AtomicLongArray fresh = load(doctorId, date);
+        for (int w = 0; w < words.length(); w++) words.set(w, fresh.get(w));
+        reseeds.increment();
+    }
+
+    // Reseeds every loaded doctor-day; returns how many were read
+    public int reseedLoaded() {
+        int n = 0;
+        for (DayKey key : List.copyOf(days.keySet())) {
+            reseed(key.doctorId(), key.date());
+            n++;
+        }
+        return n;
+    }
+
+    // Drops bitmaps of days before the given date
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(key -> key.date().isBefore(date));
+    }
+
+    public long getClaims() {
+        return claims.sum();
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getCasRetries() {
+        return casRetries.sum();
+    }
+
+    public long getReseeds() {
+        return reseeds.sum();
+    }
+
+    public int getLoadedDays() {
+        return days.size();
+    }
+
+    private AtomicLongArray day(Long doctorId, LocalDate date) {
+        DayKey key = new DayKey(doctorId, date);
+        AtomicLongArray words = days.get(key);
+        if (words != null) return words;
+
+        // seeded outside the map so the booking-table read never runs under a bin lock
+        AtomicLongArray seeded = load(doctorId, date);
+        AtomicLongArray raced = days.putIfAbsent(key, seeded);
+        return raced != null ? raced : seeded;
+    }
+
+    private AtomicLongArray load(Long doctorId, LocalDate date) {
+        AtomicLongArray words = new AtomicLongArray((slotsPerDay + 63) >>> 6);
+        for (Integer slot : loader.apply(doctorId, date)) {
+            if (slot != null && slot >= 0 && slot < slotsPerDay) {
+                words.getAndUpdate(slot >>> 6, v -> v | (1L << (slot & 63)));
+            }
+        }
+        return words;
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= slotsPerDay) {
+            throw new IllegalArgumentException("Slot " + slot + " is outside the day (0.." + (slotsPerDay - 1) + ")");
+        }
+    }
+
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+}
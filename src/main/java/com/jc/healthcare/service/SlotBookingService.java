@@ -0,0 +1,228 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.dto.FreeSlot;
+import com.jc.healthcare.dto.SlotBookingRequest;
+import com.jc.healthcare.exception.SlotUnavailableException;
+import com.jc.healthcare.model.DoctorSlotBooking;
+import com.jc.healthcare.repository.DoctorSlotBookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+// Doctor appointment slots: each day runs from slots.day-start to slots.day-end in
+// slots.length-minutes steps. Occupancy lives in SlotBitmapEngine (lock-free CAS per slot);
+// the DOCTOR_SLOT_BOOKING table is written only after the bit is won, and its unique key
+// catches a slot booked by another node. Bitmaps are per node, so a day is reseeded from the
+// table on such a collision and every slots.refresh-interval-ms, which also picks up releases
+// made elsewhere. Dates more than slots.max-days-ahead out are refused, so no request can
+// allocate bitmaps for arbitrary future days.
+@Service
+public class SlotBookingService {
+
+    @Autowired
+    private DoctorSlotBookingRepository bookingRepository;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalTime dayStart;
+    private final int slotMinutes;
+    private final int searchDays;
+    private final int maxDaysAhead;
+    private final SlotBitmapEngine engine;
+
+    public SlotBookingService(@Value("${slots.day-start:09:00}") String dayStart,
+                              @Value("${slots.day-end:17:00}") String dayEnd,
+                              @Value("${slots.length-minutes:15}") int slotMinutes,
+                              @Value("${slots.search-days:14}") int searchDays,
+                              @Value("${slots.max-days-ahead:180}") int maxDaysAhead) {
+        this.dayStart = LocalTime.parse(dayStart);
+        this.slotMinutes = slotMinutes;
+        this.searchDays = searchDays;
+        this.maxDaysAhead = maxDaysAhead;
+        int slots = (int) (Duration.between(this.dayStart, LocalTime.parse(dayEnd)).toMinutes() / slotMinutes);
+        this.engine = new SlotBitmapEngine(slots, (doctorId, date) -> bookingRepository.findBookedSlots(doctorId, date));
+    }
+
+    // ================= BOOK / RELEASE =================
+
+    public DoctorSlotBooking book(SlotBookingRequest request) {
+        if (request.getDoctorId() == null || request.getDate() == null) {
+            throw new IllegalArgumentException("❌ doctorId and date are required");
+        }
+        int slot = request.getSlotIndex() != null ? request.getSlotIndex() : slotIndexOf(request.getTime());
+        if (slot < 0 || slot >= engine.getSlotsPerDay()) {
+            throw new IllegalArgumentException("❌ slot is outside the working day");
+        }
+        if (!startOf(request.getDate(), slot).isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("❌ slot has already started");
+        }
+        checkHorizon(request.getDate());
+        doctorService.getDoctorProfile(request.getDoctorId())
+                .orElseThrow(() -> new RuntimeException("Doctor not found with ID: " + request.getDoctorId()));
+
+        Long doctorId = request.getDoctorId();
+        LocalDate date = request.getDate();
+        if (!engine.tryClaim(doctorId, date, slot)) {
+            throw new SlotUnavailableException("Slot " + startOf(date, slot).toLocalTime() + " on " + date + " is already booked");
+        }
+
+        DoctorSlotBooking booking = new DoctorSlotBooking();
+        booking.setDoctorId(doctorId);
+        booking.setSlotDate(date);
+        booking.setSlotIndex(slot);
+        booking.setPatientId(request.getPatientId());
+        booking.setBookedAt(LocalDateTime.now());
+        try {
+            return transactionTemplate.execute(status -> bookingRepository.saveAndFlush(booking));
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotTaken(e)) {
+                // booked through another node: re-read the day, which keeps this bit set and
+                // catches up on anything else that node booked or released
+                engine.reseed(doctorId, date);
+                throw new SlotUnavailableException("Slot " + startOf(date, slot).toLocalTime() + " on " + date + " is already booked");
+            }
+            // any other constraint (e.g. an unknown patient): the slot is still free
+            engine.release(doctorId, date, slot);
+            throw e;
+        } catch (RuntimeException e) {
+            engine.release(doctorId, date, slot);
+            throw e;
+        }
+    }
+
+    public DoctorSlotBooking release(Long bookingId) {
+        DoctorSlotBooking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Slot booking not found with ID: " + bookingId));
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.delete(booking));
+        engine.release(booking.getDoctorId(), booking.getSlotDate(), booking.getSlotIndex());
+        return booking;
+    }
+
+    // ================= FREE SLOTS =================
+
+    public List<FreeSlot> nextFreeForDoctor(Long doctorId, LocalDate from, int count) {
+        DoctorProfile doctor = doctorService.getDoctorProfile(doctorId)
+                .orElseThrow(() -> new RuntimeException("Doctor not found with ID: " + doctorId));
+        return nextFree(List.of(doctor), from, count);
+    }
+
+    // Earliest free slots across all active doctors of a specialization
+    public List<FreeSlot> nextFreeForSpecialization(String specialization, LocalDate from, int count) {
+        List<DoctorProfile> doctors = doctorService.getDoctorProfilesBySpecialization(specialization).stream()
+                .filter(d -> "ACTIVE".equalsIgnoreCase(d.getStatus()))
+                .toList();
+        return nextFree(doctors, from, count);
+    }
+
+    private List<FreeSlot> nextFree(List<DoctorProfile> doctors, LocalDate from, int count) {
+        List<FreeSlot> result = new ArrayList<>();
+        if (doctors.isEmpty() || count <= 0) return result;
+
+        LocalDate today = LocalDate.now();
+        LocalDate last = today.plusDays(maxDaysAhead);
+        LocalDate day = from == null || from.isBefore(today) ? today : from;
+        for (int d = 0; d < searchDays && result.size() < count && !day.isAfter(last); d++, day = day.plusDays(1)) {
+            int fromSlot = day.equals(today) ? firstSlotAfter(LocalTime.now()) : 0;
+            List<FreeSlot> candidates = new ArrayList<>();
+            for (DoctorProfile doctor : doctors) {
+                for (int slot : engine.freeSlots(doctor.getDoctorId(), day, fromSlot, count - result.size())) {
+                    LocalTime start = dayStart.plusMinutes((long) slot * slotMinutes);
+                    candidates.add(new FreeSlot(doctor.getDoctorId(), doctor.getDoctorName(), day, slot,
+                            start, start.plusMinutes(slotMinutes)));
+                }
+            }
+            candidates.sort(Comparator.comparingInt(FreeSlot::getSlotIndex).thenComparing(FreeSlot::getDoctorId));
+            for (FreeSlot s : candidates) {
+                if (result.size() >= count) break;
+                result.add(s);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> getDay(Long doctorId, LocalDate date) {
+        checkHorizon(date);
+        List<DoctorSlotBooking> bookings = bookingRepository.findByDoctorIdAndSlotDateOrderBySlotIndex(doctorId, date);
+        Map<String, Object> day = new LinkedHashMap<>();
+        day.put("doctorId", doctorId);
+        day.put("date", date);
+        day.put("slotsPerDay", engine.getSlotsPerDay());
+        day.put("booked", bookings.size());
+        day.put("free", engine.getSlotsPerDay() - bookings.size());
+        day.put("bookings", bookings);
+        return day;
+    }
+
+    // ================= HELPERS =================
+
+    private int slotIndexOf(LocalTime time) {
+        if (time == null) throw new IllegalArgumentException("❌ time or slotIndex is required");
+        long minutes = Duration.between(dayStart, time).toMinutes();
+        if (minutes < 0 || minutes % slotMinutes != 0) {
+            throw new IllegalArgumentException("❌ " + time + " is not a slot start (slots are " + slotMinutes
+                    + " minutes from " + dayStart + ")");
+        }
+        return (int) (minutes / slotMinutes);
+    }
+
+    private int firstSlotAfter(LocalTime now) {
+        long minutes = Duration.between(dayStart, now).toMinutes();
+        if (minutes < 0) return 0;
+        return (int) (minutes / slotMinutes) + 1;
+    }
+
+    private LocalDateTime startOf(LocalDate date, int slot) {
+        return date.atTime(dayStart).plusMinutes((long) slot * slotMinutes);
+    }
+
+    private void checkHorizon(LocalDate date) {
+        if (date.isAfter(LocalDate.now().plusDays(maxDaysAhead))) {
+            throw new IllegalArgumentException("❌ slots can only be booked up to " + maxDaysAhead + " days ahead");
+        }
+    }
+
+    // the unique key on (doctor, date, slot); other integrity errors say nothing about the slot
+    private static boolean isSlotTaken(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase(Locale.ROOT).contains("UQ_DOCTOR_SLOT");
+    }
+
+    @Scheduled(cron = "${slots.rollover-cron:0 0 0 * * *}")
+    public void dropPastDays() {
+        engine.evictBefore(LocalDate.now());
+    }
+
+    // Bookings and releases made on other nodes
+    @Scheduled(initialDelayString = "${slots.refresh-interval-ms:60000}", fixedDelayString = "${slots.refresh-interval-ms:60000}")
+    public void refreshLoadedDays() {
+        engine.reseedLoaded();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dayStart", dayStart);
+        stats.put("slotMinutes", slotMinutes);
+        stats.put("slotsPerDay", engine.getSlotsPerDay());
+        stats.put("maxDaysAhead", maxDaysAhead);
+        stats.put("loadedDays", engine.getLoadedDays());
+        stats.put("claims", engine.getClaims());
+        stats.put("conflicts", engine.getConflicts());
+        stats.put("casRetries", engine.getCasRetries());
+        stats.put("reseeds", engine.getReseeds());
+        return stats;
+    }
+}
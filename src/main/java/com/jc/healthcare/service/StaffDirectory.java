@@ -0,0 +1,193 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.repository.StaffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory department → staff-id index, so department views fetch their rows by primary key
+// instead of an UPPER(DEPARTMENT) scan. Built in the background at startup and again every
+// staff.directory.refresh-ms; StaffService reports each write, so the index stays current in between.
+// version moves on every staff write and rebuild and is the staff directory ETag.
+@Service
+public class StaffDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(StaffDirectory.class);
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Value("${staff.directory.enabled:true}")
+    private boolean enabled;
+
+    // null until the first build; until then department views use the database
+    private volatile Index index;
+
+    // writes seen while a rebuild is reading the table, replayed onto the new index
+    private List<Change> journal;
+
+    // starts at the boot time so ETags from before a restart never match
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    private final LongAdder indexedReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastRebuildMillis;
+
+    // ================= READS =================
+
+    // Up to limit staff ids of the department after afterId, in id order; empty while the index is not built
+    public Optional<List<Long>> idsIn(String department, long afterId, int limit) {
+        Index current = index;
+        if (current == null) {
+            fallbackReads.increment();
+            return Optional.empty();
+        }
+        indexedReads.increment();
+        NavigableSet<Long> ids = current.byDepartment.get(key(department));
+        if (ids == null) return Optional.of(List.of());
+        List<Long> page = new ArrayList<>(Math.min(limit, ids.size()));
+        for (Long id : ids.tailSet(afterId, false)) {
+            if (page.size() >= limit) break;
+            page.add(id);
+        }
+        return Optional.of(page);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Weak ETag for one directory response: the version plus whatever selects the page
+    public String etag(Object... selector) {
+        return "W/\"staff-" + version.get() + "-" + Integer.toHexString(Arrays.deepHashCode(selector)) + "\"";
+    }
+
+    // ================= WRITES =================
+
+    public synchronized void saved(Long id, String department) {
+        version.incrementAndGet();
+        if (id == null) return;
+        if (index != null) index.put(id, department);
+        if (journal != null) journal.add(new Change(id, department, false));
+    }
+
+    public synchronized void removed(Long id) {
+        version.incrementAndGet();
+        if (id == null) return;
+        if (index != null) index.remove(id);
+        if (journal != null) journal.add(new Change(id, null, true));
+    }
+
+    // a write that leaves departments alone but changes what the directory shows (e.g. a photo)
+    public void touched() {
+        version.incrementAndGet();
+    }
+
+    // ================= BUILD =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::rebuild, "staff-directory-build");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Scheduled(fixedDelayString = "${staff.directory.refresh-ms:600000}",
+            initialDelayString = "${staff.directory.refresh-ms:600000}")
+    public void scheduledRebuild() {
+        if (enabled) rebuild();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        synchronized (this) {
+            if (journal != null) return;   // already rebuilding
+            journal = new ArrayList<>();
+        }
+        Index fresh = new Index();
+        try {
+            for (Object[] row : staffRepository.findIdsAndDepartments()) {
+                fresh.put(((Number) row[0]).longValue(), (String) row[1]);
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                journal = null;
+            }
+            log.warn("Staff directory build failed, department views use the database: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            for (Change c : journal) {
+                if (c.removed()) fresh.remove(c.id());
+                else fresh.put(c.id(), c.department());
+            }
+            journal = null;
+            index = fresh;
+            version.incrementAndGet();
+        }
+        rebuilds.incrementAndGet();
+        lastRebuildMillis = System.currentTimeMillis() - started;
+        log.info("Staff directory built: {} staff in {} departments, {} ms",
+                fresh.departmentOf.size(), fresh.byDepartment.size(), lastRebuildMillis);
+    }
+
+    public Map<String, Object> getStats() {
+        Index current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", current != null);
+        stats.put("staff", current == null ? 0 : current.departmentOf.size());
+        stats.put("departments", current == null ? 0 : current.byDepartment.size());
+        stats.put("version", version.get());
+        stats.put("indexedReads", indexedReads.sum());
+        stats.put("fallbackReads", fallbackReads.sum());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    // department lookups ignore case, like the UPPER() query they replace
+    private static String key(String department) {
+        return department == null ? "" : department.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+        final Map<String, NavigableSet<Long>> byDepartment = new ConcurrentHashMap<>();
+        final Map<Long, String> departmentOf = new ConcurrentHashMap<>();
+
+        void put(Long id, String department) {
+            String k = key(department);
+            String old = departmentOf.put(id, k);
+            if (old != null && !old.equals(k)) removeFrom(old, id);
+            byDepartment.computeIfAbsent(k, x -> new ConcurrentSkipListSet<>()).add(id);
+        }
+
+        void remove(Long id) {
+            String old = departmentOf.remove(id);
+            if (old != null) removeFrom(old, id);
+        }
+
+        private void removeFrom(String department, Long id) {
+            byDepartment.computeIfPresent(department, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private record Change(Long id, String department, boolean removed) {
+    }
+}
@@ -1,17 +1,25 @@
 package com.jc.healthcare.service;
 
+import com.jc.healthcare.dto.CursorPage;
+import com.jc.healthcare.dto.StaffSummary;
+import com.jc.healthcare.dto.StoredFile;
 import com.jc.healthcare.model.Staff;
 import com.jc.healthcare.repository.DoctorRepository;
 import com.jc.healthcare.model.Doctor;
 
 import com.jc.healthcare.repository.StaffRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -22,7 +30,22 @@ public class StaffService {
     private StaffRepository staffRepository;
     @Autowired
     private DoctorRepository doctorRepository;
-    
+    @Autowired
+    private UniquenessGuard uniquenessGuard;
+    @Autowired
+    private BinaryStore binaryStore;
+    @Autowired
+    private ThumbnailService thumbnailService;
+    @Autowired
+    private StaffDirectory staffDirectory;
+    @Autowired
+    private RosterService rosterService;
+
+    @Value("${staff.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${staff.page.max-size:200}")
+    private int maxPageSize;
 
 
     @Autowired
@@ -36,29 +59,113 @@ public class StaffService {
     // 🧩 CRUD & IMAGE METHODS
     // =========================
 
-    // 1️⃣ Fetch all staff
+    // 1️⃣ Fetch all staff (full rows for admin screens; photo bytes and password are not serialized)
     public List<Staff> getAllStaff() {
         return staffRepository.findAll();
     }
 
-    // 2️⃣ Fetch by department
-    public List<Staff> getStaffByDepartment(String department) {
-        return staffRepository.findByDepartmentIgnoreCase(department);
+    // 2️⃣ Fetch by department: directory rows, ids from the StaffDirectory index
+    public List<StaffSummary> getStaffByDepartment(String department) {
+        Optional<List<Long>> ids = staffDirectory.idsIn(department, 0L, Integer.MAX_VALUE);
+        if (ids.isEmpty()) {
+            return staffRepository.findSummariesByDepartment(department, 0L, Limit.unlimited());
+        }
+        return summariesOf(ids.get());
+    }
+
+    // Keyset-paged staff directory
+    public CursorPage<StaffSummary> getStaffPage(String after, Integer size) {
+        int pageSize = pageSize(size);
+        // one extra row tells us whether there is a next page
+        List<StaffSummary> rows = staffRepository.findSummariesAfter(decodeCursor(after), Limit.of(pageSize + 1));
+        return pageOf(rows, pageSize);
+    }
+
+    public CursorPage<StaffSummary> getDepartmentPage(String department, String after, Integer size) {
+        int pageSize = pageSize(size);
+        long afterId = decodeCursor(after);
+        Optional<List<Long>> ids = staffDirectory.idsIn(department, afterId, pageSize + 1);
+        List<StaffSummary> rows = ids.isPresent()
+                ? summariesOf(ids.get())
+                : staffRepository.findSummariesByDepartment(department, afterId, Limit.of(pageSize + 1));
+        return pageOf(rows, pageSize);
+    }
+
+    // ETag of a directory response; changes with any staff write
+    public String getDirectoryEtag(Object... selector) {
+        return staffDirectory.etag(selector);
+    }
+
+    public Map<String, Object> getDirectoryStats() {
+        return staffDirectory.getStats();
+    }
+
+    private List<StaffSummary> summariesOf(List<Long> ids) {
+        List<StaffSummary> rows = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += 500) {
+            rows.addAll(staffRepository.findSummariesByIds(ids.subList(from, Math.min(ids.size(), from + 500))));
+        }
+        return rows;
+    }
+
+    private int pageSize(Integer size) {
+        return size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+    }
+
+    private CursorPage<StaffSummary> pageOf(List<StaffSummary> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<StaffSummary> page = rows.subList(0, pageSize);
+        return new CursorPage<>(page, encodeCursor(page.get(page.size() - 1).getId()));
+    }
+
+    private String encodeCursor(Long staffId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("sid:" + staffId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(String token) {
+        if (token == null || token.isBlank()) return 0L;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("sid:")) throw new IllegalArgumentException();
+            return Long.parseLong(raw.substring(4));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token);
+        }
     }
 
     // 3️⃣ Add new staff (with password)
     public Staff addNewStaff(Staff staff) {
-        if (staff.getAdhar() != null && staffRepository.existsByAdhar(staff.getAdhar())) {
+        if (staff.getAdhar() != null && adharTaken(staff.getAdhar())) {
             throw new IllegalArgumentException("Aadhar number already exists: " + staff.getAdhar());
         }
         staff.setLoginAttempts(0);
-        return staffRepository.save(staff);
+        Staff saved = staffRepository.save(staff);
+        uniquenessGuard.register(UniquenessGuard.Scope.STAFF_AADHAR, saved.getAdhar());
+        staffDirectory.saved(saved.getId(), saved.getDepartment());
+        rosterService.staffSaved(saved);
+        return saved;
+    }
+
+    // In-memory answer when the guard has one, otherwise the usual exists query
+    private boolean adharTaken(String adhar) {
+        return switch (uniquenessGuard.check(UniquenessGuard.Scope.STAFF_AADHAR, adhar)) {
+            case PRESENT -> true;
+            case ABSENT -> false;
+            case UNKNOWN -> staffRepository.existsByAdhar(adhar);
+        };
     }
 
     // 4️⃣ Delete staff
     public boolean deleteStaff(Long id) {
-        if (staffRepository.existsById(id)) {
+        Optional<Staff> staff = staffRepository.findById(id);
+        if (staff.isPresent()) {
             staffRepository.deleteById(id);
+            staffDirectory.removed(id);
+            rosterService.staffRemoved(id);
+            uniquenessGuard.unregister(UniquenessGuard.Scope.STAFF_AADHAR, staff.get().getAdhar());
             return true;
         }
         return false;
@@ -68,6 +175,7 @@ public class StaffService {
     public Staff updateStaff(Long id, Staff updatedStaff) {
         return staffRepository.findById(id)
                 .map(existing -> {
+                    String oldAdhar = existing.getAdhar();
                     existing.setName(updatedStaff.getName());
                     existing.setMobile(updatedStaff.getMobile());
                     existing.setEmail(updatedStaff.getEmail());
@@ -79,18 +187,28 @@ public class StaffService {
                     existing.setJoiningDate(updatedStaff.getJoiningDate());
                     existing.setTimings(updatedStaff.getTimings());
                     existing.setPassword(updatedStaff.getPassword());
-                    return staffRepository.save(existing);
+                    Staff saved = staffRepository.save(existing);
+                    uniquenessGuard.replace(UniquenessGuard.Scope.STAFF_AADHAR, oldAdhar, saved.getAdhar());
+                    staffDirectory.saved(saved.getId(), saved.getDepartment());
+                    rosterService.staffSaved(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("Staff not found with ID " + id));
     }
 
-    // 6️⃣ Upload image
+    // 6️⃣ Upload image (streamed into the BinaryStore; the row keeps hash, size and type)
     public void uploadStaffImage(Long id, MultipartFile file) {
         Staff staff = staffRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Staff not found with ID " + id));
-        try {
-            staff.setImage(file.getBytes());
+        try (InputStream in = file.getInputStream()) {
+            BinaryStore.Stored stored = binaryStore.put(in);
+            staff.setImageHash(stored.hash());
+            staff.setImageSize(stored.size());
+            staff.setImageType(file.getContentType() != null ? file.getContentType() : "image/jpeg");
+            staff.setImage(null);
             staffRepository.save(staff);
+            staffDirectory.touched();
+            thumbnailService.enqueue(stored.hash());
         } catch (IOException e) {
             throw new RuntimeException("Failed to upload image", e);
         }
@@ -101,11 +219,24 @@ public class StaffService {
         uploadStaffImage(id, file);
     }
 
-    // 8️⃣ Fetch image
-    public byte[] getStaffImage(Long id) {
-        return staffRepository.findById(id)
-                .map(Staff::getImage)
-                .orElse(null);
+    // 8️⃣ Fetch image; with a size, the nearest thumbnail once generated (the original until then)
+    public Optional<StoredFile> getStaffImage(Long id, Integer size) {
+        Optional<StoredFile> original = getStaffImage(id);
+        if (size == null || original.isEmpty()) return original;
+        return thumbnailService.find(original.get().getHash(), size).or(() -> original);
+    }
+
+    // Rows not yet moved by BinaryMigrationService are served from the blob
+    public Optional<StoredFile> getStaffImage(Long id) {
+        // metadata only, as for doctors; the blob is read just for an unmigrated row
+        Optional<StoredFile> file = staffRepository.findImageFileById(id);
+        if (file.isEmpty()) return Optional.empty();
+        Optional<Resource> stored = binaryStore.get(file.get().getHash());
+        if (stored.isPresent()) {
+            file.get().setContent(stored.get());
+            return file;
+        }
+        return staffRepository.findImageById(id).filter(bytes -> bytes.length > 0).map(DoctorImageService::fromBlob);
     }
 
     // =========================
@@ -205,18 +336,24 @@ public class StaffService {
         Staff staff = staffRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Staff not found with ID " + id));
 
-        if (staff.getImage() == null) {
+        if (staff.getImage() == null && staff.getImageHash() == null) {
             throw new RuntimeException("No image found for staff ID: " + id);
         }
 
-        staff.setImage(null); // Remove image
+        // Remove image (the stored file may be shared, so it stays in the BinaryStore)
+        staff.setImage(null);
+        staff.setImageHash(null);
+        staff.setImageSize(null);
+        staff.setImageType(null);
         staffRepository.save(staff);
+        staffDirectory.touched();
     }
     public Staff updateStaffFieldsByEmail(String email, Map<String, Object> updates) {
         Staff staff = staffRepository.findByEmail(email);
         if (staff == null) {
             throw new RuntimeException("Staff not found with email: " + email);
         }
+        String oldAdhar = staff.getAdhar();
 
         updates.forEach((key, value) -> {
             switch (key) {
@@ -233,11 +370,16 @@ public class StaffService {
             }
         });
 
-        return staffRepository.save(staff);
+        Staff saved = staffRepository.save(staff);
+        uniquenessGuard.replace(UniquenessGuard.Scope.STAFF_AADHAR, oldAdhar, saved.getAdhar());
+        staffDirectory.saved(saved.getId(), saved.getDepartment());
+        rosterService.staffSaved(saved);
+        return saved;
     }
     public Staff updateStaffFieldsById(Long id, Map<String, Object> updates) {
         Staff staff = staffRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Staff not found with ID: " + id));
+        String oldAdhar = staff.getAdhar();
 
         if (updates.containsKey("name")) {
             staff.setName((String) updates.get("name"));
@@ -275,7 +417,11 @@ public class StaffService {
             }
         }
 
-        return staffRepository.save(staff);
+        Staff saved = staffRepository.save(staff);
+        uniquenessGuard.replace(UniquenessGuard.Scope.STAFF_AADHAR, oldAdhar, saved.getAdhar());
+        staffDirectory.saved(saved.getId(), saved.getDepartment());
+        rosterService.staffSaved(saved);
+        return saved;
     }
  // =========================
  // ✉️ SEND OTP WITHOUT LOGIN
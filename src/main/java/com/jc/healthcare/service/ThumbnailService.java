@@ -0,0 +1,240 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.StoredFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Avatar-sized JPEG copies of doctor and staff photos, one per thumbnail.sizes entry (longest side
+// in px). Uploads queue the photo on a bounded worker pool; the copies are written to the
+// BinaryStore beside the original as <hash>@<size>. Until a copy exists the original is served,
+// and asking for it queues its generation (covers migrated and imported photos).
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    @Autowired
+    private BinaryStore binaryStore;
+
+    private final int[] sizes;
+    private final ThreadPoolExecutor workers;
+
+    // photos queued or being processed, and photos ImageIO has no reader for or fails to decode
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public ThumbnailService(@Value("${thumbnail.sizes:64,128,256}") String sizes,
+                            @Value("${thumbnail.threads:2}") int threads,
+                            @Value("${thumbnail.queue-capacity:1000}") int queueCapacity) {
+        this.sizes = Arrays.stream(sizes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .filter(s -> s > 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "thumbnail-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    // Queues all sizes of a stored photo; a full queue drops the job (the next request re-queues it)
+    public void enqueue(String hash) {
+        if (hash == null || sizes.length == 0 || unsupported.contains(hash) || !pending.add(hash)) return;
+        long queuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> generate(hash, queuedAt));
+            enqueued.increment();
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            rejected.increment();
+        }
+    }
+
+    // Smallest precomputed size that covers the requested one; empty means serve the original
+    // (size larger than every variant, or the variant is not ready yet, in which case it is queued)
+    public Optional<StoredFile> find(String hash, int size) {
+        Integer variant = variantFor(size);
+        if (variant == null || hash == null || unsupported.contains(hash)) return Optional.empty();
+        Optional<Resource> resource = binaryStore.getVariant(hash, String.valueOf(variant));
+        if (resource.isEmpty()) {
+            if (binaryStore.contains(hash)) enqueue(hash);
+            return Optional.empty();
+        }
+        StoredFile file = new StoredFile(etagOf(hash, size), null, "image/jpeg");
+        file.setContent(resource.get());
+        return Optional.of(file);
+    }
+
+    // ETag of what find() would return when the variant is ready
+    public String etagOf(String hash, Integer size) {
+        Integer variant = size == null ? null : variantFor(size);
+        if (variant == null || unsupported.contains(hash)) return hash;
+        return hash + "-" + variant;
+    }
+
+    private Integer variantFor(int size) {
+        for (int s : sizes) {
+            if (s >= size) return s;
+        }
+        return null;
+    }
+
+    // ================= WORKER =================
+
+    private void generate(String hash, long queuedAt) {
+        long started = System.nanoTime();
+        try {
+            Optional<Resource> original = binaryStore.get(hash);
+            if (original.isEmpty()) return;
+
+            BufferedImage source;
+            try {
+                source = read(original.get(), sizes[sizes.length - 1]);
+            } catch (IIOException | RuntimeException e) {
+                // corrupt or truncated; the stored bytes never change, so retrying cannot help
+                log.warn("Photo {} cannot be decoded: {}", hash, e.getMessage());
+                source = null;
+            }
+            if (source == null) {
+                unsupported.add(hash);
+                return;
+            }
+            for (int size : sizes) {
+                if (binaryStore.getVariant(hash, String.valueOf(size)).isPresent()) continue;
+                BufferedImage thumbnail = scale(source, size);
+                ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+                ImageIO.write(thumbnail, "jpg", out);
+                binaryStore.putVariant(hash, String.valueOf(size), new ByteArrayInputStream(out.toByteArray()));
+            }
+            completed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Thumbnails for {} failed: {}", hash, e.getMessage());
+        } finally {
+            pending.remove(hash);
+            processed.increment();
+            long done = System.nanoTime();
+            processingNanos.add(done - started);
+            latencyNanos.add(done - queuedAt);
+            maxLatencyNanos.accumulateAndGet(done - queuedAt, Math::max);
+        }
+    }
+
+    // Decodes with source subsampling, so a 24-megapixel photo never lands in memory at full size.
+    // Null when no ImageIO reader handles the format; IIOException when the file is corrupt.
+    static BufferedImage read(Resource resource, int largest) throws IOException {
+        try (ImageInputStream iis = resource.isFile()
+                ? new FileImageInputStream(resource.getFile())
+                : new MemoryCacheImageInputStream(resource.getInputStream())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // keep at least twice the largest thumbnail for the smoothing pass
+                int step = Math.max(1, longest / (largest * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image into size x size (never enlarges), halving first for quality, onto white for JPEG
+    static BufferedImage scale(BufferedImage source, int size) {
+        int w = source.getWidth();
+        int h = source.getHeight();
+        double ratio = Math.min(1.0, (double) size / Math.max(w, h));
+        int targetW = Math.max(1, (int) Math.round(w * ratio));
+        int targetH = Math.max(1, (int) Math.round(h * ratio));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetW && current.getHeight() / 2 >= targetH) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, targetW, targetH);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int w, int h) {
+        BufferedImage target = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            g.drawImage(source, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    public Map<String, Object> getStats() {
+        long done = processed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sizes", sizes);
+        stats.put("threads", workers.getMaximumPoolSize());
+        stats.put("queueDepth", workers.getQueue().size());
+        stats.put("queueCapacity", workers.getQueue().size() + workers.getQueue().remainingCapacity());
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("pending", pending.size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("unsupported", unsupported.size());
+        stats.put("avgLatencyMs", done == 0 ? 0.0 : latencyNanos.sum() / 1e6 / done);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1e6);
+        stats.put("avgProcessingMs", done == 0 ? 0.0 : processingNanos.sum() / 1e6 / done);
+        return stats;
+    }
+}
@@ -0,0 +1,331 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+// In-memory snapshot of today's patients, shared by the /today/* endpoints.
+// Reads never touch the database while the snapshot is current; writes from
+// PatientService are applied incrementally and a periodic full reload acts as a safety net.
+@Service
+public class TodayQueueCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TodayQueueCache.class);
+
+    private static final Comparator<Patient> QUEUE_ORDER = Comparator
+            .comparing(Patient::getAppointmentAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Patient::getPatientId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    // Immutable view served to readers; replaced wholesale under writeLock
+    private volatile Snapshot snapshot;
+
+    // Mutable master copy behind the snapshot (guarded by writeLock)
+    private final Map<Long, Patient> master = new HashMap<>();
+    private final Object writeLock = new Object();
+    private final Object reloadLock = new Object();
+    private List<PatientChangedEvent> replayLog;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private volatile LocalDateTime lastReloadAt;
+    private volatile LocalDateTime lastChangeAt;
+
+    // ================= READS =================
+
+    public List<Patient> getAll(Long doctorId) {
+        Snapshot s = current();
+        if (s == null) return filter(patientRepository.findAllTodayPatients(), doctorId);
+        return (doctorId == null ? s.everyone : s.forDoctor(doctorId)).all;
+    }
+
+    public List<Patient> getDoctorCompleted(Long doctorId) {
+        Snapshot s = current();
+        if (s == null) return filter(patientRepository.findTodayDoctorCompleted(), doctorId);
+        return (doctorId == null ? s.everyone : s.forDoctor(doctorId)).completed;
+    }
+
+    public List<Patient> getDoctorPending(Long doctorId) {
+        Snapshot s = current();
+        if (s == null) return filter(patientRepository.findTodayDoctorPending(), doctorId);
+        return (doctorId == null ? s.everyone : s.forDoctor(doctorId)).pending;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null && s.date.equals(LocalDate.now())) {
+            hits.increment();
+            return s;
+        }
+
+        // not loaded yet, or the day rolled over since the last load
+        misses.increment();
+        try {
+            synchronized (reloadLock) {
+                Snapshot fresh = snapshot;
+                if (fresh == null || !fresh.date.equals(LocalDate.now())) {
+                    doReload();
+                }
+            }
+            return snapshot;
+        } catch (Exception e) {
+            log.warn("Today queue reload failed, falling back to database: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Patient> filter(List<Patient> patients, Long doctorId) {
+        if (doctorId == null) return patients;
+        return patients.stream().filter(p -> doctorId.equals(p.getDoctorId())).toList();
+    }
+
+    // ================= LOADING =================
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${patient.today-cache.reload-interval-ms:300000}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("Today queue reload failed: {}", e.getMessage());
+        }
+    }
+
+    // Start of day: drop yesterday's queue straight away
+    @Scheduled(cron = "${patient.today-cache.day-start-cron:0 0 0 * * *}")
+    public void dayStart() {
+        scheduledReload();
+    }
+
+    public void reload() {
+        synchronized (reloadLock) {
+            doReload();
+        }
+    }
+
+    private void doReload() {
+        synchronized (writeLock) {
+            replayLog = new ArrayList<>();
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Patient> rows;
+        try {
+            rows = patientRepository.findAllTodayPatients();
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                replayLog = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeLock) {
+            master.clear();
+            for (Patient p : rows) {
+                master.put(p.getPatientId(), copyOf(p));
+            }
+            // writes that committed while the query was running
+            for (PatientChangedEvent event : replayLog) {
+                applyToMaster(event, today);
+            }
+            replayLog = null;
+            snapshot = Snapshot.of(today, master.values());
+        }
+
+        reloads.incrementAndGet();
+        lastReloadAt = LocalDateTime.now();
+    }
+
+    // ================= INCREMENTAL UPDATES =================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        synchronized (writeLock) {
+            if (replayLog != null) {
+                replayLog.add(event);
+            }
+            Snapshot s = snapshot;
+            if (s == null) return;
+
+            Patient before = master.get(event.getPatientId());
+            Patient after = todaysCopy(event, s.date);
+            if (before == null && after == null) return;
+            if (after != null) master.put(after.getPatientId(), after);
+            else master.remove(event.getPatientId());
+
+            // only the lists holding this patient change; the other doctors' views are reused
+            snapshot = s.with(before, after);
+            incrementalUpdates.incrementAndGet();
+            lastChangeAt = LocalDateTime.now();
+        }
+    }
+
+    private boolean applyToMaster(PatientChangedEvent event, LocalDate day) {
+        Patient after = todaysCopy(event, day);
+        if (after != null) {
+            master.put(after.getPatientId(), after);
+            return true;
+        }
+        // deleted, or moved off today
+        return master.remove(event.getPatientId()) != null;
+    }
+
+    // the patient as it now stands, or null when deleted or no longer booked for day
+    private static Patient todaysCopy(PatientChangedEvent event, LocalDate day) {
+        Patient current = event.getCurrent();
+        if (current == null || current.getAppointmentAt() == null
+                || !current.getAppointmentAt().toLocalDate().equals(day)) {
+            return null;
+        }
+        return copyOf(current);
+    }
+
+    private static Patient copyOf(Patient source) {
+        Patient copy = new Patient();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    // ================= METRICS =================
+
+    public Map<String, Object> getStats() {
+        Snapshot s = snapshot;
+        long h = hits.sum();
+        long m = misses.sum();
+        LocalDateTime loaded = lastReloadAt;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("date", s == null ? null : s.date);
+        stats.put("patients", s == null ? 0 : s.everyone.all.size());
+        stats.put("doctors", s == null ? 0 : s.byDoctor.size());
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("reloads", reloads.get());
+        stats.put("incrementalUpdates", incrementalUpdates.get());
+        stats.put("lastReloadAt", loaded);
+        stats.put("lastChangeAt", lastChangeAt);
+        stats.put("stalenessMs", loaded == null ? null
+                : Duration.between(loaded, LocalDateTime.now()).toMillis());
+        return stats;
+    }
+
+    // ================= SNAPSHOT =================
+
+    private static final class View {
+        final List<Patient> all;
+        final List<Patient> completed;
+        final List<Patient> pending;
+
+        View(List<Patient> sorted) {
+            this.all = List.copyOf(sorted);
+            this.completed = sorted.stream().filter(View::isCompleted).toList();
+            this.pending = sorted.stream().filter(View::isPending).toList();
+        }
+
+        private View(List<Patient> all, List<Patient> completed, List<Patient> pending) {
+            this.all = all;
+            this.completed = completed;
+            this.pending = pending;
+        }
+
+        // before: the instance these lists hold (or null), after: its replacement (or null)
+        View with(Patient before, Patient after) {
+            return new View(merge(all, before, after), merge(completed, keep(before, View::isCompleted),
+                    keep(after, View::isCompleted)), merge(pending, keep(before, View::isPending), keep(after, View::isPending)));
+        }
+
+        // one removal and one insertion by binary search; no re-sort
+        private static List<Patient> merge(List<Patient> sorted, Patient before, Patient after) {
+            if (before == null && after == null) return sorted;
+            List<Patient> out = new ArrayList<>(sorted);
+            if (before != null) {
+                int at = Collections.binarySearch(out, before, QUEUE_ORDER);
+                if (at >= 0) out.remove(at);
+            }
+            if (after != null) {
+                int at = Collections.binarySearch(out, after, QUEUE_ORDER);
+                out.add(at >= 0 ? at : -at - 1, after);
+            }
+            return Collections.unmodifiableList(out);
+        }
+
+        private static Patient keep(Patient p, Predicate<Patient> test) {
+            return p != null && test.test(p) ? p : null;
+        }
+
+        private static boolean isCompleted(Patient p) {
+            return "completed".equalsIgnoreCase(p.getDoctorStatus());
+        }
+
+        private static boolean isPending(Patient p) {
+            return "pending".equalsIgnoreCase(p.getDoctorStatus());
+        }
+    }
+
+    private static final class Snapshot {
+        private static final View EMPTY = new View(List.of());
+
+        final LocalDate date;
+        final View everyone;
+        final Map<Long, View> byDoctor;
+
+        private Snapshot(LocalDate date, View everyone, Map<Long, View> byDoctor) {
+            this.date = date;
+            this.everyone = everyone;
+            this.byDoctor = byDoctor;
+        }
+
+        static Snapshot of(LocalDate date, Collection<Patient> patients) {
+            List<Patient> sorted = new ArrayList<>(patients);
+            sorted.sort(QUEUE_ORDER);
+
+            Map<Long, List<Patient>> grouped = new HashMap<>();
+            for (Patient p : sorted) {
+                if (p.getDoctorId() != null) {
+                    grouped.computeIfAbsent(p.getDoctorId(), k -> new ArrayList<>()).add(p);
+                }
+            }
+            Map<Long, View> byDoctor = new HashMap<>();
+            grouped.forEach((doctorId, list) -> byDoctor.put(doctorId, new View(list)));
+
+            return new Snapshot(date, new View(sorted), Map.copyOf(byDoctor));
+        }
+
+        View forDoctor(Long doctorId) {
+            return byDoctor.getOrDefault(doctorId, EMPTY);
+        }
+
+        // One patient replaced: the changed lists are merged, only the old and new doctor get new views
+        Snapshot with(Patient before, Patient after) {
+            Map<Long, View> doctors = new HashMap<>(byDoctor);
+            Long from = before == null ? null : before.getDoctorId();
+            Long to = after == null ? null : after.getDoctorId();
+            for (Long doctorId : new HashSet<>(Arrays.asList(from, to))) {
+                if (doctorId == null) continue;
+                View view = forDoctor(doctorId).with(doctorId.equals(from) ? before : null, doctorId.equals(to) ? after : null);
+                if (view.all.isEmpty()) doctors.remove(doctorId);
+                else doctors.put(doctorId, view);
+            }
+            return new Snapshot(date, everyone.with(before, after), Collections.unmodifiableMap(doctors));
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.DoctorRepository;
+import com.jc.healthcare.repository.PatientRepository;
+import com.jc.healthcare.repository.StaffRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// In-memory pre-check for unique values so duplicates are rejected before any SQL runs.
+// Each scope keeps a Bloom filter (fast "definitely new") plus an exact set of 64-bit hashes.
+// Until a scope has warmed from the database it answers UNKNOWN and callers fall back to their
+// usual query / the database constraint, which always stays the final authority.
+@Service
+public class UniquenessGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(UniquenessGuard.class);
+
+    public enum Scope { PATIENT_AADHAR, PATIENT_PHONE, STAFF_AADHAR, DOCTOR_PHONE }
+
+    public enum Verdict { ABSENT, PRESENT, UNKNOWN }
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private StaffRepository staffRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${uniqueness-guard.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Scope, Index> indexes = new EnumMap<>(Scope.class);
+
+    public UniquenessGuard(@Value("${uniqueness-guard.expected-patients:10000000}") int expectedPatients,
+                           @Value("${uniqueness-guard.expected-staff:100000}") int expectedStaff) {
+        indexes.put(Scope.PATIENT_AADHAR, new Index(expectedPatients));
+        indexes.put(Scope.PATIENT_PHONE, new Index(expectedPatients));
+        indexes.put(Scope.STAFF_AADHAR, new Index(expectedStaff));
+        indexes.put(Scope.DOCTOR_PHONE, new Index(expectedStaff));
+    }
+
+    // ================= QUERIES =================
+
+    public Verdict check(Scope scope, String value) {
+        if (value == null || value.isEmpty()) return Verdict.ABSENT;
+        Index index = indexes.get(scope);
+        if (!index.ready) return Verdict.UNKNOWN;
+        return index.contains(hash64(value)) ? Verdict.PRESENT : Verdict.ABSENT;
+    }
+
+    // ================= MAINTENANCE =================
+
+    public void register(Scope scope, String value) {
+        if (value == null || value.isEmpty()) return;
+        indexes.get(scope).add(hash64(value));
+    }
+
+    public void unregister(Scope scope, String value) {
+        if (value == null || value.isEmpty()) return;
+        indexes.get(scope).remove(hash64(value));
+    }
+
+    public void replace(Scope scope, String oldValue, String newValue) {
+        if (Objects.equals(oldValue, newValue)) return;
+        unregister(scope, oldValue);
+        register(scope, newValue);
+    }
+
+    // For writes inside a transaction: only touch the index once the row is really committed
+    public void replaceAfterCommit(Scope scope, String oldValue, String newValue) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            replace(scope, oldValue, newValue);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                replace(scope, oldValue, newValue);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        Patient before = event.getPrevious();
+        Patient after = event.getCurrent();
+        replace(Scope.PATIENT_AADHAR, before == null ? null : before.getAadhar(), after == null ? null : after.getAadhar());
+        replace(Scope.PATIENT_PHONE, before == null ? null : before.getPhone(), after == null ? null : after.getPhone());
+    }
+
+    // ================= WARM-UP =================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        if (!enabled) return;
+        Thread worker = new Thread(this::warmUp, "uniqueness-guard-warmup");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void warmUp() {
+        try {
+            warm(Scope.PATIENT_AADHAR, () -> patientRepository.streamAllAadhars());
+            warm(Scope.PATIENT_PHONE, () -> patientRepository.streamAllPhones());
+            warm(Scope.STAFF_AADHAR, () -> staffRepository.findAllAdhars().stream());
+            warm(Scope.DOCTOR_PHONE, () -> doctorRepository.findAllPhones().stream());
+        } catch (Exception e) {
+            log.warn("Uniqueness guard warm-up failed, duplicate checks fall back to the database: {}", e.getMessage());
+        }
+    }
+
+    private void warm(Scope scope, Supplier<Stream<String>> source) {
+        Index index = indexes.get(scope);
+        index.beginWarmUp();
+        Long loaded = transactionTemplate.execute(status -> {
+            long n = 0;
+            try (Stream<String> values = source.get()) {
+                for (String v : (Iterable<String>) values::iterator) {
+                    index.add(hash64(v));
+                    n++;
+                }
+            }
+            return n;
+        });
+        index.finishWarmUp();
+        log.info("Uniqueness guard {} warmed with {} values", scope, loaded);
+    }
+
+    // ================= HASHING =================
+
+    // FNV-1a over UTF-8 bytes, finished with the murmur3 64-bit mixer
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // ================= INDEX =================
+
+    private static final class Index {
+        final BloomFilter bloom;
+        final LongSet exact = new LongSet();
+        volatile boolean ready;
+
+        // values removed while the warm-up scan was running (the scan may re-add them)
+        private volatile Set<Long> removedDuringWarmUp;
+
+        Index(int expectedInsertions) {
+            this.bloom = new BloomFilter(expectedInsertions, 0.01);
+        }
+
+        boolean contains(long hash) {
+            return bloom.mightContain(hash) && exact.contains(hash);
+        }
+
+        void add(long hash) {
+            bloom.add(hash);
+            exact.add(hash);
+        }
+
+        void remove(long hash) {
+            // Bloom filters cannot delete; the exact set settles any false positive
+            exact.remove(hash);
+            Set<Long> removed = removedDuringWarmUp;
+            if (removed != null) removed.add(hash);
+        }
+
+        void beginWarmUp() {
+            removedDuringWarmUp = ConcurrentHashMap.newKeySet();
+        }
+
+        void finishWarmUp() {
+            Set<Long> removed = removedDuringWarmUp;
+            removedDuringWarmUp = null;
+            // a value may have been re-added after its removal; dropping it only costs a DB round trip
+            removed.forEach(exact::remove);
+            ready = true;
+        }
+    }
+
+    // Lock-free Bloom filter over an AtomicLongArray, double hashing on the two halves of the hash
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double fpp) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+            this.bits = new AtomicLongArray((int) (bitCount / 64));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                long mask = 1L << (bit & 63);
+                bits.getAndAccumulate((int) (bit >>> 6), mask, (a, b) -> a | b);
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) return false;
+            }
+            return true;
+        }
+    }
+
+    // Compact set of longs: 64 lock-striped open-addressing tables (no boxing, ~16 bytes per entry)
+    private static final class LongSet {
+        private static final int STRIPE_BITS = 6;
+        private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+        LongSet() {
+            for (int i = 0; i < stripes.length; i++) stripes[i] = new Stripe();
+        }
+
+        private Stripe stripeFor(long v) {
+            return stripes[(int) (v >>> (64 - STRIPE_BITS))];
+        }
+
+        boolean contains(long v) { return stripeFor(v).contains(v); }
+        void add(long v) { stripeFor(v).add(v); }
+        void remove(long v) { stripeFor(v).remove(v); }
+
+        private static final class Stripe {
+            private long[] table = new long[64];   // 0 marks an empty slot
+            private int size;
+            private boolean hasZero;
+
+            synchronized boolean contains(long v) {
+                if (v == 0) return hasZero;
+                int mask = table.length - 1;
+                for (int i = (int) v & mask; ; i = (i + 1) & mask) {
+                    long cur = table[i];
+                    if (cur == v) return true;
+                    if (cur == 0) return false;
+                }
+            }
+
+            synchronized void add(long v) {
+                if (v == 0) {
+                    hasZero = true;
+                    return;
+                }
+                if ((size + 1) * 10L > table.length * 6L) resize();
+                if (insert(table, v)) size++;
+            }
+
+            synchronized void remove(long v) {
+                if (v == 0) {
+                    hasZero = false;
+                    return;
+                }
+                int mask = table.length - 1;
+                int i = (int) v & mask;
+                while (table[i] != v) {
+                    if (table[i] == 0) return;
+                    i = (i + 1) & mask;
+                }
+                table[i] = 0;
+                size--;
+
+                // backward-shift deletion keeps linear probe chains intact
+                for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                    int home = (int) table[j] & mask;
+                    boolean inChain = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                    if (!inChain) {
+                        table[i] = table[j];
+                        table[j] = 0;
+                        i = j;
+                    }
+                }
+            }
+
+            private void resize() {
+                long[] bigger = new long[table.length * 2];
+                for (long v : table) {
+                    if (v != 0) insert(bigger, v);
+                }
+                table = bigger;
+            }
+
+            private static boolean insert(long[] t, long v) {
+                int mask = t.length - 1;
+                for (int i = (int) v & mask; ; i = (i + 1) & mask) {
+                    if (t[i] == v) return false;
+                    if (t[i] == 0) {
+                        t[i] = v;
+                        return true;
+                    }
+                }
+            }
+        }
+    }
+}
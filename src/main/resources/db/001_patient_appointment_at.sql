@@ -0,0 +1,8 @@
+-- Typed appointment timestamp for the daily patient queue.
+-- New rows are filled by Patient @PrePersist/@PreUpdate; existing rows by
+-- PatientAppointmentBackfillService (patient.appointment-backfill.enabled=true).
+
+ALTER TABLE patients ADD (APPOINTMENT_AT TIMESTAMP);
+
+CREATE INDEX IDX_PATIENTS_APPT_AT ON patients (APPOINTMENT_AT) ONLINE;
+CREATE INDEX IDX_PATIENTS_DOCTOR_APPT_AT ON patients (DOCTOR_ID, APPOINTMENT_AT) ONLINE;
@@ -0,0 +1,5 @@
+-- Patient ids are allocated 50 at a time by Hibernate's pooled optimizer
+-- (Patient.allocationSize = 50). Each NEXTVAL hands out the block ending at that value,
+-- so ids already issued with INCREMENT BY 1 are never reused.
+
+ALTER SEQUENCE PATIENT_SEQ INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Optimistic-locking column for Patient (@Version).
+-- DEFAULT + NOT NULL in one ADD is a dictionary-only change on 12c+, no table rewrite.
+
+ALTER TABLE patients ADD (VERSION NUMBER(19) DEFAULT 0 NOT NULL);
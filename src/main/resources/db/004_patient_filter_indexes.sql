@@ -0,0 +1,7 @@
+-- Function-based indexes for the dynamic patient filter (PatientQueryBuilder).
+-- The filter always compares LOWER(status) with a lower-cased bind, so these are usable
+-- for any status + date range combination; doctor + date already has IDX_PATIENTS_DOCTOR_APPT_AT.
+
+CREATE INDEX IDX_PATIENTS_DOC_STATUS_AT ON patients (LOWER(DOCTOR_STATUS), APPOINTMENT_AT) ONLINE;
+CREATE INDEX IDX_PATIENTS_LAB_STATUS_AT ON patients (LOWER(LAB_STATUS), APPOINTMENT_AT) ONLINE;
+CREATE INDEX IDX_PATIENTS_MED_STATUS_AT ON patients (LOWER(MEDISION_STATUS), APPOINTMENT_AT) ONLINE;
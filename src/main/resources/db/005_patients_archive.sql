@@ -0,0 +1,10 @@
+-- Cold storage for old visits (PatientArchiveService).
+-- Same columns as patients plus ARCHIVED_AT. The archive job (PatientRepository.copyToArchive)
+-- names every column on both sides; a column later added to patients must be added here and to
+-- that list, or it is not archived.
+
+CREATE TABLE patients_archive AS
+    SELECT p.*, CAST(NULL AS TIMESTAMP) AS ARCHIVED_AT FROM patients p WHERE 1 = 0;
+
+ALTER TABLE patients_archive ADD CONSTRAINT PK_PATIENTS_ARCHIVE PRIMARY KEY (PATIENT_ID);
+CREATE INDEX IDX_PATIENTS_ARCHIVE_APPT_AT ON patients_archive (APPOINTMENT_AT);
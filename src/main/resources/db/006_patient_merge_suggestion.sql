@@ -0,0 +1,26 @@
+-- Review queue for PatientDedupService.
+-- PATIENT_ID is the record that is kept (the older registration), DUPLICATE_ID the one that
+-- would be merged into it. STATUS: PENDING, ACCEPTED, REJECTED or STALE (one side already merged).
+
+CREATE SEQUENCE PATIENT_MERGE_SUGGESTION_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE patient_merge_suggestion (
+    SUGGESTION_ID  NUMBER(19)    NOT NULL,
+    PATIENT_ID     NUMBER(19)    NOT NULL,
+    DUPLICATE_ID   NUMBER(19)    NOT NULL,
+    SCORE          NUMBER(5, 4)  NOT NULL,
+    REASON         VARCHAR2(100),
+    STATUS         VARCHAR2(20)  DEFAULT 'PENDING' NOT NULL,
+    CREATED_AT     TIMESTAMP     NOT NULL,
+    REVIEWED_AT    TIMESTAMP,
+    CONSTRAINT PK_PATIENT_MERGE_SUGGESTION PRIMARY KEY (SUGGESTION_ID),
+    CONSTRAINT UQ_PATIENT_MERGE_PAIR UNIQUE (PATIENT_ID, DUPLICATE_ID)
+);
+
+CREATE INDEX IDX_MERGE_SUGGESTION_STATUS ON patient_merge_suggestion (STATUS, SCORE);
+CREATE INDEX IDX_MERGE_SUGGESTION_DUP ON patient_merge_suggestion (DUPLICATE_ID);
+
+-- Bulk repoint on accept
+CREATE INDEX IDX_PRESCRIPTION_PATIENT ON prescription (PATIENT_ID);
+CREATE INDEX IDX_LAB_REPORT_PATIENT ON LAB_REPORT (PATIENT_ID);
+CREATE INDEX IDX_BED_BOOKING_PATIENT ON bed_booking (PATIENT_ID);
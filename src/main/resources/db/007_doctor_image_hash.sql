@@ -0,0 +1,5 @@
+-- Content hash of DOCTORS.IMAGE, used as the ETag of /api/doctors/{id}/image and as the
+-- version in imageUrl. New and updated rows get it from Doctor.syncImageHash(); existing rows
+-- are filled in at startup by DoctorImageService.
+
+ALTER TABLE DOCTORS ADD (IMAGE_HASH VARCHAR2(64));
@@ -0,0 +1,18 @@
+-- Booked appointment slots (SlotBookingService). One row per taken slot; releasing a slot
+-- deletes its row. The unique key is the last line of defence against double booking when
+-- more than one application node is running.
+
+CREATE SEQUENCE DOCTOR_SLOT_BOOKING_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE DOCTOR_SLOT_BOOKING (
+    BOOKING_ID   NUMBER(19)  NOT NULL,
+    DOCTOR_ID    NUMBER(19)  NOT NULL,
+    SLOT_DATE    DATE        NOT NULL,
+    SLOT_INDEX   NUMBER(5)   NOT NULL,
+    PATIENT_ID   NUMBER(19),
+    BOOKED_AT    TIMESTAMP   NOT NULL,
+    CONSTRAINT PK_DOCTOR_SLOT_BOOKING PRIMARY KEY (BOOKING_ID),
+    CONSTRAINT UQ_DOCTOR_SLOT UNIQUE (DOCTOR_ID, SLOT_DATE, SLOT_INDEX)
+);
+
+CREATE INDEX IDX_SLOT_BOOKING_PATIENT ON DOCTOR_SLOT_BOOKING (PATIENT_ID);
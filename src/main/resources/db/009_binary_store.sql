@@ -0,0 +1,10 @@
+-- Photos and lab report files move out of BLOB columns into the content-addressed BinaryStore
+-- (binary-store.root). Rows keep the SHA-256 of the file, its size and content type; the old
+-- BLOB columns are emptied in batches by BinaryMigrationService and can be dropped once
+-- GET /api/binaries/stats reports nothing left to migrate.
+
+ALTER TABLE DOCTORS ADD (IMAGE_SIZE NUMBER(19), IMAGE_TYPE VARCHAR2(100));
+
+ALTER TABLE STAFF_MASTER ADD (IMAGE_HASH VARCHAR2(64), IMAGE_SIZE NUMBER(19), IMAGE_TYPE VARCHAR2(100));
+
+ALTER TABLE LAB_REPORT ADD (FILE_HASH VARCHAR2(64), FILE_SIZE NUMBER(19));
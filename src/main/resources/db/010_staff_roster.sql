@@ -0,0 +1,34 @@
+-- Structured staff roster (RosterService). STAFF_SHIFT holds weekly recurring shifts; END_TIME
+-- at or before START_TIME means the shift runs past midnight into the next day. DEPARTMENT is
+-- the floor the shift is worked on and falls back to STAFF_MASTER.DEPARTMENT when empty.
+-- STAFF_LEAVE takes a staff member off every shift that starts between FROM_DATE and TO_DATE.
+-- STAFF_MASTER.SHIFT_TIMINGS stays as free text for display.
+
+CREATE SEQUENCE STAFF_SHIFT_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE STAFF_SHIFT (
+    SHIFT_ID      NUMBER(19)    NOT NULL,
+    STAFF_ID      NUMBER(19)    NOT NULL,
+    DEPARTMENT    VARCHAR2(100),
+    DAYS_OF_WEEK  VARCHAR2(27)  NOT NULL,   -- e.g. MON,TUE,WED
+    START_TIME    VARCHAR2(5)   NOT NULL,   -- HH:mm
+    END_TIME      VARCHAR2(5)   NOT NULL,   -- HH:mm
+    VALID_FROM    DATE,
+    VALID_TO      DATE,
+    CONSTRAINT PK_STAFF_SHIFT PRIMARY KEY (SHIFT_ID)
+);
+
+CREATE INDEX IDX_STAFF_SHIFT_STAFF ON STAFF_SHIFT (STAFF_ID);
+
+CREATE SEQUENCE STAFF_LEAVE_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE STAFF_LEAVE (
+    LEAVE_ID   NUMBER(19)     NOT NULL,
+    STAFF_ID   NUMBER(19)     NOT NULL,
+    FROM_DATE  DATE           NOT NULL,
+    TO_DATE    DATE           NOT NULL,
+    REASON     VARCHAR2(200),
+    CONSTRAINT PK_STAFF_LEAVE PRIMARY KEY (LEAVE_ID)
+);
+
+CREATE INDEX IDX_STAFF_LEAVE_STAFF ON STAFF_LEAVE (STAFF_ID, TO_DATE);
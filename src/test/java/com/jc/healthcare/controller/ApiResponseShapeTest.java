@@ -0,0 +1,32 @@
+package com.jc.healthcare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.healthcare.dto.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The typed envelope writes the keys the old HashMap envelopes had, nulls included
+class ApiResponseShapeTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void keysMatchTheOldMapEnvelopes() throws Exception {
+        assertEquals("{\"success\":true,\"message\":\"Patients retrieved successfully\",\"count\":1,\"next\":null,\"data\":[1]}",
+                json(ApiResponse.ok(List.of(1), "Patients retrieved successfully").count(1).next(null)));
+        assertEquals("{\"success\":true,\"message\":\"ok\",\"next\":\"42\",\"data\":[]}",
+                json(ApiResponse.ok(List.of(), "ok").next("42")));
+        // errors and deletes had no data key; a null exception message was still written
+        assertEquals("{\"success\":false,\"message\":null}", json(ApiResponse.error(null)));
+        assertEquals("{\"success\":true,\"message\":\"Doctor deleted successfully\"}",
+                json(ApiResponse.ok(null, "Doctor deleted successfully")));
+    }
+
+    private String json(ApiResponse<?> response) throws Exception {
+        return objectMapper.writeValueAsString(response);
+    }
+}
@@ -0,0 +1,72 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.dto.StoredFile;
+import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.service.DoctorImageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// /api/doctors/{id}/image served from a store file: full body, byte ranges and ETag revalidation
+class DoctorImageDownloadTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void servesRangesAndRevalidatesFromTheHash() throws Exception {
+        byte[] photo = new byte[10_000];
+        new Random(11).nextBytes(photo);
+        Path file = Files.write(dir.resolve("photo"), photo);
+        String hash = Doctor.hashOf(photo);
+
+        DoctorImageService imageService = mock(DoctorImageService.class);
+        when(imageService.getImageEtag(7L, null)).thenReturn(Optional.of(hash));
+        when(imageService.getImage(7L, null)).thenAnswer(inv -> {
+            StoredFile stored = new StoredFile(hash, (long) photo.length, "image/png");
+            stored.setContent(new FileSystemResource(file));
+            return Optional.of(stored);
+        });
+        when(imageService.getImage(8L, null)).thenReturn(Optional.empty());
+        DoctorController controller = new DoctorController();
+        ReflectionTestUtils.setField(controller, "doctorImageService", imageService);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MvcResult full = mockMvc.perform(get("/api/doctors/7/image")).andReturn();
+        assertEquals(200, full.getResponse().getStatus());
+        assertEquals("\"" + hash + "\"", full.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals("image/png", full.getResponse().getContentType());
+        assertArrayEquals(photo, full.getResponse().getContentAsByteArray());
+
+        MvcResult range = mockMvc.perform(get("/api/doctors/7/image").header(HttpHeaders.RANGE, "bytes=1000-1999"))
+                .andReturn();
+        assertEquals(206, range.getResponse().getStatus());
+        assertEquals("bytes 1000-1999/10000", range.getResponse().getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(photo, 1000, 2000), range.getResponse().getContentAsByteArray());
+
+        MvcResult notModified = mockMvc.perform(get("/api/doctors/7/image")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\"")).andReturn();
+        assertEquals(304, notModified.getResponse().getStatus());
+        verify(imageService, times(2)).getImage(anyLong(), isNull());
+
+        assertEquals(404, mockMvc.perform(get("/api/doctors/8/image")).andReturn().getResponse().getStatus());
+    }
+}
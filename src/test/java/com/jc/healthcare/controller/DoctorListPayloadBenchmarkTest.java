@@ -0,0 +1,44 @@
+package com.jc.healthcare.controller;
+
+import com.jc.healthcare.model.Doctor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.jc.healthcare.controller.DoctorListPayloadTest.*;
+
+// Opt-in (mvn test -Pbenchmark): serialization time for GET /api/doctors before and after the
+// image endpoint, over the rows DoctorListPayloadTest uses. Results go to the test report.
+@Tag("benchmark")
+class DoctorListPayloadBenchmarkTest {
+
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Test
+    void doctorListPayloadBeforeAndAfter(TestReporter reporter) throws Exception {
+        List<Doctor> doctors = doctors();
+        MockMvc mockMvc = listEndpoint(doctors);
+
+        // before: the old per-row map with the Base64 image and password
+        int beforeBytes = 0;
+        for (int i = 0; i < WARMUP; i++) beforeBytes = oldResponse(doctors).length;
+        long beforeStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) beforeBytes = oldResponse(doctors).length;
+        double beforeMs = (System.nanoTime() - beforeStart) / 1e6 / ITERATIONS;
+
+        // after: the real endpoint, including MVC overhead
+        int afterBytes = 0;
+        for (int i = 0; i < WARMUP; i++) afterBytes = callList(mockMvc).length;
+        long afterStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) afterBytes = callList(mockMvc).length;
+        double afterMs = (System.nanoTime() - afterStart) / 1e6 / ITERATIONS;
+
+        reporter.publishEntry("doctors", DOCTORS + " with " + IMAGE_BYTES / 1024 + " KB photos");
+        reporter.publishEntry("before", String.format("%,d bytes, %.2f ms", beforeBytes, beforeMs));
+        reporter.publishEntry("after", String.format("%,d bytes, %.2f ms", afterBytes, afterMs));
+    }
+}
@@ -0,0 +1,119 @@
+package com.jc.healthcare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.service.DoctorService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Doctor directory payload, before (Base64 image + password in every row) and after (profile
+// columns + imageUrl). No database: both sides start from the same rows in memory.
+// Timing lives in DoctorListPayloadBenchmarkTest (mvn test -Pbenchmark).
+class DoctorListPayloadTest {
+
+    static final int DOCTORS = 100;
+    static final int IMAGE_BYTES = 100 * 1024;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void listDropsImagesAndPasswordsFromThePayload() throws Exception {
+        List<Doctor> doctors = doctors();
+        MockMvc mockMvc = listEndpoint(doctors);
+
+        int beforeBytes = oldResponse(doctors).length;
+        byte[] body = callList(mockMvc);
+        String json = new String(body);
+
+        assertTrue(!json.contains("\"password\"") && !json.contains("\"image\""), "list must not carry password or image");
+        assertTrue(json.contains("/api/doctors/1/image?v="), "list must carry the image URL");
+        assertTrue(body.length * 100L < beforeBytes,
+                "payload should shrink by well over 100x: " + beforeBytes + " -> " + body.length + " bytes");
+    }
+
+    static List<Doctor> doctors() {
+        List<Doctor> doctors = new ArrayList<>();
+        Random random = new Random(7);
+        for (long id = 1; id <= DOCTORS; id++) {
+            byte[] image = new byte[IMAGE_BYTES];
+            random.nextBytes(image);
+            doctors.add(doctor(id, image));
+        }
+        return doctors;
+    }
+
+    // the real GET /api/doctors handler over the given rows
+    static MockMvc listEndpoint(List<Doctor> doctors) {
+        DoctorService doctorService = mock(DoctorService.class);
+        when(doctorService.getDoctorProfiles()).thenReturn(doctors.stream().map(DoctorListPayloadTest::profileOf).toList());
+        DoctorController controller = new DoctorController();
+        ReflectionTestUtils.setField(controller, "doctorService", doctorService);
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    static byte[] callList(MockMvc mockMvc) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/doctors")).andReturn();
+        assertEquals(200, result.getResponse().getStatus());
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    // the list as the controller used to build it
+    static byte[] oldResponse(List<Doctor> doctors) throws Exception {
+        List<Map<String, Object>> list = doctors.stream().map(doctor -> {
+            Map<String, Object> d = new HashMap<>();
+            d.put("doctorId", doctor.getDoctorId());
+            d.put("doctorName", doctor.getDoctorName());
+            d.put("specialization", doctor.getSpecialization());
+            d.put("phone", doctor.getPhone());
+            d.put("email", doctor.getEmail());
+            d.put("experience", doctor.getExperience());
+            d.put("status", doctor.getStatus());
+            d.put("address", doctor.getAddress());
+            d.put("role", doctor.getRole());
+            d.put("password", doctor.getPassword());
+            d.put("image", Base64.getEncoder().encodeToString(doctor.getImage()));
+            return d;
+        }).toList();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", list);
+        response.put("message", "Doctors retrieved successfully");
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private static Doctor doctor(long id, byte[] image) {
+        Doctor d = new Doctor();
+        d.setDoctorId(id);
+        d.setDoctorName("Doctor " + id);
+        d.setSpecialization("General Medicine");
+        d.setPhone("98480" + String.format("%05d", id));
+        d.setEmail("doctor" + id + "@example.com");
+        d.setExperience(10);
+        d.setStatus("ACTIVE");
+        d.setAddress("Hyderabad");
+        d.setRole("DOCTOR");
+        d.setPassword("secret" + id);
+        d.setImage(image);
+        d.setImageHash(Doctor.hashOf(image));
+        return d;
+    }
+
+    private static DoctorProfile profileOf(Doctor d) {
+        return new DoctorProfile(d.getDoctorId(), d.getDoctorName(), d.getSpecialization(), d.getPhone(),
+                d.getEmail(), d.getExperience(), d.getStatus(), d.getAddress(), d.getDateOfBirth(), d.getGender(),
+                d.getCity(), d.getState(), d.getPinCode(), d.getCountry(), d.getMedicalLicenseNo(), d.getRole(),
+                d.getImageHash());
+    }
+}
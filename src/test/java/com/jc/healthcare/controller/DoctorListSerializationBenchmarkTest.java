@@ -0,0 +1,84 @@
+package com.jc.healthcare.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jc.healthcare.dto.ApiResponse;
+import com.jc.healthcare.dto.DoctorProfile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in (mvn test -Pbenchmark): serialize throughput and allocation per request for a
+// 500-doctor list, with the mapper Spring MVC builds. Before is the envelope exactly as
+// getAllDoctors built it (a HashMap holding the DoctorProfile list), after is
+// ApiResponse<List<DoctorProfile>> through a writer resolved once. Results go to the test report.
+@Tag("benchmark")
+class DoctorListSerializationBenchmarkTest {
+
+    private static final int DOCTORS = 500;
+    private static final int WARMUP = 1_000;
+    private static final int ITERATIONS = 2_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void mapEnvelopeVersusTypedResponse(TestReporter reporter) throws Exception {
+        List<DoctorProfile> profiles = new ArrayList<>();
+        for (long id = 1; id <= DOCTORS; id++) profiles.add(profile(id));
+
+        ObjectWriter untyped = objectMapper.writerFor(new TypeReference<Map<String, Object>>() {});
+        ObjectWriter typed = objectMapper.writerFor(new TypeReference<ApiResponse<List<DoctorProfile>>>() {});
+        Request before = () -> untyped.writeValueAsBytes(mapResponse(profiles));
+        Request after = () -> typed.writeValueAsBytes(ApiResponse.ok(profiles, "Doctors retrieved successfully"));
+
+        // same JSON document either way
+        assertEquals(objectMapper.readTree(before.run()), objectMapper.readTree(after.run()));
+
+        Result b = measure(before);
+        Result a = measure(after);
+        reporter.publishEntry("doctors", String.valueOf(DOCTORS));
+        reporter.publishEntry("map envelope", String.format("%,.0f req/s, %,d bytes allocated/req", b.perSecond, b.bytesPerOp));
+        reporter.publishEntry("typed response", String.format("%,.0f req/s, %,d bytes allocated/req", a.perSecond, a.bytesPerOp));
+    }
+
+    private Result measure(Request request) throws Exception {
+        for (int i = 0; i < WARMUP; i++) request.run();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) request.run();
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new Result(ITERATIONS / (elapsed / 1e9), allocated / ITERATIONS);
+    }
+
+    // getAllDoctors before the typed envelope
+    private static Map<String, Object> mapResponse(List<DoctorProfile> profiles) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", profiles);
+        response.put("message", "Doctors retrieved successfully");
+        return response;
+    }
+
+    private static DoctorProfile profile(long id) {
+        return new DoctorProfile(id, "Doctor " + id, "General Medicine", "98480" + String.format("%05d", id),
+                "doctor" + id + "@example.com", 10, "ACTIVE", "Hyderabad", "1980-01-01", "F", "Hyderabad",
+                "Telangana", "500001", "India", "TS-" + id, "DOCTOR", String.format("%064x", id));
+    }
+
+    private interface Request {
+        byte[] run() throws Exception;
+    }
+
+    private record Result(double perSecond, long bytesPerOp) {
+    }
+}
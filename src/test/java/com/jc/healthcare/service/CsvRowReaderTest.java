@@ -0,0 +1,36 @@
+package com.jc.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowReaderTest {
+
+    @Test
+    void readsQuotedFieldsAndNormalizesHeader() throws Exception {
+        String csv = "\uFEFFDoctorId, Doctor Name ,Address\r\n"
+                + "1,\"Rao, K\",\"Flat 2\nHyderabad\"\r\n"
+                + "\r\n"
+                + "2,\"Dr \"\"Sam\"\"\",\n"
+                + "3";
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            assertEquals(List.of("doctorid", "doctor name", "address"), reader.getHeader());
+            assertEquals(Map.of("doctorid", "1", "doctor name", "Rao, K", "address", "Flat 2\nHyderabad"), reader.next());
+            assertEquals(Map.of("doctorid", "2", "doctor name", "Dr \"Sam\""), reader.next());
+            assertEquals(Map.of("doctorid", "3"), reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void rejectsUnterminatedQuote() throws Exception {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader("a,b\n1,\"open"))) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CsvRowReader(new StringReader("")));
+    }
+}
@@ -0,0 +1,171 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.BulkRowResult;
+import com.jc.healthcare.dto.ImportReport;
+import com.jc.healthcare.model.Doctor;
+import com.jc.healthcare.model.Staff;
+import com.jc.healthcare.repository.DoctorRepository;
+import com.jc.healthcare.repository.StaffRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DirectoryImportServiceTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1, 2, 3, 4};
+
+    @TempDir
+    Path root;
+
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final ThumbnailService thumbnailService = mock(ThumbnailService.class);
+    private final DirectoryImportService importService = new DirectoryImportService();
+    private BinaryStore binaryStore;
+
+    // what the chunk transactions persisted
+    private final List<Object> persisted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        binaryStore = new LocalFileSystemBinaryStore(root.toString());
+        UniquenessGuard uniquenessGuard = mock(UniquenessGuard.class);
+        when(uniquenessGuard.check(any(), any())).thenReturn(UniquenessGuard.Verdict.UNKNOWN);
+        EntityManager entityManager = mock(EntityManager.class);
+        doAnswer(inv -> persisted.add(inv.getArgument(0))).when(entityManager).persist(any());
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ReflectionTestUtils.setField(importService, "doctorRepository", doctorRepository);
+        ReflectionTestUtils.setField(importService, "staffRepository", mock(StaffRepository.class));
+        ReflectionTestUtils.setField(importService, "uniquenessGuard", uniquenessGuard);
+        ReflectionTestUtils.setField(importService, "doctorCache", mock(DoctorCache.class));
+        ReflectionTestUtils.setField(importService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(importService, "binaryStore", binaryStore);
+        ReflectionTestUtils.setField(importService, "thumbnailService", thumbnailService);
+        ReflectionTestUtils.setField(importService, "staffDirectory", mock(StaffDirectory.class));
+        ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importService, "maxImageBytes", 64L);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 1000);
+    }
+
+    @Test
+    void aRejectedRowDoesNotReserveItsValues() throws Exception {
+        when(doctorRepository.findExistingIds(anyCollection())).thenReturn(List.of(4L));
+        String csv = "doctorId,doctorName,specialization,email,phone\n"
+                + "1,Asha Rao,Cardiology,asha@example.com,9000000001\n"
+                // repeats id 1: its email and phone stay free for the next row
+                + "1,Ravi Kumar,Cardiology,ravi@example.com,9000000002\n"
+                + "2,Ravi Kumar,Cardiology,ravi@example.com,9000000002\n"
+                + "3,Meena Das,Cardiology,asha@example.com,9000000003\n"
+                + "x,Bad Row,Cardiology\n"
+                + "4,Old Doctor,Cardiology,old@example.com,9000000004\n";
+
+        ImportReport report = importService.importDoctors(csv(csv), null);
+
+        assertEquals(6, report.getTotal());
+        assertEquals(2, report.getCreated());
+        assertEquals(4, report.getFailed());
+        assertEquals(List.of(
+                "1 Doctor ID repeated in this file!",
+                "3 Email repeated in this file!",
+                "4 Invalid doctorId: x",
+                "5 Doctor ID already exists"), errors(report));
+        assertEquals(List.of(1L, 2L), persisted.stream().map(d -> ((Doctor) d).getDoctorId()).toList());
+    }
+
+    @Test
+    void photosAreStoredOnlyForAcceptedRows() throws Exception {
+        byte[] big = new byte[65];
+        System.arraycopy(PNG, 0, big, 0, PNG.length);
+        MockMultipartFile images = zip(Map.of("asha.png", PNG, "ravi.png", PNG.clone(), "big.png", big));
+        String csv = "name,mobile,adhar,image\n"
+                // photo missing: the Aadhar number stays free
+                + "Asha Rao,9000000001,111122223333,missing.png\n"
+                + "Asha Rao,9000000001,111122223333,asha.png\n"
+                + "Ravi Kumar,9000000002,111122223333,ravi.png\n"
+                + "Meena Das,9000000003,444455556666,big.png\n";
+
+        ImportReport report = importService.importStaff(csv(csv), images);
+
+        assertEquals(1, report.getCreated());
+        assertEquals(List.of(
+                "0 Image not found in zip: missing.png",
+                "2 Aadhar number repeated in this file!",
+                "3 Image too large: big.png"), errors(report));
+        Staff asha = (Staff) persisted.get(0);
+        assertEquals(1, persisted.size());
+        assertEquals("image/png", asha.getImageType());
+        assertEquals((long) PNG.length, asha.getImageSize());
+        assertNull(asha.getImage());
+        assertArrayEquals(PNG, binaryStore.get(asha.getImageHash()).orElseThrow().getContentAsByteArray());
+        verify(thumbnailService, times(1)).enqueue(asha.getImageHash());
+    }
+
+    @Test
+    void aCorruptZipEntryFailsOnlyItsRow() throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("bad.png", PNG);
+        entries.put("good.png", PNG.clone());
+        MockMultipartFile images = zip(entries);
+        byte[] bytes = images.getBytes();
+        // bad.png is the first entry: its deflate data follows the 30-byte local header, name and extra field
+        int data = 30 + (bytes[26] & 0xFF | (bytes[27] & 0xFF) << 8) + (bytes[28] & 0xFF | (bytes[29] & 0xFF) << 8);
+        bytes[data] = (byte) 0xFF;   // reserved block type
+        images = new MockMultipartFile("images", "photos.zip", "application/zip", bytes);
+        String csv = "name,mobile,adhar,image\n"
+                + "Asha Rao,9000000001,111122223333,bad.png\n"
+                + "Ravi Kumar,9000000002,444455556666,good.png\n";
+
+        ImportReport report = importService.importStaff(csv(csv), images);
+
+        assertEquals(2, report.getTotal());
+        assertEquals(1, report.getCreated());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(errors(report).get(0).startsWith("0 Image could not be read: bad.png"), errors(report).get(0));
+        assertEquals("9000000002", ((Staff) persisted.get(0)).getMobile());
+        verify(thumbnailService, times(1)).enqueue(any());
+    }
+
+    private static List<String> errors(ImportReport report) {
+        return report.getErrors().stream().map(e -> e.getIndex() + " " + e.getMessage()).toList();
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "rows.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile zip(Map<String, byte[]> entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return new MockMultipartFile("images", "photos.zip", "application/zip", bytes.toByteArray());
+    }
+}
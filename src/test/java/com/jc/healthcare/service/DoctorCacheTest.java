@@ -0,0 +1,123 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoctorCacheTest {
+
+    private final DoctorCache cache = new DoctorCache();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromTheCache() {
+        DoctorProfile asha = doctor(1L, "asha@example.com", "Cardiology", "ACTIVE");
+
+        assertEquals(Optional.of(asha), byId(1L, asha));
+        assertEquals(Optional.of(asha), byId(1L, asha));
+        assertEquals(List.of(asha), bySpecialization("Cardiology", asha));
+        assertEquals(List.of(asha), bySpecialization("Cardiology", asha));
+
+        assertEquals(2, loads.get());
+        assertEquals(2L, cache.getStats().get("hits"));
+        assertEquals(2L, cache.getStats().get("misses"));
+        assertThrows(UnsupportedOperationException.class, () -> bySpecialization("Cardiology", asha).clear());
+    }
+
+    @Test
+    void aWriteDropsTheKeysOfTheRowBeforeAndAfter() {
+        DoctorProfile before = doctor(1L, "asha@example.com", "Cardiology", "ACTIVE");
+        DoctorProfile after = doctor(1L, "asha@example.com", "Neurology", "ACTIVE");
+        DoctorProfile ravi = doctor(2L, "ravi@example.com", "Orthopaedics", "ACTIVE");
+        byId(1L, before);
+        bySpecialization("Cardiology", before);
+        bySpecialization("Orthopaedics", ravi);
+        assertEquals(3, loads.get());
+
+        cache.invalidateAfterCommit(before, after);
+
+        assertEquals(Optional.of(after), byId(1L, after));
+        assertEquals(List.of(), bySpecialization("Cardiology"));
+        assertEquals(5, loads.get());
+        // untouched keys stay cached
+        assertEquals(List.of(ravi), bySpecialization("Orthopaedics", ravi));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void whatWasReadDuringTheTransactionIsDroppedOnceItCompletes() {
+        DoctorProfile before = doctor(1L, "asha@example.com", "Cardiology", "ACTIVE");
+        DoctorProfile after = doctor(1L, "asha@example.com", "Cardiology", "ON_LEAVE");
+        byId(1L, before);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidateAfterCommit(before, after);
+        // another request reads the old committed row while the write is still open
+        assertEquals(Optional.of(before), byId(1L, before));
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(Optional.of(after), byId(1L, after));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void aLoadThatRacesWithAWriteIsReturnedButNotCached() {
+        DoctorProfile before = doctor(1L, "asha@example.com", "Cardiology", "ACTIVE");
+        DoctorProfile after = doctor(1L, "asha@example.com", "Cardiology", "INACTIVE");
+
+        Optional<DoctorProfile> raced = cache.getOne(DoctorCache.Kind.ID, 1L, () -> {
+            loads.incrementAndGet();
+            cache.invalidateAfterCommit(before, after);
+            return Optional.of(before);
+        });
+
+        assertEquals(Optional.of(before), raced);
+        assertEquals(Optional.of(after), byId(1L, after));
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<DoctorProfile> byId(Long id, DoctorProfile row) {
+        return cache.getOne(DoctorCache.Kind.ID, id, () -> {
+            loads.incrementAndGet();
+            return Optional.of(row);
+        });
+    }
+
+    private List<DoctorProfile> bySpecialization(String specialization, DoctorProfile... rows) {
+        return cache.getList(DoctorCache.Kind.SPECIALIZATION, specialization, () -> {
+            loads.incrementAndGet();
+            return List.of(rows);
+        });
+    }
+
+    private static DoctorProfile doctor(Long id, String email, String specialization, String status) {
+        return new DoctorProfile(id, "Doctor " + id, specialization, null, email, null, status, null, null, null,
+                null, null, null, null, null, null, null);
+    }
+}
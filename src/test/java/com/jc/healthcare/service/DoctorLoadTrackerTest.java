@@ -0,0 +1,197 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorLoadTrackerTest {
+
+    private final DoctorLoadTracker tracker = new DoctorLoadTracker();
+    private final AtomicLong patientIds = new AtomicLong(100);
+    // today's snapshot per doctor, as TodayQueueCache would return it
+    private final Map<Long, List<Patient>> today = new HashMap<>();
+    private final TodayQueueCache todayQueueCache = mock(TodayQueueCache.class);
+
+    @BeforeEach
+    void setUp() {
+        DoctorService doctorService = mock(DoctorService.class);
+        when(doctorService.getActiveDoctorProfiles()).thenReturn(List.of(
+                doctor(1L, "Cardiology"), doctor(2L, "Cardiology"), doctor(3L, " cardiology "), doctor(4L, "Orthopedics")));
+        when(todayQueueCache.getAll(any())).thenAnswer(inv -> today.getOrDefault((Long) inv.getArgument(0), List.of()));
+
+        ReflectionTestUtils.setField(tracker, "doctorService", doctorService);
+        ReflectionTestUtils.setField(tracker, "todayQueueCache", todayQueueCache);
+        ReflectionTestUtils.setField(tracker, "tieBreak", DoctorLoadTracker.TieBreak.LOWEST_ID);
+        ReflectionTestUtils.setField(tracker, "slack", 0);
+        ReflectionTestUtils.setField(tracker, "maxPending", 0);
+    }
+
+    @Test
+    void theLeastLoadedDoctorOfTheSpecializationIsChosen() {
+        seed(1L, 3);
+        seed(2L, 1);
+        seed(3L, 2);
+        // only pending patients count
+        today.get(3L).get(0).setDoctorStatus("Completed");
+
+        assertEquals(List.of(3, 1, 1, 0), loads());
+        try (DoctorLoadTracker.Reservation reservation = tracker.assign("CARDIOLOGY")) {
+            assertEquals(2L, reservation.getDoctorId());
+        }
+        // doctor 4 is idle but has another specialization
+        assertEquals(4L, assignAndKeep("orthopedics"));
+    }
+
+    @Test
+    void anOpenReservationCountsUntilTheAddedEventTakesOver() {
+        DoctorLoadTracker.Reservation first = tracker.assign("Cardiology");
+        assertEquals(1L, first.getDoctorId());
+        // doctor 1 is held by the open reservation
+        assertEquals(2L, assignAndKeep("Cardiology"));
+        assertEquals(List.of(1, 1, 0, 0), loads());
+
+        // registration saved: the patient replaces the reservation, no double count
+        added(patient(1L, "Pending"));
+        first.close();
+        first.close();
+        assertEquals(List.of(1, 1, 0, 0), loads());
+
+        // a registration that failed releases its doctor
+        DoctorLoadTracker.Reservation failed = tracker.assign("Cardiology");
+        assertEquals(3L, failed.getDoctorId());
+        failed.close();
+        assertEquals(List.of(1, 1, 0, 0), loads());
+    }
+
+    @Test
+    void statusChangesAndTransfersRebalance() {
+        // counters are seeded (empty) first; events for an unseeded doctor wait for its snapshot
+        assertEquals(List.of(0, 0, 0, 0), loads());
+        Patient a = added(patient(1L, "Pending"));
+        Patient b = added(patient(1L, "Pending"));
+        added(patient(2L, "Pending"));
+        assertEquals(List.of(2, 1, 0, 0), loads());
+
+        // consult finished
+        Patient done = copy(a);
+        done.setDoctorStatus("Completed");
+        tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, a, done));
+        // moved to doctor 3
+        Patient moved = copy(b);
+        moved.setDoctorId(3L);
+        tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, b, moved));
+        assertEquals(List.of(0, 1, 1, 0), loads());
+
+        // rescheduled to tomorrow: no longer today's load
+        Patient tomorrow = copy(moved);
+        tomorrow.setAppointmentAt(LocalDateTime.now().plusDays(1));
+        tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, moved, tomorrow));
+        assertEquals(List.of(0, 1, 0, 0), loads());
+
+        tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, done, null));
+        assertEquals(1L, assignAndKeep("Cardiology"));
+    }
+
+    @Test
+    void tiesWithinSlackAreSharedAndFullDoctorsAreSkipped() {
+        ReflectionTestUtils.setField(tracker, "tieBreak", DoctorLoadTracker.TieBreak.ROUND_ROBIN);
+        ReflectionTestUtils.setField(tracker, "slack", 1);
+        seed(1L, 0);
+        seed(2L, 1);
+        seed(3L, 5);
+
+        List<Long> picks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            try (DoctorLoadTracker.Reservation r = tracker.assign("Cardiology")) {
+                picks.add(r.getDoctorId());
+            }
+        }
+        assertEquals(List.of(1L, 2L, 1L, 2L), picks);
+
+        ReflectionTestUtils.setField(tracker, "maxPending", 1);
+        // doctor 2 is at the cap, so only doctor 1 is left
+        assertEquals(1L, assignAndKeep("Cardiology"));
+        assertThrows(IllegalStateException.class, () -> tracker.assign("Cardiology"));
+        assertThrows(IllegalArgumentException.class, () -> tracker.assign("Dermatology"));
+    }
+
+    @Test
+    void eventsDuringSeedingAreApplied() {
+        seed(1L, 2);
+        Patient finished = today.get(1L).get(0);
+        Patient transferred = today.get(1L).get(1);
+        // the snapshot is read before the writes below reach it
+        when(todayQueueCache.getAll(1L)).thenAnswer(inv -> {
+            List<Patient> stale = new ArrayList<>(today.get(1L));
+            Patient done = copy(finished);
+            done.setDoctorStatus("Completed");
+            tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, finished, done));
+            Patient moved = copy(transferred);
+            moved.setDoctorId(2L);
+            tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, transferred, moved));
+            added(patient(1L, "Pending"));
+            return stale;
+        });
+
+        // 2 seeded - finished - transferred + added
+        assertEquals(1, tracker.getLoad(1L));
+        // doctor 2 was never seeded: the transfer waits for its snapshot
+        assertEquals(0, tracker.getLoad(2L));
+    }
+
+    private long assignAndKeep(String specialization) {
+        return tracker.assign(specialization).getDoctorId();
+    }
+
+    private List<Integer> loads() {
+        List<Integer> loads = new ArrayList<>();
+        for (long d = 1; d <= 4; d++) loads.add(tracker.getLoad(d));
+        return loads;
+    }
+
+    private void seed(Long doctorId, int pending) {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < pending; i++) patients.add(patient(doctorId, "Pending"));
+        today.put(doctorId, patients);
+    }
+
+    private Patient added(Patient p) {
+        tracker.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, p));
+        return p;
+    }
+
+    private Patient patient(Long doctorId, String doctorStatus) {
+        Patient p = new Patient();
+        p.setPatientId(patientIds.incrementAndGet());
+        p.setDoctorId(doctorId);
+        p.setDoctorStatus(doctorStatus);
+        p.setAppointmentAt(LocalDateTime.now());
+        return p;
+    }
+
+    private static Patient copy(Patient p) {
+        Patient c = new Patient();
+        c.setPatientId(p.getPatientId());
+        c.setDoctorId(p.getDoctorId());
+        c.setDoctorStatus(p.getDoctorStatus());
+        c.setAppointmentAt(p.getAppointmentAt());
+        return c;
+    }
+
+    private static DoctorProfile doctor(Long id, String specialization) {
+        return new DoctorProfile(id, "Doctor " + id, specialization, null, null, null, "ACTIVE", null, null, null,
+                null, null, null, null, null, null, null);
+    }
+}
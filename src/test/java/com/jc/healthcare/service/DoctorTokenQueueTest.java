@@ -0,0 +1,169 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorTokenQueueTest {
+
+    private static final int DOCTORS = 3;
+    private static final int PATIENTS_PER_DOCTOR = 300;
+
+    private DoctorTokenQueue queue;
+    private TodayQueueCache todayQueueCache;
+
+    @BeforeEach
+    void setUp() {
+        todayQueueCache = mock(TodayQueueCache.class);
+        when(todayQueueCache.getAll(any())).thenReturn(List.of());
+
+        queue = new DoctorTokenQueue();
+        ReflectionTestUtils.setField(queue, "todayQueueCache", todayQueueCache);
+        ReflectionTestUtils.setField(queue, "defaultConsultMinutes", 10L);
+        ReflectionTestUtils.setField(queue, "averageWeight", 0.2);
+        ReflectionTestUtils.setField(queue, "maxConsultMinutes", 60L);
+    }
+
+    @Test
+    void concurrentRegistrationsGetUniqueContiguousTokensPerDoctor() throws Exception {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < DOCTORS * PATIENTS_PER_DOCTOR; i++) {
+            patients.add(patient(i + 1L, (long) (i % DOCTORS) + 1, "Pending"));
+        }
+        Collections.shuffle(patients, new Random(42));
+
+        Map<Long, Long> tokenByPatient = registerConcurrently(patients);
+
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            long d = doctorId;
+            List<Long> tokens = patients.stream()
+                    .filter(p -> p.getDoctorId() == d)
+                    .map(p -> tokenByPatient.get(p.getPatientId()))
+                    .sorted()
+                    .toList();
+            List<Long> expected = new ArrayList<>();
+            for (long t = 1; t <= PATIENTS_PER_DOCTOR; t++) expected.add(t);
+            assertEquals(expected, tokens, "doctor " + doctorId + " tokens must be 1.." + PATIENTS_PER_DOCTOR);
+
+            Map<String, Object> doctorQueue = queue.getDoctorQueue(doctorId, LocalDate.now());
+            assertEquals(PATIENTS_PER_DOCTOR, doctorQueue.get("waitingCount"));
+            assertEquals((long) PATIENTS_PER_DOCTOR, doctorQueue.get("issued"));
+        }
+
+        // position follows the token: token n has n - 1 patients ahead of it
+        for (Patient p : patients) {
+            Map<String, Object> position = queue.getPosition(p);
+            long token = (Long) position.get("token");
+            assertEquals(tokenByPatient.get(p.getPatientId()), token);
+            assertEquals((int) (token - 1), position.get("ahead"));
+        }
+    }
+
+    @Test
+    void sameRegistrationSeenFromManyThreadsKeepsOneToken() throws Exception {
+        Patient p = patient(7L, 1L, "Pending");
+        Map<Long, Long> tokens = registerConcurrently(Collections.nCopies(200, p));
+
+        assertEquals(1, tokens.size());
+        assertEquals(1L, tokens.get(7L));
+        assertEquals(1L, queue.getDoctorQueue(1L, LocalDate.now()).get("issued"));
+    }
+
+    @Test
+    void finishedConsultsLeaveTheQueueAndMovePeopleUp() {
+        Patient first = patient(1L, 1L, "Pending");
+        Patient second = patient(2L, 1L, "Pending");
+        Patient third = patient(3L, 1L, "Pending");
+        for (Patient p : List.of(first, second, third)) {
+            queue.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, p));
+        }
+        assertEquals(2, queue.getPosition(third).get("ahead"));
+
+        Patient completed = patient(1L, 1L, "Completed");
+        queue.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, first, completed));
+        queue.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, second, null));
+
+        Map<String, Object> position = queue.getPosition(third);
+        assertEquals(3L, position.get("token"));
+        assertEquals(0, position.get("ahead"));
+        assertEquals(1, position.get("position"));
+        assertEquals(false, queue.getPosition(completed).get("waiting"));
+        assertEquals(1, queue.getDoctorQueue(1L, LocalDate.now()).get("waitingCount"));
+    }
+
+    @Test
+    void readsNeverIssueTokens() {
+        Patient p = patient(1L, 1L, "Pending");
+        Patient tomorrow = patient(2L, 1L, "Pending");
+        tomorrow.setAppointmentAt(LocalDate.now().plusDays(1).atTime(10, 0));
+
+        Map<String, Object> position = queue.getPosition(p);
+        assertNull(position.get("token"));
+        assertEquals(false, position.get("waiting"));
+        assertNull(queue.getPosition(tomorrow).get("token"));
+        assertEquals(0L, queue.getDoctorQueue(1L, LocalDate.now()).get("issued"));
+        assertEquals(0L, queue.getDoctorQueue(1L, LocalDate.now().plusDays(1)).get("issued"));
+
+        assertEquals(1L, queue.issue(p));
+        assertEquals(1L, queue.getPosition(p).get("token"));
+    }
+
+    @Test
+    void todaysQueueIsSeededOnceFromTheSnapshot() throws Exception {
+        when(todayQueueCache.getAll(1L)).thenReturn(List.of(
+                patient(10L, 1L, "Completed"), patient(11L, 1L, "Pending"), patient(12L, 1L, "Pending")));
+
+        // many first registrations race to seed the queue
+        Map<Long, Long> tokens = registerConcurrently(Collections.nCopies(50, patient(13L, 1L, "Pending")));
+
+        assertEquals(4L, tokens.get(13L));
+        assertEquals(1L, queue.getPosition(patient(10L, 1L, "Completed")).get("token"));
+        assertEquals(2, queue.getPosition(patient(13L, 1L, "Pending")).get("ahead"));
+        assertEquals(4L, queue.getDoctorQueue(1L, LocalDate.now()).get("issued"));
+    }
+
+    private Map<Long, Long> registerConcurrently(List<Patient> patients) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, Long> tokens = new ConcurrentHashMap<>();
+        Set<String> conflicts = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Patient p : patients) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    Long token = queue.issue(p);
+                    Long earlier = tokens.putIfAbsent(p.getPatientId(), token);
+                    if (earlier != null && !earlier.equals(token)) conflicts.add("patient " + p.getPatientId());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(conflicts.isEmpty(), "patients given two tokens: " + conflicts);
+        return tokens;
+    }
+
+    private static Patient patient(Long id, Long doctorId, String doctorStatus) {
+        Patient p = new Patient();
+        p.setPatientId(id);
+        p.setDoctorId(doctorId);
+        p.setDoctorStatus(doctorStatus);
+        p.setAppointmentAt(LocalDate.now().atTime(10, 0));
+        return p;
+    }
+}
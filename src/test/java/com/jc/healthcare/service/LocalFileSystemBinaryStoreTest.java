@@ -0,0 +1,83 @@
+package com.jc.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileSystemBinaryStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void sameBytesAreStoredOnce() throws Exception {
+        LocalFileSystemBinaryStore store = new LocalFileSystemBinaryStore(root.toString());
+        byte[] photo = new byte[64 * 1024];
+        new Random(3).nextBytes(photo);
+
+        BinaryStore.Stored first = store.put(photo);
+        BinaryStore.Stored second = store.put(photo.clone());
+
+        assertEquals(first, second);
+        assertEquals(photo.length, first.size());
+        assertEquals(1, storedFiles());
+        assertEquals(0, tmpFiles());
+
+        Resource resource = store.get(first.hash()).orElseThrow();
+        assertArrayEquals(photo, resource.getContentAsByteArray());
+        assertEquals(root.resolve(first.hash().substring(0, 2)).resolve(first.hash().substring(2, 4))
+                .resolve(first.hash()), resource.getFile().toPath());
+    }
+
+    @Test
+    void unknownOrMalformedHashesAreNotFound() throws Exception {
+        LocalFileSystemBinaryStore store = new LocalFileSystemBinaryStore(root.toString());
+        store.put("report".getBytes());
+
+        assertFalse(store.contains("0".repeat(64)));
+        assertFalse(store.contains("../../etc/passwd"));
+        assertFalse(store.contains(null));
+        assertTrue(store.get("../tmp").isEmpty());
+    }
+
+    @Test
+    void concurrentUploadsOfTheSameFileLeaveOneCopy() throws Exception {
+        LocalFileSystemBinaryStore store = new LocalFileSystemBinaryStore(root.toString());
+        byte[] report = new byte[256 * 1024];
+        new Random(5).nextBytes(report);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<BinaryStore.Stored>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) results.add(pool.submit(() -> store.put(report)));
+            Set<BinaryStore.Stored> distinct = new HashSet<>();
+            for (Future<BinaryStore.Stored> f : results) distinct.add(f.get());
+            assertEquals(1, distinct.size());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, storedFiles());
+        assertEquals(0, tmpFiles());
+    }
+
+    private long storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).filter(p -> !p.startsWith(root.resolve("tmp"))).count();
+        }
+    }
+
+    private long tmpFiles() throws Exception {
+        try (Stream<Path> files = Files.list(root.resolve("tmp"))) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientSearchHit;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientArchiveServiceTest {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final PatientStatsService stats = new PatientStatsService();
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex();
+    private final PatientArchiveService archiveService = new PatientArchiveService();
+
+    // the hot table
+    private final Map<Long, Patient> rows = new TreeMap<>();
+    // DELETED events are only handed to the listeners once the chunk's transaction has returned
+    private final List<PatientChangedEvent> uncommitted = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rows.put(1L, patient(1L, "Asha Rao", "9000000001", LocalDate.now().minusYears(2)));
+        rows.put(2L, patient(2L, "Ravi Asher", "9000000002", LocalDate.now().minusYears(2)));
+        rows.put(3L, patient(3L, "Meena Ashok", "9000000003", LocalDate.now()));
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> {
+            Object result = ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(new SimpleTransactionStatus());
+            uncommitted.forEach(this::deliver);
+            uncommitted.clear();
+            return result;
+        });
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+
+        when(patientRepository.getPatientCount()).thenAnswer(inv -> (long) rows.size());
+        when(patientRepository.countByDayDoctorAndStatus(any())).thenReturn(List.of());
+        when(patientRepository.streamSearchRows()).thenAnswer(inv -> rows.values().stream()
+                .map(p -> new Object[]{p.getPatientId(), p.getName(), p.getPhone(), p.getAadhar()}));
+        // only the first two are old enough, one per chunk
+        when(patientRepository.findArchivable(anyLong(), any(), anyInt())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            return Stream.of(1L, 2L).filter(id -> id > afterId && rows.containsKey(id))
+                    .limit((int) inv.getArgument(2)).map(id -> (Number) id).toList();
+        });
+        when(patientRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Patient> found = new ArrayList<>();
+            for (Long id : (Iterable<Long>) inv.getArgument(0)) {
+                if (rows.containsKey(id)) found.add(rows.get(id));
+            }
+            return found;
+        });
+        when(patientRepository.deleteArchived(anyCollection())).thenAnswer(inv -> {
+            int deleted = 0;
+            for (Long id : (Collection<Long>) inv.getArgument(0)) {
+                if (rows.remove(id) != null) deleted++;
+            }
+            return deleted;
+        });
+
+        ReflectionTestUtils.setField(stats, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(stats, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(stats, "windowDays", 30);
+        ReflectionTestUtils.setField(searchIndex, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(searchIndex, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(searchIndex, "maxResults", 50);
+        ReflectionTestUtils.setField(searchIndex, "maxCandidates", 20000);
+        ReflectionTestUtils.setField(searchIndex, "overlayRebuildThreshold", 200000);
+
+        ApplicationEventPublisher publisher = event -> uncommitted.add((PatientChangedEvent) event);
+        ReflectionTestUtils.setField(archiveService, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(archiveService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(archiveService, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(archiveService, "ageDays", 365);
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 1);
+        ReflectionTestUtils.setField(archiveService, "pauseMs", 0L);
+    }
+
+    @Test
+    void archivedRowsLeaveTheCountAndTheSearchIndex() {
+        ReflectionTestUtils.invokeMethod(searchIndex, "rebuild");
+        assertEquals(3, stats.getTotalPatients());
+        assertEquals(List.of(1L, 2L, 3L), ids(searchIndex.search("ash", 10)));
+
+        ReflectionTestUtils.invokeMethod(archiveService, "archive");
+
+        assertEquals(2L, archiveService.getStats().get("lastRunArchived"));
+        assertEquals(2L, archiveService.getStats().get("lastRunChunks"));
+        assertEquals(1, stats.getTotalPatients());
+        assertEquals(List.of(3L), ids(searchIndex.search("ash", 10)));
+        assertEquals(List.of(), ids(searchIndex.search("9000000001", 10)));
+    }
+
+    private void deliver(PatientChangedEvent event) {
+        stats.onPatientChanged(event);
+        searchIndex.onPatientChanged(event);
+    }
+
+    private static List<Long> ids(List<PatientSearchHit> hits) {
+        return hits.stream().map(PatientSearchHit::getPatientId).sorted().toList();
+    }
+
+    private static Patient patient(Long id, String name, String phone, LocalDate day) {
+        Patient p = new Patient();
+        p.setPatientId(id);
+        p.setName(name);
+        p.setPhone(phone);
+        p.setDoctorId(7L);
+        p.setAppointmentAt(day.atTime(10, 0));
+        p.setDoctorStatus("Completed");
+        p.setLabStatus("Completed");
+        p.setMedisionStatus("Completed");
+        return p;
+    }
+}
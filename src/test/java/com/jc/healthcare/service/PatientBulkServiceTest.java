@@ -0,0 +1,89 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.BulkRowResult;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class PatientBulkServiceTest {
+
+    private PatientRepository patientRepository;
+    private PatientBulkService bulkService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        patientRepository = mock(PatientRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            ((Consumer<Object>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        EntityManager entityManager = mock(EntityManager.class);
+        AtomicLong ids = new AtomicLong(100);
+        doAnswer(inv -> {
+            ((Patient) inv.getArgument(0)).setPatientId(ids.incrementAndGet());
+            return null;
+        }).when(entityManager).persist(any(Patient.class));
+
+        bulkService = new PatientBulkService();
+        ReflectionTestUtils.setField(bulkService, "patientService", mock(PatientService.class));
+        ReflectionTestUtils.setField(bulkService, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(bulkService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(bulkService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(bulkService, "entityManager", entityManager);
+        // not warmed: every value with text goes to the IN queries
+        ReflectionTestUtils.setField(bulkService, "uniquenessGuard", new UniquenessGuard(1000, 1000));
+        ReflectionTestUtils.setField(bulkService, "chunkSize", 2);
+    }
+
+    @Test
+    void rowsWithoutAadharOrPhoneAreRegistered() {
+        List<BulkRowResult> results = bulkService.registerAll(List.of(
+                patient("Asha", null, null), patient("Ravi", "", " "), patient("Meena", null, null)).iterator());
+
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(BulkRowResult::isSuccess), results.toString());
+        verify(patientRepository, never()).findExistingAadhars(anyCollection());
+        verify(patientRepository, never()).findExistingPhones(anyCollection());
+    }
+
+    @Test
+    void duplicatesFailOnlyTheirOwnRow() {
+        when(patientRepository.findExistingAadhars(anyCollection())).thenReturn(List.of("111122223333"));
+        when(patientRepository.findExistingPhones(anyCollection())).thenReturn(List.of());
+
+        List<BulkRowResult> results = bulkService.registerAll(List.of(
+                patient("Asha", "111122223333", "9000000001"),
+                patient("Ravi", null, "9000000002"),
+                patient("Meena", "444455556666", "9000000002"),
+                patient("Kiran", null, null)).iterator());
+
+        assertEquals("Aadhar number already exists!", results.get(0).getMessage());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("Phone number repeated in this batch!", results.get(2).getMessage());
+        assertTrue(results.get(3).isSuccess());
+    }
+
+    private static Patient patient(String name, String aadhar, String phone) {
+        Patient p = new Patient();
+        p.setName(name);
+        p.setAadhar(aadhar);
+        p.setPhone(phone);
+        return p;
+    }
+}
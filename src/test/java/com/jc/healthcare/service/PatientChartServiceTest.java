@@ -0,0 +1,208 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.controller.PatientController;
+import com.jc.healthcare.dto.LabReportMeta;
+import com.jc.healthcare.dto.PatientChart;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.BedBooking;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.model.Prescription;
+import com.jc.healthcare.model.Ward;
+import com.jc.healthcare.repository.BedBookingRepository;
+import com.jc.healthcare.repository.LabReportRepository;
+import com.jc.healthcare.repository.PatientRepository;
+import com.jc.healthcare.repository.PrescriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PatientChartServiceTest {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final BedBookingRepository bedBookingRepository = mock(BedBookingRepository.class);
+    private final PrescriptionRepository prescriptionRepository = mock(PrescriptionRepository.class);
+    private final LabReportRepository labReportRepository = mock(LabReportRepository.class);
+    private final PatientChartService chartService = new PatientChartService(4, 10);
+
+    @BeforeEach
+    void setUp() {
+        when(patientRepository.findById(1L)).thenAnswer(inv -> Optional.of(patient(1L)));
+        when(patientRepository.findArchivedById(any())).thenReturn(Optional.empty());
+        when(bedBookingRepository.findByPatientIdWithWard(1L)).thenAnswer(inv -> List.of(booking(10L, 1L)));
+        when(prescriptionRepository.findByPatientIdOrderByDateIssuedDesc(1L)).thenAnswer(inv -> List.of(prescription(1L)));
+        when(labReportRepository.findMetadataByPatientId(1L)).thenAnswer(inv -> List.of(new LabReportMeta(5L, 2L, "CBC", "cbc.pdf", "application/pdf", 2048L, null)));
+
+        ReflectionTestUtils.setField(chartService, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(chartService, "bedBookingRepository", bedBookingRepository);
+        ReflectionTestUtils.setField(chartService, "prescriptionRepository", prescriptionRepository);
+        ReflectionTestUtils.setField(chartService, "labReportRepository", labReportRepository);
+        ReflectionTestUtils.setField(chartService, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(chartService, "cacheMaxEntries", 100);
+        ReflectionTestUtils.setField(chartService, "timeoutMs", 5_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chartService.shutdown();
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(patientRepository.findById(1L)).thenAnswer(inv -> {
+            release.await();
+            return Optional.of(patient(1L));
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<PatientChart>>> charts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) charts.add(callers.submit(() -> chartService.getChart(1L)));
+            // every caller has found the entry (one miss, seven waiting on it) before the query returns
+            while ((long) chartService.getStats().get("hits") + (long) chartService.getStats().get("misses") < 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            List<PatientChart> results = new ArrayList<>();
+            for (Future<Optional<PatientChart>> chart : charts) results.add(chart.get(5, TimeUnit.SECONDS).orElseThrow());
+            assertEquals("Patient 1", results.get(0).getPatient().getName());
+            assertEquals(1L, chartService.getStats().get("misses"));
+            assertEquals(7L, chartService.getStats().get("hits"));
+            verify(patientRepository, times(1)).findById(1L);
+            verify(bedBookingRepository, times(1)).findByPatientIdWithWard(1L);
+            verify(prescriptionRepository, times(1)).findByPatientIdOrderByDateIssuedDesc(1L);
+            verify(labReportRepository, times(1)).findMetadataByPatientId(1L);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void callersNeverShareTheCachedEntities() {
+        PatientChart first = chartService.getChart(1L).orElseThrow();
+        first.getPatient().setName("Changed by a caller");
+        first.getBedBookings().get(0).getWard().setWardName("Changed ward");
+        first.getPrescriptions().get(0).setNotes("Changed notes");
+        assertThrows(UnsupportedOperationException.class, () -> first.getLabReports().clear());
+
+        PatientChart second = chartService.getChart(1L).orElseThrow();
+        assertEquals("Patient 1", second.getPatient().getName());
+        assertEquals("General", second.getBedBookings().get(0).getWard().getWardName());
+        assertEquals("after meals", second.getPrescriptions().get(0).getNotes());
+        assertNotSame(first.getLabReports().get(0), second.getLabReports().get(0));
+        verify(patientRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void bedLabAndPatientWritesInvalidateTheChart() {
+        BedBookingService bedBookingService = new BedBookingService();
+        BedBookingRepository bookingRepository = mock(BedBookingRepository.class);
+        BedBooking active = booking(10L, 1L);
+        active.setStatus("Active");
+        when(bookingRepository.findById(10L)).thenReturn(Optional.of(active));
+        when(bookingRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        ReflectionTestUtils.setField(bedBookingService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(bedBookingService, "patientChartService", chartService);
+
+        LabService labService = new LabService();
+        LabReportRepository reportRepo = mock(LabReportRepository.class);
+        when(reportRepo.findPatientIdByReportId(5L)).thenReturn(Optional.of(1L));
+        ReflectionTestUtils.setField(labService, "reportRepo", reportRepo);
+        ReflectionTestUtils.setField(labService, "patientChartService", chartService);
+
+        chartService.getChart(1L);
+        chartService.getChart(1L);
+        verify(patientRepository, times(1)).findById(1L);
+
+        bedBookingService.discharge(10L);
+        chartService.getChart(1L);
+        verify(patientRepository, times(2)).findById(1L);
+
+        labService.deleteReport(5L);
+        chartService.getChart(1L);
+        verify(patientRepository, times(3)).findById(1L);
+
+        chartService.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.UPDATED, patient(1L), patient(1L)));
+        chartService.getChart(1L);
+        verify(patientRepository, times(4)).findById(1L);
+
+        assertEquals(3L, chartService.getStats().get("invalidations"));
+        assertEquals(1L, chartService.getStats().get("hits"));
+    }
+
+    @Test
+    void aMissingPatientIsNotFoundAndNotCached() {
+        when(patientRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(chartService.getChart(2L).isEmpty());
+        assertEquals(0, chartService.getStats().get("entries"));
+        assertTrue(chartService.getChart(2L).isEmpty());
+        verify(patientRepository, times(2)).findById(2L);
+        verify(patientRepository, times(2)).findArchivedById(2L);
+
+        PatientController controller = new PatientController();
+        ReflectionTestUtils.setField(controller, "patientChartService", chartService);
+        assertEquals(HttpStatus.NOT_FOUND, controller.getPatientChart(2L).getStatusCode());
+        assertEquals(0, chartService.getStats().get("entries"));
+    }
+
+    @Test
+    void aTimedOutLoadIsDroppedSoTheNextCallRetries() {
+        ReflectionTestUtils.setField(chartService, "timeoutMs", 100L);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(patientRepository.findById(1L)).thenAnswer(inv -> {
+            if (calls.incrementAndGet() == 1) release.await();
+            return Optional.of(patient(1L));
+        });
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> chartService.getChart(1L));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+        assertEquals(0, chartService.getStats().get("entries"));
+
+        assertEquals("Patient 1", chartService.getChart(1L).orElseThrow().getPatient().getName());
+        assertEquals(2, calls.get());
+        assertEquals(2L, chartService.getStats().get("misses"));
+        release.countDown();
+    }
+
+    private static Patient patient(Long id) {
+        Patient p = new Patient();
+        p.setPatientId(id);
+        p.setName("Patient " + id);
+        return p;
+    }
+
+    private static BedBooking booking(Long bookingId, Long patientId) {
+        Ward ward = new Ward();
+        ward.setWardId(3L);
+        ward.setWardName("General");
+        BedBooking b = new BedBooking();
+        b.setBookingId(bookingId);
+        b.setBedId(12L);
+        b.setWard(ward);
+        b.setPatientId(patientId);
+        return b;
+    }
+
+    private static Prescription prescription(Long patientId) {
+        Prescription p = new Prescription();
+        p.setId(9L);
+        p.setPatientId(patientId);
+        p.setNotes("after meals");
+        return p;
+    }
+}
@@ -0,0 +1,188 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.model.PatientMergeSuggestion;
+import com.jc.healthcare.repository.PatientMergeSuggestionRepository;
+import com.jc.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientDedupServiceTest {
+
+    private static final LocalDate DOB = LocalDate.of(1990, 4, 12);
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final PatientMergeSuggestionRepository suggestionRepository = mock(PatientMergeSuggestionRepository.class);
+    private final PatientDedupService dedup = new PatientDedupService();
+
+    // patientId, name, phone, aadhar, dateOfBirth, gender
+    private final List<Object[]> patients = new ArrayList<>();
+    // what patient_merge_suggestion holds
+    private final Map<Long, PatientMergeSuggestion> suggestions = new TreeMap<>();
+    private final List<Collection<Long>> pairLookups = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(patientRepository.findPatientIdRange()).thenAnswer(inv -> {
+            List<Object[]> range = new ArrayList<>();
+            range.add(new Object[]{
+                    patients.stream().mapToLong(r -> (Long) r[0]).min().orElse(0),
+                    patients.stream().mapToLong(r -> (Long) r[0]).max().orElse(0)});
+            return range;
+        });
+        when(patientRepository.findDedupRows(anyLong(), anyLong())).thenAnswer(inv -> {
+            long from = inv.getArgument(0);
+            long to = inv.getArgument(1);
+            return patients.stream().filter(r -> (Long) r[0] >= from && (Long) r[0] < to).toList();
+        });
+
+        when(suggestionRepository.findIdsByStatus("PENDING")).thenAnswer(inv -> suggestions.values().stream()
+                .filter(s -> "PENDING".equals(s.getStatus())).map(PatientMergeSuggestion::getSuggestionId).toList());
+        when(suggestionRepository.findPairsByPatientIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = new ArrayList<>((Collection<Long>) inv.getArgument(0));
+            pairLookups.add(ids);
+            return suggestions.values().stream().filter(s -> ids.contains(s.getPatientId()))
+                    .map(s -> new Object[]{s.getSuggestionId(), s.getPatientId(), s.getDuplicateId(), s.getStatus()})
+                    .toList();
+        });
+        when(suggestionRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            for (PatientMergeSuggestion s : (Iterable<PatientMergeSuggestion>) inv.getArgument(0)) {
+                s.setSuggestionId(suggestions.keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1);
+                suggestions.put(s.getSuggestionId(), s);
+            }
+            return inv.getArgument(0);
+        });
+        doAnswer(inv -> {
+            ((Iterable<Long>) inv.getArgument(0)).forEach(suggestions::remove);
+            return null;
+        }).when(suggestionRepository).deleteAllByIdInBatch(anyIterable());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        ReflectionTestUtils.setField(dedup, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(dedup, "suggestionRepository", suggestionRepository);
+        ReflectionTestUtils.setField(dedup, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(dedup, "threshold", 0.88);
+        ReflectionTestUtils.setField(dedup, "parallelism", 2);
+        ReflectionTestUtils.setField(dedup, "idRange", 4L);
+        ReflectionTestUtils.setField(dedup, "maxBlockSize", 500);
+        ReflectionTestUtils.setField(dedup, "window", 25);
+        ReflectionTestUtils.setField(dedup, "maxSuggestions", 200000);
+        ReflectionTestUtils.setField(dedup, "writeBatch", 1000);
+    }
+
+    @Test
+    void pairsAreBlockedOnSharedKeysAndScoredOnce() {
+        patient(1L, "Lakshmi Devi", "9848012345", null, DOB, "F");
+        patient(2L, "Mrs. Laxmi Devi", "+91 98480-12345", null, DOB, "Female");
+        // same phone, different person (family members share a number)
+        patient(3L, "Gopal Reddy", "09848012345", null, null, "M");
+        patient(4L, "Ramesh Kumar", null, "1234 5678 9012", null, "M");
+        patient(5L, "Kumar Ramesh", "9000000005", "123456789012", null, "M");
+        // different phonetic keys whose String.hashCode() collide
+        patient(6L, "Tapinacag Varapalab", null, null, null, null);
+        patient(7L, "Mapan Ragaj", null, null, null, null);
+        assertEquals(nameKey("Tapinacag Varapalab").hashCode(), nameKey("Mapan Ragaj").hashCode());
+        assertNotEquals(nameKey("Tapinacag Varapalab"), nameKey("Mapan Ragaj"));
+
+        Map<String, Object> run = run();
+
+        // phone block {1, 2, 3}: three pairs; Aadhar block {4, 5}: one. Pairs 1-2 and 4-5 also share
+        // a name key but are only scored under their stronger key; 6-7 share nothing but a hash.
+        assertEquals(4L, run.get("comparisons"));
+        assertEquals(2, run.get("candidates"));
+        assertEquals(List.of("1-2 PHONE,NAME,DOB", "4-5 AADHAR,NAME"), stored("PENDING"));
+    }
+
+    @Test
+    void knownPairsAreLookedUpPerBatchAndReviewedPairsNeverComeBack() {
+        patient(1L, "Lakshmi Devi", "9848012345", null, DOB, "F");
+        patient(2L, "Laxmi Devi", "9848012345", null, DOB, "F");
+        patient(4L, "Ramesh Kumar", null, "123456789012", null, "M");
+        patient(5L, "Ramesh Kumar", null, "123456789012", null, "M");
+        patient(8L, "Anil Rao", null, "222233334444", null, "M");
+        patient(9L, "Anil Rao", null, "222233334444", null, "M");
+        suggestion(100L, 1L, 2L, "PENDING");
+        suggestion(101L, 4L, 5L, "REJECTED");
+        // no longer found: dropped
+        suggestion(102L, 20L, 21L, "PENDING");
+        ReflectionTestUtils.setField(dedup, "writeBatch", 2);
+
+        Map<String, Object> run = run();
+
+        assertEquals(1, run.get("newSuggestions"));
+        assertEquals(1, run.get("droppedSuggestions"));
+        assertEquals(List.of("1-2 ", "8-9 AADHAR,NAME"), stored("PENDING"));
+        assertEquals(List.of("4-5 "), stored("REJECTED"));
+        assertEquals(2, pairLookups.size());
+        assertTrue(pairLookups.stream().allMatch(ids -> ids.size() <= 2), pairLookups.toString());
+    }
+
+    @Test
+    void newSuggestionsStopAtTheCapButKnownPendingPairsAreKept() {
+        patient(1L, "Lakshmi Devi", "9848012345", "111122223333", DOB, "F");
+        patient(2L, "Lakshmi Devi", "9848012345", "111122223333", DOB, "F");
+        patient(4L, "Ramesh Kumar", null, "123456789012", null, "M");
+        patient(5L, "Ramesh Kumar", null, "123456789012", null, "M");
+        patient(8L, "Anil Rao", null, "222233334444", null, "M");
+        patient(9L, "Anil Rao", "9000000009", "222233334444", null, "M");
+        // already pending: kept wherever it ranks, even once the cap is reached
+        suggestion(100L, 4L, 5L, "PENDING");
+        ReflectionTestUtils.setField(dedup, "maxSuggestions", 1);
+        ReflectionTestUtils.setField(dedup, "writeBatch", 1);
+
+        Map<String, Object> run = run();
+
+        assertEquals(1, run.get("newSuggestions"));
+        assertEquals(0, run.get("droppedSuggestions"));
+        assertEquals(2, stored("PENDING").size());
+        assertTrue(stored("PENDING").contains("4-5 "), stored("PENDING").toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> run() {
+        ReflectionTestUtils.invokeMethod(dedup, "dedup");
+        Map<String, Object> run = (Map<String, Object>) dedup.getStats().get("lastRun");
+        assertNull(run.get("error"), String.valueOf(run.get("error")));
+        return run;
+    }
+
+    private List<String> stored(String status) {
+        return suggestions.values().stream().filter(s -> status.equals(s.getStatus()))
+                .map(s -> s.getPatientId() + "-" + s.getDuplicateId() + " " + (s.getReason() == null ? "" : s.getReason()))
+                .sorted().toList();
+    }
+
+    private void patient(Long id, String name, String phone, String aadhar, LocalDate dob, String gender) {
+        patients.add(new Object[]{id, name, phone, aadhar, dob, gender});
+    }
+
+    private void suggestion(Long id, Long keepId, Long duplicateId, String status) {
+        PatientMergeSuggestion s = new PatientMergeSuggestion();
+        s.setSuggestionId(id);
+        s.setPatientId(keepId);
+        s.setDuplicateId(duplicateId);
+        s.setStatus(status);
+        suggestions.put(id, s);
+    }
+
+    private static String nameKey(String name) {
+        return PatientNameMatcher.phoneticKey(PatientNameMatcher.normalizeName(name));
+    }
+}
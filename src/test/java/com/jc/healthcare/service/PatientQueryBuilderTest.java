@@ -0,0 +1,90 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientQueryBuilderTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 10);
+    private static final LocalDate TO = LocalDate.of(2025, 1, 12);
+
+    // bit i set = filter i supplied
+    private static final String[] PREDICATES = {
+            "p.appointment_at >= :fromAt",
+            "p.appointment_at < :toAt",
+            "LOWER(p.doctor_status) = :doctorStatus",
+            "LOWER(p.lab_status) = :labStatus",
+            "LOWER(p.medision_status) = :medisionStatus",
+            "p.doctor_id = :doctorId"
+    };
+
+    static Stream<Integer> combinations() {
+        return IntStream.range(0, 1 << PREDICATES.length).boxed();
+    }
+
+    @ParameterizedTest(name = "combination {0}")
+    @MethodSource("combinations")
+    void emitsExactlyTheSuppliedPredicates(int mask) {
+        PatientFilter filter = new PatientFilter(
+                (mask & 1) != 0 ? FROM : null,
+                (mask & 2) != 0 ? TO : null,
+                (mask & 4) != 0 ? "Pending" : null,
+                (mask & 8) != 0 ? " Completed " : null,
+                (mask & 16) != 0 ? "PENDING" : null,
+                (mask & 32) != 0 ? 7L : null,
+                0, 100);
+
+        PatientQueryBuilder.NativeQuery query = PatientQueryBuilder.build(filter);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < PREDICATES.length; i++) {
+            if ((mask & (1 << i)) != 0) expected.add(PREDICATES[i]);
+        }
+        String where = expected.isEmpty() ? "" : " WHERE " + String.join(" AND ", expected);
+        assertEquals("SELECT p.* FROM patients p" + where
+                + " ORDER BY p.appointment_at ASC, p.patient_id ASC"
+                + " OFFSET :offset ROWS FETCH NEXT :size ROWS ONLY", query.getSql());
+
+        assertFalse(query.getSql().contains("IS NULL"));
+        // one bind per predicate, plus the two paging binds
+        assertEquals(expected.size() + 2, query.getParams().size());
+    }
+
+    @Test
+    void bindsNormalizedValues() {
+        PatientFilter filter = new PatientFilter(FROM, TO, " Pending ", "COMPLETED", "Pending", 7L, 2, 50);
+
+        Map<String, Object> params = PatientQueryBuilder.build(filter).getParams();
+
+        assertEquals(LocalDateTime.of(2025, 1, 10, 0, 0), params.get("fromAt"));
+        assertEquals(LocalDateTime.of(2025, 1, 13, 0, 0), params.get("toAt"));
+        assertEquals("pending", params.get("doctorStatus"));
+        assertEquals("completed", params.get("labStatus"));
+        assertEquals("pending", params.get("medisionStatus"));
+        assertEquals(7L, params.get("doctorId"));
+        assertEquals(100L, params.get("offset"));
+        assertEquals(50, params.get("size"));
+    }
+
+    @Test
+    void treatsAllBlankAndZeroDoctorAsNotFiltered() {
+        PatientFilter filter = new PatientFilter(null, null, "all", "  ", "ALL", 0L, 0, 10);
+
+        PatientQueryBuilder.NativeQuery query = PatientQueryBuilder.build(filter);
+
+        assertFalse(query.getSql().contains("WHERE"));
+        assertEquals(List.of("offset", "size"), List.copyOf(query.getParams().keySet()));
+    }
+}
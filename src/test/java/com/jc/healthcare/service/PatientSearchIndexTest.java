@@ -0,0 +1,217 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientSearchHit;
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PatientSearchIndexTest {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final PatientSearchIndex index = new PatientSearchIndex();
+    private final PatientService patientService = new PatientService();
+    // the patients table
+    private final Map<Long, Patient> table = new TreeMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(patientRepository.streamSearchRows()).thenAnswer(inv -> rows().stream());
+        when(patientRepository.findById(anyLong())).thenAnswer(inv -> Optional.ofNullable(table.get(inv.<Long>getArgument(0))));
+        when(patientRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        doAnswer(inv -> table.remove(inv.<Long>getArgument(0))).when(patientRepository).deleteById(anyLong());
+
+        ReflectionTestUtils.setField(index, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(index, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxResults", 50);
+        ReflectionTestUtils.setField(index, "maxCandidates", 20000);
+        ReflectionTestUtils.setField(index, "overlayRebuildThreshold", 200000);
+
+        // PatientService publishes straight to the index, as after commit
+        ApplicationEventPublisher publisher = event -> index.onPatientChanged((PatientChangedEvent) event);
+        ReflectionTestUtils.setField(patientService, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(patientService, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(patientService, "uniquenessGuard", mock(UniquenessGuard.class));
+
+        store(1L, "Ravi Kumar", "98480 11111", "1111 2222 3333");
+        store(2L, "Ravindra Rao", "9848022222", "444455556666");
+        store(3L, "Kumar Ravi", "9848100000", "777788889999");
+        store(4L, "Asha Ravikiran", "9847999999", "123412341234");
+        store(5L, "Meena Das", "0401234567", "401234567000");
+        store(6L, "Ravi Shah", "9000000006", "555566667777");
+    }
+
+    @Test
+    void namesRankExactThenFirstWordThenShorterName() {
+        rebuild();
+
+        // exact first word 35 (shorter name ahead), exact later word 30, prefix first word 25, prefix later word 20
+        assertEquals(List.of(6L, 1L, 3L, 2L, 4L), ids(index.search("ravi", 10)));
+        assertEquals(List.of(35, 35, 30, 25, 20), scores(index.search("ravi", 10)));
+        // top-K keeps the best K in order
+        assertEquals(List.of(6L, 1L, 3L), ids(index.search("Ravi", 3)));
+        // every token must match; equal scores and names fall back to the newer id
+        assertEquals(List.of(3L, 1L), ids(index.search("ravi kumar", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("kum", 10)).stream().sorted().toList());
+        assertEquals(List.of(), ids(index.search("ravis", 10)));
+    }
+
+    @Test
+    void numbersMatchByPrefixWithinTheirDigitCount() {
+        rebuild();
+
+        // 9848100000 and 9847999999 sit just outside the 98480 range
+        assertEquals(List.of(1L, 2L), ids(index.search("98480", 10)));
+        assertEquals(List.of(60, 60), scores(index.search("98480", 10)));
+        // exact number beats a prefix; separators in the stored value or the query are ignored
+        assertEquals(List.of(1L), ids(index.search("9848011111", 10)));
+        assertEquals(List.of(100), scores(index.search("98480-11111", 10)));
+        assertEquals(List.of(1L), ids(index.search("1111 2222", 10)));
+        // leading zeros count: 040 finds the landline, not the Aadhar starting 40
+        assertEquals(List.of(5L), ids(index.search("040", 10)));
+        assertEquals(List.of(5L), ids(index.search("4012", 10)));
+    }
+
+    @Test
+    void partialDigitsCombineWithNameWords() {
+        rebuild();
+
+        assertEquals(List.of(1L, 2L), ids(index.search("ravi 98480", 10)));
+        assertEquals(List.of(95, 85), scores(index.search("ravi 98480", 10)));
+        assertEquals(List.of(1L), ids(index.search("ravi 984801", 10)));
+        assertEquals(List.of(3L), ids(index.search("kumar 7777", 10)));
+        assertEquals(List.of(), ids(index.search("meena 98480", 10)));
+    }
+
+    @Test
+    void updatesAndDeletesThroughPatientServiceShowUpInResults() {
+        rebuild();
+
+        Patient renamed = copy(table.get(2L));
+        renamed.setName("Sita Devi");
+        renamed.setPhone("7000000002");
+        patientService.updatePatient(2L, renamed);
+        Patient added = patient(7L, "Ravi Teja", "9848077777", "999900001111");
+        table.put(7L, added);
+        index.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, added));
+        patientService.deletePatient(1L);
+
+        assertEquals(List.of(2L), ids(index.search("sita", 10)));
+        assertEquals(List.of(2L), ids(index.search("7000", 10)));
+        // the old name and phone stay in the base segment but no longer match the live row
+        assertEquals(List.of(), ids(index.search("ravindra", 10)));
+        assertEquals(List.of(), ids(index.search("9848022222", 10)));
+        // deleted row gone, new row ranked alongside the base
+        assertEquals(List.of(7L, 6L, 3L, 4L), ids(index.search("ravi", 10)));
+        assertEquals(List.of(7L), ids(index.search("98480", 10)));
+    }
+
+    @Test
+    void writesDuringARebuildAreReplayed() {
+        rebuild();
+        Patient renamed = copy(table.get(1L));
+        renamed.setName("Rahul Kumar");
+
+        // the scan reads the old rows; searches keep running on the old state while two writes commit
+        List<Object[]> stale = rows();
+        when(patientRepository.streamSearchRows()).thenAnswer(inv -> {
+            assertEquals(List.of(6L, 1L, 3L, 2L, 4L), ids(index.search("ravi", 10)));
+            patientService.updatePatient(1L, renamed);
+            patientService.deletePatient(4L);
+            return stale.stream();
+        });
+        rebuild();
+
+        assertEquals(2L, index.getStats().get("rebuilds"));
+        assertEquals(List.of(1L), ids(index.search("rahul", 10)));
+        assertEquals(List.of(6L, 3L, 2L), ids(index.search("ravi", 10)));
+        assertEquals(List.of(), ids(index.search("asha", 10)));
+    }
+
+    @Test
+    void theDatabaseAnswersUntilTheFirstBuild() {
+        when(patientRepository.findByNameStartingWithIgnoreCaseOrPhoneStartingWithOrAadharStartingWith(any(), any(), any(), any()))
+                .thenReturn(List.of(table.get(1L)));
+
+        assertEquals(List.of(1L), ids(index.search("ravi", 10)));
+        assertEquals(false, index.getStats().get("ready"));
+        assertEquals(1L, index.getStats().get("databaseFallbacks"));
+        assertEquals(0L, index.getStats().get("estimatedBytes"));
+    }
+
+    @Test
+    void reportsTheMemoryItHolds() {
+        rebuild();
+
+        Map<String, Object> stats = index.getStats();
+        assertEquals(true, stats.get("ready"));
+        assertEquals(6, stats.get("patients"));
+        // kumar, ravi, ravindra, rao, asha, ravikiran, meena, das, shah
+        assertEquals(9, stats.get("nameTerms"));
+        assertEquals(12L, stats.get("numberKeys"));
+        long base = (long) stats.get("estimatedBytes");
+        assertTrue(base > 0);
+        assertEquals(Math.round(base / 1024.0 / 1024.0 * 10) / 10.0, stats.get("estimatedMb"));
+
+        // each overlay posting is charged 64 bytes on top of the new document
+        Patient added = patient(7L, "Ravi Teja", "9848077777", "999900001111");
+        index.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, added));
+        assertEquals(4L, index.getStats().get("overlayPostings"));
+        assertTrue((long) index.getStats().get("estimatedBytes") >= base + 4 * 64);
+    }
+
+    private void rebuild() {
+        ReflectionTestUtils.invokeMethod(index, "rebuild");
+    }
+
+    private List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Patient p : table.values()) rows.add(new Object[]{p.getPatientId(), p.getName(), p.getPhone(), p.getAadhar()});
+        return rows;
+    }
+
+    private void store(Long id, String name, String phone, String aadhar) {
+        table.put(id, patient(id, name, phone, aadhar));
+    }
+
+    private static Patient patient(Long id, String name, String phone, String aadhar) {
+        Patient p = new Patient();
+        p.setPatientId(id);
+        p.setName(name);
+        p.setPhone(phone);
+        p.setAadhar(aadhar);
+        return p;
+    }
+
+    private static Patient copy(Patient p) {
+        return patient(p.getPatientId(), p.getName(), p.getPhone(), p.getAadhar());
+    }
+
+    private static List<Long> ids(List<PatientSearchHit> hits) {
+        return hits.stream().map(PatientSearchHit::getPatientId).toList();
+    }
+
+    private static List<Integer> scores(List<PatientSearchHit> hits) {
+        return hits.stream().map(PatientSearchHit::getScore).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PatientStatsServiceTest {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final PatientStatsService stats = new PatientStatsService();
+    private final AtomicLong ids = new AtomicLong();
+
+    // what the database holds, as seen by the next snapshot
+    private long rows;
+    // run when the reseed opens its transaction (before the snapshot) / while the GROUP BY runs
+    private Runnable beforeSnapshot = () -> { };
+    private Runnable duringQuery = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> {
+            beforeSnapshot.run();
+            return new SimpleTransactionStatus();
+        });
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+
+        when(patientRepository.getPatientCount()).thenAnswer(inv -> rows);
+        when(patientRepository.countByDayDoctorAndStatus(any())).thenAnswer(inv -> {
+            long snapshot = rows;
+            duringQuery.run();
+            List<Object[]> result = new ArrayList<>();
+            result.add(new Object[]{LocalDate.now().atStartOfDay(), 7L, "pending", "pending", "pending", snapshot});
+            return result;
+        });
+
+        ReflectionTestUtils.setField(stats, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(stats, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(stats, "windowDays", 30);
+    }
+
+    @Test
+    void writesAroundAReseedAreCountedOnce() {
+        rows = 1;
+        assertEquals(1, stats.getTotalPatients());
+
+        register();
+        assertEquals(2, stats.getTotalPatients());
+
+        // committed before the snapshot but handled once the reseed had started: already in the aggregate
+        beforeSnapshot = this::register;
+        // committed while the GROUP BY runs: not in the aggregate
+        duringQuery = this::register;
+        stats.reconcile();
+        beforeSnapshot = () -> { };
+        duringQuery = () -> { };
+
+        assertEquals(4, stats.getTotalPatients());
+        assertEquals(4L, stats.getStats(null, 7L).get("dayTotal"));
+        assertEquals(List.of(), stats.getReconciliationReport().get("lastDrift"));
+
+        // the next reconciliation agrees with the database
+        stats.reconcile();
+        assertEquals(4, stats.getTotalPatients());
+        assertEquals(List.of(), stats.getReconciliationReport().get("lastDrift"));
+    }
+
+    @Test
+    void reconciliationReportsAndCorrectsDrift() {
+        rows = 3;
+        assertEquals(3, stats.getTotalPatients());
+
+        rows = 5;   // written behind the application's back
+        stats.reconcile();
+
+        assertEquals(5, stats.getTotalPatients());
+        assertEquals(5L, stats.getStats(null, null).get("dayTotal"));
+        @SuppressWarnings("unchecked")
+        List<Object> drift = (List<Object>) stats.getReconciliationReport().get("lastDrift");
+        assertEquals(4, drift.size(), drift.toString());
+    }
+
+    // a registration that commits, then publishes its event
+    private void register() {
+        rows++;
+        Patient p = new Patient();
+        p.setPatientId(ids.incrementAndGet());
+        p.setDoctorId(7L);
+        p.setAppointmentAt(LocalDate.now().atTime(10, 0));
+        p.setDoctorStatus("Pending");
+        p.setLabStatus("Pending");
+        p.setMedisionStatus("Pending");
+        stats.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.ADDED, null, p));
+    }
+}
@@ -0,0 +1,83 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.PatientStatusEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientStatusStreamTest {
+
+    // one dispatch thread, so a stalled send would starve everyone on the old fixed pool
+    private final PatientStatusStream stream = new PatientStatusStream(1, 4, 200);
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void aStalledClientDoesNotHoldUpOthersAndIsEvicted() throws Exception {
+        ReflectionTestUtils.setField(stream, "bufferSize", 16);
+        CountDownLatch inSend = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        SseEmitter stalled = new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                inSend.countDown();
+                try {
+                    new CountDownLatch(1).await();   // a half-open connection
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new InterruptedIOException();
+                }
+            }
+        };
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        SseEmitter healthy = new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.add(builder);
+            }
+        };
+
+        stream.subscribe(stalled, null, null);
+        stream.publish(event(1L));
+        assertTrue(inSend.await(2, TimeUnit.SECONDS));
+
+        stream.subscribe(healthy, null, null);
+        stream.publish(event(2L));
+        stream.publish(event(3L));
+        assertNotNull(received.poll(2, TimeUnit.SECONDS));
+        assertNotNull(received.poll(2, TimeUnit.SECONDS));
+
+        // not yet past send-timeout-ms
+        stream.evictStalled();
+        assertEquals(2, stream.getSubscriberCount());
+
+        Thread.sleep(250);
+        stream.evictStalled();
+        assertEquals(1, stream.getSubscriberCount());
+        assertEquals(1, stream.getStalledCount());
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS), "blocked send was not woken");
+
+        stream.publish(event(4L));
+        assertNotNull(received.poll(2, TimeUnit.SECONDS));
+    }
+
+    private static PatientStatusEvent event(Long patientId) {
+        return new PatientStatusEvent(patientId, 7L, "Completed", "Pending", "Pending",
+                List.of("doctorStatus"), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,125 @@
+package com.jc.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.time.DayOfWeek.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterIndexTest {
+
+    // 2025-06-02 is a Monday
+    private static final LocalDate WEEK = LocalDate.of(2025, 6, 2);
+
+    @Test
+    void overnightShiftsRunIntoTheNextDayAndSundayWrapsToMonday() {
+        RosterIndex index = new RosterIndex(15);
+        index.putStaff(1L, "Asha", "ICU", "Nurse");
+        index.putStaff(2L, "Ravi", "General", "Nurse");
+        index.putShifts(1L, List.of(shift(10L, null, EnumSet.of(MONDAY, SUNDAY), "22:00", "06:00")));
+        index.putShifts(2L, List.of(shift(20L, "ICU", EnumSet.of(MONDAY), "08:00", "16:30")));
+
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "21:59"), "ICU", null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK, "22:00"), "icu", null)));
+        // Monday night shift, still on at Tuesday 05:59
+        RosterIndex.OnDuty tuesday = index.onDuty(at(WEEK.plusDays(1), "05:59"), null, null).get(0);
+        assertEquals(at(WEEK, "22:00"), tuesday.shiftStart());
+        assertEquals(at(WEEK.plusDays(1), "06:00"), tuesday.shiftEnd());
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK.plusDays(1), "06:00"), null, null)));
+
+        // Sunday night runs into Monday morning
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK.plusDays(7), "03:00"), "ICU", "nurse")));
+
+        // Ravi works on the ICU floor though his home department is General
+        RosterIndex.OnDuty floated = index.onDuty(at(WEEK, "16:29"), "ICU", "Nurse").get(0);
+        assertEquals(2L, floated.staffId());
+        assertEquals("ICU", floated.department());
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "16:30"), "ICU", null)));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "12:00"), "General", null)));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "12:00"), null, "Doctor")));
+    }
+
+    @Test
+    void leaveAndValidityAreJudgedOnTheDayTheShiftStarts() {
+        RosterIndex index = new RosterIndex(30);
+        index.putStaff(1L, "Asha", "ICU", "Nurse");
+        index.putShifts(1L, List.of(new RosterIndex.Shift(10L, null, EnumSet.allOf(DayOfWeek.class),
+                LocalTime.parse("20:00"), LocalTime.parse("08:00"), WEEK, WEEK.plusDays(13))));
+        index.putLeave(1L, List.of(new RosterIndex.Leave(WEEK.plusDays(2), WEEK.plusDays(3))));
+
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "07:00"), null, null)), "started the day before validFrom");
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK.plusDays(2), "07:00"), null, null)), "Tuesday night, before leave");
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK.plusDays(2), "23:00"), null, null)));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK.plusDays(4), "07:00"), null, null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK.plusDays(4), "21:00"), null, null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK.plusDays(14), "07:59"), null, null)), "last night, next morning");
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK.plusDays(14), "20:00"), null, null)));
+    }
+
+    @Test
+    void perStaffChangesReplaceOnlyThatStaffMember() {
+        RosterIndex index = new RosterIndex(15);
+        index.putStaff(1L, "Asha", "ICU", "Nurse");
+        index.putStaff(2L, "Meena", "ICU", "Nurse");
+        Set<DayOfWeek> weekdays = EnumSet.range(MONDAY, FRIDAY);
+        index.putShifts(1L, List.of(shift(10L, null, weekdays, "09:00", "17:00")));
+        // overlapping shifts of one person list them once
+        index.putShifts(2L, List.of(shift(20L, null, weekdays, "09:00", "13:00"), shift(21L, null, weekdays, "12:00", "18:00")));
+        assertEquals(List.of(1L, 2L), ids(index.onDuty(at(WEEK, "12:30"), "ICU", null)));
+
+        // department change: her shifts follow her home department
+        index.putStaff(1L, "Asha", "Cardiology", "Nurse");
+        assertEquals(List.of(2L), ids(index.onDuty(at(WEEK, "12:30"), "ICU", null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK, "12:30"), "cardiology", null)));
+
+        index.putShifts(2L, List.of(shift(22L, null, weekdays, "14:00", "22:00")));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "12:30"), "ICU", null)));
+        assertEquals(List.of(2L), ids(index.onDuty(at(WEEK, "21:00"), "ICU", null)));
+
+        index.retainStaff(Set.of(2L));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "12:30"), null, null)));
+        assertEquals(1, index.getStats().get("rosteredStaff"));
+        assertEquals(5, index.getStats().get("weeklyShifts"));
+    }
+
+    @Test
+    void replacingShiftsKeepsTheUnchangedOnesInPlace() {
+        RosterIndex index = new RosterIndex(15);
+        index.putStaff(1L, "Asha", "ICU", "Nurse");
+        RosterIndex.Shift day = shift(10L, null, EnumSet.of(MONDAY), "09:00", "17:00");
+        index.putShifts(1L, List.of(day));
+
+        // the same shift plus an evening one: the day shift is an equal slot and must survive the swap
+        index.putShifts(1L, List.of(day, shift(11L, null, EnumSet.of(MONDAY), "18:00", "22:00")));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK, "12:00"), null, null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK, "19:00"), null, null)));
+        assertEquals(2, index.getStats().get("weeklyShifts"));
+        assertEquals(1, index.getStats().get("busiestBucket"));
+
+        index.putShifts(1L, List.of(shift(11L, null, EnumSet.of(MONDAY), "18:00", "22:00")));
+        assertEquals(List.of(), ids(index.onDuty(at(WEEK, "12:00"), null, null)));
+        assertEquals(List.of(1L), ids(index.onDuty(at(WEEK, "19:00"), null, null)));
+        index.putShifts(1L, List.of());
+        assertEquals(0, index.getStats().get("busiestBucket"));
+        assertEquals(0, index.getStats().get("rosteredStaff"));
+    }
+
+    private static RosterIndex.Shift shift(Long id, String department, Set<DayOfWeek> days, String start, String end) {
+        return new RosterIndex.Shift(id, department, days, LocalTime.parse(start), LocalTime.parse(end), null, null);
+    }
+
+    private static LocalDateTime at(LocalDate day, String time) {
+        return day.atTime(LocalTime.parse(time));
+    }
+
+    private static List<Long> ids(List<RosterIndex.OnDuty> onDuty) {
+        return onDuty.stream().map(RosterIndex.OnDuty::staffId).toList();
+    }
+}
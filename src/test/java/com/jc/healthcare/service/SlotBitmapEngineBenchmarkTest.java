@@ -0,0 +1,62 @@
+package com.jc.healthcare.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Opt-in (mvn test -Pbenchmark): claim throughput at 1, 2, 4 and all cores. Every thread books
+// its own doctors, so the only shared state is the day map and the counters.
+@Tag("benchmark")
+class SlotBitmapEngineBenchmarkTest {
+
+    private static final int SLOTS = 32;
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void claimThroughputByThreadCount(TestReporter reporter) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        reporter.publishEntry("setup", SLOTS + "-slot days, " + cores + " cores");
+        for (int threads : new TreeSet<>(List.of(1, 2, 4, cores))) {
+            runClaims(threads, 2_000);   // warm-up
+            double perSecond = runClaims(threads, 20_000);
+            reporter.publishEntry(threads + " thread(s)", String.format("%,.0f claims/s", perSecond));
+        }
+    }
+
+    private double runClaims(int threads, int doctorsPerThread) throws Exception {
+        SlotBitmapEngine engine = new SlotBitmapEngine(SLOTS, (doctorId, date) -> List.of());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t * doctorsPerThread;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (long d = base; d < base + doctorsPerThread; d++) {
+                    for (int s = 0; s < SLOTS; s++) engine.tryClaim(d, DAY, s);
+                }
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) f.get();
+        long elapsed = System.nanoTime() - began;
+        pool.shutdown();
+
+        long claims = (long) threads * doctorsPerThread * SLOTS;
+        assertEquals(claims, engine.getClaims());
+        return claims / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,91 @@
+package com.jc.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotBitmapEngineTest {
+
+    private static final int SLOTS = 32;
+    private static final LocalDate DAY = LocalDate.of(2026, 1, 5);
+
+    @Test
+    void seedsFromLoaderAndListsFreeSlotsInOrder() {
+        SlotBitmapEngine engine = new SlotBitmapEngine(100, (doctorId, date) -> List.of(0, 1, 3, 64, 70));
+
+        assertTrue(engine.isTaken(1L, DAY, 3));
+        assertEquals(List.of(2, 4, 5), engine.freeSlots(1L, DAY, 0, 3));
+        assertEquals(List.of(63, 65, 66), engine.freeSlots(1L, DAY, 63, 3));
+        assertEquals(List.of(98, 99), engine.freeSlots(1L, DAY, 98, 10));
+        assertEquals(5, engine.bookedCount(1L, DAY));
+
+        assertFalse(engine.tryClaim(1L, DAY, 64));
+        assertTrue(engine.tryClaim(1L, DAY, 65));
+        assertEquals(List.of(66), engine.freeSlots(1L, DAY, 64, 1));
+
+        assertTrue(engine.release(1L, DAY, 65));
+        assertFalse(engine.release(1L, DAY, 65));
+        assertThrows(IllegalArgumentException.class, () -> engine.tryClaim(1L, DAY, 100));
+    }
+
+    @Test
+    void reseedReplacesALoadedDayWithTheLoader() {
+        List<Integer> table = new ArrayList<>(List.of(1, 2));
+        SlotBitmapEngine engine = new SlotBitmapEngine(SLOTS, (doctorId, date) -> List.copyOf(table));
+
+        // days never touched are not loaded by a reseed
+        engine.reseed(1L, DAY);
+        assertEquals(0, engine.getLoadedDays());
+
+        assertTrue(engine.tryClaim(1L, DAY, 4));
+        table.remove(Integer.valueOf(1));   // released on another node
+        table.add(9);                       // booked on another node
+        assertEquals(1, engine.reseedLoaded());
+
+        assertEquals(List.of(0, 1, 3, 4, 5), engine.freeSlots(1L, DAY, 0, 5));
+        assertTrue(engine.isTaken(1L, DAY, 9));
+        assertEquals(1L, engine.getReseeds());
+    }
+
+    @Test
+    void concurrentBookingNeverDoubleBooks() throws Exception {
+        int doctors = 20;
+        int attempts = 10_000;
+        SlotBitmapEngine engine = new SlotBitmapEngine(SLOTS, (doctorId, date) -> List.of());
+        Map<String, Integer> winners = new ConcurrentHashMap<>();
+        AtomicInteger doubleBooked = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            int patient = i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long doctorId = random.nextInt(doctors) + 1;
+                int slot = random.nextInt(SLOTS);
+                if (engine.tryClaim(doctorId, DAY, slot)
+                        && winners.putIfAbsent(doctorId + ":" + slot, patient) != null) {
+                    doubleBooked.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        assertEquals(0, doubleBooked.get());
+        assertEquals(winners.size(), engine.getClaims());
+        assertEquals(attempts, engine.getClaims() + engine.getConflicts());
+        int booked = 0;
+        for (long d = 1; d <= doctors; d++) booked += engine.bookedCount(d, DAY);
+        assertEquals(winners.size(), booked);
+    }
+}
@@ -0,0 +1,118 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.DoctorProfile;
+import com.jc.healthcare.dto.SlotBookingRequest;
+import com.jc.healthcare.exception.SlotUnavailableException;
+import com.jc.healthcare.model.DoctorSlotBooking;
+import com.jc.healthcare.repository.DoctorSlotBookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SlotBookingServiceTest {
+
+    private static final Long DOCTOR = 7L;
+
+    private final DoctorSlotBookingRepository bookingRepository = mock(DoctorSlotBookingRepository.class);
+    // 09:00-17:00 in 15-minute slots, bookable up to 30 days ahead
+    private final SlotBookingService slots = new SlotBookingService("09:00", "17:00", 15, 14, 30);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        DoctorService doctorService = mock(DoctorService.class);
+        when(doctorService.getDoctorProfile(DOCTOR)).thenReturn(Optional.of(new DoctorProfile(DOCTOR, "Doctor 7",
+                "Cardiology", null, null, null, "ACTIVE", null, null, null, null, null, null, null, null, null, null)));
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(new SimpleTransactionStatus()));
+        when(bookingRepository.findBookedSlots(any(), any())).thenReturn(List.of());
+
+        ReflectionTestUtils.setField(slots, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(slots, "doctorService", doctorService);
+        ReflectionTestUtils.setField(slots, "transactionTemplate", transactionTemplate);
+    }
+
+    @Test
+    void slotTakenOnAnotherNodeStaysTaken() {
+        // the other node's row for slot 3 (and 5) is in the table when the day is re-read
+        when(bookingRepository.findBookedSlots(any(), any())).thenReturn(List.of(), List.of(3, 5));
+        when(bookingRepository.saveAndFlush(any())).thenThrow(integrityViolation(
+                "ORA-00001: unique constraint (HEALTHCARE.UQ_DOCTOR_SLOT) violated"));
+
+        assertThrows(SlotUnavailableException.class, () -> slots.book(request(3)));
+        assertThrows(SlotUnavailableException.class, () -> slots.book(request(3)));
+        assertThrows(SlotUnavailableException.class, () -> slots.book(request(5)));
+        // the later attempts were refused in memory
+        verify(bookingRepository, times(1)).saveAndFlush(any());
+        assertEquals(1L, slots.getStats().get("reseeds"));
+    }
+
+    @Test
+    void slotReleasedOnAnotherNodeFreesOnRefresh() {
+        when(bookingRepository.findBookedSlots(any(), any())).thenReturn(List.of(3), List.of());
+        when(bookingRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThrows(SlotUnavailableException.class, () -> slots.book(request(3)));
+        slots.refreshLoadedDays();
+
+        assertEquals(3, slots.book(request(3)).getSlotIndex());
+        verify(bookingRepository, times(2)).findBookedSlots(any(), any());
+    }
+
+    @Test
+    void otherIntegrityErrorsReleaseTheSlot() {
+        when(bookingRepository.saveAndFlush(any()))
+                .thenThrow(integrityViolation("ORA-02291: integrity constraint (HEALTHCARE.FK_SLOT_PATIENT) violated - parent key not found"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertThrows(DataIntegrityViolationException.class, () -> slots.book(request(3)));
+
+        DoctorSlotBooking booking = slots.book(request(3));
+        assertEquals(3, booking.getSlotIndex());
+        assertEquals(2L, slots.getStats().get("claims"));
+    }
+
+    @Test
+    void datesPastTheHorizonAllocateNothing() {
+        LocalDate tooFar = LocalDate.now().plusDays(31);
+        SlotBookingRequest request = request(3);
+        request.setDate(tooFar);
+
+        assertThrows(IllegalArgumentException.class, () -> slots.book(request));
+        assertThrows(IllegalArgumentException.class, () -> slots.getDay(DOCTOR, tooFar));
+        assertEquals(List.of(), slots.nextFreeForDoctor(DOCTOR, LocalDate.now().plusYears(50), 5));
+        assertEquals(0, slots.getStats().get("loadedDays"));
+
+        // a search that starts near the horizon stops at it
+        assertEquals(5, slots.nextFreeForDoctor(DOCTOR, LocalDate.now().plusDays(30), 5).size());
+        assertEquals(1, slots.getStats().get("loadedDays"));
+    }
+
+    private static SlotBookingRequest request(int slot) {
+        SlotBookingRequest request = new SlotBookingRequest();
+        request.setDoctorId(DOCTOR);
+        request.setDate(LocalDate.now().plusDays(1));
+        request.setSlotIndex(slot);
+        request.setPatientId(42L);
+        return request;
+    }
+
+    private static DataIntegrityViolationException integrityViolation(String message) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException(message));
+    }
+}
@@ -0,0 +1,83 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.repository.StaffRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StaffDirectoryTest {
+
+    @Test
+    void departmentIdsIgnoreCaseAndPageInIdOrder() {
+        StaffDirectory directory = directory(rows(
+                new Object[]{5L, "Nursing"}, new Object[]{2L, "NURSING "}, new Object[]{9L, "nursing"},
+                new Object[]{3L, "Pharmacy"}, new Object[]{7L, null}));
+
+        assertEquals(Optional.empty(), directory.idsIn("Nursing", 0L, 10), "no index before the first build");
+        directory.rebuild();
+
+        assertEquals(List.of(2L, 5L, 9L), directory.idsIn("nursing", 0L, 10).orElseThrow());
+        assertEquals(List.of(2L, 5L), directory.idsIn("NURSING", 0L, 2).orElseThrow());
+        assertEquals(List.of(9L), directory.idsIn("Nursing", 5L, 2).orElseThrow());
+        assertEquals(List.of(3L), directory.idsIn("pharmacy", 0L, 10).orElseThrow());
+        assertEquals(List.of(), directory.idsIn("Radiology", 0L, 10).orElseThrow());
+    }
+
+    @Test
+    void writesMoveIdsAndChangeTheEtag() {
+        StaffDirectory directory = directory(rows(new Object[]{1L, "Nursing"}, new Object[]{2L, "Lab"}));
+        directory.rebuild();
+        String before = directory.etag("department", "NURSING");
+
+        directory.saved(1L, "Lab");
+        assertEquals(List.of(), directory.idsIn("Nursing", 0L, 10).orElseThrow());
+        assertEquals(List.of(1L, 2L), directory.idsIn("lab", 0L, 10).orElseThrow());
+        String afterMove = directory.etag("department", "NURSING");
+        assertNotEquals(before, afterMove);
+
+        directory.removed(2L);
+        assertEquals(List.of(1L), directory.idsIn("Lab", 0L, 10).orElseThrow());
+
+        directory.touched();
+        assertNotEquals(afterMove, directory.etag("department", "NURSING"));
+        assertNotEquals(directory.etag("department", "NURSING"), directory.etag("department", "LAB"));
+    }
+
+    @Test
+    void writesDuringARebuildAreNotLost() {
+        StaffRepository repository = mock(StaffRepository.class);
+        StaffDirectory directory = new StaffDirectory();
+        ReflectionTestUtils.setField(directory, "staffRepository", repository);
+        when(repository.findIdsAndDepartments()).thenAnswer(inv -> {
+            // rows changed after the table snapshot was taken
+            directory.saved(10L, "Radiology");
+            directory.removed(1L);
+            return rows(new Object[]{1L, "Radiology"}, new Object[]{2L, "Radiology"});
+        });
+
+        directory.rebuild();
+
+        assertEquals(List.of(2L, 10L), directory.idsIn("Radiology", 0L, 10).orElseThrow());
+        assertEquals(true, directory.getStats().get("ready"));
+        assertEquals(2, directory.getStats().get("staff"));
+    }
+
+    private static StaffDirectory directory(List<Object[]> rows) {
+        StaffRepository repository = mock(StaffRepository.class);
+        when(repository.findIdsAndDepartments()).thenReturn(rows);
+        StaffDirectory directory = new StaffDirectory();
+        ReflectionTestUtils.setField(directory, "staffRepository", repository);
+        return directory;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
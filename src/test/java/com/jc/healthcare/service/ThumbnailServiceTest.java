@@ -0,0 +1,129 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.dto.StoredFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFileSystemBinaryStore store;
+    private ThumbnailService thumbnails;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalFileSystemBinaryStore(root.toString());
+        thumbnails = new ThumbnailService("256, 64,128", 2, 10);
+        ReflectionTestUtils.setField(thumbnails, "binaryStore", store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnails.shutdown();
+    }
+
+    @Test
+    void servesOriginalUntilTheVariantIsReadyThenTheNearestSize() throws Exception {
+        String hash = store.put(png(2400, 1600)).hash();
+
+        // first ask: not there yet, queued
+        assertTrue(thumbnails.find(hash, 50).isEmpty());
+        awaitProcessed(1);
+
+        StoredFile small = thumbnails.find(hash, 50).orElseThrow();
+        assertEquals(hash + "-64", small.getHash());
+        assertEquals("image/jpeg", small.getContentType());
+        BufferedImage avatar = ImageIO.read(small.getContent().getInputStream());
+        assertEquals(64, avatar.getWidth());
+        assertEquals(43, avatar.getHeight());
+
+        BufferedImage medium = ImageIO.read(thumbnails.find(hash, 100).orElseThrow().getContent().getInputStream());
+        assertEquals(128, medium.getWidth());
+
+        // larger than every variant: the original
+        assertTrue(thumbnails.find(hash, 1000).isEmpty());
+        assertEquals(hash, thumbnails.etagOf(hash, 1000));
+        assertEquals(hash, thumbnails.etagOf(hash, null));
+        assertEquals(hash + "-256", thumbnails.etagOf(hash, 200));
+    }
+
+    @Test
+    void smallPhotosAreNotEnlargedAndUndecodableFilesAreLeftAlone() throws Exception {
+        String small = store.put(png(40, 20)).hash();
+        String pdf = store.put("%PDF-1.7 not an image".getBytes()).hash();
+
+        thumbnails.enqueue(small);
+        thumbnails.enqueue(pdf);
+        awaitProcessed(2);
+
+        BufferedImage copy = ImageIO.read(thumbnails.find(small, 64).orElseThrow().getContent().getInputStream());
+        assertEquals(40, copy.getWidth());
+        assertEquals(20, copy.getHeight());
+
+        assertEquals(Optional.empty(), thumbnails.find(pdf, 64));
+        assertEquals(pdf, thumbnails.etagOf(pdf, 64));
+        assertEquals(1, thumbnails.getStats().get("unsupported"));
+        assertEquals(0, thumbnails.getStats().get("pending"));
+    }
+
+    @Test
+    void aCorruptPhotoIsMarkedUnsupportedAndNeverRetried() throws Exception {
+        // a PNG cut off inside its header
+        byte[] truncated = Arrays.copyOf(png(300, 200), 20);
+        String corrupt = store.put(truncated).hash();
+
+        thumbnails.enqueue(corrupt);
+        awaitProcessed(1);
+
+        assertEquals(1, thumbnails.getStats().get("unsupported"));
+        assertEquals(0L, thumbnails.getStats().get("failed"));
+        // asking again serves the original without queueing another attempt
+        assertEquals(Optional.empty(), thumbnails.find(corrupt, 64));
+        thumbnails.enqueue(corrupt);
+        assertEquals(1L, thumbnails.getStats().get("enqueued"));
+        assertEquals(corrupt, thumbnails.etagOf(corrupt, 64));
+    }
+
+    private void awaitProcessed(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (((Number) thumbnails.getStats().get("completed")).longValue()
+                + ((Number) thumbnails.getStats().get("unsupported")).longValue() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "thumbnails not generated in time");
+            Thread.sleep(20);
+        }
+        while (((Number) thumbnails.getStats().get("pending")).intValue() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "thumbnails not generated in time");
+            Thread.sleep(20);
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, width / 2, height);
+        g.setColor(Color.ORANGE);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
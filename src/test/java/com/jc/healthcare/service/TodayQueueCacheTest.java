@@ -0,0 +1,174 @@
+package com.jc.healthcare.service;
+
+import com.jc.healthcare.event.PatientChangedEvent;
+import com.jc.healthcare.model.Patient;
+import com.jc.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TodayQueueCacheTest {
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final TodayQueueCache cache = new TodayQueueCache();
+    // the patients table, as far as today's queue is concerned
+    private final Map<Long, Patient> table = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(patientRepository.findAllTodayPatients()).thenAnswer(inv -> table.values().stream()
+                .filter(p -> p.getAppointmentAt().toLocalDate().equals(LocalDate.now())).toList());
+        ReflectionTestUtils.setField(cache, "patientRepository", patientRepository);
+    }
+
+    @Test
+    void firstReadLoadsOnceThenServesTheSnapshot() {
+        store(patient(1L, 7L, "09:00", "Pending"));
+        store(patient(2L, 7L, "08:30", "Completed"));
+        store(patient(3L, 8L, "10:00", "Pending"));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(cache.getAll(null)));
+        assertEquals(List.of(1L), ids(cache.getDoctorPending(7L)));
+        assertEquals(List.of(2L), ids(cache.getDoctorCompleted(null)));
+        assertEquals(List.of(), ids(cache.getAll(99L)));
+
+        verify(patientRepository, times(1)).findAllTodayPatients();
+        Map<String, Object> stats = cache.getStats();
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(3L, stats.get("hits"));
+        assertEquals(0.75, (double) stats.get("hitRatio"), 1e-9);
+        assertEquals(1L, stats.get("reloads"));
+        assertEquals(LocalDate.now(), stats.get("date"));
+        assertEquals(3, stats.get("patients"));
+        assertEquals(2, stats.get("doctors"));
+        assertTrue((long) stats.get("stalenessMs") >= 0);
+        assertNull(stats.get("lastChangeAt"));
+    }
+
+    @Test
+    void aChangeRebuildsOnlyTheAffectedDoctors() {
+        store(patient(1L, 7L, "09:00", "Pending"));
+        store(patient(2L, 7L, "09:30", "Pending"));
+        store(patient(3L, 8L, "10:00", "Pending"));
+        store(patient(4L, 9L, "11:00", "Pending"));
+        cache.reload();
+        List<Patient> untouched = cache.getAll(9L);
+
+        // consult finished
+        change(patient(1L, 7L, "09:00", "Completed"));
+        assertEquals(List.of(2L), ids(cache.getDoctorPending(7L)));
+        assertEquals(List.of(1L), ids(cache.getDoctorCompleted(7L)));
+        // moved to doctor 8, ahead of his 10:00
+        change(patient(2L, 8L, "08:00", "Pending"));
+        assertEquals(List.of(1L), ids(cache.getAll(7L)));
+        assertEquals(List.of(2L, 3L), ids(cache.getAll(8L)));
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(cache.getAll(null)));
+        // rescheduled to tomorrow, then deleted
+        Patient tomorrow = patient(3L, 8L, "10:00", "Pending");
+        tomorrow.setAppointmentAt(tomorrow.getAppointmentAt().plusDays(1));
+        change(tomorrow);
+        cache.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, table.remove(1L), null));
+        assertEquals(List.of(), ids(cache.getAll(7L)));
+        assertEquals(List.of(2L, 4L), ids(cache.getAll(null)));
+        assertEquals(List.of(), ids(cache.getDoctorCompleted(null)));
+
+        // doctor 9 was never touched: the same list instance is still served
+        assertSame(untouched, cache.getAll(9L));
+        assertEquals(4L, cache.getStats().get("incrementalUpdates"));
+        assertEquals(2, cache.getStats().get("doctors"));
+        assertNotNull(cache.getStats().get("lastChangeAt"));
+        verify(patientRepository, times(1)).findAllTodayPatients();
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullReload() {
+        Random random = new Random(11);
+        for (long id = 1; id <= 40; id++) store(randomPatient(random, id));
+        cache.reload();
+
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + random.nextInt(50);
+            if (random.nextInt(10) == 0 && table.containsKey(id)) {
+                cache.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.DELETED, table.remove(id), null));
+            } else {
+                change(randomPatient(random, id));
+            }
+        }
+        Map<Long, List<Long>> incremental = views();
+
+        cache.reload();
+        assertEquals(views(), incremental);
+    }
+
+    @Test
+    void writesDuringAReloadAreReplayed() {
+        store(patient(1L, 7L, "09:00", "Pending"));
+        cache.reload();
+        // the reload query reads the old row; the status change commits while it runs
+        when(patientRepository.findAllTodayPatients()).thenAnswer(inv -> {
+            List<Patient> rows = new ArrayList<>();
+            for (Patient p : table.values()) rows.add(copy(p));
+            change(patient(1L, 7L, "09:00", "Completed"));
+            return rows;
+        });
+
+        cache.reload();
+
+        assertEquals(List.of(1L), ids(cache.getDoctorCompleted(7L)));
+        assertEquals(List.of(), ids(cache.getDoctorPending(7L)));
+    }
+
+    // all three lists for everyone and per doctor, as patient ids
+    private Map<Long, List<Long>> views() {
+        Map<Long, List<Long>> views = new TreeMap<>();
+        for (long doctorId = 0; doctorId <= 5; doctorId++) {
+            Long key = doctorId == 0 ? null : doctorId;
+            views.put(doctorId * 3, ids(cache.getAll(key)));
+            views.put(doctorId * 3 + 1, ids(cache.getDoctorCompleted(key)));
+            views.put(doctorId * 3 + 2, ids(cache.getDoctorPending(key)));
+        }
+        return views;
+    }
+
+    private void store(Patient p) {
+        table.put(p.getPatientId(), p);
+    }
+
+    private void change(Patient p) {
+        Patient before = table.put(p.getPatientId(), p);
+        cache.onPatientChanged(new PatientChangedEvent(
+                before == null ? PatientChangedEvent.Type.ADDED : PatientChangedEvent.Type.UPDATED, before, p));
+    }
+
+    private static Patient randomPatient(Random random, long id) {
+        Patient p = patient(id, 1L + random.nextInt(5), String.format("%02d:%02d", 8 + random.nextInt(10), random.nextInt(4) * 15),
+                random.nextBoolean() ? "Pending" : "Completed");
+        if (random.nextInt(8) == 0) p.setAppointmentAt(p.getAppointmentAt().minusDays(1));
+        return p;
+    }
+
+    private static Patient patient(Long id, Long doctorId, String time, String doctorStatus) {
+        Patient p = new Patient();
+        p.setPatientId(id);
+        p.setDoctorId(doctorId);
+        p.setDoctorStatus(doctorStatus);
+        p.setAppointmentAt(LocalDateTime.of(LocalDate.now(), LocalTime.parse(time)));
+        return p;
+    }
+
+    private static Patient copy(Patient p) {
+        return patient(p.getPatientId(), p.getDoctorId(), p.getAppointmentAt().toLocalTime().toString(), p.getDoctorStatus());
+    }
+
+    private static List<Long> ids(List<Patient> patients) {
+        return patients.stream().map(Patient::getPatientId).toList();
+    }
+}